@@ -90,6 +90,10 @@ CREATE TABLE products (
     FOREIGN KEY (category_id) REFERENCES categories(id)
 );
 
+-- keyset paging for listing/search: ORDER BY created_at DESC, id DESC
+CREATE INDEX idx_products_active_created ON products (is_active, created_at, id);
+CREATE INDEX idx_products_category_active_created ON products (category_id, is_active, created_at, id);
+
 INSERT INTO products (shop_id,category_id,sku,name,short_description,description,selling_price,mrp,is_active)
 VALUES
 (1,2,'TSHIRT001','Women Yellow T-Shirt','Comfort fit','High-quality cotton',499,799,TRUE);
@@ -106,9 +110,33 @@ CREATE TABLE product_images (
     is_primary BOOLEAN DEFAULT FALSE,
     sort_image_order INT DEFAULT 0,
     is_deleted BOOLEAN DEFAULT FALSE,
+    -- set once the resize pipeline has handled the image, sizes or not
+    derivatives_done BOOLEAN DEFAULT FALSE,
     FOREIGN KEY (product_id) REFERENCES products(id)
 );
 
+-- fixed-width copies of an uploaded image, stored next to the original
+CREATE TABLE product_image_derivatives (
+    image_id BIGINT NOT NULL,
+    width INT NOT NULL,
+    height INT NOT NULL,
+    image_path VARCHAR(500) NOT NULL,
+    PRIMARY KEY (image_id, width),
+    FOREIGN KEY (image_id) REFERENCES product_images(id)
+);
+
+-- uploaded files stored once by content hash; ref_count is the number of
+-- live product_images rows pointing at image_path
+CREATE TABLE image_objects (
+    sha256 CHAR(64) PRIMARY KEY,
+    image_path VARCHAR(500) NOT NULL UNIQUE,
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_image_objects_unreferenced (ref_count, updated_at)
+);
+
 INSERT INTO product_images (product_id,image_path,is_primary)
 VALUES (1,'/images/tshirt1.png',TRUE);
 
@@ -185,6 +213,7 @@ CREATE TABLE carts (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     user_id BIGINT NOT NULL UNIQUE,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    reminded_at TIMESTAMP NULL,
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
@@ -200,11 +229,33 @@ CREATE TABLE cart_items (
     product_id BIGINT NOT NULL,
     quantity INT NOT NULL,
     price_at_add DECIMAL(12,2) NOT NULL,
+    UNIQUE KEY uk_cart_items_cart_product (cart_id, product_id),
     FOREIGN KEY (cart_id) REFERENCES carts(id),
     FOREIGN KEY (product_id) REFERENCES products(id)
 );
 
 
+/* ============================================================
+   ID BLOCKS (ids handed out in blocks, e.g. for cart lines
+   created in memory before they are written)
+   ============================================================ */
+CREATE TABLE id_blocks (
+    name VARCHAR(64) PRIMARY KEY,
+    next_id BIGINT NOT NULL
+);
+
+
+/* ============================================================
+   SCAN CHECKPOINTS (last id handled by a background scan, so
+   a restart resumes where it stopped)
+   ============================================================ */
+CREATE TABLE scan_checkpoints (
+    name VARCHAR(64) PRIMARY KEY,
+    last_id BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+
 /* ============================================================
    ORDERS (never delete)
    ============================================================ */
@@ -271,6 +322,35 @@ CREATE TABLE reviews (
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
+-- keyset paging of a product's reviews by recency and by rating
+CREATE INDEX idx_reviews_product_created ON reviews (product_id, is_deleted, created_at, id);
+CREATE INDEX idx_reviews_product_rating ON reviews (product_id, is_deleted, rating, id);
+
+-- per-product review aggregates, kept current by ReviewServiceImpl in the same
+-- transaction as the review write; average = rating_sum / review_count
+CREATE TABLE product_rating_summary (
+    product_id BIGINT PRIMARY KEY,
+    review_count INT NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    star_1 INT NOT NULL DEFAULT 0,
+    star_2 INT NOT NULL DEFAULT 0,
+    star_3 INT NOT NULL DEFAULT 0,
+    star_4 INT NOT NULL DEFAULT 0,
+    star_5 INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+-- backfill from the reviews already stored; ReviewServiceImpl also rebuilds
+-- the table at startup when it is empty
+INSERT INTO product_rating_summary
+    (product_id, review_count, rating_sum, star_1, star_2, star_3, star_4, star_5)
+SELECT product_id, COUNT(*), SUM(rating),
+       SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), SUM(rating = 4), SUM(rating = 5)
+FROM reviews
+WHERE is_deleted = 0 AND rating BETWEEN 1 AND 5
+GROUP BY product_id;
+
 
 /* ============================================================
    WISHLIST
@@ -295,7 +375,9 @@ CREATE TABLE recently_viewed (
     product_id BIGINT NOT NULL,
     viewed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id),
-    FOREIGN KEY (product_id) REFERENCES products(id)
+    FOREIGN KEY (product_id) REFERENCES products(id),
+    -- loading a user's ring on a cache miss, and the per-user write-behind
+    INDEX idx_recently_viewed_user (user_id, viewed_at)
 );
 
 
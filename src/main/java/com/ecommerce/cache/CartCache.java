@@ -0,0 +1,84 @@
+package com.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Carts of active users, loaded from cart_items on a miss and then
+// authoritative: CartServiceImpl changes them here and writes them back in
+// batches. A changed cart stays reachable through the dirty map until it
+// is queued for writing and through the writing map until that write has
+// finished, so evicting it never loses changes, and a reload in between
+// gets the pending cart rather than rows that are not written yet.
+//
+// One cart has one owner process; with several instances, requests of a
+// user must reach the same one.
+@Component
+public class CartCache {
+
+	private final Cache<Long, CartState> cache;
+	private final ConcurrentHashMap<Long, CartState> dirty = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Long, CartState> writing = new ConcurrentHashMap<>();
+
+	public CartCache(@Value("${cache.cart.max-users:100000}") long maxUsers,
+			@Value("${cache.cart.idle-minutes:30}") long idleMinutes) {
+		this.cache = Caffeine.newBuilder().maximumSize(maxUsers).expireAfterAccess(Duration.ofMinutes(idleMinutes))
+				.build();
+	}
+
+	public CartState get(Long userId, Function<Long, CartState> loader) {
+		return cache.get(userId, id -> {
+			CartState pending = dirty.get(id);
+			if (pending == null)
+				pending = writing.get(id);
+			return pending != null ? pending : loader.apply(id);
+		});
+	}
+
+	public void markDirty(CartState cart) {
+		dirty.put(cart.getUserId(), cart);
+	}
+
+	// Takes up to max dirty carts off the map for writing. A change made
+	// after this marks the cart dirty again and goes with the next flush.
+	public List<CartState> drainDirty(int max) {
+		List<CartState> out = new ArrayList<>();
+		Iterator<Map.Entry<Long, CartState>> it = dirty.entrySet().iterator();
+		while (out.size() < max && it.hasNext()) {
+			Map.Entry<Long, CartState> e = it.next();
+			writing.put(e.getKey(), e.getValue());
+			if (dirty.remove(e.getKey(), e.getValue()))
+				out.add(e.getValue());
+			else
+				writing.remove(e.getKey(), e.getValue());
+		}
+		return out;
+	}
+
+	public void written(List<CartState> carts) {
+		for (CartState c : carts)
+			writing.remove(c.getUserId(), c);
+	}
+
+	// after a failed write
+	public void restoreDirty(List<CartState> failed) {
+		for (CartState c : failed) {
+			dirty.putIfAbsent(c.getUserId(), c);
+			writing.remove(c.getUserId(), c);
+		}
+	}
+
+	public int dirtyCount() {
+		return dirty.size();
+	}
+}
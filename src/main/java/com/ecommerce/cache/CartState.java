@@ -0,0 +1,153 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.CartItem;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// One user's cart as held by CartCache: its lines, plus what changed since
+// the last write-back, so a flush writes only the changed lines however many
+// times they were touched in between. Lines are handed out as copies; a
+// caller that checks a line and then replaces it holds the cart's monitor
+// around both steps.
+public final class CartState {
+
+	private final Long cartId;
+	private final Long userId;
+	private final List<CartItem> items;
+	// line ids added or changed since the last write-back
+	private final Set<Long> changed = new HashSet<>();
+	private final Set<Long> removed = new HashSet<>();
+	// every stored row goes, including lines hidden because their product or
+	// shop was deactivated
+	private boolean cleared;
+	private long touchedAt;
+
+	public CartState(Long cartId, Long userId, List<CartItem> items) {
+		this.cartId = cartId;
+		this.userId = userId;
+		this.items = new ArrayList<>(items);
+	}
+
+	public Long getCartId() {
+		return cartId;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public synchronized Optional<CartItem> findByProduct(Long productId) {
+		for (CartItem item : items) {
+			if (item.getProductId().equals(productId))
+				return Optional.of(copy(item));
+		}
+		return Optional.empty();
+	}
+
+	public synchronized Optional<CartItem> findById(Long itemId) {
+		int i = indexOf(itemId);
+		return i < 0 ? Optional.empty() : Optional.of(copy(items.get(i)));
+	}
+
+	// adds the line, or replaces the one with the same id
+	public synchronized void put(CartItem item, long now) {
+		CartItem line = copy(item);
+		int i = indexOf(line.getId());
+		if (i < 0)
+			items.add(line);
+		else
+			items.set(i, line);
+		changed.add(line.getId());
+		touchedAt = now;
+	}
+
+	public synchronized boolean remove(Long itemId, long now) {
+		int i = indexOf(itemId);
+		if (i < 0)
+			return false;
+		items.remove(i);
+		changed.remove(itemId);
+		removed.add(itemId);
+		touchedAt = now;
+		return true;
+	}
+
+	public synchronized int clear(long now) {
+		int n = items.size();
+		items.clear();
+		changed.clear();
+		removed.clear();
+		cleared = true;
+		touchedAt = now;
+		return n;
+	}
+
+	public synchronized List<CartItem> items() {
+		List<CartItem> out = new ArrayList<>(items.size());
+		for (CartItem item : items)
+			out.add(copy(item));
+		return out;
+	}
+
+	// Hands over everything pending and starts a new change set; null if
+	// nothing changed.
+	public synchronized Changes takeChanges() {
+		if (touchedAt == 0)
+			return null;
+		List<CartItem> upserts = new ArrayList<>(changed.size());
+		for (CartItem item : items) {
+			if (changed.contains(item.getId()))
+				upserts.add(copy(item));
+		}
+		Changes out = new Changes(cartId, cleared, List.copyOf(removed), upserts, touchedAt);
+		changed.clear();
+		removed.clear();
+		cleared = false;
+		touchedAt = 0;
+		return out;
+	}
+
+	// after a failed write; the lines are written as they are now
+	public synchronized void restore(Changes failed) {
+		if (failed == null)
+			return;
+		cleared |= failed.cleared();
+		removed.addAll(failed.removed());
+		for (CartItem item : failed.upserts()) {
+			if (indexOf(item.getId()) >= 0)
+				changed.add(item.getId());
+		}
+		touchedAt = Math.max(touchedAt, failed.touchedAt());
+	}
+
+	private int indexOf(Long itemId) {
+		for (int i = 0; i < items.size(); i++) {
+			if (items.get(i).getId().equals(itemId))
+				return i;
+		}
+		return -1;
+	}
+
+	static CartItem copy(CartItem item) {
+		CartItem c = new CartItem();
+		c.setId(item.getId());
+		c.setCartId(item.getCartId());
+		c.setProductId(item.getProductId());
+		c.setQuantity(item.getQuantity());
+		c.setPriceAtAdd(item.getPriceAtAdd());
+		c.setProductName(item.getProductName());
+		c.setCurrentPrice(item.getCurrentPrice());
+		c.setShopId(item.getShopId());
+		c.setShopName(item.getShopName());
+		c.setImagePath(item.getImagePath());
+		return c;
+	}
+
+	// touchedAt is the last change, epoch millis
+	public record Changes(Long cartId, boolean cleared, List<Long> removed, List<CartItem> upserts, long touchedAt) {
+	}
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Immutable snapshot of the active category hierarchy. Ancestor chains and
+// descendant id sets are materialized when the snapshot is built, so every
+// lookup is a single map access. A category whose parent is inactive or
+// missing is treated as a root. The returned arrays are shared with the
+// snapshot and must not be modified.
+public final class CategoryTree {
+
+	private static final long[] NONE = new long[0];
+
+	private final List<Category> all;
+	private final Map<Long, Category> byId;
+	private final Map<Long, List<Category>> children;
+	private final Map<Long, long[]> ancestors;
+	private final Map<Long, long[]> descendants;
+
+	private CategoryTree(List<Category> all, Map<Long, Category> byId, Map<Long, List<Category>> children,
+			Map<Long, long[]> ancestors, Map<Long, long[]> descendants) {
+		this.all = all;
+		this.byId = byId;
+		this.children = children;
+		this.ancestors = ancestors;
+		this.descendants = descendants;
+	}
+
+	public static CategoryTree build(List<Category> categories) {
+		Map<Long, Category> byId = new HashMap<>();
+		for (Category c : categories)
+			byId.put(c.getId(), c);
+
+		// roots are listed under the null key
+		Map<Long, List<Category>> children = new HashMap<>();
+		for (Category c : categories) {
+			Long parent = byId.containsKey(c.getParentCategoryId()) ? c.getParentCategoryId() : null;
+			children.computeIfAbsent(parent, k -> new ArrayList<>()).add(c);
+		}
+		children.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+		Map<Long, long[]> ancestors = new HashMap<>();
+		Map<Long, List<Long>> below = new HashMap<>();
+		for (Category c : categories) {
+			List<Long> chain = new ArrayList<>();
+			Set<Long> seen = new HashSet<>();
+			seen.add(c.getId());
+			Category current = byId.get(c.getParentCategoryId());
+			// the seen set stops a parent cycle in bad data
+			while (current != null && seen.add(current.getId())) {
+				chain.add(current.getId());
+				current = byId.get(current.getParentCategoryId());
+			}
+			ancestors.put(c.getId(), chain.stream().mapToLong(Long::longValue).toArray());
+
+			below.computeIfAbsent(c.getId(), k -> new ArrayList<>()).add(c.getId());
+			for (Long a : chain)
+				below.computeIfAbsent(a, k -> new ArrayList<>()).add(c.getId());
+		}
+
+		Map<Long, long[]> descendants = new HashMap<>();
+		below.forEach((id, ids) -> {
+			long[] sorted = ids.stream().mapToLong(Long::longValue).toArray();
+			Arrays.sort(sorted);
+			descendants.put(id, sorted);
+		});
+
+		return new CategoryTree(List.copyOf(categories), byId, children, ancestors, descendants);
+	}
+
+	public List<Category> all() {
+		return all;
+	}
+
+	public Optional<Category> find(Long id) {
+		return Optional.ofNullable(byId.get(id));
+	}
+
+	public boolean contains(Long id) {
+		return byId.containsKey(id);
+	}
+
+	// direct children of a category; null lists the roots
+	public List<Category> children(Long parentId) {
+		return children.getOrDefault(parentId, List.of());
+	}
+
+	// parent first, root last; empty for a root or an unknown id
+	public long[] ancestors(Long id) {
+		return ancestors.getOrDefault(id, NONE);
+	}
+
+	// the category itself and everything below it, sorted ascending; empty for
+	// an unknown id
+	public long[] descendants(Long id) {
+		return descendants.getOrDefault(id, NONE);
+	}
+
+	public int size() {
+		return all.size();
+	}
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.repository.CategoryRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Holds the current CategoryTree. Category writes are rare, so instead of
+// patching the tree every write rebuilds it from the table and swaps the
+// reference; readers never lock and always see a complete snapshot.
+@Component
+public class CategoryTreeCache {
+
+	private static final Logger log = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+	private final CategoryRepository categoryRepository;
+
+	private volatile CategoryTree tree;
+
+	public CategoryTreeCache(CategoryRepository categoryRepository) {
+		this.categoryRepository = categoryRepository;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void rebuild() {
+		CategoryTree fresh = CategoryTree.build(categoryRepository.findAllActive());
+		tree = fresh;
+		log.info("Category tree rebuilt: {} categories", fresh.size());
+	}
+
+	public CategoryTree current() {
+		CategoryTree t = tree;
+		if (t == null) {
+			rebuild();
+			t = tree;
+		}
+		return t;
+	}
+
+	// Rebuild once the surrounding transaction commits, so a rolled-back write
+	// never shows up in the tree; outside a transaction, rebuild right away.
+	public void refreshAfterCommit() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					rebuild();
+				}
+			});
+		} else {
+			rebuild();
+		}
+	}
+}
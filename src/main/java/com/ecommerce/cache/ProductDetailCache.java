@@ -0,0 +1,70 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.dto.ProductResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+// Read-through cache of assembled ProductResponse objects for
+// GET /api/products/{id}. Caffeine's W-TinyLFU policy keeps the hot hero
+// products resident while one-off lookups are refused admission; the bound
+// is in approximate bytes so long descriptions count for what they weigh.
+@Component
+public class ProductDetailCache {
+
+	private final Cache<Long, ProductResponse> cache;
+
+	public ProductDetailCache(@Value("${cache.product-detail.max-bytes:67108864}") long maxBytes) {
+		this.cache = Caffeine.newBuilder().maximumWeight(maxBytes).weigher(ProductDetailCache::weigh).recordStats()
+				.build();
+	}
+
+	// misses are not cached, so a product created later is found straight away
+	public Optional<ProductResponse> get(Long productId, Function<Long, Optional<ProductResponse>> loader) {
+		return Optional.ofNullable(cache.get(productId, id -> loader.apply(id).orElse(null)));
+	}
+
+	// hits from memory, all misses through one call of the loader; ids the
+	// loader does not return are left out
+	public Map<Long, ProductResponse> getAll(Collection<Long> productIds,
+			Function<Set<? extends Long>, Map<Long, ProductResponse>> loader) {
+		return cache.getAll(productIds, loader);
+	}
+
+	public void invalidate(Long productId) {
+		if (productId != null)
+			cache.invalidate(productId);
+	}
+
+	public Map<String, Object> stats() {
+		CacheStats s = cache.stats();
+		Map<String, Object> out = new LinkedHashMap<>();
+		out.put("entries", cache.estimatedSize());
+		out.put("hits", s.hitCount());
+		out.put("misses", s.missCount());
+		out.put("hitRate", s.hitRate());
+		out.put("evictions", s.evictionCount());
+		out.put("evictedBytes", s.evictionWeight());
+		return out;
+	}
+
+	// rough heap footprint: object headers and boxed fields plus two bytes a char
+	static int weigh(Long id, ProductResponse r) {
+		return 256 + 2 * (len(r.getSku()) + len(r.getName()) + len(r.getShortDescription())
+				+ len(r.getDescription()) + len(r.getImage()));
+	}
+
+	private static int len(String s) {
+		return s == null ? 0 : s.length();
+	}
+}
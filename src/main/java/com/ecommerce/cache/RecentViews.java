@@ -0,0 +1,74 @@
+package com.ecommerce.cache;
+
+// One user's last CAPACITY viewed products as a ring of primitive ids and
+// view times (epoch millis). Viewing a product already in the ring moves it
+// to the front instead of adding a duplicate. Rings are tiny, so the linear
+// scans are cheaper than any index; access is synchronized per ring.
+public final class RecentViews {
+
+	public static final int CAPACITY = 10;
+
+	private final long[] productIds = new long[CAPACITY];
+	private final long[] viewedAt = new long[CAPACITY];
+	// slot of the newest entry; older entries follow backwards around the ring
+	private int head = -1;
+	private int size;
+
+	// records the product as the newest entry; replaying stored rows must go
+	// oldest first so they end up in the same order
+	public synchronized void view(long productId, long at) {
+		int found = indexOf(productId);
+		if (found >= 0) {
+			// close the gap: shift the newer entries back by one, then put the
+			// product at the front
+			for (int i = found; i > 0; i--) {
+				int to = slot(i);
+				int from = slot(i - 1);
+				productIds[to] = productIds[from];
+				viewedAt[to] = viewedAt[from];
+			}
+			productIds[head] = productId;
+			viewedAt[head] = at;
+			return;
+		}
+		head = (head + 1) % CAPACITY;
+		productIds[head] = productId;
+		viewedAt[head] = at;
+		if (size < CAPACITY)
+			size++;
+	}
+
+	public synchronized boolean clear() {
+		boolean had = size > 0;
+		head = -1;
+		size = 0;
+		return had;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	// copies newest first into the arrays and returns how many were written
+	public synchronized int copyNewestFirst(long[] ids, long[] times, int limit) {
+		int n = Math.min(Math.min(limit, size), ids.length);
+		for (int i = 0; i < n; i++) {
+			ids[i] = productIds[slot(i)];
+			times[i] = viewedAt[slot(i)];
+		}
+		return n;
+	}
+
+	// i-th newest entry
+	private int slot(int i) {
+		return Math.floorMod(head - i, CAPACITY);
+	}
+
+	private int indexOf(long productId) {
+		for (int i = 0; i < size; i++) {
+			if (productIds[slot(i)] == productId)
+				return i;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Per-user RecentViews rings, loaded from recently_viewed on a miss and kept
+// while the user is active. A changed ring stays reachable through the dirty
+// map until RecentlyViewedServiceImpl takes it for writing and through the
+// writing map until that write has finished, so evicting a ring from the
+// cache never loses views that have not been persisted yet, and a reload
+// picks up the pending ring rather than the older stored rows.
+@Component
+public class RecentlyViewedCache {
+
+	private final Cache<Long, RecentViews> cache;
+	private final ConcurrentHashMap<Long, RecentViews> dirty = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Long, RecentViews> writing = new ConcurrentHashMap<>();
+
+	public RecentlyViewedCache(@Value("${cache.recently-viewed.max-users:200000}") long maxUsers,
+			@Value("${cache.recently-viewed.idle-minutes:60}") long idleMinutes) {
+		this.cache = Caffeine.newBuilder().maximumSize(maxUsers).expireAfterAccess(Duration.ofMinutes(idleMinutes))
+				.build();
+	}
+
+	public RecentViews get(Long userId, Function<Long, RecentViews> loader) {
+		return cache.get(userId, id -> {
+			RecentViews pending = dirty.get(id);
+			if (pending == null)
+				pending = writing.get(id);
+			return pending != null ? pending : loader.apply(id);
+		});
+	}
+
+	public void markDirty(Long userId, RecentViews views) {
+		dirty.put(userId, views);
+	}
+
+	// Takes up to max dirty rings off the map for writing. A view recorded
+	// after this marks the ring dirty again and is written by the next flush.
+	public Map<Long, RecentViews> drainDirty(int max) {
+		Map<Long, RecentViews> out = new LinkedHashMap<>();
+		Iterator<Map.Entry<Long, RecentViews>> it = dirty.entrySet().iterator();
+		while (out.size() < max && it.hasNext()) {
+			Map.Entry<Long, RecentViews> e = it.next();
+			writing.put(e.getKey(), e.getValue());
+			if (dirty.remove(e.getKey(), e.getValue()))
+				out.put(e.getKey(), e.getValue());
+			else
+				writing.remove(e.getKey(), e.getValue());
+		}
+		return out;
+	}
+
+	public void written(Map<Long, RecentViews> rings) {
+		rings.forEach(writing::remove);
+	}
+
+	// After a failed write. A reload in the meantime got the same ring from
+	// the writing map, so one marked dirty since is this ring too.
+	public void restoreDirty(Map<Long, RecentViews> failed) {
+		failed.forEach((userId, views) -> {
+			dirty.putIfAbsent(userId, views);
+			writing.remove(userId, views);
+		});
+	}
+
+	public int dirtyCount() {
+		return dirty.size();
+	}
+}
@@ -0,0 +1,160 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.ProductVariantGroup;
+import com.ecommerce.model.ProductVariantStock;
+import com.ecommerce.model.ProductVariantValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable snapshot of one product's variants. Groups own a contiguous run
+// of value ordinals (group g has values groupStart[g] .. groupStart[g+1]-1),
+// and stock and price offset are stored per value ordinal, matching the
+// product_variant_stock table which keys stock by (product, value). A
+// combination picks one value from every group that has values; it is
+// available as far as its scarcest value allows and costs the sum of its
+// value offsets on top of the product price.
+public final class VariantMatrix {
+
+	private final long[] groupIds;
+	private final String[] groupNames;
+	private final int[] groupStart;
+	private final long[] valueIds;
+	private final String[] valueNames;
+	private final int[] stock;
+	private final long[] offsetCents;
+
+	private VariantMatrix(long[] groupIds, String[] groupNames, int[] groupStart, long[] valueIds,
+			String[] valueNames, int[] stock, long[] offsetCents) {
+		this.groupIds = groupIds;
+		this.groupNames = groupNames;
+		this.groupStart = groupStart;
+		this.valueIds = valueIds;
+		this.valueNames = valueNames;
+		this.stock = stock;
+		this.offsetCents = offsetCents;
+	}
+
+	// Groups without values are left out, they would otherwise rule out every
+	// combination. Values without a stock row count as out of stock.
+	public static VariantMatrix build(List<ProductVariantGroup> groups, List<ProductVariantValue> values,
+			List<ProductVariantStock> stockRows) {
+		Map<Long, List<ProductVariantValue>> byGroup = new HashMap<>();
+		for (ProductVariantValue v : values)
+			byGroup.computeIfAbsent(v.getGroupId(), k -> new ArrayList<>()).add(v);
+
+		Map<Long, ProductVariantStock> byValue = new HashMap<>();
+		for (ProductVariantStock s : stockRows)
+			byValue.put(s.getVariantValueId(), s);
+
+		List<ProductVariantGroup> used = new ArrayList<>();
+		for (ProductVariantGroup g : groups) {
+			if (byGroup.containsKey(g.getId()))
+				used.add(g);
+		}
+
+		int valueCount = 0;
+		for (ProductVariantGroup g : used)
+			valueCount += byGroup.get(g.getId()).size();
+
+		long[] groupIds = new long[used.size()];
+		String[] groupNames = new String[used.size()];
+		int[] groupStart = new int[used.size() + 1];
+		long[] valueIds = new long[valueCount];
+		String[] valueNames = new String[valueCount];
+		int[] stock = new int[valueCount];
+		long[] offsetCents = new long[valueCount];
+
+		int ord = 0;
+		for (int g = 0; g < used.size(); g++) {
+			groupIds[g] = used.get(g).getId();
+			groupNames[g] = used.get(g).getGroupName();
+			groupStart[g] = ord;
+			for (ProductVariantValue v : byGroup.get(groupIds[g])) {
+				ProductVariantStock s = byValue.get(v.getId());
+				valueIds[ord] = v.getId();
+				valueNames[ord] = v.getValueName();
+				stock[ord] = s == null || s.getQuantity() == null ? 0 : Math.max(0, s.getQuantity());
+				offsetCents[ord] = s == null || s.getPriceOffset() == null ? 0
+						: s.getPriceOffset().movePointRight(2).longValue();
+				ord++;
+			}
+		}
+		groupStart[used.size()] = ord;
+
+		return new VariantMatrix(groupIds, groupNames, groupStart, valueIds, valueNames, stock, offsetCents);
+	}
+
+	public int groupCount() {
+		return groupIds.length;
+	}
+
+	public String groupName(int group) {
+		return groupNames[group];
+	}
+
+	public long valueId(int ord) {
+		return valueIds[ord];
+	}
+
+	public String valueName(int ord) {
+		return valueNames[ord];
+	}
+
+	// 0 when the product has no variants
+	public long combinationCount() {
+		if (groupIds.length == 0)
+			return 0;
+		long n = 1;
+		for (int g = 0; g < groupIds.length; g++)
+			n *= groupStart[g + 1] - groupStart[g];
+		return n;
+	}
+
+	public interface CombinationVisitor {
+		// ordinals holds one value ordinal per group and is reused between calls
+		void visit(int[] ordinals, int available, BigDecimal priceOffset);
+	}
+
+	// walks every combination in group order, last group varying fastest
+	public void forEachCombination(CombinationVisitor visitor) {
+		int groups = groupIds.length;
+		if (groups == 0)
+			return;
+
+		int[] ordinals = new int[groups];
+		for (int g = 0; g < groups; g++)
+			ordinals[g] = groupStart[g];
+
+		while (true) {
+			int available = Integer.MAX_VALUE;
+			long cents = 0;
+			for (int ord : ordinals) {
+				available = Math.min(available, stock[ord]);
+				cents += offsetCents[ord];
+			}
+			visitor.visit(ordinals, available, BigDecimal.valueOf(cents, 2));
+
+			int g = groups - 1;
+			while (g >= 0 && ++ordinals[g] == groupStart[g + 1]) {
+				ordinals[g] = groupStart[g];
+				g--;
+			}
+			if (g < 0)
+				return;
+		}
+	}
+
+	// rough heap footprint for the cache weigher
+	int weight() {
+		int chars = 0;
+		for (String s : groupNames)
+			chars += s == null ? 0 : s.length();
+		for (String s : valueNames)
+			chars += s == null ? 0 : s.length();
+		return 128 + groupIds.length * 64 + valueIds.length * 72 + 2 * chars;
+	}
+}
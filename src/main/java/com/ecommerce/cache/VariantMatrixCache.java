@@ -0,0 +1,33 @@
+package com.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+// Per-product VariantMatrix snapshots, loaded on first use and dropped by
+// ProductVariantServiceImpl whenever a group, value or stock row of the
+// product changes. An invalidate that races a load waits for it and then
+// removes the result, so a stale matrix cannot outlive the write.
+@Component
+public class VariantMatrixCache {
+
+	private final Cache<Long, VariantMatrix> cache;
+
+	public VariantMatrixCache(@Value("${cache.variant-matrix.max-bytes:33554432}") long maxBytes) {
+		this.cache = Caffeine.newBuilder().maximumWeight(maxBytes)
+				.weigher((Long id, VariantMatrix m) -> m.weight()).build();
+	}
+
+	public VariantMatrix get(Long productId, Function<Long, VariantMatrix> loader) {
+		return cache.get(productId, loader);
+	}
+
+	public void invalidate(Long productId) {
+		if (productId != null)
+			cache.invalidate(productId);
+	}
+}
@@ -1,7 +1,6 @@
 package com.ecommerce.config;
 
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -42,8 +41,15 @@ public class WebConfig implements WebMvcConfigurer {
 						"/api/categories/**",
 						"/api/products/*/images",
 						"/api/products/*/images/**",
+						"/api/products/*/also-viewed",
+						"/api/products/*/bought-together",
 						"/api/reviews/avg/*",
+						"/api/reviews/summary",
+						"/api/reviews/summary/*",
 						"/api/reviews/newest/*",
+						"/api/reviews/newest/*/page",
+						"/api/reviews/rating/*/*",
+						"/api/reviews/rating/*/*/page",
 						"/api/reviews/highest/*",
 						"/api/reviews/lowest/*",
 						"/api/reviews/product/*"
@@ -58,10 +64,4 @@ public class WebConfig implements WebMvcConfigurer {
 				.allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH").allowedHeaders("*")
 				.allowCredentials(true);
 	}
-
-	@Override
-	public void addResourceHandlers(ResourceHandlerRegistry registry) {
-
-		registry.addResourceHandler("/product-images/**").addResourceLocations("file:product-images/");
-	}
 }
@@ -1,5 +1,6 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.cache.ProductDetailCache;
 import com.ecommerce.dto.CouponRequest;
 import com.ecommerce.dto.CouponResponse;
 import com.ecommerce.dto.ShopResponse;
@@ -9,15 +10,24 @@ import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.AdminLogsRepository;
 import com.ecommerce.service.AdminService;
+import com.ecommerce.service.OrderService;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.service.ReviewService;
 import com.ecommerce.service.impl.DtoMapper;
+import com.ecommerce.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -29,6 +39,21 @@ public class AdminController {
 	@Autowired
 	private AdminLogsRepository adminLogsRepository;
 
+	@Autowired
+	private ProductDetailCache productDetailCache;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	private Long checkAndGetAdmin(HttpServletRequest req) {
 		User currentUser = (User) req.getAttribute("currentUser");
 
@@ -142,4 +167,46 @@ public class AdminController {
 				.ok(adminLogsRepository.findRecent(limit).stream().map(DtoMapper::adminLogToResponse).toList());
 	}
 
-}
\ No newline at end of file
+	// Full-table exports as NDJSON, one object per line. Rows are streamed from
+	// the database to the response as they are read, so memory use does not
+	// grow with the table.
+	@GetMapping("/export/users")
+	public ResponseEntity<StreamingResponseBody> exportUsers(HttpServletRequest req) {
+		Long adminUserId = checkAndGetAdmin(req);
+		return ndjson(out -> adminService.exportUsers(adminUserId, out::write));
+	}
+
+	@GetMapping("/export/products")
+	public ResponseEntity<StreamingResponseBody> exportProducts(HttpServletRequest req) {
+		checkAndGetAdmin(req);
+		return ndjson(out -> productService.exportProducts(out::write));
+	}
+
+	@GetMapping("/export/orders")
+	public ResponseEntity<StreamingResponseBody> exportOrders(HttpServletRequest req) {
+		checkAndGetAdmin(req);
+		return ndjson(out -> orderService.exportOrders(out::write));
+	}
+
+	private ResponseEntity<StreamingResponseBody> ndjson(Consumer<NdjsonWriter> export) {
+		StreamingResponseBody body = stream -> {
+			try (NdjsonWriter out = new NdjsonWriter(objectMapper, stream)) {
+				export.accept(out);
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(NdjsonWriter.CONTENT_TYPE)).body(body);
+	}
+
+	// runs the nightly rating summary repair now
+	@PostMapping("/reviews/summary/rebuild")
+	public ResponseEntity<Map<String, Object>> rebuildRatingSummaries(HttpServletRequest req) {
+		checkAndGetAdmin(req);
+		return ResponseEntity.ok(Map.of("products", reviewService.rebuildRatingSummaries()));
+	}
+
+	@GetMapping("/cache/products")
+	public ResponseEntity<Map<String, Object>> productCacheStats(HttpServletRequest req) {
+		checkAndGetAdmin(req);
+		return ResponseEntity.ok(productDetailCache.stats());
+	}
+}
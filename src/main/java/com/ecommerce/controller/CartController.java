@@ -1,6 +1,7 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.CartBatchRequest;
 import com.ecommerce.dto.CartRequest;
 import com.ecommerce.dto.CartResponse;
 import com.ecommerce.model.CartItem;
@@ -51,6 +52,22 @@ public class CartController {
 				.body(new ApiResponse<>(true, "Item added to cart successfully", cartItem));
 	}
 
+	// several products in one request, all or none, e.g. moving a wishlist to
+	// the cart or ordering a past order again
+	@PostMapping("/items/batch")
+	public ResponseEntity<ApiResponse<CartResponse>> addItemsToCart(@RequestBody CartBatchRequest batchRequest,
+			HttpServletRequest request) {
+
+		Long userId = (Long) request.getAttribute("currentUserId");
+
+		log.info("POST /api/cart/items/batch - User: {} adding {} items", userId,
+				batchRequest.getItems() == null ? 0 : batchRequest.getItems().size());
+
+		CartResponse cartResponse = cartService.addToCart(userId, batchRequest.getItems());
+
+		return ResponseEntity.ok(new ApiResponse<>(true, "Items added to cart successfully", cartResponse));
+	}
+
 	@PutMapping("/items/{itemId}")
 	public ResponseEntity<ApiResponse<CartItem>> updateCartItemQuantity(@PathVariable Long itemId,
 			@RequestBody CartRequest cartRequest, HttpServletRequest request) {
@@ -100,6 +117,8 @@ public class CartController {
 
 		CartResponse cartResponse = cartService.validateCart(userId);
 
-		return ResponseEntity.ok(new ApiResponse<>(true, "Cart is valid for checkout", cartResponse));
+		boolean valid = cartResponse.getIssues().isEmpty();
+		return ResponseEntity.ok(new ApiResponse<>(valid,
+				valid ? "Cart is valid for checkout" : "Cart has changes to review before checkout", cartResponse));
 	}
 }
\ No newline at end of file
@@ -52,6 +52,11 @@ public class CategoryController {
 		return ResponseEntity.ok(new ApiResponse<>(true, "OK", service.listActive()));
 	}
 
+	@GetMapping("/{id}/children")
+	public ResponseEntity<ApiResponse<?>> listChildren(@PathVariable Long id) {
+		return ResponseEntity.ok(new ApiResponse<>(true, "OK", service.listChildren(id)));
+	}
+
 	@GetMapping("/{id}")
 	public ResponseEntity<ApiResponse<Category>> getById(@PathVariable Long id) {
 		Category c = service.getById(id);
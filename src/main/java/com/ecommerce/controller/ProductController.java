@@ -1,17 +1,30 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.ProductImportResponse;
 import com.ecommerce.dto.ProductRequest;
 import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.dto.RecommendationResponse;
+import com.ecommerce.dto.SearchSuggestionResponse;
+import com.ecommerce.dto.TrendingProductResponse;
+import com.ecommerce.enums.TrendingWindow;
 import com.ecommerce.enums.UserRole;
 import com.ecommerce.model.User;
+import com.ecommerce.search.ProductQuery;
+import com.ecommerce.search.ProductSort;
+import com.ecommerce.service.ProductImportService;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.service.RecommendationService;
+import com.ecommerce.trending.TrendingProducts;
+import com.ecommerce.util.NdjsonWriter;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @RestController
@@ -19,9 +32,16 @@ import java.util.Optional;
 public class ProductController {
 
 	private final ProductService productService;
+	private final ProductImportService productImportService;
+	private final RecommendationService recommendationService;
+	private final TrendingProducts trendingProducts;
 
-	public ProductController(ProductService productService) {
+	public ProductController(ProductService productService, ProductImportService productImportService,
+			RecommendationService recommendationService, TrendingProducts trendingProducts) {
 		this.productService = productService;
+		this.productImportService = productImportService;
+		this.recommendationService = recommendationService;
+		this.trendingProducts = trendingProducts;
 	}
 
 	private User getAuthenticatedUser(HttpServletRequest req) {
@@ -50,6 +70,30 @@ public class ProductController {
 		return new ResponseEntity<>(resp, HttpStatus.CREATED);
 	}
 
+	// Bulk import: the request body is a CSV file (Content-Type text/csv, header
+	// row with sku, name, selling_price and optionally short_description,
+	// description, mrp, category_id, quantity, is_active) or NDJSON with the
+	// same fields in camelCase, one product per line.
+	@PostMapping(value = "/manage/import", consumes = { "text/csv", NdjsonWriter.CONTENT_TYPE })
+	public ResponseEntity<?> importProducts(@RequestParam Long shopId, HttpServletRequest req) throws IOException {
+
+		User user = getAuthenticatedUser(req);
+
+		if (user.getRole() != UserRole.SHOPKEEPER && user.getRole() != UserRole.ADMIN) {
+			return ResponseEntity.status(403).body("Only shopkeepers or admin can import products.");
+		}
+
+		if (user.getRole() == UserRole.SHOPKEEPER && !productService.shopBelongsToUser(shopId, user.getId())) {
+			return ResponseEntity.status(403).body("You cannot add products to a shop you do not own.");
+		}
+
+		ProductImportService.Format format = req.getContentType().startsWith("text/csv")
+				? ProductImportService.Format.CSV
+				: ProductImportService.Format.NDJSON;
+		ProductImportResponse resp = productImportService.importProducts(shopId, req.getInputStream(), format);
+		return ResponseEntity.ok(resp);
+	}
+
 	@PutMapping("/manage/{id}")
 	public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody ProductRequest request,
 			HttpServletRequest req) {
@@ -73,10 +117,22 @@ public class ProductController {
 		return opt.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
 	}
 
+	// Passing "cursor" (empty for the first page) switches to keyset paging and
+	// returns {items, nextCursor}; without it the old page/size list is returned.
 	@GetMapping
-	public ResponseEntity<List<ProductResponse>> listActive(@RequestParam(required = false) Long categoryId,
-			@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
-		List<ProductResponse> list = productService.searchProducts(null, categoryId, page, size);
+	public ResponseEntity<?> listActive(@RequestParam(required = false) Long categoryId,
+			@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Double minPrice,
+			@RequestParam(required = false) Double maxPrice, @RequestParam(required = false) String sort,
+			@RequestParam(defaultValue = "false") boolean includeSubcategories) {
+
+		ProductQuery query = new ProductQuery(null, categoryId, includeSubcategories, minPrice, maxPrice,
+				ProductSort.parse(sort));
+		if (cursor != null) {
+			return ResponseEntity.ok(productService.searchProductsAfter(query, cursor, size, false));
+		}
+
+		List<ProductResponse> list = productService.searchProducts(query, page, size);
 		return ResponseEntity.ok(list);
 	}
 
@@ -109,19 +165,57 @@ public class ProductController {
 		return ResponseEntity.ok("Product marked inactive (soft-deleted)");
 	}
 
+	// sort is one of relevance (default), newest, price_asc, price_desc;
+	// includeSubcategories=true widens categoryId to its whole subtree
 	@GetMapping("/search")
-	public ResponseEntity<List<ProductResponse>> search(@RequestParam(required = false) String q,
+	public ResponseEntity<?> search(@RequestParam(required = false) String q,
 			@RequestParam(required = false) Long categoryId, @RequestParam(defaultValue = "0") int page,
-			@RequestParam(defaultValue = "20") int size) {
+			@RequestParam(defaultValue = "20") int size, @RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "false") boolean facets, @RequestParam(required = false) Double minPrice,
+			@RequestParam(required = false) Double maxPrice, @RequestParam(required = false) String sort,
+			@RequestParam(defaultValue = "false") boolean includeSubcategories) {
+
+		ProductQuery query = new ProductQuery(q, categoryId, includeSubcategories, minPrice, maxPrice,
+				ProductSort.parse(sort));
+		if (cursor != null) {
+			return ResponseEntity.ok(productService.searchProductsAfter(query, cursor, size, facets));
+		}
 
-		List<ProductResponse> list = productService.searchProducts(q, categoryId, page, size);
+		// facets=true wraps the page as {items, facets} with category/shop/price counts
+		if (facets) {
+			return ResponseEntity.ok(productService.searchProductsWithFacets(query, page, size));
+		}
+
+		List<ProductResponse> list = productService.searchProducts(query, page, size);
 		return ResponseEntity.ok(list);
 	}
 
+	// ids and scores only, served from memory; the client already has a way
+	// to fetch the product cards it shows
+	@GetMapping("/{id}/also-viewed")
+	public ResponseEntity<List<RecommendationResponse>> alsoViewed(@PathVariable Long id,
+			@RequestParam(defaultValue = "10") int limit) {
+		return ResponseEntity.ok(recommendationService.alsoViewed(id, limit));
+	}
+
+	@GetMapping("/{id}/bought-together")
+	public ResponseEntity<List<RecommendationResponse>> boughtTogether(@PathVariable Long id,
+			@RequestParam(defaultValue = "10") int limit) {
+		return ResponseEntity.ok(recommendationService.boughtTogether(id, limit));
+	}
+
+	// window is hour (default) or day; categoryId includes its subcategories
+	@GetMapping("/trending")
+	public ResponseEntity<List<TrendingProductResponse>> trending(@RequestParam(defaultValue = "hour") String window,
+			@RequestParam(required = false) Long categoryId, @RequestParam(defaultValue = "10") int limit) {
+		TrendingWindow w = TrendingWindow.valueOf(window.trim().toUpperCase(Locale.ROOT));
+		return ResponseEntity.ok(trendingProducts.top(w, categoryId, limit));
+	}
+
 	@GetMapping("/search/suggest")
-	public ResponseEntity<List<String>> searchSuggestions(@RequestParam String q) {
+	public ResponseEntity<List<SearchSuggestionResponse>> searchSuggestions(@RequestParam String q) {
 
-		List<String> suggestions = productService.searchSuggestions(q);
+		List<SearchSuggestionResponse> suggestions = productService.searchSuggestions(q);
 		return ResponseEntity.ok(suggestions);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.image.ImageDerivatives;
+import com.ecommerce.image.ImageFileServer;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UrlPathHelper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Serves uploaded product images (replaces the default static resource
+// handler). "w" asks for a width (e.g. ?w=160 for a listing thumbnail); the
+// smallest resized copy at least that wide is sent once it exists, otherwise
+// the original. See ImageFileServer for caching, ranges and zero-copy.
+@RestController
+public class ProductImageFileController {
+
+	private final ImageDerivatives derivatives;
+	private final ImageFileServer fileServer;
+
+	public ProductImageFileController(ImageDerivatives derivatives, ImageFileServer fileServer) {
+		this.derivatives = derivatives;
+		this.fileServer = fileServer;
+	}
+
+	@GetMapping("/product-images/**")
+	public void serve(@RequestParam(required = false) Integer w, HttpServletRequest req, HttpServletResponse resp)
+			throws IOException {
+
+		String imagePath = UrlPathHelper.defaultInstance.getPathWithinApplication(req);
+		Path file = derivatives.locate(imagePath, w);
+		if (file == null) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		fileServer.serve(file, imagePath, w, req, resp);
+	}
+}
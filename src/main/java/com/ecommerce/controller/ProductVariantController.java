@@ -130,4 +130,11 @@ public class ProductVariantController {
 
 		return ResponseEntity.ok(variantService.getStockByProduct(productId));
 	}
+
+	// every combination with availability and final price, for the product page
+	@GetMapping("/matrix")
+	public ResponseEntity<VariantMatrixResponse> getMatrix(@PathVariable Long productId) {
+
+		return ResponseEntity.ok(variantService.getVariantMatrix(productId));
+	}
 }
\ No newline at end of file
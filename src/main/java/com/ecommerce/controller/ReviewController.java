@@ -1,6 +1,7 @@
 package com.ecommerce.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -9,10 +10,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.ecommerce.dto.RatingSummaryResponse;
+import com.ecommerce.dto.ReviewPageResponse;
 import com.ecommerce.dto.ReviewRequest;
 import com.ecommerce.dto.ReviewResponse;
+import com.ecommerce.enums.ReviewSort;
 import com.ecommerce.enums.UserRole;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.model.User;
@@ -24,6 +29,8 @@ import jakarta.servlet.http.HttpServletRequest;
 @RequestMapping("/api/reviews")
 public class ReviewController {
 
+	private static final int MAX_SUMMARY_IDS = 100;
+
 	@Autowired
 	private ReviewService reviewService;
 
@@ -73,11 +80,46 @@ public class ReviewController {
 		return reviewService.getLowestRatedReviews(productId);
 	}
 
+	// Keyset-paged versions of the lists above: {items, nextCursor} with bodies
+	// shortened for the list view. Leave "cursor" out for the first page and
+	// pass the returned nextCursor for the next one.
+	@GetMapping("/newest/{productId}/page")
+	public ReviewPageResponse getNewestReviewPage(@PathVariable Long productId,
+			@RequestParam(defaultValue = "") String cursor, @RequestParam(defaultValue = "20") int size) {
+		return reviewService.getReviewPage(productId, ReviewSort.NEWEST, cursor, size);
+	}
+
+	@GetMapping("/rating/high/{productId}/page")
+	public ReviewPageResponse getHighestRatedReviewPage(@PathVariable Long productId,
+			@RequestParam(defaultValue = "") String cursor, @RequestParam(defaultValue = "20") int size) {
+		return reviewService.getReviewPage(productId, ReviewSort.HIGHEST, cursor, size);
+	}
+
+	@GetMapping("/rating/low/{productId}/page")
+	public ReviewPageResponse getLowestRatedReviewPage(@PathVariable Long productId,
+			@RequestParam(defaultValue = "") String cursor, @RequestParam(defaultValue = "20") int size) {
+		return reviewService.getReviewPage(productId, ReviewSort.LOWEST, cursor, size);
+	}
+
 	@GetMapping("/avg/{productId}")
 	public double getAvgRating(@PathVariable Long productId) {
 		return reviewService.getAverageRating(productId);
 	}
 
+	@GetMapping("/summary/{productId}")
+	public RatingSummaryResponse getRatingSummary(@PathVariable Long productId) {
+		return reviewService.getRatingSummary(productId);
+	}
+
+	// bulk lookup for product cards: /summary?productIds=1,2,3
+	@GetMapping("/summary")
+	public Map<Long, RatingSummaryResponse> getRatingSummaries(@RequestParam List<Long> productIds) {
+		if (productIds.size() > MAX_SUMMARY_IDS) {
+			throw new BadRequestException("At most " + MAX_SUMMARY_IDS + " product ids per request");
+		}
+		return reviewService.getRatingSummaries(productIds.stream().distinct().toList());
+	}
+
 	@DeleteMapping("/{reviewId}/user/{userId}")
 	public String deleteReview(@PathVariable Long reviewId, @PathVariable Long userId, HttpServletRequest request) {
 
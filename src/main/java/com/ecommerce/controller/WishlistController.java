@@ -2,6 +2,7 @@ package com.ecommerce.controller;
 
 import com.ecommerce.dto.WishlistRequest;
 import com.ecommerce.dto.WishlistResponse;
+import com.ecommerce.model.User;
 import com.ecommerce.service.CartService;
 import com.ecommerce.service.WishlistService;
 import com.ecommerce.util.JwtUtil;
@@ -35,9 +36,9 @@ public class WishlistController {
 
 	@PostMapping("/add")
 	public ResponseEntity<WishlistResponse> add(@RequestHeader("Authorization") String token,
-			@RequestBody WishlistRequest request) {
+			@RequestBody WishlistRequest request, @RequestAttribute("currentUser") User currentUser) {
 		validateUser(request.getUserId(), token.replace("Bearer ", ""));
-		return ResponseEntity.ok(wishlistService.addToWishlist(request.getUserId(), request.getProductId()));
+		return ResponseEntity.ok(wishlistService.addToWishlist(currentUser, request.getProductId()));
 	}
 
 	@DeleteMapping("/remove")
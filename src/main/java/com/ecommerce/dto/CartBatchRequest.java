@@ -0,0 +1,23 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class CartBatchRequest {
+
+	private List<CartRequest> items;
+
+	public CartBatchRequest() {
+	}
+
+	public CartBatchRequest(List<CartRequest> items) {
+		this.items = items;
+	}
+
+	public List<CartRequest> getItems() {
+		return items;
+	}
+
+	public void setItems(List<CartRequest> items) {
+		this.items = items;
+	}
+}
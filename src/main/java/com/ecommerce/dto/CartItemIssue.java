@@ -0,0 +1,93 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.enums.CartIssueType;
+
+import java.math.BigDecimal;
+
+public class CartItemIssue {
+
+	private Long cartItemId;
+	private Long productId;
+	private String productName;
+	private CartIssueType type;
+	private Integer quantity;
+	private Integer available;
+	private BigDecimal priceAtAdd;
+	private BigDecimal currentPrice;
+	private String message;
+
+	public CartItemIssue() {
+	}
+
+	public Long getCartItemId() {
+		return cartItemId;
+	}
+
+	public void setCartItemId(Long cartItemId) {
+		this.cartItemId = cartItemId;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public String getProductName() {
+		return productName;
+	}
+
+	public void setProductName(String productName) {
+		this.productName = productName;
+	}
+
+	public CartIssueType getType() {
+		return type;
+	}
+
+	public void setType(CartIssueType type) {
+		this.type = type;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+
+	public Integer getAvailable() {
+		return available;
+	}
+
+	public void setAvailable(Integer available) {
+		this.available = available;
+	}
+
+	public BigDecimal getPriceAtAdd() {
+		return priceAtAdd;
+	}
+
+	public void setPriceAtAdd(BigDecimal priceAtAdd) {
+		this.priceAtAdd = priceAtAdd;
+	}
+
+	public BigDecimal getCurrentPrice() {
+		return currentPrice;
+	}
+
+	public void setCurrentPrice(BigDecimal currentPrice) {
+		this.currentPrice = currentPrice;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
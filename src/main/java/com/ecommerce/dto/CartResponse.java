@@ -19,6 +19,8 @@ public class CartResponse {
 	private boolean hasInvalidItems;
 	private boolean hasPriceChanges;
 	private List<String> warnings;
+	// filled by cart validation; empty when the cart can be checked out as shown
+	private List<CartItemIssue> issues;
 
 	public CartResponse() {
 	}
@@ -103,6 +105,14 @@ public class CartResponse {
 		this.warnings = warnings;
 	}
 
+	public List<CartItemIssue> getIssues() {
+		return issues;
+	}
+
+	public void setIssues(List<CartItemIssue> issues) {
+		this.issues = issues;
+	}
+
 	@Override
 	public String toString() {
 		return "CartResponse{" + "cartId=" + cartId + ", totalItems=" + totalItems + ", subtotal=" + subtotal
@@ -0,0 +1,51 @@
+package com.ecommerce.dto;
+
+public class FacetCountResponse {
+
+	private Long id;
+	private Long parentId;
+	private String label;
+	private int count;
+
+	public FacetCountResponse() {
+	}
+
+	public FacetCountResponse(Long id, Long parentId, String label, int count) {
+		this.id = id;
+		this.parentId = parentId;
+		this.label = label;
+		this.count = count;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getParentId() {
+		return parentId;
+	}
+
+	public void setParentId(Long parentId) {
+		this.parentId = parentId;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public void setLabel(String label) {
+		this.label = label;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		this.count = count;
+	}
+}
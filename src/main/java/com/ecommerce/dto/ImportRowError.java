@@ -0,0 +1,41 @@
+package com.ecommerce.dto;
+
+public class ImportRowError {
+
+	private int row;
+	private String sku;
+	private String message;
+
+	public ImportRowError() {
+	}
+
+	public ImportRowError(int row, String sku, String message) {
+		this.row = row;
+		this.sku = sku;
+		this.message = message;
+	}
+
+	public int getRow() {
+		return row;
+	}
+
+	public void setRow(int row) {
+		this.row = row;
+	}
+
+	public String getSku() {
+		return sku;
+	}
+
+	public void setSku(String sku) {
+		this.sku = sku;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.dto;
+
+public class PriceBandResponse {
+
+	private Double min;
+	private Double max;
+	private int count;
+
+	public PriceBandResponse() {
+	}
+
+	public PriceBandResponse(Double min, Double max, int count) {
+		this.min = min;
+		this.max = max;
+		this.count = count;
+	}
+
+	public Double getMin() {
+		return min;
+	}
+
+	public void setMin(Double min) {
+		this.min = min;
+	}
+
+	public Double getMax() {
+		return max;
+	}
+
+	public void setMax(Double max) {
+		this.max = max;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		this.count = count;
+	}
+}
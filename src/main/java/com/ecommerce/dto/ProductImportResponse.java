@@ -0,0 +1,53 @@
+package com.ecommerce.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportResponse {
+
+	private int received;
+	private int imported;
+	private int failed;
+	private List<ImportRowError> errors = new ArrayList<>();
+	private boolean errorsTruncated;
+
+	public int getReceived() {
+		return received;
+	}
+
+	public void setReceived(int received) {
+		this.received = received;
+	}
+
+	public int getImported() {
+		return imported;
+	}
+
+	public void setImported(int imported) {
+		this.imported = imported;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public List<ImportRowError> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<ImportRowError> errors) {
+		this.errors = errors;
+	}
+
+	public boolean isErrorsTruncated() {
+		return errorsTruncated;
+	}
+
+	public void setErrorsTruncated(boolean errorsTruncated) {
+		this.errorsTruncated = errorsTruncated;
+	}
+}
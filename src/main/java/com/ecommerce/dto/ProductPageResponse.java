@@ -0,0 +1,42 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class ProductPageResponse {
+
+	private List<ProductResponse> items;
+	private String nextCursor;
+	private SearchFacetsResponse facets;
+
+	public ProductPageResponse() {
+	}
+
+	public ProductPageResponse(List<ProductResponse> items, String nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<ProductResponse> getItems() {
+		return items;
+	}
+
+	public void setItems(List<ProductResponse> items) {
+		this.items = items;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public SearchFacetsResponse getFacets() {
+		return facets;
+	}
+
+	public void setFacets(SearchFacetsResponse facets) {
+		this.facets = facets;
+	}
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.dto;
+
+public class RatingSummaryResponse {
+
+	private Long productId;
+	private int reviewCount;
+	private double averageRating;
+	// index 0 = 1 star ... index 4 = 5 stars
+	private int[] stars;
+
+	public RatingSummaryResponse() {
+		super();
+	}
+
+	public RatingSummaryResponse(Long productId, int reviewCount, double averageRating, int[] stars) {
+		super();
+		this.productId = productId;
+		this.reviewCount = reviewCount;
+		this.averageRating = averageRating;
+		this.stars = stars;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public int getReviewCount() {
+		return reviewCount;
+	}
+
+	public void setReviewCount(int reviewCount) {
+		this.reviewCount = reviewCount;
+	}
+
+	public double getAverageRating() {
+		return averageRating;
+	}
+
+	public void setAverageRating(double averageRating) {
+		this.averageRating = averageRating;
+	}
+
+	public int[] getStars() {
+		return stars;
+	}
+
+	public void setStars(int[] stars) {
+		this.stars = stars;
+	}
+}
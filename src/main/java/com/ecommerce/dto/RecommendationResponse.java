@@ -0,0 +1,31 @@
+package com.ecommerce.dto;
+
+public class RecommendationResponse {
+
+	private Long productId;
+	private float score;
+
+	public RecommendationResponse() {
+	}
+
+	public RecommendationResponse(Long productId, float score) {
+		this.productId = productId;
+		this.score = score;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public float getScore() {
+		return score;
+	}
+
+	public void setScore(float score) {
+		this.score = score;
+	}
+}
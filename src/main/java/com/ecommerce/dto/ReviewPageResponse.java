@@ -0,0 +1,33 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class ReviewPageResponse {
+
+	private List<ReviewResponse> items;
+	private String nextCursor;
+
+	public ReviewPageResponse() {
+	}
+
+	public ReviewPageResponse(List<ReviewResponse> items, String nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<ReviewResponse> getItems() {
+		return items;
+	}
+
+	public void setItems(List<ReviewResponse> items) {
+		this.items = items;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
@@ -9,6 +9,8 @@ public class ReviewResponse {
 	private String title;
 	private String body;
 	private String createdAt;
+	// set in paged listings when body was shortened; GET /{reviewId} has it all
+	private boolean bodyTruncated;
 
 	public ReviewResponse() {
 		super();
@@ -82,6 +84,14 @@ public class ReviewResponse {
 		this.createdAt = createdAt;
 	}
 
+	public boolean isBodyTruncated() {
+		return bodyTruncated;
+	}
+
+	public void setBodyTruncated(boolean bodyTruncated) {
+		this.bodyTruncated = bodyTruncated;
+	}
+
 	@Override
 	public String toString() {
 		return "ReviewResponse [id=" + id + ", productId=" + productId + ", userId=" + userId + ", rating=" + rating
@@ -0,0 +1,54 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class SearchFacetsResponse {
+
+	private int total;
+	private List<FacetCountResponse> categories;
+	private List<FacetCountResponse> shops;
+	private List<PriceBandResponse> priceBands;
+
+	public SearchFacetsResponse() {
+	}
+
+	public SearchFacetsResponse(int total, List<FacetCountResponse> categories, List<FacetCountResponse> shops,
+			List<PriceBandResponse> priceBands) {
+		this.total = total;
+		this.categories = categories;
+		this.shops = shops;
+		this.priceBands = priceBands;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public void setTotal(int total) {
+		this.total = total;
+	}
+
+	public List<FacetCountResponse> getCategories() {
+		return categories;
+	}
+
+	public void setCategories(List<FacetCountResponse> categories) {
+		this.categories = categories;
+	}
+
+	public List<FacetCountResponse> getShops() {
+		return shops;
+	}
+
+	public void setShops(List<FacetCountResponse> shops) {
+		this.shops = shops;
+	}
+
+	public List<PriceBandResponse> getPriceBands() {
+		return priceBands;
+	}
+
+	public void setPriceBands(List<PriceBandResponse> priceBands) {
+		this.priceBands = priceBands;
+	}
+}
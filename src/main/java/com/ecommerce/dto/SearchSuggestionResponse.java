@@ -0,0 +1,33 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public class SearchSuggestionResponse {
+
+	private String text;
+	private List<Long> productIds;
+
+	public SearchSuggestionResponse() {
+	}
+
+	public SearchSuggestionResponse(String text, List<Long> productIds) {
+		this.text = text;
+		this.productIds = productIds;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public List<Long> getProductIds() {
+		return productIds;
+	}
+
+	public void setProductIds(List<Long> productIds) {
+		this.productIds = productIds;
+	}
+}
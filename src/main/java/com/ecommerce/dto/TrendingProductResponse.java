@@ -0,0 +1,31 @@
+package com.ecommerce.dto;
+
+public class TrendingProductResponse {
+
+	private Long productId;
+	private int score;
+
+	public TrendingProductResponse() {
+	}
+
+	public TrendingProductResponse(Long productId, int score) {
+		this.productId = productId;
+		this.score = score;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public void setScore(int score) {
+		this.score = score;
+	}
+}
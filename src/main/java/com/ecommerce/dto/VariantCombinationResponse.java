@@ -0,0 +1,65 @@
+package com.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class VariantCombinationResponse {
+
+	// one value per variant group, in group order
+	private List<Long> valueIds;
+	private List<String> values;
+	private int available;
+	private boolean inStock;
+	private BigDecimal price;
+
+	public VariantCombinationResponse() {
+	}
+
+	public VariantCombinationResponse(List<Long> valueIds, List<String> values, int available, BigDecimal price) {
+		this.valueIds = valueIds;
+		this.values = values;
+		this.available = available;
+		this.inStock = available > 0;
+		this.price = price;
+	}
+
+	public List<Long> getValueIds() {
+		return valueIds;
+	}
+
+	public void setValueIds(List<Long> valueIds) {
+		this.valueIds = valueIds;
+	}
+
+	public List<String> getValues() {
+		return values;
+	}
+
+	public void setValues(List<String> values) {
+		this.values = values;
+	}
+
+	public int getAvailable() {
+		return available;
+	}
+
+	public void setAvailable(int available) {
+		this.available = available;
+	}
+
+	public boolean isInStock() {
+		return inStock;
+	}
+
+	public void setInStock(boolean inStock) {
+		this.inStock = inStock;
+	}
+
+	public BigDecimal getPrice() {
+		return price;
+	}
+
+	public void setPrice(BigDecimal price) {
+		this.price = price;
+	}
+}
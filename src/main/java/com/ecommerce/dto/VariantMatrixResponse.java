@@ -0,0 +1,55 @@
+package com.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class VariantMatrixResponse {
+
+	private Long productId;
+	private BigDecimal basePrice;
+	private List<String> groups;
+	private List<VariantCombinationResponse> combinations;
+
+	public VariantMatrixResponse() {
+	}
+
+	public VariantMatrixResponse(Long productId, BigDecimal basePrice, List<String> groups,
+			List<VariantCombinationResponse> combinations) {
+		this.productId = productId;
+		this.basePrice = basePrice;
+		this.groups = groups;
+		this.combinations = combinations;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public BigDecimal getBasePrice() {
+		return basePrice;
+	}
+
+	public void setBasePrice(BigDecimal basePrice) {
+		this.basePrice = basePrice;
+	}
+
+	public List<String> getGroups() {
+		return groups;
+	}
+
+	public void setGroups(List<String> groups) {
+		this.groups = groups;
+	}
+
+	public List<VariantCombinationResponse> getCombinations() {
+		return combinations;
+	}
+
+	public void setCombinations(List<VariantCombinationResponse> combinations) {
+		this.combinations = combinations;
+	}
+}
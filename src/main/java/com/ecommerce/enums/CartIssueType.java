@@ -0,0 +1,10 @@
+package com.ecommerce.enums;
+
+public enum CartIssueType {
+	// the product or its shop was taken off sale
+	INACTIVE,
+	// less stock available than the line asks for
+	OUT_OF_STOCK,
+	// the selling price differs from the price when the line was added
+	PRICE_CHANGED
+}
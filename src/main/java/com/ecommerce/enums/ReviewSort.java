@@ -0,0 +1,5 @@
+package com.ecommerce.enums;
+
+public enum ReviewSort {
+	NEWEST, HIGHEST, LOWEST
+}
@@ -8,6 +8,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -142,6 +143,19 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler(MaxUploadSizeExceededException.class)
+	public ResponseEntity<Map<String, Object>> handleMaxUploadSize(MaxUploadSizeExceededException ex) {
+
+		Map<String, Object> body = new HashMap<>();
+		body.put("timestamp", LocalDateTime.now().toString());
+		body.put("error", "Payload Too Large");
+		body.put("message", "Uploaded file is too large");
+		body.put("status", HttpStatus.PAYLOAD_TOO_LARGE.value());
+		body.put("success", false);
+
+		return new ResponseEntity<>(body, HttpStatus.PAYLOAD_TOO_LARGE);
+	}
+
 	@ExceptionHandler(IllegalArgumentException.class)
 	public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
 
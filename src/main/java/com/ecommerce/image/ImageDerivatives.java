@@ -0,0 +1,330 @@
+package com.ecommerce.image;
+
+import com.ecommerce.model.ImageDerivative;
+import com.ecommerce.model.ProductImage;
+import com.ecommerce.repository.ProductImageRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Background resize pipeline for uploaded product images. Each image gets
+// fixed-width copies (WIDTHS) written next to the original as
+// name_w{width}.{ext} and recorded in product_image_derivatives; the image is
+// then flagged derivatives_done. Work runs on a small bounded pool so a burst
+// of uploads cannot take over the request threads or the heap; jobs that do
+// not fit in the queue, or were lost to a restart, are picked up by the
+// periodic backfill. Until a copy exists, readers fall back to the original.
+@Component
+public class ImageDerivatives {
+
+	private static final Logger log = LoggerFactory.getLogger(ImageDerivatives.class);
+
+	public static final int[] WIDTHS = { 160, 480, 1024 };
+
+	// larger images are left alone rather than decoded (~4 bytes a pixel)
+	private static final long MAX_PIXELS = 50_000_000L;
+
+	private final ProductImageRepository repo;
+	private final Path baseDir;
+	private final Path imageRoot;
+	private final ThreadPoolExecutor executor;
+	private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+	public ImageDerivatives(ProductImageRepository repo, @Value("${images.base-dir:}") String baseDir,
+			@Value("${images.derivatives.threads:2}") int threads,
+			@Value("${images.derivatives.queue-capacity:200}") int queueCapacity) {
+		this.repo = repo;
+		this.baseDir = Paths.get(baseDir.isBlank() ? System.getProperty("user.dir") : baseDir).toAbsolutePath();
+		this.imageRoot = this.baseDir.resolve("product-images");
+
+		AtomicInteger n = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), r -> {
+					Thread t = new Thread(r, "image-derivatives-" + n.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	// never blocks the caller; a full queue leaves the image to the backfill
+	public void submit(ProductImage img) {
+		if (img == null || img.getId() == null || !queued.add(img.getId()))
+			return;
+		try {
+			executor.execute(() -> {
+				try {
+					generate(img);
+				} finally {
+					queued.remove(img.getId());
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			queued.remove(img.getId());
+			log.debug("Derivative queue full, image {} left for the backfill", img.getId());
+		}
+	}
+
+	@Scheduled(initialDelayString = "${images.derivatives.backfill-initial-ms:60000}",
+			fixedDelayString = "${images.derivatives.backfill-ms:600000}")
+	public void backfill() {
+		int room = executor.getQueue().remainingCapacity();
+		if (room == 0)
+			return;
+		try {
+			for (ProductImage img : repo.findPendingDerivatives(room))
+				submit(img);
+		} catch (Exception e) {
+			log.error("Image derivative backfill failed", e);
+		}
+	}
+
+	// Smallest derivative width that is at least the requested one; null means
+	// the original (no width asked for, or wider than the largest copy).
+	public static Integer pickWidth(Integer requested) {
+		if (requested == null || requested <= 0)
+			return null;
+		for (int w : WIDTHS) {
+			if (w >= requested)
+				return w;
+		}
+		return null;
+	}
+
+	// "/product-images/7/a.jpeg" -> "/product-images/7/a_w160.jpg"
+	public static String derivativePath(String imagePath, int width) {
+		int slash = imagePath.lastIndexOf('/');
+		int dot = imagePath.lastIndexOf('.');
+		String stem = dot > slash ? imagePath.substring(0, dot) : imagePath;
+		return stem + "_w" + width + "." + formatFor(imagePath);
+	}
+
+	// PNG and GIF may carry transparency, everything else becomes JPEG
+	static String formatFor(String imagePath) {
+		String lower = imagePath.toLowerCase(Locale.ROOT);
+		return lower.endsWith(".png") || lower.endsWith(".gif") ? "png" : "jpg";
+	}
+
+	// File to send for a request of the given width: the matching copy once it
+	// has been written, the original until then. Null if the original is not
+	// on disk (or the path tries to leave the image root).
+	public Path locate(String imagePath, Integer width) {
+		Path original = resolve(imagePath);
+		if (!original.startsWith(imageRoot) || !Files.isRegularFile(original))
+			return null;
+		Integer w = pickWidth(width);
+		if (w != null) {
+			Path copy = resolve(derivativePath(imagePath, w));
+			if (Files.isRegularFile(copy))
+				return copy;
+		}
+		return original;
+	}
+
+	Path resolve(String imagePath) {
+		String relative = imagePath.startsWith("/") ? imagePath.substring(1) : imagePath;
+		return baseDir.resolve(relative).normalize();
+	}
+
+	void generate(ProductImage img) {
+		String imagePath = img.getImagePath();
+		Path original = imagePath == null ? null : resolve(imagePath);
+		if (original == null || !original.startsWith(imageRoot) || !Files.isRegularFile(original)) {
+			// external URL or missing file, nothing to resize
+			repo.saveDerivatives(img.getId(), List.of());
+			return;
+		}
+
+		try {
+			// a shared upload already resized for another product
+			List<ImageDerivative> shared = ImageStore.isStored(imagePath) ? existingCopies(img.getId(), imagePath)
+					: null;
+			if (shared != null) {
+				repo.saveDerivatives(img.getId(), shared);
+				return;
+			}
+
+			BufferedImage source = read(original);
+			List<ImageDerivative> made = new ArrayList<>();
+			if (source != null) {
+				String format = formatFor(imagePath);
+				BufferedImage current = source;
+				// largest first, so each step scales down from the previous copy
+				for (int i = WIDTHS.length - 1; i >= 0; i--) {
+					int width = WIDTHS[i];
+					if (width >= source.getWidth())
+						continue;
+					current = scale(current, width, format.equals("jpg"));
+					String path = derivativePath(imagePath, width);
+					write(current, format, resolve(path));
+					made.add(new ImageDerivative(img.getId(), width, current.getHeight(), path));
+				}
+			} else {
+				log.info("Image {} is not a format ImageIO can resize, serving the original only", img.getId());
+			}
+			repo.saveDerivatives(img.getId(), made);
+		} catch (IOException e) {
+			// not flagged, so the backfill tries again later
+			log.warn("Derivatives for image {} failed: {}", img.getId(), e.getMessage());
+		} catch (RuntimeException e) {
+			log.error("Derivatives for image {} failed", img.getId(), e);
+		}
+	}
+
+	// The copies a content-addressed original already has, read from the file
+	// headers only; null unless every width the original needs is there.
+	private List<ImageDerivative> existingCopies(Long imageId, String imagePath) throws IOException {
+		int[] size = dimensions(resolve(imagePath));
+		if (size == null)
+			return null;
+		List<ImageDerivative> found = new ArrayList<>();
+		for (int i = WIDTHS.length - 1; i >= 0; i--) {
+			int width = WIDTHS[i];
+			if (width >= size[0])
+				continue;
+			String path = derivativePath(imagePath, width);
+			Path copy = resolve(path);
+			int[] copySize = Files.isRegularFile(copy) ? dimensions(copy) : null;
+			if (copySize == null)
+				return null;
+			found.add(new ImageDerivative(imageId, width, copySize[1], path));
+		}
+		return found;
+	}
+
+	private static int[] dimensions(Path file) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+			if (in == null)
+				return null;
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext())
+				return null;
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				return new int[] { reader.getWidth(0), reader.getHeight(0) };
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	// Decodes with source subsampling when the original is far wider than the
+	// largest copy, so a 6000px photo is never held at full size.
+	private static BufferedImage read(Path file) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+			if (in == null)
+				return null;
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext())
+				return null;
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				int w = reader.getWidth(0);
+				int h = reader.getHeight(0);
+				if ((long) w * h > MAX_PIXELS)
+					return null;
+				ImageReadParam param = reader.getDefaultReadParam();
+				int step = w / (2 * WIDTHS[WIDTHS.length - 1]);
+				if (step >= 2)
+					param.setSourceSubsampling(step, step, 0, 0);
+				return reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	// halves with bilinear filtering until within 2x of the target, then one
+	// last bilinear step; a single big bilinear jump would alias badly
+	static BufferedImage scale(BufferedImage src, int width, boolean opaque) {
+		BufferedImage current = src;
+		int w = src.getWidth();
+		int h = src.getHeight();
+		int targetHeight = Math.max(1, (int) Math.round((double) h * width / w));
+
+		do {
+			w = w / 2 >= width ? w / 2 : width;
+			h = w == width ? targetHeight : Math.max(1, h / 2);
+			BufferedImage next = new BufferedImage(w, h,
+					opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = next.createGraphics();
+			try {
+				if (opaque) {
+					g.setColor(Color.WHITE);
+					g.fillRect(0, 0, w, h);
+				}
+				g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+				g.drawImage(current, 0, 0, w, h, null);
+			} finally {
+				g.dispose();
+			}
+			current = next;
+		} while (w != width);
+		return current;
+	}
+
+	// written to a temp file and moved into place, so a reader never sees a
+	// half-written copy
+	private static void write(BufferedImage image, String format, Path target) throws IOException {
+		Path tmp = Files.createTempFile(target.getParent(), ".derivative", ".tmp");
+		try {
+			ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+			try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+				writer.setOutput(out);
+				ImageWriteParam param = writer.getDefaultWriteParam();
+				if (format.equals("jpg")) {
+					param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+					param.setCompressionQuality(0.85f);
+				}
+				writer.write(null, new IIOImage(image, null, null), param);
+			} finally {
+				writer.dispose();
+			}
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,214 @@
+package com.ecommerce.image;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Writes image files to the response without copying them through the heap.
+// On Tomcat the file is handed to the connector's sendfile support, which
+// streams it from the page cache straight to the socket after the request
+// returns; elsewhere FileChannel.transferTo is used. Responses carry a strong
+// ETag of the content (SHA-256, cached per path/size/mtime), answer
+// If-None-Match with 304 and honour single byte ranges (with If-Range).
+// Content-addressed names (a 64-hex SHA-256 stem, optionally with a _w{width}
+// suffix) can never change, so they are marked immutable for a year; other
+// files get a short max-age and rely on revalidation. A width request
+// answered with the original while its copy is not ready is a stand-in:
+// no-cache with a weak ETag of its own, so the copy replaces it once written.
+@Component
+public class ImageFileServer {
+
+	private static final Pattern ADDRESSED = Pattern.compile("([0-9a-f]{64})(_w\\d+)?\\.[A-Za-z0-9]+");
+
+	static final String IMMUTABLE = "public, max-age=31536000, immutable";
+	static final String REVALIDATE = "public, max-age=3600";
+	static final String STAND_IN = "no-cache";
+
+	// Tomcat's sendfile request attributes (org.apache.coyote.Constants)
+	private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	private record Stamp(long size, long modified, String etag) {
+	}
+
+	private final Cache<Path, Stamp> etags = Caffeine.newBuilder().maximumSize(100_000).build();
+
+	// imagePath is the path the request names and width the width it asked
+	// for, null if none
+	public void serve(Path file, String imagePath, Integer width, HttpServletRequest req, HttpServletResponse resp)
+			throws IOException {
+		BasicFileAttributes attrs;
+		try {
+			attrs = Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (IOException e) {
+			resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		long size = attrs.size();
+		String name = file.getFileName().toString();
+		boolean standIn = width != null && name.equals(imagePath.substring(imagePath.lastIndexOf('/') + 1));
+		Matcher addressed = ADDRESSED.matcher(name);
+		boolean immutable = !standIn && addressed.matches();
+		String etag = etag(file, attrs, addressed.matches() && addressed.group(2) == null ? addressed.group(1) : null);
+		if (standIn)
+			etag = "W/" + etag.substring(0, etag.length() - 1) + "-original\"";
+
+		resp.setHeader(HttpHeaders.ETAG, etag);
+		resp.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : standIn ? STAND_IN : REVALIDATE);
+		resp.setDateHeader(HttpHeaders.LAST_MODIFIED, attrs.lastModifiedTime().toMillis());
+		resp.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+		if (matches(req.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+			resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		long start = 0;
+		long end = size; // exclusive
+		String range = req.getHeader(HttpHeaders.RANGE);
+		String ifRange = req.getHeader(HttpHeaders.IF_RANGE);
+		// If-Range only works with a strong validator
+		if (range != null && (ifRange == null || (!standIn && ifRange.equals(etag)))) {
+			long[] r = parseRange(range, size);
+			if (r == UNSATISFIABLE) {
+				resp.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+				resp.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			if (r != null) {
+				start = r[0];
+				end = r[1];
+				resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				resp.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+			}
+		}
+
+		MediaType type = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM);
+		resp.setContentType(type.toString());
+		resp.setContentLengthLong(end - start);
+		if ("HEAD".equals(req.getMethod()) || end == start)
+			return;
+
+		if (Boolean.TRUE.equals(req.getAttribute(SENDFILE_SUPPORTED))) {
+			req.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+			req.setAttribute(SENDFILE_START, start);
+			req.setAttribute(SENDFILE_END, end);
+			return;
+		}
+
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(resp.getOutputStream());
+			long pos = start;
+			while (pos < end)
+				pos += in.transferTo(pos, end - pos, out);
+		}
+	}
+
+	private String etag(Path file, BasicFileAttributes attrs, String hashFromName) {
+		if (hashFromName != null)
+			return "\"" + hashFromName + "\"";
+
+		long size = attrs.size();
+		long modified = attrs.lastModifiedTime().toMillis();
+		Stamp s = etags.getIfPresent(file);
+		if (s == null || s.size() != size || s.modified() != modified) {
+			s = new Stamp(size, modified, "\"" + sha256(file) + "\"");
+			etags.put(file, s);
+		}
+		return s.etag();
+	}
+
+	static String sha256(Path file) {
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024);
+			while (in.read(buf) != -1) {
+				buf.flip();
+				md.update(buf);
+				buf.clear();
+			}
+			return HexFormat.of().formatHex(md.digest());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// If-None-Match uses weak comparison, so W/"x" matches "x"
+	static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null)
+			return false;
+		String tag = etag.startsWith("W/") ? etag.substring(2) : etag;
+		for (String candidate : ifNoneMatch.split(",")) {
+			String c = candidate.trim();
+			if (c.equals("*"))
+				return true;
+			if (c.startsWith("W/"))
+				c = c.substring(2);
+			if (c.equals(tag))
+				return true;
+		}
+		return false;
+	}
+
+	static final long[] UNSATISFIABLE = new long[0];
+
+	// Single "bytes=a-b", "bytes=a-" or "bytes=-n" range as [start, end); null
+	// for anything else (multiple ranges, other units, garbage), which is
+	// answered with the whole file as RFC 9110 allows.
+	static long[] parseRange(String header, long size) {
+		if (!header.startsWith("bytes=") || header.indexOf(',') >= 0)
+			return null;
+		String spec = header.substring(6).trim();
+		int dash = spec.indexOf('-');
+		if (dash < 0)
+			return null;
+		try {
+			String first = spec.substring(0, dash).trim();
+			String last = spec.substring(dash + 1).trim();
+			if (first.isEmpty()) {
+				if (last.isEmpty())
+					return null;
+				long suffix = Long.parseLong(last);
+				if (suffix <= 0)
+					return UNSATISFIABLE;
+				return new long[] { Math.max(0, size - suffix), size };
+			}
+			long start = Long.parseLong(first);
+			long end = last.isEmpty() ? size : Math.min(size, Long.parseLong(last) + 1);
+			if (start >= size)
+				return UNSATISFIABLE;
+			if (end <= start)
+				return null;
+			return new long[] { start, end };
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
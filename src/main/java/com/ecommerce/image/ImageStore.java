@@ -0,0 +1,221 @@
+package com.ecommerce.image;
+
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.repository.ImageObjectRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+// Content-addressed storage for uploaded product images. An upload is
+// streamed to a temp file while its SHA-256 is computed, then moved to
+// /product-images/objects/ab/cd/<sha256>.<ext>; the same photo uploaded for
+// a hundred products is stored once and shared through image_objects.ref_count.
+// Objects whose count has dropped to zero are removed by the sweep after a
+// grace period. Hash-named files never change, which is what lets
+// ImageFileServer mark them immutable.
+@Component
+public class ImageStore {
+
+	private static final Logger log = LoggerFactory.getLogger(ImageStore.class);
+
+	private static final String OBJECT_PREFIX = "/product-images/objects/";
+	private static final Pattern OBJECT_PATH = Pattern
+			.compile("/product-images/objects/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+
+	// enough to tell the supported formats apart
+	private static final int HEAD = 12;
+
+	private final ImageObjectRepository repo;
+	private final Path baseDir;
+	private final Path incoming;
+	private final long maxBytes;
+	private final int graceMinutes;
+
+	public ImageStore(ImageObjectRepository repo, @Value("${images.base-dir:}") String baseDir,
+			@Value("${images.upload.max-bytes:10485760}") long maxBytes,
+			@Value("${images.objects.grace-minutes:60}") int graceMinutes) {
+		this.repo = repo;
+		this.baseDir = Paths.get(baseDir.isBlank() ? System.getProperty("user.dir") : baseDir).toAbsolutePath();
+		// outside product-images so half-written uploads are never served, but
+		// on the same file system so the final move is atomic
+		this.incoming = this.baseDir.resolve(".image-uploads");
+		this.maxBytes = maxBytes;
+		this.graceMinutes = graceMinutes;
+	}
+
+	public record StoredImage(String sha256, String imagePath, long sizeBytes) {
+	}
+
+	public static boolean isStored(String imagePath) {
+		return imagePath != null && imagePath.startsWith(OBJECT_PREFIX) && OBJECT_PATH.matcher(imagePath).matches();
+	}
+
+	// Stores the stream and takes one reference on the resulting object. The
+	// body is copied in fixed-size chunks and rejected as soon as it passes
+	// maxBytes or its first bytes are not a supported image, so nothing is
+	// ever buffered whole.
+	public StoredImage store(InputStream in) throws IOException {
+		Files.createDirectories(incoming);
+		Path tmp = Files.createTempFile(incoming, "upload", ".tmp");
+		try {
+			MessageDigest sha = sha256();
+			byte[] buf = new byte[64 * 1024];
+			byte[] head = new byte[HEAD];
+			int headLen = 0;
+			String ext = null;
+			long size = 0;
+
+			try (OutputStream out = Files.newOutputStream(tmp)) {
+				int n;
+				while ((n = in.read(buf)) != -1) {
+					size += n;
+					if (size > maxBytes)
+						throw new BadRequestException("Image is larger than " + (maxBytes >> 20) + " MB");
+					if (headLen < HEAD) {
+						int take = Math.min(n, HEAD - headLen);
+						System.arraycopy(buf, 0, head, headLen, take);
+						headLen += take;
+						if (headLen == HEAD)
+							ext = requireImage(head, headLen);
+					}
+					sha.update(buf, 0, n);
+					out.write(buf, 0, n);
+				}
+			}
+			if (size == 0)
+				throw new BadRequestException("File is empty");
+			if (ext == null)
+				ext = requireImage(head, headLen);
+
+			String hash = HexFormat.of().formatHex(sha.digest());
+			String imagePath = OBJECT_PREFIX + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "."
+					+ ext;
+			Path target = resolve(imagePath);
+
+			// reference first: a sweep running now either sees the count and
+			// keeps the file, or has already deleted the row and we write it back
+			repo.acquire(hash, imagePath, size);
+			try {
+				if (!Files.isRegularFile(target)) {
+					Files.createDirectories(target.getParent());
+					Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				}
+			} catch (IOException | RuntimeException e) {
+				repo.release(imagePath);
+				throw e;
+			}
+			return new StoredImage(hash, imagePath, size);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	// Another product starts using an object that is already stored. Paths
+	// outside the store are left alone.
+	public void retain(String imagePath) {
+		if (isStored(imagePath) && !repo.retain(imagePath))
+			throw new BadRequestException("Unknown image: " + imagePath);
+	}
+
+	public void release(String imagePath) {
+		if (isStored(imagePath))
+			repo.release(imagePath);
+	}
+
+	@Scheduled(initialDelayString = "${images.objects.sweep-initial-ms:300000}",
+			fixedDelayString = "${images.objects.sweep-ms:3600000}")
+	public void sweep() {
+		try {
+			int removed = 0;
+			for (String imagePath : repo.findUnreferenced(graceMinutes, 500)) {
+				if (remove(imagePath))
+					removed++;
+			}
+			if (removed > 0)
+				log.info("Removed {} unreferenced image objects", removed);
+		} catch (Exception e) {
+			log.error("Image object sweep failed", e);
+		}
+	}
+
+	// The file is moved aside before the row is deleted. If an upload of the
+	// same bytes took a reference in between, the delete does nothing and the
+	// file goes back (identical content, so it does not matter whether the
+	// upload already rewrote it).
+	boolean remove(String imagePath) throws IOException {
+		Path file = resolve(imagePath);
+		Files.createDirectories(incoming);
+		Path aside = incoming.resolve(file.getFileName() + ".removed");
+		boolean moved = Files.isRegularFile(file);
+		if (moved)
+			Files.move(file, aside, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		if (!repo.deleteIfUnreferenced(imagePath)) {
+			if (moved && !Files.exists(file))
+				Files.move(aside, file, StandardCopyOption.ATOMIC_MOVE);
+			Files.deleteIfExists(aside);
+			return false;
+		}
+
+		Files.deleteIfExists(aside);
+		for (int width : ImageDerivatives.WIDTHS)
+			Files.deleteIfExists(resolve(ImageDerivatives.derivativePath(imagePath, width)));
+		return true;
+	}
+
+	Path resolve(String imagePath) {
+		return baseDir.resolve(imagePath.substring(1)).normalize();
+	}
+
+	// extension for the detected format, by magic number rather than the
+	// client's file name or content type
+	static String sniff(byte[] h, int len) {
+		if (len >= 3 && (h[0] & 0xff) == 0xFF && (h[1] & 0xff) == 0xD8 && (h[2] & 0xff) == 0xFF)
+			return "jpg";
+		if (len >= 8 && Arrays.equals(h, 0, 8, PNG, 0, 8))
+			return "png";
+		if (len >= 6 && (startsWith(h, "GIF87a") || startsWith(h, "GIF89a")))
+			return "gif";
+		if (len >= 12 && startsWith(h, "RIFF") && new String(h, 8, 4, StandardCharsets.US_ASCII).equals("WEBP"))
+			return "webp";
+		return null;
+	}
+
+	private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+	private static boolean startsWith(byte[] h, String magic) {
+		return new String(h, 0, magic.length(), StandardCharsets.US_ASCII).equals(magic);
+	}
+
+	private static String requireImage(byte[] head, int len) {
+		String ext = sniff(head, len);
+		if (ext == null)
+			throw new BadRequestException("Only JPEG, PNG, GIF and WebP images can be uploaded");
+		return ext;
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
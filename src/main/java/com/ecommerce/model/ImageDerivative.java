@@ -0,0 +1,52 @@
+package com.ecommerce.model;
+
+public class ImageDerivative {
+
+	private Long imageId;
+	private int width;
+	private int height;
+	private String imagePath;
+
+	public ImageDerivative() {
+		super();
+	}
+
+	public ImageDerivative(Long imageId, int width, int height, String imagePath) {
+		this.imageId = imageId;
+		this.width = width;
+		this.height = height;
+		this.imagePath = imagePath;
+	}
+
+	public Long getImageId() {
+		return imageId;
+	}
+
+	public void setImageId(Long imageId) {
+		this.imageId = imageId;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public void setWidth(int width) {
+		this.width = width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public void setHeight(int height) {
+		this.height = height;
+	}
+
+	public String getImagePath() {
+		return imagePath;
+	}
+
+	public void setImagePath(String imagePath) {
+		this.imagePath = imagePath;
+	}
+}
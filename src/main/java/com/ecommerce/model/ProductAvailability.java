@@ -0,0 +1,54 @@
+package com.ecommerce.model;
+
+import java.math.BigDecimal;
+
+// What checkout needs to know about a product right now: price, whether it
+// and its shop are on sale, and the stock not yet reserved.
+public class ProductAvailability {
+	private Long productId;
+	private BigDecimal sellingPrice;
+	private boolean active;
+	private int available;
+
+	public ProductAvailability() {
+	}
+
+	public ProductAvailability(Long productId, BigDecimal sellingPrice, boolean active, int available) {
+		this.productId = productId;
+		this.sellingPrice = sellingPrice;
+		this.active = active;
+		this.available = available;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public BigDecimal getSellingPrice() {
+		return sellingPrice;
+	}
+
+	public void setSellingPrice(BigDecimal sellingPrice) {
+		this.sellingPrice = sellingPrice;
+	}
+
+	public boolean isActive() {
+		return active;
+	}
+
+	public void setActive(boolean active) {
+		this.active = active;
+	}
+
+	public int getAvailable() {
+		return available;
+	}
+
+	public void setAvailable(int available) {
+		this.available = available;
+	}
+}
@@ -1,5 +1,7 @@
 package com.ecommerce.model;
 
+import java.util.Map;
+
 public class ProductImage {
 
 	private Long id;
@@ -9,6 +11,8 @@ public class ProductImage {
 	private boolean isPrimary;
 	private int sortImageOrder;
 	private boolean isDeleted;
+	// width -> path of the resized copies that are ready, filled for listings
+	private Map<Integer, String> sizes;
 
 	public Long getId() {
 		return id;
@@ -57,4 +61,12 @@ public class ProductImage {
 	public void setDeleted(boolean deleted) {
 		isDeleted = deleted;
 	}
-}
\ No newline at end of file
+
+	public Map<Integer, String> getSizes() {
+		return sizes;
+	}
+
+	public void setSizes(Map<Integer, String> sizes) {
+		this.sizes = sizes;
+	}
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.model;
+
+// One row of product_rating_summary. stars[0] counts 1-star reviews,
+// stars[4] counts 5-star reviews.
+public class RatingSummary {
+
+	private Long productId;
+	private int reviewCount;
+	private long ratingSum;
+	private int[] stars = new int[5];
+
+	public RatingSummary() {
+		super();
+	}
+
+	public RatingSummary(Long productId) {
+		this.productId = productId;
+	}
+
+	public void add(int rating) {
+		reviewCount++;
+		ratingSum += rating;
+		stars[rating - 1]++;
+	}
+
+	public double getAverage() {
+		return reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount;
+	}
+
+	public Long getProductId() {
+		return productId;
+	}
+
+	public void setProductId(Long productId) {
+		this.productId = productId;
+	}
+
+	public int getReviewCount() {
+		return reviewCount;
+	}
+
+	public void setReviewCount(int reviewCount) {
+		this.reviewCount = reviewCount;
+	}
+
+	public long getRatingSum() {
+		return ratingSum;
+	}
+
+	public void setRatingSum(long ratingSum) {
+		this.ratingSum = ratingSum;
+	}
+
+	public int[] getStars() {
+		return stars;
+	}
+
+	public void setStars(int[] stars) {
+		this.stars = stars;
+	}
+}
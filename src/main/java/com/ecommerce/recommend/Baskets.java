@@ -0,0 +1,89 @@
+package com.ecommerce.recommend;
+
+import java.util.Arrays;
+
+// Groups of products that occurred together (one user's recent views, one
+// checkout's items), packed as dense item indices: basket i holds
+// items[starts[i]] .. items[starts[i + 1] - 1], and index j stands for
+// productIds[j] (sorted ascending). frequency[j] is the number of baskets
+// containing product j.
+public final class Baskets {
+
+	// a bulk order of hundreds of lines would add a quadratic number of pairs
+	// while saying little about any one of them
+	static final int MAX_BASKET = 50;
+
+	final long[] productIds;
+	final int[] items;
+	final int[] starts;
+	final int[] frequency;
+
+	private Baskets(long[] productIds, int[] items, int[] starts, int[] frequency) {
+		this.productIds = productIds;
+		this.items = items;
+		this.starts = starts;
+		this.frequency = frequency;
+	}
+
+	public int basketCount() {
+		return starts.length - 1;
+	}
+
+	public int productCount() {
+		return productIds.length;
+	}
+
+	// Rows must arrive grouped by basket (ORDER BY the basket key); a product
+	// repeated within a basket counts once.
+	public static final class Builder {
+
+		private long[] rows = new long[1024];
+		private int[] starts = new int[256];
+		private int rowCount;
+		private int basketCount;
+		private long currentBasket;
+		private boolean open;
+
+		public void add(long basket, long productId) {
+			if (!open || basket != currentBasket) {
+				if (basketCount + 1 == starts.length)
+					starts = Arrays.copyOf(starts, starts.length * 2);
+				starts[basketCount++] = rowCount;
+				currentBasket = basket;
+				open = true;
+			}
+			int from = starts[basketCount - 1];
+			if (rowCount - from >= MAX_BASKET)
+				return;
+			for (int i = from; i < rowCount; i++) {
+				if (rows[i] == productId)
+					return;
+			}
+			if (rowCount == rows.length)
+				rows = Arrays.copyOf(rows, rows.length * 2);
+			rows[rowCount++] = productId;
+		}
+
+		public Baskets build() {
+			long[] dictionary = Arrays.copyOf(rows, rowCount);
+			Arrays.parallelSort(dictionary);
+			int distinct = 0;
+			for (int i = 0; i < dictionary.length; i++) {
+				if (i == 0 || dictionary[i] != dictionary[i - 1])
+					dictionary[distinct++] = dictionary[i];
+			}
+			dictionary = Arrays.copyOf(dictionary, distinct);
+
+			int[] items = new int[rowCount];
+			int[] frequency = new int[distinct];
+			for (int i = 0; i < rowCount; i++) {
+				items[i] = Arrays.binarySearch(dictionary, rows[i]);
+				frequency[items[i]]++;
+			}
+
+			int[] bounds = Arrays.copyOf(starts, basketCount + 1);
+			bounds[basketCount] = rowCount;
+			return new Baskets(dictionary, items, bounds, frequency);
+		}
+	}
+}
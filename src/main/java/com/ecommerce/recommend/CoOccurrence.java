@@ -0,0 +1,193 @@
+package com.ecommerce.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sparse item-item co-occurrence matrix, immutable once built, keeping only
+// the top K neighbours of each product. Stored as CSR: products[] sorted, and
+// the neighbours of products[i] are neighbours[offsets[i] .. offsets[i + 1])
+// with their scores, best first. A lookup is one binary search and a slice.
+//
+// The score of (a, b) is the cosine of their basket vectors,
+// together(a, b) / sqrt(baskets(a) * baskets(b)), so a product in every
+// basket does not become everyone's top neighbour.
+public final class CoOccurrence {
+
+	public static final CoOccurrence EMPTY = new CoOccurrence(new long[0], new int[1], new long[0], new float[0]);
+
+	private final long[] products;
+	private final int[] offsets;
+	private final long[] neighbours;
+	private final float[] scores;
+
+	private CoOccurrence(long[] products, int[] offsets, long[] neighbours, float[] scores) {
+		this.products = products;
+		this.offsets = offsets;
+		this.neighbours = neighbours;
+		this.scores = scores;
+	}
+
+	public int productCount() {
+		return products.length;
+	}
+
+	public int pairCount() {
+		return neighbours.length;
+	}
+
+	// neighbours of the product, best first: positions [from, to) for
+	// neighbour(i) and score(i); an empty range if the product has none
+	public int from(long productId) {
+		int i = Arrays.binarySearch(products, productId);
+		return i < 0 ? 0 : offsets[i];
+	}
+
+	public int to(long productId) {
+		int i = Arrays.binarySearch(products, productId);
+		return i < 0 ? 0 : offsets[i + 1];
+	}
+
+	public long neighbour(int i) {
+		return neighbours[i];
+	}
+
+	public float score(int i) {
+		return scores[i];
+	}
+
+	// Pairs are counted in shards by source product (index % shards). Every
+	// shard reads all baskets but only counts the pairs whose source it owns,
+	// so shards never share a map and need no merge; with four shards per
+	// thread only a quarter of the pair counts are held at any one time.
+	public static CoOccurrence build(Baskets baskets, int topK, int minCount, int threads) {
+		int n = baskets.productCount();
+		if (n == 0 || topK <= 0)
+			return EMPTY;
+
+		int shards = Math.max(1, threads * 4);
+		int[][] bestItems = new int[n][];
+		float[][] bestScores = new float[n][];
+
+		AtomicInteger workerNo = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+			Thread t = new Thread(r, "co-occurrence-" + workerNo.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			List<Future<?>> running = new ArrayList<>(shards);
+			for (int s = 0; s < shards; s++) {
+				int shard = s;
+				running.add(pool.submit(
+						() -> countShard(baskets, shard, shards, topK, minCount, bestItems, bestScores)));
+			}
+			for (Future<?> f : running)
+				f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Co-occurrence build interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Co-occurrence build failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		// products keep dictionary order, which is already sorted by id
+		int withNeighbours = 0;
+		int pairs = 0;
+		for (int a = 0; a < n; a++) {
+			if (bestItems[a] != null) {
+				withNeighbours++;
+				pairs += bestItems[a].length;
+			}
+		}
+		long[] products = new long[withNeighbours];
+		int[] offsets = new int[withNeighbours + 1];
+		long[] neighbours = new long[pairs];
+		float[] scores = new float[pairs];
+		int p = 0;
+		int at = 0;
+		for (int a = 0; a < n; a++) {
+			if (bestItems[a] == null)
+				continue;
+			products[p] = baskets.productIds[a];
+			offsets[p++] = at;
+			for (int k = 0; k < bestItems[a].length; k++) {
+				neighbours[at] = baskets.productIds[bestItems[a][k]];
+				scores[at++] = bestScores[a][k];
+			}
+		}
+		offsets[p] = at;
+		return new CoOccurrence(products, offsets, neighbours, scores);
+	}
+
+	private static void countShard(Baskets b, int shard, int shards, int topK, int minCount, int[][] bestItems,
+			float[][] bestScores) {
+		int[] items = b.items;
+		int[] starts = b.starts;
+		LongFloatMap pairs = new LongFloatMap(1024);
+
+		for (int basket = 0; basket + 1 < starts.length; basket++) {
+			int from = starts[basket];
+			int to = starts[basket + 1];
+			if (to - from < 2)
+				continue;
+			for (int i = from; i < to; i++) {
+				int a = items[i];
+				if (a % shards != shard)
+					continue;
+				long high = (long) a << 32;
+				for (int j = from; j < to; j++) {
+					if (j != i)
+						pairs.add(high | items[j], 1f);
+				}
+			}
+		}
+
+		// sorted keys put each source's pairs next to each other
+		long[] keys = pairs.keys();
+		Arrays.sort(keys);
+		int[] keepItems = new int[topK];
+		float[] keepScores = new float[topK];
+		int k = 0;
+		while (k < keys.length) {
+			int a = (int) (keys[k] >>> 32);
+			int kept = 0;
+			for (; k < keys.length && (int) (keys[k] >>> 32) == a; k++) {
+				float together = pairs.get(keys[k]);
+				if (together < minCount)
+					continue;
+				int other = (int) keys[k];
+				float score = (float) (together / Math.sqrt((double) b.frequency[a] * b.frequency[other]));
+				kept = keep(keepItems, keepScores, kept, other, score);
+			}
+			if (kept > 0) {
+				bestItems[a] = Arrays.copyOf(keepItems, kept);
+				bestScores[a] = Arrays.copyOf(keepScores, kept);
+			}
+		}
+	}
+
+	// insertion into a best-first array of at most keepItems.length entries;
+	// ties keep the earlier (lower id) product ahead
+	private static int keep(int[] keepItems, float[] keepScores, int kept, int item, float score) {
+		int cap = keepItems.length;
+		if (kept == cap && score <= keepScores[cap - 1])
+			return kept;
+		int i = kept == cap ? cap - 1 : kept;
+		while (i > 0 && keepScores[i - 1] < score) {
+			keepItems[i] = keepItems[i - 1];
+			keepScores[i] = keepScores[i - 1];
+			i--;
+		}
+		keepItems[i] = item;
+		keepScores[i] = score;
+		return kept == cap ? kept : kept + 1;
+	}
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.recommend;
+
+import java.util.Arrays;
+
+// Open-addressing long -> float accumulator (same layout as the search
+// package's LongCounter), so counting tens of millions of product pairs does
+// not box a key or a value per increment.
+final class LongFloatMap {
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] keys;
+	private float[] values;
+	private int size;
+
+	LongFloatMap(int expected) {
+		int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+		keys = new long[cap];
+		values = new float[cap];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	void add(long key, float by) {
+		int slot = slot(keys, key);
+		if (keys[slot] == EMPTY) {
+			keys[slot] = key;
+			values[slot] = by;
+			if (++size * 2 > keys.length)
+				rehash();
+			return;
+		}
+		values[slot] += by;
+	}
+
+	float get(long key) {
+		int slot = slot(keys, key);
+		return keys[slot] == key ? values[slot] : 0f;
+	}
+
+	int size() {
+		return size;
+	}
+
+	long[] keys() {
+		long[] out = new long[size];
+		int n = 0;
+		for (long k : keys) {
+			if (k != EMPTY)
+				out[n++] = k;
+		}
+		return out;
+	}
+
+	private static int slot(long[] table, long key) {
+		int mask = table.length - 1;
+		int i = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+		while (table[i] != EMPTY && table[i] != key)
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	private void rehash() {
+		long[] oldKeys = keys;
+		float[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new float[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = slot(keys, oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
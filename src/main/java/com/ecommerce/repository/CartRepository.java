@@ -2,34 +2,49 @@ package com.ecommerce.repository;
 
 import com.ecommerce.model.Cart;
 import com.ecommerce.model.CartItem;
+import com.ecommerce.model.ProductAvailability;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface CartRepository {
 
+	@FunctionalInterface
+	interface IdleCartSink {
+		void accept(long cartId, long userId);
+	}
+
 	Optional<Cart> findByUserId(Long userId);
 
 	Optional<Cart> findById(Long cartId);
 
 	Cart create(Long userId);
 
-	void updateTimestamp(Long cartId);
-
-	void delete(Long cartId);
-
 	List<CartItem> findItemsByCartId(Long cartId);
 
-	Optional<CartItem> findCartItem(Long cartId, Long productId);
-
-	CartItem addItem(CartItem cartItem);
+	Optional<CartItem> findItemById(Long cartItemId);
 
-	void updateItemQuantity(Long cartItemId, Integer quantity);
+	// price, on-sale flag and unreserved stock of each product, in one query;
+	// products that do not exist are left out
+	Map<Long, ProductAvailability> findAvailability(Collection<Long> productIds);
 
-	void removeItem(Long cartItemId);
+	// first of count consecutive cart_items ids nobody else will use
+	long reserveItemIds(int count);
 
-	void clearCart(Long cartId);
+	// Applies the changes of a batch of carts in one transaction: cleared
+	// carts lose all their rows, then removed lines are deleted, then the
+	// upserts are written by id and the carts stamped with their last change.
+	void writeBack(Collection<Long> clearedCartIds, Collection<Long> removedItemIds, List<CartItem> upserts,
+			Map<Long, LocalDateTime> touchedCarts);
 
-	int getItemsCount(Long cartId);
+	// Reads the next limit carts after afterId in id order and passes on those
+	// last changed before idleBefore, not reminded since, and with at least
+	// one line. Returns the last id read, or afterId when there are no more.
+	long scanIdleCarts(long afterId, int limit, LocalDateTime idleBefore, IdleCartSink sink);
 
-	Optional<CartItem> findItemById(Long cartItemId);
-}
\ No newline at end of file
+	// leaves updated_at as it is, so the next change starts a new idle spell
+	void markReminded(Collection<Long> cartIds, LocalDateTime at);
+}
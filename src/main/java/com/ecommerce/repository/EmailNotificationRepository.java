@@ -9,6 +9,9 @@ public interface EmailNotificationRepository {
 
 	Long save(EmailNotification notification);
 
+	// one multi-row INSERT
+	void saveAll(List<EmailNotification> notifications);
+
 	boolean updateStatus(Long id, String status);
 
 	Optional<EmailNotification> findById(Long id);
@@ -0,0 +1,20 @@
+package com.ecommerce.repository;
+
+import java.util.List;
+
+public interface ImageObjectRepository {
+
+	// records one more reference, creating the row on first upload
+	void acquire(String sha256, String imagePath, long sizeBytes);
+
+	// one more reference to an already stored object; false if unknown
+	boolean retain(String imagePath);
+
+	void release(String imagePath);
+
+	// objects nobody has referenced for at least graceMinutes
+	List<String> findUnreferenced(int graceMinutes, int limit);
+
+	// false if the object was referenced again in the meantime
+	boolean deleteIfUnreferenced(String imagePath);
+}
@@ -2,6 +2,7 @@ package com.ecommerce.repository;
 
 import com.ecommerce.model.Inventory;
 
+import java.util.Map;
 import java.util.Optional;
 
 public interface InventoryRepository {
@@ -10,6 +11,8 @@ public interface InventoryRepository {
 
 	boolean createInventory(Long productId, int initialQuantity);
 
+	void createInventories(Map<Long, Integer> initialQuantities);
+
 	boolean update(Inventory inventory);
 
 	boolean increaseStock(Long productId, int quantity);
@@ -3,8 +3,11 @@ package com.ecommerce.repository;
 import com.ecommerce.dto.OrderItemResponse;
 import com.ecommerce.model.Order;
 import com.ecommerce.model.OrderItem;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface OrderRepository {
 	Order save(Order order);
@@ -22,4 +25,8 @@ public interface OrderRepository {
 	void updateOrderStatus(Long orderId, String status);
 
 	List<Order> findAll();
+
+	void streamAll(Consumer<Order> sink);
+
+	Map<Long, List<OrderItemResponse>> findItemsByOrderIds(Collection<Long> orderIds);
 }
\ No newline at end of file
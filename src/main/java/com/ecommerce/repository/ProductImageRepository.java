@@ -1,7 +1,11 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.model.ImageDerivative;
 import com.ecommerce.model.ProductImage;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductImageRepository {
@@ -26,4 +30,15 @@ public interface ProductImageRepository {
 
 	Long findProductIdByImageId(Long imageId);
 
+	Map<Long, String> findPrimaryImagePaths(Collection<Long> productIds);
+
+	// records the resized copies and flags the image as processed
+	void saveDerivatives(Long imageId, List<ImageDerivative> derivatives);
+
+	// image id -> (width -> path) for the live images of a product
+	Map<Long, Map<Integer, String>> findDerivativePaths(Long productId);
+
+	// live images the resize pipeline has not handled yet, oldest first
+	List<ProductImage> findPendingDerivatives(int limit);
+
 }
\ No newline at end of file
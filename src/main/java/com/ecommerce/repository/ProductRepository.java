@@ -1,31 +1,54 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Product;
+import com.ecommerce.search.ProductQuery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface ProductRepository {
 
 	Long save(Product product);
 
+	List<Long> saveAll(List<Product> products);
+
+	Set<String> findExistingSkus(Collection<String> skus);
+
 	boolean update(Product product);
 
 	boolean softDelete(Long id);
 
 	Optional<Product> findById(Long id);
 
+	List<Product> findByIds(Collection<Long> ids);
+
 	List<Product> findAllActive();
 
 	List<Product> findByShopId(Long shopId);
 
 	List<Product> findAll();
 
+	void streamAll(Consumer<Product> sink);
+
 	boolean existsBySku(String sku);
 
-	List<Product> search(String q, Long categoryId, int limit, int offset);
+	List<Product> search(ProductQuery query, int limit, int offset);
+
+	List<Product> searchAfter(ProductQuery query, LocalDateTime afterCreatedAt, Long afterId, int limit);
 
 	Long findShopOwnerId(Long shopId);
 
-	List<String> searchSuggestions(String query);
+	List<Product> searchSuggestions(String query);
+
+	List<Product> findActiveNames();
+
+	Map<Long, Long> findOrderedQuantities();
+
+	Map<Long, Long> findViewCounts();
 
 }
\ No newline at end of file
@@ -16,4 +16,7 @@ public interface ProductVariantValueRepository {
 	Optional<ProductVariantValue> findById(Long id);
 
 	List<ProductVariantValue> findByGroupId(Long groupId);
+
+	// values of every group of the product, ordered by group then value id
+	List<ProductVariantValue> findByProductId(Long productId);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.ecommerce.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.ecommerce.model.RatingSummary;
+
+public interface RatingSummaryRepository {
+
+	// delta is +1 for a new review, -1 for a removed one
+	void applyDelta(Long productId, int rating, int delta);
+
+	Map<Long, RatingSummary> findByProductIds(Collection<Long> productIds);
+
+	// overwrites the rows with the given absolute values
+	void saveAll(List<RatingSummary> summaries);
+
+	List<Long> findAllProductIds();
+
+	boolean isEmpty();
+
+	// only the rows of products that still have no live review when the
+	// statement runs
+	void deleteWithoutReviews(Collection<Long> productIds);
+}
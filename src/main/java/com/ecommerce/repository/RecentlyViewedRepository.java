@@ -3,12 +3,15 @@ package com.ecommerce.repository;
 import com.ecommerce.model.RecentlyViewed;
 
 import java.util.List;
+import java.util.Map;
 
 public interface RecentlyViewedRepository {
 
-	void saveOrUpdate(Long userId, Long productId);
-
 	List<RecentlyViewed> findLastNByUser(Long userId, int limit);
 
+	// makes the stored rows of each user exactly the given list (oldest
+	// first), all users in one transaction
+	void replaceForUsers(Map<Long, List<RecentlyViewed>> viewsByUser);
+
 	boolean deleteAllByUser(Long userId);
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.repository;
+
+public interface RecommendationRepository {
+
+	@FunctionalInterface
+	interface BasketRowSink {
+		void accept(long basket, long productId);
+	}
+
+	// (user, product) for every stored recent view of an active product,
+	// grouped by user
+	void streamViewBaskets(BasketRowSink sink);
+
+	// (checkout, product) for every line of a non-cancelled order of an
+	// active product, grouped by checkout
+	void streamOrderBaskets(BasketRowSink sink);
+}
@@ -1,8 +1,11 @@
 package com.ecommerce.repository;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.ObjIntConsumer;
 
+import com.ecommerce.enums.ReviewSort;
 import com.ecommerce.model.Review;
 
 public interface ReviewRepository {
@@ -17,8 +20,18 @@ public interface ReviewRepository {
 
 	List<Review> findByRatingLow(Long productId);
 
-	void delete(Long reviewId, Long userId);
+	// false when the review is not the user's or was already deleted
+	boolean delete(Long reviewId, Long userId);
+
+	// Keyset page of live reviews in the given order, starting after the
+	// (rating, createdAt, id) of the previous page's last row; all three null
+	// for the first page. Bodies are cut to bodyChars characters in SQL.
+	List<Review> findPage(Long productId, ReviewSort sort, Integer afterRating, Timestamp afterCreatedAt,
+			Long afterId, int bodyChars, int limit);
 
 	Double avgRating(Long productId);
 
+	// (productId, rating) of every live review, grouped by product
+	void streamActiveRatings(ObjIntConsumer<Long> sink);
+
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.ecommerce.repository;
+
+public interface ScanCheckpointRepository {
+
+	// last id the named scan has handled, 0 if it has none
+	long find(String name);
+
+	void save(String name, long lastId);
+}
@@ -3,6 +3,7 @@ package com.ecommerce.repository;
 import com.ecommerce.model.User;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserRepository {
 
@@ -24,6 +25,8 @@ public interface UserRepository {
 
 	List<User> findAll();
 
+	void streamAll(Consumer<User> sink);
+
 	boolean existsByEmail(String email);
 
 	boolean existsByUsername(String username);
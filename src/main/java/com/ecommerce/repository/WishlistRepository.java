@@ -1,5 +1,6 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.WishlistResponse;
 import com.ecommerce.model.WishlistItem;
 
 import java.util.List;
@@ -7,12 +8,16 @@ import java.util.Optional;
 
 public interface WishlistRepository {
 
+	// returns the existing row if the product is already on the wishlist
 	WishlistItem add(Long userId, Long productId);
 
 	boolean remove(Long userId, Long productId);
 
 	List<WishlistItem> findByUserId(Long userId);
 
+	// the whole wishlist with product name, price and listing image in one query
+	List<WishlistResponse> findResponsesByUserId(Long userId);
+
 	Optional<WishlistItem> findItem(Long userId, Long productId);
 
 }
\ No newline at end of file
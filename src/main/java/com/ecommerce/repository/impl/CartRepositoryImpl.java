@@ -2,6 +2,7 @@ package com.ecommerce.repository.impl;
 
 import com.ecommerce.model.Cart;
 import com.ecommerce.model.CartItem;
+import com.ecommerce.model.ProductAvailability;
 import com.ecommerce.repository.CartRepository;
 import com.ecommerce.repository.rowmapper.CartItemRowMapper;
 import com.ecommerce.repository.rowmapper.CartRowMapper;
@@ -11,10 +12,19 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -63,19 +73,6 @@ public class CartRepositoryImpl implements CartRepository {
 		return findById(newId).orElseThrow();
 	}
 
-	@Override
-	public void updateTimestamp(Long cartId) {
-		String sql = "UPDATE carts SET updated_at = NOW() WHERE id = ?";
-		jdbc.update(sql, cartId);
-	}
-
-	@Override
-	public void delete(Long cartId) {
-		clearCart(cartId); // Delete items first
-		String sql = "DELETE FROM carts WHERE id = ?";
-		jdbc.update(sql, cartId);
-	}
-
 	@Override
 	public List<CartItem> findItemsByCartId(Long cartId) {
 		String sql = """
@@ -97,76 +94,133 @@ public class CartRepositoryImpl implements CartRepository {
 		return jdbc.query(sql, itemMapper, cartId);
 	}
 
+	// hi/lo ids: lines created in memory need their id before they are
+	// written, so ids are handed out in blocks from id_blocks. The first
+	// reservation seeds the counter past the rows already stored.
 	@Override
-	public Optional<CartItem> findCartItem(Long cartId, Long productId) {
-		String sql = "SELECT * FROM cart_items WHERE cart_id = ? AND product_id = ?";
-		try {
-			CartItem item = jdbc.queryForObject(sql, itemMapper, cartId, productId);
-			return Optional.ofNullable(item);
-		} catch (EmptyResultDataAccessException e) {
-			return Optional.empty();
-		}
+	@Transactional
+	public long reserveItemIds(int count) {
+		jdbc.update("""
+				    INSERT IGNORE INTO id_blocks (name, next_id)
+				    SELECT 'cart_items', COALESCE(MAX(id), 0) + 1 FROM cart_items
+				""");
+		Long first = jdbc.queryForObject("SELECT next_id FROM id_blocks WHERE name = 'cart_items' FOR UPDATE",
+				Long.class);
+		jdbc.update("UPDATE id_blocks SET next_id = ? WHERE name = 'cart_items'", first + count);
+		return first;
 	}
 
 	@Override
-	public CartItem addItem(CartItem cartItem) {
-		String sql = "INSERT INTO cart_items (cart_id, product_id, quantity, price_at_add) VALUES (?, ?, ?, ?)";
-		KeyHolder keyHolder = new GeneratedKeyHolder();
+	@Transactional
+	public void writeBack(Collection<Long> clearedCartIds, Collection<Long> removedItemIds, List<CartItem> upserts,
+			Map<Long, LocalDateTime> touchedCarts) {
 
-		jdbc.update(connection -> {
-			PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-			ps.setLong(1, cartItem.getCartId());
-			ps.setLong(2, cartItem.getProductId());
-			ps.setInt(3, cartItem.getQuantity());
-			ps.setBigDecimal(4, cartItem.getPriceAtAdd());
-			return ps;
-		}, keyHolder);
+		if (!clearedCartIds.isEmpty()) {
+			jdbc.update("DELETE FROM cart_items WHERE cart_id IN (" + placeholders(clearedCartIds.size()) + ")",
+					clearedCartIds.toArray());
+		}
+		if (!removedItemIds.isEmpty()) {
+			jdbc.update("DELETE FROM cart_items WHERE id IN (" + placeholders(removedItemIds.size()) + ")",
+					removedItemIds.toArray());
+		}
+
+		// A line can clash with a stored row on its id or, through
+		// uk_cart_items_cart_product, on (cart_id, product_id): a row of a product
+		// that was hidden while inactive. Either way the row takes the line's id
+		// and values, so later writes and deletes by id find it.
+		if (!upserts.isEmpty()) {
+			List<Object> args = new ArrayList<>(upserts.size() * 5);
+			for (CartItem item : upserts) {
+				args.add(item.getId());
+				args.add(item.getCartId());
+				args.add(item.getProductId());
+				args.add(item.getQuantity());
+				args.add(item.getPriceAtAdd());
+			}
+			String sql = "INSERT INTO cart_items (id, cart_id, product_id, quantity, price_at_add) VALUES "
+					+ String.join(",", Collections.nCopies(upserts.size(), "(?, ?, ?, ?, ?)"))
+					+ " ON DUPLICATE KEY UPDATE id = VALUES(id), quantity = VALUES(quantity),"
+					+ " price_at_add = VALUES(price_at_add)";
+			jdbc.update(sql, args.toArray());
+		}
 
-		cartItem.setId(keyHolder.getKey().longValue());
-		updateTimestamp(cartItem.getCartId());
-		return cartItem;
+		if (!touchedCarts.isEmpty()) {
+			List<Object[]> stamps = new ArrayList<>(touchedCarts.size());
+			touchedCarts.forEach((cartId, at) -> stamps.add(new Object[] { Timestamp.valueOf(at), cartId }));
+			jdbc.batchUpdate("UPDATE carts SET updated_at = ? WHERE id = ?", stamps);
+		}
 	}
 
 	@Override
-	public void updateItemQuantity(Long cartItemId, Integer quantity) {
-		String sql = "UPDATE cart_items SET quantity = ? WHERE id = ?";
-		jdbc.update(sql, quantity, cartItemId);
-
-		// Update cart timestamp
-		Optional<CartItem> item = findItemById(cartItemId);
-		item.ifPresent(i -> updateTimestamp(i.getCartId()));
+	public Optional<CartItem> findItemById(Long cartItemId) {
+		String sql = "SELECT * FROM cart_items WHERE id = ?";
+		try {
+			CartItem item = jdbc.queryForObject(sql, itemMapper, cartItemId);
+			return Optional.ofNullable(item);
+		} catch (EmptyResultDataAccessException e) {
+			return Optional.empty();
+		}
 	}
 
 	@Override
-	public void removeItem(Long cartItemId) {
-		Optional<CartItem> item = findItemById(cartItemId);
-		String sql = "DELETE FROM cart_items WHERE id = ?";
-		jdbc.update(sql, cartItemId);
-
-		item.ifPresent(i -> updateTimestamp(i.getCartId()));
+	public Map<Long, ProductAvailability> findAvailability(Collection<Long> productIds) {
+		if (productIds.isEmpty())
+			return Map.of();
+		String sql = """
+				    SELECT p.id,
+				           p.selling_price,
+				           (p.is_active = 1 AND s.is_active = 1) AS on_sale,
+				           COALESCE(i.quantity - i.reserved, 0) AS available
+				    FROM products p
+				    JOIN shops s ON p.shop_id = s.id
+				    LEFT JOIN inventory i ON i.product_id = p.id
+				    WHERE p.id IN (""" + placeholders(productIds.size()) + ")";
+		Map<Long, ProductAvailability> out = new HashMap<>();
+		jdbc.query(sql, rs -> {
+			long id = rs.getLong("id");
+			out.put(id, new ProductAvailability(id, rs.getBigDecimal("selling_price"), rs.getBoolean("on_sale"),
+					Math.max(0, rs.getInt("available"))));
+		}, productIds.toArray());
+		return out;
 	}
 
-	@Override
-	public void clearCart(Long cartId) {
-		String sql = "DELETE FROM cart_items WHERE cart_id = ?";
-		jdbc.update(sql, cartId);
-		updateTimestamp(cartId);
+	private static String placeholders(int n) {
+		return String.join(",", Collections.nCopies(n, "?"));
 	}
 
+	// One keyset chunk over the primary key, streamed. The emptiness probe is
+	// an index lookup on uk_cart_items_cart_product and, being last in the
+	// AND, only runs for carts that are idle and not yet reminded.
 	@Override
-	public int getItemsCount(Long cartId) {
-		String sql = "SELECT COUNT(*) FROM cart_items WHERE cart_id = ?";
-		return jdbc.queryForObject(sql, Integer.class, cartId);
+	public long scanIdleCarts(long afterId, int limit, LocalDateTime idleBefore, IdleCartSink sink) {
+		String sql = """
+				    SELECT c.id, c.user_id,
+				           c.updated_at < ?
+				           AND (c.reminded_at IS NULL OR c.reminded_at < c.updated_at)
+				           AND EXISTS (SELECT 1 FROM cart_items ci WHERE ci.cart_id = c.id) AS due
+				    FROM carts c
+				    WHERE c.id > ?
+				    ORDER BY c.id
+				    LIMIT ?
+				""";
+		long[] last = { afterId };
+		jdbc.query(StreamingQuery.of(sql, Timestamp.valueOf(idleBefore), afterId, limit), (ResultSet rs) -> {
+			last[0] = rs.getLong(1);
+			if (rs.getBoolean(3))
+				sink.accept(last[0], rs.getLong(2));
+		});
+		return last[0];
 	}
 
 	@Override
-	public Optional<CartItem> findItemById(Long cartItemId) {
-		String sql = "SELECT * FROM cart_items WHERE id = ?";
-		try {
-			CartItem item = jdbc.queryForObject(sql, itemMapper, cartItemId);
-			return Optional.ofNullable(item);
-		} catch (EmptyResultDataAccessException e) {
-			return Optional.empty();
-		}
+	public void markReminded(Collection<Long> cartIds, LocalDateTime at) {
+		if (cartIds.isEmpty())
+			return;
+		// updated_at is ON UPDATE CURRENT_TIMESTAMP; setting it to itself keeps it
+		List<Object> args = new ArrayList<>(cartIds.size() + 1);
+		args.add(Timestamp.valueOf(at));
+		args.addAll(cartIds);
+		jdbc.update("UPDATE carts SET reminded_at = ?, updated_at = updated_at WHERE id IN ("
+				+ placeholders(cartIds.size()) + ")", args.toArray());
 	}
-}
\ No newline at end of file
+}
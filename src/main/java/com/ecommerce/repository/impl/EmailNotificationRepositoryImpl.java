@@ -11,6 +11,8 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,6 +48,24 @@ public class EmailNotificationRepositoryImpl implements EmailNotificationReposit
 		return keyHolder.getKey().longValue();
 	}
 
+	@Override
+	public void saveAll(List<EmailNotification> notifications) {
+		if (notifications.isEmpty())
+			return;
+
+		List<Object> args = new ArrayList<>(notifications.size() * 4);
+		for (EmailNotification n : notifications) {
+			args.add(n.getUserId());
+			args.add(n.getSubject());
+			args.add(n.getMessage());
+			args.add(n.getStatus());
+		}
+		String sql = "INSERT INTO email_notifications (user_id, subject, message, status) VALUES "
+				+ String.join(",", Collections.nCopies(notifications.size(), "(?, ?, ?, ?)"));
+
+		jdbcTemplate.update(sql, args.toArray());
+	}
+
 	@Override
 	public boolean updateStatus(Long id, String status) {
 
@@ -0,0 +1,57 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.repository.ImageObjectRepository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class ImageObjectRepositoryImpl implements ImageObjectRepository {
+
+	private final JdbcTemplate jdbc;
+
+	public ImageObjectRepositoryImpl(JdbcTemplate jdbc) {
+		this.jdbc = jdbc;
+	}
+
+	// single statement, so two uploads of the same bytes both count
+	@Override
+	public void acquire(String sha256, String imagePath, long sizeBytes) {
+		String sql = """
+				INSERT INTO image_objects (sha256, image_path, size_bytes, ref_count)
+				VALUES (?, ?, ?, 1)
+				ON DUPLICATE KEY UPDATE ref_count = ref_count + 1
+				""";
+		jdbc.update(sql, sha256, imagePath, sizeBytes);
+	}
+
+	@Override
+	public boolean retain(String imagePath) {
+		return jdbc.update("UPDATE image_objects SET ref_count = ref_count + 1 WHERE image_path = ?",
+				imagePath) > 0;
+	}
+
+	@Override
+	public void release(String imagePath) {
+		jdbc.update("UPDATE image_objects SET ref_count = ref_count - 1 WHERE image_path = ? AND ref_count > 0",
+				imagePath);
+	}
+
+	@Override
+	public List<String> findUnreferenced(int graceMinutes, int limit) {
+		String sql = """
+				SELECT image_path FROM image_objects
+				WHERE ref_count = 0 AND updated_at < NOW() - INTERVAL ? MINUTE
+				ORDER BY updated_at
+				LIMIT ?
+				""";
+		return jdbc.queryForList(sql, String.class, graceMinutes, limit);
+	}
+
+	@Override
+	public boolean deleteIfUnreferenced(String imagePath) {
+		return jdbc.update("DELETE FROM image_objects WHERE image_path = ? AND ref_count = 0", imagePath) > 0;
+	}
+}
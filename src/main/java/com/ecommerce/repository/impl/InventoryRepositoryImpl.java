@@ -6,7 +6,10 @@ import com.ecommerce.repository.rowmapper.InventoryRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -36,6 +39,23 @@ public class InventoryRepositoryImpl implements InventoryRepository {
 		return jdbcTemplate.update(sql, productId, initialQuantity) > 0;
 	}
 
+	// one multi-row INSERT for a batch of new products
+	@Override
+	public void createInventories(Map<Long, Integer> initialQuantities) {
+		if (initialQuantities.isEmpty())
+			return;
+
+		String sql = "INSERT INTO inventory (product_id, quantity, reserved) VALUES "
+				+ String.join(",", Collections.nCopies(initialQuantities.size(), "(?, ?, 0)"));
+
+		List<Object> params = new ArrayList<>(initialQuantities.size() * 2);
+		initialQuantities.forEach((productId, quantity) -> {
+			params.add(productId);
+			params.add(quantity);
+		});
+		jdbcTemplate.update(sql, params.toArray());
+	}
+
 	@Override
 	public boolean update(Inventory inventory) {
 		String sql = """
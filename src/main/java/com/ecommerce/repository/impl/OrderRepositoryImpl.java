@@ -12,9 +12,16 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public class OrderRepositoryImpl implements OrderRepository {
@@ -130,6 +137,44 @@ public class OrderRepositoryImpl implements OrderRepository {
 		return jdbc.query(sql, orderRowMapper);
 	}
 
+	@Override
+	public void streamAll(Consumer<Order> sink) {
+		jdbc.query(StreamingQuery.of("SELECT * FROM orders ORDER BY id"),
+				(ResultSet rs) -> sink.accept(orderRowMapper.mapRow(rs, 0)));
+	}
+
+	// items of many orders in one query, keyed by order id
+	@Override
+	public Map<Long, List<OrderItemResponse>> findItemsByOrderIds(Collection<Long> orderIds) {
+		Map<Long, List<OrderItemResponse>> byOrder = new HashMap<>();
+		if (orderIds.isEmpty())
+			return byOrder;
+
+		String placeholders = String.join(",", Collections.nCopies(orderIds.size(), "?"));
+		String sql = """
+				    SELECT oi.order_id,
+				           oi.product_id,
+				           p.name as product_name,
+				           oi.quantity,
+				           oi.unit_price,
+				           oi.total_price,
+				           (SELECT image_path FROM product_images pi
+				            WHERE pi.product_id = p.id AND pi.is_primary = 1 LIMIT 1) as product_image
+				    FROM order_items oi
+				    JOIN products p ON oi.product_id = p.id
+				    WHERE oi.order_id IN (%s)
+				    ORDER BY oi.order_id, oi.id
+				""".formatted(placeholders);
+
+		jdbc.query(sql, (ResultSet rs) -> {
+			byOrder.computeIfAbsent(rs.getLong("order_id"), id -> new ArrayList<>())
+					.add(new OrderItemResponse(rs.getLong("product_id"), rs.getString("product_name"),
+							rs.getInt("quantity"), rs.getBigDecimal("unit_price"), rs.getBigDecimal("total_price"),
+							rs.getString("product_image")));
+		}, orderIds.toArray());
+		return byOrder;
+	}
+
 	private final RowMapper<Order> orderRowMapper = (rs, rowNum) -> {
 		Order order = new Order();
 		order.setId(rs.getLong("id"));
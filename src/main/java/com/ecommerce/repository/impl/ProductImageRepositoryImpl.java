@@ -1,5 +1,6 @@
 package com.ecommerce.repository.impl;
 
+import com.ecommerce.model.ImageDerivative;
 import com.ecommerce.model.ProductImage;
 import com.ecommerce.repository.ProductImageRepository;
 import com.ecommerce.repository.rowmapper.ProductImageRowMapper;
@@ -11,12 +12,21 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.TreeMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
 public class ProductImageRepositoryImpl implements ProductImageRepository {
 
+	// keeps the IN (...) list well under max_allowed_packet / placeholder limits
+	private static final int IN_CHUNK = 1000;
+
 	private final JdbcTemplate jdbc;
 
 	public ProductImageRepositoryImpl(JdbcTemplate jdbc) {
@@ -60,7 +70,9 @@ public class ProductImageRepositoryImpl implements ProductImageRepository {
 
 	@Override
 	public boolean softDelete(Long id) {
-		return jdbc.update("UPDATE product_images SET is_deleted=TRUE WHERE id=?", id) > 0;
+		// only the call that actually flips the flag reports true, so the shared
+		// file behind the image is released once
+		return jdbc.update("UPDATE product_images SET is_deleted=TRUE WHERE id=? AND is_deleted=FALSE", id) > 0;
 	}
 
 	@Override
@@ -126,4 +138,74 @@ public class ProductImageRepositoryImpl implements ProductImageRepository {
 		}
 	}
 
-}
\ No newline at end of file
+	// One image per product for listings: the primary one, otherwise the first
+	// by sort order - same rule the per-product lookup used to apply in Java.
+	@Override
+	public Map<Long, String> findPrimaryImagePaths(Collection<Long> productIds) {
+		if (productIds == null || productIds.isEmpty())
+			return Collections.emptyMap();
+
+		List<Long> ids = new ArrayList<>(productIds);
+		Map<Long, String> paths = new HashMap<>();
+
+		for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+			List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + IN_CHUNK));
+			String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+			String sql = """
+					SELECT product_id, image_path FROM product_images
+					WHERE product_id IN (%s) AND is_deleted=FALSE
+					ORDER BY product_id, is_primary DESC, sort_image_order ASC, id ASC
+					""".formatted(placeholders);
+
+			jdbc.query(sql, rs -> {
+				paths.putIfAbsent(rs.getLong("product_id"), rs.getString("image_path"));
+			}, chunk.toArray());
+		}
+		return paths;
+	}
+
+	@Override
+	public void saveDerivatives(Long imageId, List<ImageDerivative> derivatives) {
+		if (!derivatives.isEmpty()) {
+			String sql = """
+					INSERT INTO product_image_derivatives (image_id, width, height, image_path)
+					VALUES (?, ?, ?, ?)
+					ON DUPLICATE KEY UPDATE height = VALUES(height), image_path = VALUES(image_path)
+					""";
+			jdbc.batchUpdate(sql, derivatives, derivatives.size(), (ps, d) -> {
+				ps.setLong(1, imageId);
+				ps.setInt(2, d.getWidth());
+				ps.setInt(3, d.getHeight());
+				ps.setString(4, d.getImagePath());
+			});
+		}
+		jdbc.update("UPDATE product_images SET derivatives_done = TRUE WHERE id = ?", imageId);
+	}
+
+	@Override
+	public Map<Long, Map<Integer, String>> findDerivativePaths(Long productId) {
+		String sql = """
+				SELECT d.image_id, d.width, d.image_path
+				FROM product_image_derivatives d
+				JOIN product_images i ON i.id = d.image_id
+				WHERE i.product_id = ? AND i.is_deleted = FALSE
+				""";
+		Map<Long, Map<Integer, String>> out = new HashMap<>();
+		jdbc.query(sql, rs -> {
+			out.computeIfAbsent(rs.getLong("image_id"), k -> new TreeMap<>()).put(rs.getInt("width"),
+					rs.getString("image_path"));
+		}, productId);
+		return out;
+	}
+
+	@Override
+	public List<ProductImage> findPendingDerivatives(int limit) {
+		String sql = """
+				SELECT * FROM product_images
+				WHERE derivatives_done = FALSE AND is_deleted = FALSE
+				ORDER BY id
+				LIMIT ?
+				""";
+		return jdbc.query(sql, new ProductImageRowMapper(), limit);
+	}
+}
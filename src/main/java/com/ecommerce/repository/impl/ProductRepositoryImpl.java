@@ -3,6 +3,7 @@ package com.ecommerce.repository.impl;
 import com.ecommerce.model.Product;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.rowmapper.ProductRowMapper;
+import com.ecommerce.search.ProductQuery;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -10,9 +11,20 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class ProductRepositoryImpl implements ProductRepository {
@@ -57,6 +69,51 @@ public class ProductRepositoryImpl implements ProductRepository {
 		return (key != null) ? key.longValue() : null;
 	}
 
+	// One multi-row INSERT for the whole list; returns the generated ids in
+	// list order (MySQL hands out consecutive ids to a multi-row insert).
+	@Override
+	public List<Long> saveAll(List<Product> products) {
+		if (products.isEmpty())
+			return List.of();
+
+		String sql = """
+				INSERT INTO products
+				(shop_id, category_id, sku, name, short_description, description, selling_price, mrp, is_active)
+				VALUES """ + String.join(",", Collections.nCopies(products.size(), "(?, ?, ?, ?, ?, ?, ?, ?, ?)"));
+
+		KeyHolder kh = new GeneratedKeyHolder();
+		jdbcTemplate.update(conn -> {
+			PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			int i = 1;
+			for (Product p : products) {
+				ps.setLong(i++, p.getShopId());
+				ps.setObject(i++, p.getCategoryId(), java.sql.Types.BIGINT);
+				ps.setString(i++, p.getSku());
+				ps.setString(i++, p.getName());
+				ps.setString(i++, p.getShortDescription());
+				ps.setString(i++, p.getDescription());
+				ps.setDouble(i++, p.getSellingPrice());
+				ps.setObject(i++, p.getMrp(), java.sql.Types.DECIMAL);
+				ps.setBoolean(i++, p.getIsActive() == null ? true : p.getIsActive());
+			}
+			return ps;
+		}, kh);
+
+		List<Long> ids = new ArrayList<>(products.size());
+		for (Map<String, Object> keys : kh.getKeyList())
+			ids.add(((Number) keys.values().iterator().next()).longValue());
+		return ids;
+	}
+
+	@Override
+	public Set<String> findExistingSkus(Collection<String> skus) {
+		if (skus.isEmpty())
+			return Set.of();
+		String sql = "SELECT sku FROM products WHERE sku IN ("
+				+ String.join(",", Collections.nCopies(skus.size(), "?")) + ")";
+		return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, skus.toArray()));
+	}
+
 	@Override
 	public boolean update(Product product) {
 		String sql = """
@@ -85,6 +142,15 @@ public class ProductRepositoryImpl implements ProductRepository {
 		return list.stream().findFirst();
 	}
 
+	@Override
+	public List<Product> findByIds(Collection<Long> ids) {
+		if (ids.isEmpty())
+			return List.of();
+		String sql = "SELECT * FROM products WHERE id IN (" + String.join(",", Collections.nCopies(ids.size(), "?"))
+				+ ")";
+		return jdbcTemplate.query(sql, new ProductRowMapper(), ids.toArray());
+	}
+
 	@Override
 	public List<Product> findAllActive() {
 		String sql = "SELECT * FROM products WHERE is_active = TRUE ORDER BY created_at DESC";
@@ -103,6 +169,14 @@ public class ProductRepositoryImpl implements ProductRepository {
 		return jdbcTemplate.query(sql, new ProductRowMapper());
 	}
 
+	// full-table export; rows are streamed, not collected (see StreamingQuery)
+	@Override
+	public void streamAll(Consumer<Product> sink) {
+		ProductRowMapper mapper = new ProductRowMapper();
+		jdbcTemplate.query(StreamingQuery.of("SELECT * FROM products ORDER BY id"),
+				(ResultSet rs) -> sink.accept(mapper.mapRow(rs, 0)));
+	}
+
 	@Override
 	public boolean existsBySku(String sku) {
 		String sql = "SELECT COUNT(*) FROM products WHERE sku = ?";
@@ -111,31 +185,72 @@ public class ProductRepositoryImpl implements ProductRepository {
 	}
 
 	@Override
-	public List<Product> search(String q, Long categoryId, int limit, int offset) {
-		String base = "SELECT * FROM products WHERE is_active = TRUE";
-		StringBuilder sb = new StringBuilder(base);
-		Object[] params;
+	public List<Product> search(ProductQuery query, int limit, int offset) {
+		StringBuilder sb = new StringBuilder("SELECT * FROM products WHERE is_active = TRUE");
+		List<Object> params = new ArrayList<>();
+		appendFilters(sb, params, query);
+
+		switch (query.sort()) {
+		case PRICE_ASC -> sb.append(" ORDER BY selling_price ASC, created_at DESC, id DESC");
+		case PRICE_DESC -> sb.append(" ORDER BY selling_price DESC, created_at DESC, id DESC");
+		default -> sb.append(" ORDER BY created_at DESC");
+		}
+		sb.append(" LIMIT ? OFFSET ?");
+		params.add(limit);
+		params.add(offset);
+
+		return jdbcTemplate.query(sb.toString(), new ProductRowMapper(), params.toArray());
+	}
+
+	// Keyset version of search: seeks past (afterCreatedAt, afterId) instead of
+	// skipping OFFSET rows, so deep pages cost the same as the first one. Always
+	// newest first, whatever sort the query asks for.
+	@Override
+	public List<Product> searchAfter(ProductQuery query, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+		StringBuilder sb = new StringBuilder("SELECT * FROM products WHERE is_active = TRUE");
+		List<Object> params = new ArrayList<>();
+		appendFilters(sb, params, query);
+
+		if (afterCreatedAt != null && afterId != null) {
+			sb.append(" AND (created_at < ? OR (created_at = ? AND id < ?))");
+			Timestamp ts = Timestamp.valueOf(afterCreatedAt);
+			params.add(ts);
+			params.add(ts);
+			params.add(afterId);
+		}
+		sb.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+		params.add(limit);
+
+		return jdbcTemplate.query(sb.toString(), new ProductRowMapper(), params.toArray());
+	}
+
+	private void appendFilters(StringBuilder sb, List<Object> params, ProductQuery query) {
+		String q = query.text();
 		if (q != null && !q.isBlank()) {
 			sb.append(" AND (name LIKE ? OR short_description LIKE ? OR description LIKE ? OR sku LIKE ?)");
-			if (categoryId != null) {
-				sb.append(" AND category_id = ?");
-				sb.append(" ORDER BY created_at DESC LIMIT ? OFFSET ?");
-				params = new Object[] { "%" + q + "%", "%" + q + "%", "%" + q + "%", "%" + q + "%", categoryId, limit,
-						offset };
-			} else {
-				sb.append(" ORDER BY created_at DESC LIMIT ? OFFSET ?");
-				params = new Object[] { "%" + q + "%", "%" + q + "%", "%" + q + "%", "%" + q + "%", limit, offset };
-			}
-		} else {
-			if (categoryId != null) {
-				sb.append(" AND category_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?");
-				params = new Object[] { categoryId, limit, offset };
-			} else {
-				sb.append(" ORDER BY created_at DESC LIMIT ? OFFSET ?");
-				params = new Object[] { limit, offset };
-			}
+			String like = "%" + q + "%";
+			params.add(like);
+			params.add(like);
+			params.add(like);
+			params.add(like);
+		}
+		if (query.categoryScope() != null) {
+			sb.append(" AND category_id IN (")
+					.append(String.join(",", Collections.nCopies(query.categoryScope().length, "?"))).append(")");
+			for (long id : query.categoryScope())
+				params.add(id);
+		} else if (query.categoryId() != null) {
+			sb.append(" AND category_id = ?");
+			params.add(query.categoryId());
+		}
+		if (query.minPrice() != null) {
+			sb.append(" AND selling_price >= ?");
+			params.add(query.minPrice());
+		}
+		if (query.maxPrice() != null) {
+			sb.append(" AND selling_price <= ?");
+			params.add(query.maxPrice());
 		}
-		return jdbcTemplate.query(sb.toString(), new ProductRowMapper(), params);
 	}
 
 	@Override
@@ -149,10 +264,10 @@ public class ProductRepositoryImpl implements ProductRepository {
 	}
 
 	@Override
-	public List<String> searchSuggestions(String query) {
+	public List<Product> searchSuggestions(String query) {
 
 		String sql = """
-				    SELECT name
+				    SELECT id, name
 				    FROM products
 				    WHERE is_active = TRUE
 				    AND name LIKE ?
@@ -160,7 +275,40 @@ public class ProductRepositoryImpl implements ProductRepository {
 				    LIMIT 10
 				""";
 
-		return jdbcTemplate.queryForList(sql, String.class, query + "%");
+		return jdbcTemplate.query(sql, (rs, rowNum) -> idAndName(rs.getLong("id"), rs.getString("name")), query + "%");
+	}
+
+	@Override
+	public List<Product> findActiveNames() {
+		String sql = "SELECT id, name FROM products WHERE is_active = TRUE";
+		return jdbcTemplate.query(sql, (rs, rowNum) -> idAndName(rs.getLong("id"), rs.getString("name")));
+	}
+
+	@Override
+	public Map<Long, Long> findOrderedQuantities() {
+		String sql = "SELECT product_id, SUM(quantity) FROM order_items GROUP BY product_id";
+		return countsByProduct(sql);
+	}
+
+	@Override
+	public Map<Long, Long> findViewCounts() {
+		String sql = "SELECT product_id, COUNT(*) FROM recently_viewed GROUP BY product_id";
+		return countsByProduct(sql);
+	}
+
+	private Map<Long, Long> countsByProduct(String sql) {
+		Map<Long, Long> counts = new HashMap<>();
+		jdbcTemplate.query(sql, rs -> {
+			counts.put(rs.getLong(1), rs.getLong(2));
+		});
+		return counts;
+	}
+
+	private static Product idAndName(long id, String name) {
+		Product p = new Product();
+		p.setId(id);
+		p.setName(name);
+		return p;
 	}
 
 }
\ No newline at end of file
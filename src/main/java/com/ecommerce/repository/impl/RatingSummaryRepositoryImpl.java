@@ -0,0 +1,117 @@
+package com.ecommerce.repository.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.ecommerce.model.RatingSummary;
+import com.ecommerce.repository.RatingSummaryRepository;
+import com.ecommerce.repository.rowmapper.RatingSummaryRowMapper;
+
+@Repository
+public class RatingSummaryRepositoryImpl implements RatingSummaryRepository {
+
+	private static final String INSERT = """
+			INSERT INTO product_rating_summary
+			 (product_id, review_count, rating_sum, star_1, star_2, star_3, star_4, star_5)
+			VALUES
+			""";
+
+	private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String ADD = """
+			ON DUPLICATE KEY UPDATE
+			 review_count = review_count + VALUES(review_count),
+			 rating_sum = rating_sum + VALUES(rating_sum),
+			 star_1 = star_1 + VALUES(star_1),
+			 star_2 = star_2 + VALUES(star_2),
+			 star_3 = star_3 + VALUES(star_3),
+			 star_4 = star_4 + VALUES(star_4),
+			 star_5 = star_5 + VALUES(star_5)
+			""";
+
+	private static final String REPLACE = """
+			ON DUPLICATE KEY UPDATE
+			 review_count = VALUES(review_count),
+			 rating_sum = VALUES(rating_sum),
+			 star_1 = VALUES(star_1),
+			 star_2 = VALUES(star_2),
+			 star_3 = VALUES(star_3),
+			 star_4 = VALUES(star_4),
+			 star_5 = VALUES(star_5)
+			""";
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	// Single-statement upsert, so concurrent reviews of the same product add up
+	// under the row lock instead of overwriting each other.
+	@Override
+	public void applyDelta(Long productId, int rating, int delta) {
+		String sql = INSERT + ROW + "\n" + ADD;
+		jdbc.update(sql, productId, delta, (long) delta * rating, rating == 1 ? delta : 0, rating == 2 ? delta : 0,
+				rating == 3 ? delta : 0, rating == 4 ? delta : 0, rating == 5 ? delta : 0);
+	}
+
+	@Override
+	public Map<Long, RatingSummary> findByProductIds(Collection<Long> productIds) {
+		Map<Long, RatingSummary> out = new HashMap<>();
+		if (productIds == null || productIds.isEmpty())
+			return out;
+
+		String sql = "SELECT * FROM product_rating_summary WHERE product_id IN ("
+				+ String.join(",", Collections.nCopies(productIds.size(), "?")) + ")";
+		for (RatingSummary s : jdbc.query(sql, new RatingSummaryRowMapper(), productIds.toArray()))
+			out.put(s.getProductId(), s);
+		return out;
+	}
+
+	@Override
+	public void saveAll(List<RatingSummary> summaries) {
+		if (summaries.isEmpty())
+			return;
+
+		String sql = INSERT + String.join(",", Collections.nCopies(summaries.size(), ROW)) + "\n" + REPLACE;
+		List<Object> params = new ArrayList<>(summaries.size() * 8);
+		for (RatingSummary s : summaries) {
+			params.add(s.getProductId());
+			params.add(s.getReviewCount());
+			params.add(s.getRatingSum());
+			for (int n : s.getStars())
+				params.add(n);
+		}
+		jdbc.update(sql, params.toArray());
+	}
+
+	@Override
+	public List<Long> findAllProductIds() {
+		return jdbc.queryForList("SELECT product_id FROM product_rating_summary ORDER BY product_id", Long.class);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return !Boolean.TRUE.equals(
+				jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM product_rating_summary)", Boolean.class));
+	}
+
+	@Override
+	public void deleteWithoutReviews(Collection<Long> productIds) {
+		if (productIds.isEmpty())
+			return;
+		String sql = """
+				DELETE FROM product_rating_summary
+				WHERE product_id IN (%s)
+				AND NOT EXISTS (SELECT 1 FROM reviews r
+				 WHERE r.product_id = product_rating_summary.product_id
+				 AND r.is_deleted = 0 AND r.rating BETWEEN 1 AND 5)
+				""".formatted(String.join(",", Collections.nCopies(productIds.size(), "?")));
+		jdbc.update(sql, productIds.toArray());
+	}
+}
@@ -6,8 +6,13 @@ import com.ecommerce.repository.rowmapper.RecentlyViewedRowMapper;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class RecentlyViewedRepositoryImpl implements RecentlyViewedRepository {
@@ -18,54 +23,47 @@ public class RecentlyViewedRepositoryImpl implements RecentlyViewedRepository {
 		this.jdbcTemplate = jdbcTemplate;
 	}
 
-	@Override
-	public void saveOrUpdate(Long userId, Long productId) {
-
-		String updateSql = """
-				    UPDATE recently_viewed
-				    SET viewed_at = CURRENT_TIMESTAMP
-				    WHERE user_id = ? AND product_id = ?
-				""";
-
-		int updated = jdbcTemplate.update(updateSql, userId, productId);
-
-		if (updated == 0) {
-			String insertSql = """
-					    INSERT INTO recently_viewed (user_id, product_id)
-					    VALUES (?, ?)
-					""";
-			jdbcTemplate.update(insertSql, userId, productId);
-		}
-
-		String cleanupSql = """
-				    DELETE FROM recently_viewed
-				    WHERE user_id = ?
-				      AND id NOT IN (
-				            SELECT id FROM (
-				                SELECT id FROM recently_viewed
-				                WHERE user_id = ?
-				                ORDER BY viewed_at DESC
-				                LIMIT 10
-				            ) AS t
-				      )
-				""";
-
-		jdbcTemplate.update(cleanupSql, userId, userId);
-	}
-
 	@Override
 	public List<RecentlyViewed> findLastNByUser(Long userId, int limit) {
 
 		String sql = """
 				    SELECT * FROM recently_viewed
 				    WHERE user_id = ?
-				    ORDER BY viewed_at DESC
+				    ORDER BY viewed_at DESC, id DESC
 				    LIMIT ?
 				""";
 
 		return jdbcTemplate.query(sql, new RecentlyViewedRowMapper(), userId, limit);
 	}
 
+	// One DELETE and one multi-row INSERT for the whole batch, replacing the
+	// UPDATE / INSERT / trim-DELETE that used to run on every single view.
+	@Override
+	@Transactional
+	public void replaceForUsers(Map<Long, List<RecentlyViewed>> viewsByUser) {
+		if (viewsByUser.isEmpty())
+			return;
+
+		List<Object> userIds = new ArrayList<>(viewsByUser.keySet());
+		jdbcTemplate.update("DELETE FROM recently_viewed WHERE user_id IN ("
+				+ String.join(",", Collections.nCopies(userIds.size(), "?")) + ")", userIds.toArray());
+
+		List<Object> args = new ArrayList<>();
+		viewsByUser.forEach((userId, views) -> {
+			for (RecentlyViewed rv : views) {
+				args.add(userId);
+				args.add(rv.getProductId());
+				args.add(Timestamp.valueOf(rv.getViewedAt()));
+			}
+		});
+		if (args.isEmpty())
+			return;
+
+		String sql = "INSERT INTO recently_viewed (user_id, product_id, viewed_at) VALUES "
+				+ String.join(",", Collections.nCopies(args.size() / 3, "(?, ?, ?)"));
+		jdbcTemplate.update(sql, args.toArray());
+	}
+
 	@Override
 	public boolean deleteAllByUser(Long userId) {
 
@@ -0,0 +1,46 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.repository.RecommendationRepository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+
+// Both reads stream (see StreamingQuery): they cover whole tables and feed a
+// builder that keeps only primitive arrays.
+@Repository
+public class RecommendationRepositoryImpl implements RecommendationRepository {
+
+	private final JdbcTemplate jdbc;
+
+	public RecommendationRepositoryImpl(JdbcTemplate jdbc) {
+		this.jdbc = jdbc;
+	}
+
+	// walks idx_recently_viewed_user, so the grouping needs no sort
+	@Override
+	public void streamViewBaskets(BasketRowSink sink) {
+		String sql = """
+				SELECT rv.user_id, rv.product_id
+				FROM recently_viewed rv
+				JOIN products p ON p.id = rv.product_id AND p.is_active = TRUE
+				ORDER BY rv.user_id
+				""";
+		jdbc.query(StreamingQuery.of(sql), (ResultSet rs) -> sink.accept(rs.getLong(1), rs.getLong(2)));
+	}
+
+	// a checkout split across shops shares order_parent_id
+	@Override
+	public void streamOrderBaskets(BasketRowSink sink) {
+		String sql = """
+				SELECT COALESCE(o.order_parent_id, o.id) AS basket, oi.product_id
+				FROM order_items oi
+				JOIN orders o ON o.id = oi.order_id
+				JOIN products p ON p.id = oi.product_id AND p.is_active = TRUE
+				WHERE o.status <> 'CANCELLED'
+				ORDER BY basket
+				""";
+		jdbc.query(StreamingQuery.of(sql), (ResultSet rs) -> sink.accept(rs.getLong(1), rs.getLong(2)));
+	}
+}
@@ -1,12 +1,17 @@
 package com.ecommerce.repository.impl;
 
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.ObjIntConsumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import com.ecommerce.enums.ReviewSort;
 import com.ecommerce.model.Review;
 import com.ecommerce.repository.ReviewRepository;
 import com.ecommerce.repository.rowmapper.ReviewRowMapper;
@@ -56,12 +61,63 @@ public class ReviewRepositoryImpl implements ReviewRepository {
 	}
 
 	@Override
-	public void delete(Long reviewId, Long userId) {
+	public boolean delete(Long reviewId, Long userId) {
 
-		jdbc.update("UPDATE reviews SET is_deleted=1 WHERE id=? AND user_id=?", reviewId, userId);
+		return jdbc.update("UPDATE reviews SET is_deleted=1 WHERE id=? AND user_id=? AND is_deleted=0", reviewId,
+				userId) == 1;
 
 	}
 
+	// Each order walks one of the (product_id, is_deleted, created_at, id) and
+	// (product_id, is_deleted, rating, id) indexes, so a page costs limit rows
+	// however deep it is.
+	@Override
+	public List<Review> findPage(Long productId, ReviewSort sort, Integer afterRating, Timestamp afterCreatedAt,
+			Long afterId, int bodyChars, int limit) {
+		StringBuilder sb = new StringBuilder("""
+				SELECT id, product_id, user_id, rating, title, LEFT(body, ?) AS body, is_deleted, created_at
+				 FROM reviews
+				 WHERE product_id=? AND is_deleted=0""");
+		List<Object> params = new ArrayList<>();
+		params.add(bodyChars);
+		params.add(productId);
+
+		boolean after = afterId != null;
+		switch (sort) {
+		case NEWEST -> {
+			if (after) {
+				sb.append(" AND (created_at < ? OR (created_at = ? AND id < ?))");
+				params.add(afterCreatedAt);
+				params.add(afterCreatedAt);
+				params.add(afterId);
+			}
+			sb.append(" ORDER BY created_at DESC, id DESC");
+		}
+		case HIGHEST -> {
+			if (after) {
+				sb.append(" AND (rating < ? OR (rating = ? AND id < ?))");
+				params.add(afterRating);
+				params.add(afterRating);
+				params.add(afterId);
+			}
+			sb.append(" ORDER BY rating DESC, id DESC");
+		}
+		case LOWEST -> {
+			if (after) {
+				sb.append(" AND (rating > ? OR (rating = ? AND id > ?))");
+				params.add(afterRating);
+				params.add(afterRating);
+				params.add(afterId);
+			}
+			sb.append(" ORDER BY rating ASC, id ASC");
+		}
+		}
+		sb.append(" LIMIT ?");
+		params.add(limit);
+
+		return jdbc.query(sb.toString(), new ReviewRowMapper(), params.toArray());
+	}
+
 	@Override
 	public Double avgRating(Long productId) {
 
@@ -74,4 +130,10 @@ public class ReviewRepositoryImpl implements ReviewRepository {
 		return avg != null ? avg : 0.0;
 	}
 
+	@Override
+	public void streamActiveRatings(ObjIntConsumer<Long> sink) {
+		jdbc.query(StreamingQuery.of("SELECT product_id, rating FROM reviews WHERE is_deleted=0 ORDER BY product_id"),
+				(ResultSet rs) -> sink.accept(rs.getLong(1), rs.getInt(2)));
+	}
+
 }
\ No newline at end of file
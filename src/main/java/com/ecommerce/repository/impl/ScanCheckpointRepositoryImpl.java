@@ -0,0 +1,37 @@
+package com.ecommerce.repository.impl;
+
+import com.ecommerce.repository.ScanCheckpointRepository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class ScanCheckpointRepositoryImpl implements ScanCheckpointRepository {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ScanCheckpointRepositoryImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public long find(String name) {
+		List<Long> ids = jdbcTemplate.queryForList("SELECT last_id FROM scan_checkpoints WHERE name = ?", Long.class,
+				name);
+		return ids.isEmpty() ? 0 : ids.get(0);
+	}
+
+	@Override
+	public void save(String name, long lastId) {
+
+		String sql = """
+				    INSERT INTO scan_checkpoints (name, last_id)
+				    VALUES (?, ?)
+				    ON DUPLICATE KEY UPDATE last_id = VALUES(last_id)
+				""";
+
+		jdbcTemplate.update(sql, name, lastId);
+	}
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.repository.impl;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+// Forward-only, read-only statement in the MySQL driver's row-by-row streaming
+// mode (fetch size Integer.MIN_VALUE): rows reach the RowCallbackHandler as
+// they come off the socket instead of the whole result being buffered first.
+// The connection can run nothing else until the result is drained, so callers
+// must not query through it from inside the callback (JdbcTemplate outside a
+// transaction borrows a separate pooled connection per call, which is fine).
+final class StreamingQuery {
+
+	private StreamingQuery() {
+	}
+
+	static PreparedStatementCreator of(String sql, Object... args) {
+		return connection -> {
+			PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(Integer.MIN_VALUE);
+			for (int i = 0; i < args.length; i++)
+				ps.setObject(i + 1, args[i]);
+			return ps;
+		};
+	}
+}
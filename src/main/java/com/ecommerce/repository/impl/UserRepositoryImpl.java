@@ -11,9 +11,11 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public class UserRepositoryImpl implements UserRepository {
@@ -128,6 +130,13 @@ public class UserRepositoryImpl implements UserRepository {
 		return jdbcTemplate.query(sql, new UserRowMapper());
 	}
 
+	@Override
+	public void streamAll(Consumer<User> sink) {
+		UserRowMapper mapper = new UserRowMapper();
+		jdbcTemplate.query(StreamingQuery.of("SELECT * FROM users ORDER BY id"),
+				(ResultSet rs) -> sink.accept(mapper.mapRow(rs, 0)));
+	}
+
 	@Override
 	public boolean existsByEmail(String email) {
 		String sql = "SELECT COUNT(*) FROM users WHERE email = ?";
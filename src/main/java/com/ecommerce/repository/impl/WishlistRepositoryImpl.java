@@ -1,5 +1,6 @@
 package com.ecommerce.repository.impl;
 
+import com.ecommerce.dto.WishlistResponse;
 import com.ecommerce.repository.rowmapper.WishlistRowMapper;
 import com.ecommerce.model.WishlistItem;
 import com.ecommerce.repository.WishlistRepository;
@@ -19,7 +20,12 @@ public class WishlistRepositoryImpl implements WishlistRepository {
 
 	@Override
 	public WishlistItem add(Long userId, Long productId) {
-		String sql = "INSERT INTO wishlist_items (user_id, product_id) VALUES (?, ?)";
+		// no-op on the (user_id, product_id) unique key, so adding twice, even
+		// concurrently, leaves one row and no error
+		String sql = """
+				INSERT INTO wishlist_items (user_id, product_id) VALUES (?, ?)
+				ON DUPLICATE KEY UPDATE id = id
+				""";
 		jdbcTemplate.update(sql, userId, productId);
 
 		return findItem(userId, productId).orElse(null);
@@ -37,6 +43,35 @@ public class WishlistRepositoryImpl implements WishlistRepository {
 		return jdbcTemplate.query(sql, new WishlistRowMapper(), userId);
 	}
 
+	// Product columns come from the join and the image from the same rule as
+	// the listing image (primary first, then sort order), so a wishlist of any
+	// size is one round trip instead of two lookups per row.
+	@Override
+	public List<WishlistResponse> findResponsesByUserId(Long userId) {
+		String sql = """
+				SELECT w.id, w.user_id, w.product_id, w.added_at, p.name, p.selling_price,
+				 (SELECT i.image_path FROM product_images i
+				  WHERE i.product_id = w.product_id AND i.is_deleted = FALSE
+				  ORDER BY i.is_primary DESC, i.sort_image_order ASC, i.id ASC
+				  LIMIT 1) AS image_path
+				FROM wishlist_items w
+				LEFT JOIN products p ON p.id = w.product_id
+				WHERE w.user_id = ?
+				ORDER BY w.id
+				""";
+		return jdbcTemplate.query(sql, (rs, rowNum) -> {
+			WishlistResponse r = new WishlistResponse();
+			r.setId(rs.getLong("id"));
+			r.setUserId(rs.getLong("user_id"));
+			r.setProductId(rs.getLong("product_id"));
+			r.setAddedAt(rs.getTimestamp("added_at").toLocalDateTime());
+			r.setProductName(rs.getString("name"));
+			r.setPrice(rs.getDouble("selling_price"));
+			r.setImage(rs.getString("image_path"));
+			return r;
+		}, userId);
+	}
+
 	@Override
 	public Optional<WishlistItem> findItem(Long userId, Long productId) {
 		String sql = "SELECT * FROM wishlist_items WHERE user_id = ? AND product_id = ?";
@@ -0,0 +1,23 @@
+package com.ecommerce.repository.rowmapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.ecommerce.model.RatingSummary;
+
+public class RatingSummaryRowMapper implements RowMapper<RatingSummary> {
+
+	@Override
+	public RatingSummary mapRow(ResultSet rs, int rowNum) throws SQLException {
+
+		RatingSummary s = new RatingSummary(rs.getLong("product_id"));
+		s.setReviewCount(rs.getInt("review_count"));
+		s.setRatingSum(rs.getLong("rating_sum"));
+		s.setStars(new int[] { rs.getInt("star_1"), rs.getInt("star_2"), rs.getInt("star_3"), rs.getInt("star_4"),
+				rs.getInt("star_5") });
+		return s;
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Facet counts over one search result set: products per category (before
+// roll-up), per shop and per price band.
+public final class FacetCounts {
+
+	// upper bounds of all but the last band, which is open-ended
+	public static final double[] PRICE_BAND_LIMITS = { 500, 1000, 2000, 5000 };
+
+	private final LongCounter categories = new LongCounter();
+	private final LongCounter shops = new LongCounter();
+	private final int[] priceBands = new int[PRICE_BAND_LIMITS.length + 1];
+	private int total;
+
+	void add(long categoryId, long shopId, double price) {
+		categories.increment(categoryId, 1);
+		shops.increment(shopId, 1);
+		priceBands[band(price)]++;
+		total++;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public Map<Long, Integer> categoryCounts() {
+		return toMap(categories);
+	}
+
+	public Map<Long, Integer> shopCounts() {
+		return toMap(shops);
+	}
+
+	public int[] priceBandCounts() {
+		return priceBands.clone();
+	}
+
+	static int band(double price) {
+		int b = 0;
+		while (b < PRICE_BAND_LIMITS.length && price >= PRICE_BAND_LIMITS[b])
+			b++;
+		return b;
+	}
+
+	private static Map<Long, Integer> toMap(LongCounter counter) {
+		Map<Long, Integer> out = new LinkedHashMap<>();
+		for (long key : counter.keys())
+			out.put(key, counter.get(key));
+		return out;
+	}
+}
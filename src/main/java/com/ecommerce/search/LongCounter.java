@@ -0,0 +1,75 @@
+package com.ecommerce.search;
+
+import java.util.Arrays;
+
+// Open-addressing long -> int counter, so facet counting over a large result
+// set does not box a key per hit.
+final class LongCounter {
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] keys = new long[16];
+	private int[] counts = new int[16];
+	private int size;
+
+	LongCounter() {
+		Arrays.fill(keys, EMPTY);
+	}
+
+	void increment(long key, int by) {
+		if (key == EMPTY)
+			return;
+		int slot = slot(keys, key);
+		if (keys[slot] == EMPTY) {
+			keys[slot] = key;
+			if (++size * 2 > keys.length) {
+				counts[slot] += by;
+				rehash();
+				return;
+			}
+		}
+		counts[slot] += by;
+	}
+
+	int size() {
+		return size;
+	}
+
+	long[] keys() {
+		long[] out = new long[size];
+		int n = 0;
+		for (long k : keys) {
+			if (k != EMPTY)
+				out[n++] = k;
+		}
+		return out;
+	}
+
+	int get(long key) {
+		int slot = slot(keys, key);
+		return keys[slot] == key ? counts[slot] : 0;
+	}
+
+	private static int slot(long[] table, long key) {
+		int mask = table.length - 1;
+		int i = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+		while (table[i] != EMPTY && table[i] != key)
+			i = (i + 1) & mask;
+		return i;
+	}
+
+	private void rehash() {
+		long[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new long[oldKeys.length * 2];
+		counts = new int[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = slot(keys, oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				counts[slot] = oldCounts[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.search;
+
+import java.util.Arrays;
+
+// Append-only list of (document ordinal, term frequency) pairs, kept ascending
+// because ordinals are handed out in increasing order by the index.
+final class PostingList {
+
+	int[] ordinals = new int[4];
+	int[] freqs = new int[4];
+	int size;
+
+	void add(int ordinal) {
+		if (size > 0 && ordinals[size - 1] == ordinal) {
+			freqs[size - 1]++;
+			return;
+		}
+		if (size == ordinals.length) {
+			ordinals = Arrays.copyOf(ordinals, size * 2);
+			freqs = Arrays.copyOf(freqs, size * 2);
+		}
+		ordinals[size] = ordinal;
+		freqs[size] = 1;
+		size++;
+	}
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.search;
+
+import java.util.Arrays;
+
+// Ordinals of a segment sorted by selling price, as two parallel primitive
+// arrays, so a price range is two binary searches and a price-ordered walk
+// touches only the products inside it. Every add is an ordered insert, except
+// between startBulk() and seal(), where adds are appended and sorted once. Deleted ordinals are left in place and skipped by the segment,
+// the same way postings are.
+final class PriceIndex {
+
+	private double[] prices = new double[1024];
+	private int[] ordinals = new int[1024];
+	private int size;
+	private boolean sealed = true;
+
+	void add(int ordinal, double price) {
+		if (size == prices.length) {
+			prices = Arrays.copyOf(prices, size * 2);
+			ordinals = Arrays.copyOf(ordinals, size * 2);
+		}
+		int at = sealed ? upperBound(price) : size;
+		System.arraycopy(prices, at, prices, at + 1, size - at);
+		System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+		prices[at] = price;
+		ordinals[at] = ordinal;
+		size++;
+	}
+
+	void startBulk() {
+		sealed = false;
+	}
+
+	void seal() {
+		if (!sealed) {
+			sort(0, size - 1);
+			sealed = true;
+		}
+	}
+
+	boolean isSealed() {
+		return sealed;
+	}
+
+	int size() {
+		return size;
+	}
+
+	double price(int i) {
+		return prices[i];
+	}
+
+	int ordinal(int i) {
+		return ordinals[i];
+	}
+
+	// first position whose price is >= min
+	int lowerBound(double min) {
+		int lo = 0, hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (prices[mid] < min)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	// first position whose price is > max
+	int upperBound(double max) {
+		int lo = 0, hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (prices[mid] <= max)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	// quicksort of both arrays by price; insertion sort for short runs
+	private void sort(int lo, int hi) {
+		while (hi - lo > 16) {
+			int mid = (lo + hi) >>> 1;
+			if (prices[mid] < prices[lo])
+				swap(mid, lo);
+			if (prices[hi] < prices[lo])
+				swap(hi, lo);
+			if (prices[hi] < prices[mid])
+				swap(hi, mid);
+			double pivot = prices[mid];
+
+			int i = lo, j = hi;
+			while (i <= j) {
+				while (prices[i] < pivot)
+					i++;
+				while (prices[j] > pivot)
+					j--;
+				if (i <= j)
+					swap(i++, j--);
+			}
+			// recurse into the smaller half to bound the stack
+			if (j - lo < hi - i) {
+				sort(lo, j);
+				lo = i;
+			} else {
+				sort(i, hi);
+				hi = j;
+			}
+		}
+		for (int i = lo + 1; i <= hi; i++) {
+			double p = prices[i];
+			int o = ordinals[i];
+			int j = i - 1;
+			while (j >= lo && prices[j] > p) {
+				prices[j + 1] = prices[j];
+				ordinals[j + 1] = ordinals[j];
+				j--;
+			}
+			prices[j + 1] = p;
+			ordinals[j + 1] = o;
+		}
+	}
+
+	private void swap(int a, int b) {
+		double p = prices[a];
+		prices[a] = prices[b];
+		prices[b] = p;
+		int o = ordinals[a];
+		ordinals[a] = ordinals[b];
+		ordinals[b] = o;
+	}
+}
@@ -0,0 +1,93 @@
+package com.ecommerce.search;
+
+import com.ecommerce.cache.CategoryTree;
+import com.ecommerce.cache.CategoryTreeCache;
+import com.ecommerce.dto.FacetCountResponse;
+import com.ecommerce.dto.PriceBandResponse;
+import com.ecommerce.dto.SearchFacetsResponse;
+import com.ecommerce.model.Category;
+import com.ecommerce.model.Shop;
+import com.ecommerce.repository.ShopRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Turns the raw FacetCounts of a search into the response: category counts
+// are rolled up through the category tree so "Clothing" includes everything
+// under "Women Clothing" and "Men Clothing", and ids get their display names.
+// Shop names are small and change rarely, so they are kept as a snapshot
+// refreshed off the request path.
+@Component
+public class ProductFacets {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductFacets.class);
+
+	private final CategoryTreeCache categoryTree;
+	private final ShopRepository shopRepository;
+
+	private volatile Map<Long, String> shopNames = Map.of();
+
+	public ProductFacets(CategoryTreeCache categoryTree, ShopRepository shopRepository) {
+		this.categoryTree = categoryTree;
+		this.shopRepository = shopRepository;
+	}
+
+	@Scheduled(initialDelay = 0, fixedDelayString = "${search.facets.refresh-ms:300000}")
+	public void refresh() {
+		try {
+			Map<Long, String> freshShops = new HashMap<>();
+			for (Shop s : shopRepository.getAllShops())
+				freshShops.put(s.getId(), s.getName());
+			shopNames = freshShops;
+		} catch (Exception e) {
+			log.error("Facet label refresh failed, keeping previous snapshot", e);
+		}
+	}
+
+	public SearchFacetsResponse toResponse(FacetCounts counts) {
+		CategoryTree tree = categoryTree.current();
+
+		// every product counts once towards its own category and each ancestor
+		Map<Long, Integer> rolled = new HashMap<>();
+		counts.categoryCounts().forEach((id, n) -> {
+			rolled.merge(id, n, Integer::sum);
+			for (long ancestor : tree.ancestors(id))
+				rolled.merge(ancestor, n, Integer::sum);
+		});
+
+		List<FacetCountResponse> categoryFacets = new ArrayList<>(rolled.size());
+		rolled.forEach((id, n) -> {
+			Category c = tree.find(id).orElse(null);
+			categoryFacets.add(new FacetCountResponse(id, c == null ? null : c.getParentCategoryId(),
+					c == null ? null : c.getName(), n));
+		});
+		categoryFacets.sort(BY_COUNT);
+
+		Map<Long, String> shops = shopNames;
+		List<FacetCountResponse> shopFacets = new ArrayList<>();
+		counts.shopCounts().forEach((id, n) -> shopFacets.add(new FacetCountResponse(id, null, shops.get(id), n)));
+		shopFacets.sort(BY_COUNT);
+
+		int[] bands = counts.priceBandCounts();
+		double[] limits = FacetCounts.PRICE_BAND_LIMITS;
+		List<PriceBandResponse> priceFacets = new ArrayList<>(bands.length);
+		for (int b = 0; b < bands.length; b++) {
+			Double min = b == 0 ? 0d : limits[b - 1];
+			Double max = b < limits.length ? limits[b] : null;
+			priceFacets.add(new PriceBandResponse(min, max, bands[b]));
+		}
+
+		return new SearchFacetsResponse(counts.getTotal(), categoryFacets, shopFacets, priceFacets);
+	}
+
+	private static final Comparator<FacetCountResponse> BY_COUNT = Comparator
+			.comparingInt(FacetCountResponse::getCount).reversed().thenComparing(FacetCountResponse::getId);
+}
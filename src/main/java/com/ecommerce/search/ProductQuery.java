@@ -0,0 +1,54 @@
+package com.ecommerce.search;
+
+import com.ecommerce.exception.BadRequestException;
+
+import java.util.Arrays;
+
+// What the storefront searches for: free text, category and selling-price
+// range (each optional), plus the result order. With includeSubcategories the
+// category filter covers the whole subtree; categoryScope then holds its ids
+// (sorted), resolved from the category tree by ProductServiceImpl, and is
+// null otherwise.
+public record ProductQuery(String text, Long categoryId, boolean includeSubcategories, Double minPrice,
+		Double maxPrice, ProductSort sort, long[] categoryScope) {
+
+	public ProductQuery {
+		if (minPrice != null && maxPrice != null && minPrice > maxPrice)
+			throw new BadRequestException("minPrice cannot be greater than maxPrice");
+		if (sort == null)
+			sort = ProductSort.RELEVANCE;
+	}
+
+	public ProductQuery(String text, Long categoryId, boolean includeSubcategories, Double minPrice,
+			Double maxPrice, ProductSort sort) {
+		this(text, categoryId, includeSubcategories, minPrice, maxPrice, sort, null);
+	}
+
+	public static ProductQuery of(String text, Long categoryId) {
+		return new ProductQuery(text, categoryId, false, null, null, ProductSort.RELEVANCE);
+	}
+
+	public ProductQuery withCategoryScope(long[] scope) {
+		return new ProductQuery(text, categoryId, includeSubcategories, minPrice, maxPrice, sort, scope);
+	}
+
+	public boolean hasPriceRange() {
+		return minPrice != null || maxPrice != null;
+	}
+
+	boolean inCategory(long category) {
+		if (categoryId == null)
+			return true;
+		if (categoryScope != null)
+			return Arrays.binarySearch(categoryScope, category) >= 0;
+		return category == categoryId;
+	}
+
+	double min() {
+		return minPrice == null ? Double.NEGATIVE_INFINITY : minPrice;
+	}
+
+	double max() {
+		return maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice;
+	}
+}
@@ -0,0 +1,246 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over active products. Built at startup from the
+// products table and kept current by ProductServiceImpl on every write, so
+// catalog search no longer runs the leading-wildcard LIKE scan. Text queries
+// are ranked by BM25 (see SearchSegment); an empty query lists newest first.
+// Either can instead be ordered or filtered by selling price (see PriceIndex).
+@Component
+public class ProductSearchIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+	// categoryOf results that are not a category id
+	public static final long NOT_INDEXED = -1;
+	public static final long NO_CATEGORY = 0;
+
+	private static final ThreadLocal<SearchSegment.Scratch> SCRATCH = ThreadLocal
+			.withInitial(SearchSegment.Scratch::new);
+
+	private final ProductRepository productRepository;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private SearchSegment segment = new SearchSegment();
+	private volatile boolean ready;
+
+	// writes that arrive while a rebuild is loading from the DB; null value = removal
+	private Map<Long, Product> pending;
+
+	public ProductSearchIndex(ProductRepository productRepository) {
+		this.productRepository = productRepository;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		lock.writeLock().lock();
+		try {
+			pending = new LinkedHashMap<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		List<Product> products;
+		try {
+			products = productRepository.findAllActive();
+		} catch (Exception e) {
+			log.error("Product search index build failed, falling back to SQL search", e);
+			lock.writeLock().lock();
+			try {
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			return;
+		}
+
+		long start = System.currentTimeMillis();
+		SearchSegment fresh = new SearchSegment();
+		fresh.priceIndex.startBulk();
+		// oldest first so ordinals roughly follow created_at
+		for (int i = products.size() - 1; i >= 0; i--)
+			fresh.add(products.get(i));
+		fresh.priceIndex.seal();
+
+		lock.writeLock().lock();
+		try {
+			for (Map.Entry<Long, Product> e : pending.entrySet()) {
+				fresh.delete(e.getKey());
+				if (e.getValue() != null)
+					fresh.add(e.getValue());
+			}
+			pending = null;
+			segment = fresh;
+			ready = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		log.info("Product search index built: {} products, {} terms in {} ms", fresh.live, fresh.terms.size(),
+				System.currentTimeMillis() - start);
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public void upsert(Product product) {
+		if (product == null || product.getId() == null)
+			return;
+
+		if (Boolean.FALSE.equals(product.getIsActive())) {
+			remove(product.getId());
+			return;
+		}
+
+		lock.writeLock().lock();
+		try {
+			if (pending != null)
+				pending.put(product.getId(), product);
+			segment.delete(product.getId());
+			segment.add(product);
+			compactIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long productId) {
+		if (productId == null)
+			return;
+
+		lock.writeLock().lock();
+		try {
+			if (pending != null)
+				pending.put(productId, null);
+			segment.delete(productId);
+			compactIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public List<Product> search(String q, Long categoryId, int limit, int offset) {
+		return search(ProductQuery.of(q, categoryId), limit, offset, null);
+	}
+
+	// facets, if given, is filled with counts over every match, not just the page
+	public List<Product> search(ProductQuery query, int limit, int offset, FacetCounts facets) {
+		List<String> tokens = SearchTokenizer.tokenize(query.text());
+
+		lock.readLock().lock();
+		try {
+			SearchSegment s = segment;
+			TopK top = new TopK((int) Math.min((long) offset + limit, s.live));
+			collect(s, tokens, query, effectiveSort(query.sort(), tokens), null, top, facets);
+
+			if (offset >= top.size())
+				return List.of();
+
+			List<Product> page = new ArrayList<>(top.size() - offset);
+			for (int i = offset; i < top.size(); i++)
+				page.add(s.docs[top.ordinal(i)]);
+			return page;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public SearchPage searchAfter(String q, Long categoryId, SearchCursor after, int limit) {
+		return searchAfter(ProductQuery.of(q, categoryId), after, limit, null);
+	}
+
+	// Keyset variant: returns the limit hits ranked after the cursor. Pages keep
+	// the order of the first one, which the cursor carries (e.g. recency when
+	// it came from the SQL fallback, which cannot rank by relevance).
+	public SearchPage searchAfter(ProductQuery query, SearchCursor after, int limit, FacetCounts facets) {
+		List<String> tokens = SearchTokenizer.tokenize(query.text());
+		ProductSort sort = effectiveSort(after == null ? query.sort() : after.sort(), tokens);
+
+		lock.readLock().lock();
+		try {
+			SearchSegment s = segment;
+			// one extra hit tells us whether there is a next page
+			TopK top = new TopK((int) Math.min((long) limit + 1, s.live));
+			collect(s, tokens, query, sort, after, top, facets);
+
+			int n = Math.min(limit, top.size());
+			List<Product> page = new ArrayList<>(n);
+			for (int i = 0; i < n; i++)
+				page.add(s.docs[top.ordinal(i)]);
+
+			SearchCursor next = null;
+			if (top.size() > limit) {
+				int last = n - 1;
+				next = new SearchCursor(sort, top.score(last), top.created(last), top.id(last));
+			}
+			return new SearchPage(page, next);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static ProductSort effectiveSort(ProductSort sort, List<String> tokens) {
+		return sort == ProductSort.RELEVANCE && tokens.isEmpty() ? ProductSort.NEWEST : sort;
+	}
+
+	private void collect(SearchSegment s, List<String> tokens, ProductQuery query, ProductSort sort,
+			SearchCursor after, TopK top, FacetCounts facets) {
+		if (tokens.isEmpty())
+			s.collectAll(query, sort, after, top, facets);
+		else
+			s.score(tokens, query, sort, after, top, facets, SCRATCH.get());
+		top.finish();
+	}
+
+	public int size() {
+		return segment.live;
+	}
+
+	// Category of an indexed (active) product: NOT_INDEXED if the index does
+	// not hold it, NO_CATEGORY if it has none.
+	public long categoryOf(long productId) {
+		lock.readLock().lock();
+		try {
+			SearchSegment s = segment;
+			Integer ord = s.ordinals.get(productId);
+			if (ord == null || s.docs[ord] == null)
+				return NOT_INDEXED;
+			long category = s.categories[ord];
+			return category == SearchSegment.NONE ? NO_CATEGORY : category;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// updates append a new ordinal and leave a tombstone behind, so squeeze
+	// those out once they make up most of the segment
+	private void compactIfNeeded() {
+		SearchSegment s = segment;
+		if (s.size < 1024 || s.live * 2 > s.size)
+			return;
+
+		SearchSegment compacted = new SearchSegment();
+		compacted.priceIndex.startBulk();
+		for (int i = 0; i < s.size; i++) {
+			if (s.docs[i] != null)
+				compacted.add(s.docs[i], s.created[i]);
+		}
+		compacted.priceIndex.seal();
+		segment = compacted;
+	}
+}
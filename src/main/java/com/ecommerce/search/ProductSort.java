@@ -0,0 +1,22 @@
+package com.ecommerce.search;
+
+import com.ecommerce.exception.BadRequestException;
+
+import java.util.Locale;
+
+// Result order for catalog search. RELEVANCE falls back to NEWEST when there
+// is no text to rank by.
+public enum ProductSort {
+	RELEVANCE, NEWEST, PRICE_ASC, PRICE_DESC;
+
+	// null or blank means the default
+	public static ProductSort parse(String value) {
+		if (value == null || value.isBlank())
+			return RELEVANCE;
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Unknown sort: " + value);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.SearchSuggestionResponse;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Autocomplete for the storefront search box. Active product names are loaded
+// into a SuggestionTrie weighted by how often each product is ordered and
+// viewed; the trie is rebuilt off the request path and swapped in whole, so
+// lookups never touch the database.
+@Component
+public class ProductSuggester {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductSuggester.class);
+
+	private final ProductRepository productRepository;
+
+	private volatile SuggestionTrie trie;
+
+	public ProductSuggester(ProductRepository productRepository) {
+		this.productRepository = productRepository;
+	}
+
+	@Scheduled(initialDelay = 0, fixedDelayString = "${search.suggest.refresh-ms:300000}")
+	public void rebuild() {
+		try {
+			long start = System.currentTimeMillis();
+
+			List<Product> products = productRepository.findActiveNames();
+			Map<Long, Long> ordered = productRepository.findOrderedQuantities();
+			Map<Long, Long> viewed = productRepository.findViewCounts();
+
+			List<SuggestionTrie.Entry> entries = new ArrayList<>(products.size());
+			for (Product p : products) {
+				float weight = popularity(ordered.getOrDefault(p.getId(), 0L), viewed.getOrDefault(p.getId(), 0L));
+				entries.add(new SuggestionTrie.Entry(p.getId(), p.getName(), weight));
+			}
+
+			SuggestionTrie fresh = SuggestionTrie.build(entries);
+			trie = fresh;
+			log.info("Suggestion trie rebuilt: {} names in {} ms", fresh.size(), System.currentTimeMillis() - start);
+		} catch (Exception e) {
+			log.error("Suggestion trie rebuild failed, keeping previous version", e);
+		}
+	}
+
+	public boolean isReady() {
+		return trie != null;
+	}
+
+	public List<SearchSuggestionResponse> suggest(String prefix, int limit) {
+		SuggestionTrie current = trie;
+		return current == null ? List.of() : current.lookup(prefix, limit);
+	}
+
+	// an order counts for a lot more than a view; logs keep a few runaway
+	// bestsellers from pinning every prefix
+	static float popularity(long unitsOrdered, long views) {
+		return (float) (1 + 3 * Math.log1p(unitsOrdered) + Math.log1p(views));
+	}
+}
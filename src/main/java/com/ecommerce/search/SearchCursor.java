@@ -0,0 +1,51 @@
+package com.ecommerce.search;
+
+import com.ecommerce.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+// Opaque keyset position handed to clients as "cursor". Holds the order the
+// pages are walked in and the sort key of the last product on a page: the
+// primary key (relevance score, signed price, or 0 when ordering by
+// recency), created_at in epoch seconds and the product id.
+public record SearchCursor(ProductSort sort, double key, long created, long id) {
+
+	private static final String CODES = "rnad"; // in ProductSort order
+
+	public static SearchCursor newest(LocalDateTime createdAt, long id) {
+		return new SearchCursor(ProductSort.NEWEST, 0d, toEpoch(createdAt), id);
+	}
+
+	public LocalDateTime createdAt() {
+		return LocalDateTime.ofEpochSecond(created, 0, ZoneOffset.UTC);
+	}
+
+	public String encode() {
+		String raw = CODES.charAt(sort.ordinal()) + ":" + Double.doubleToLongBits(key) + ":" + created + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// null or blank means "first page"
+	public static SearchCursor decode(String token) {
+		if (token == null || token.isBlank())
+			return null;
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split(":");
+			int mode = parts.length == 4 && parts[0].length() == 1 ? CODES.indexOf(parts[0].charAt(0)) : -1;
+			if (mode < 0)
+				throw new BadRequestException("Invalid cursor");
+			return new SearchCursor(ProductSort.values()[mode], Double.longBitsToDouble(Long.parseLong(parts[1])),
+					Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
+	}
+
+	static long toEpoch(LocalDateTime createdAt) {
+		return createdAt == null ? 0L : createdAt.toEpochSecond(ZoneOffset.UTC);
+	}
+}
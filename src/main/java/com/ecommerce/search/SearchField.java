@@ -0,0 +1,28 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+
+import java.util.function.Function;
+
+// Product fields scored by the search index, each with its own BM25 weight.
+enum SearchField {
+
+	NAME(3.0f, Product::getName),
+	SHORT_DESCRIPTION(1.5f, Product::getShortDescription),
+	DESCRIPTION(1.0f, Product::getDescription),
+	SKU(2.5f, Product::getSku);
+
+	static final SearchField[] ALL = values();
+
+	final float boost;
+	private final Function<Product, String> getter;
+
+	SearchField(float boost, Function<Product, String> getter) {
+		this.boost = boost;
+		this.getter = getter;
+	}
+
+	String text(Product p) {
+		return getter.apply(p);
+	}
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+
+import java.util.List;
+
+// One keyset page from the search index; next is null on the last page.
+public record SearchPage(List<Product> products, SearchCursor next) {
+}
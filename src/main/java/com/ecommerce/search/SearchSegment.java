@@ -0,0 +1,365 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// One generation of the product search index. Documents are addressed by a
+// dense ordinal; everything the scorer touches per hit lives in primitive
+// arrays indexed by that ordinal. Not thread-safe, ProductSearchIndex guards it.
+final class SearchSegment {
+
+	// BM25 parameters
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+
+	// relative weight of a query token's expansions
+	private static final float PREFIX_WEIGHT = 0.6f;
+	private static final float FUZZY_WEIGHT = 0.4f;
+
+	private static final int MAX_PREFIX_TERMS = 64;
+	private static final int MAX_QUERY_TOKENS = 16;
+
+	// facet columns use this for a missing category / shop
+	static final long NONE = Long.MIN_VALUE;
+
+	Product[] docs = new Product[1024];
+	long[] created = new long[1024];
+	long[] ids = new long[1024];
+	long[] categories = new long[1024];
+	long[] shops = new long[1024];
+	double[] prices = new double[1024];
+	final int[][] fieldLengths = new int[SearchField.ALL.length][1024];
+	final long[] totalFieldLength = new long[SearchField.ALL.length];
+	final PriceIndex priceIndex = new PriceIndex();
+
+	int size;
+	int live;
+
+	final Map<Long, Integer> ordinals = new HashMap<>();
+	final TreeMap<String, Term> terms = new TreeMap<>();
+	private final List<Term> termsById = new ArrayList<>();
+	private final Map<String, int[]> trigramTerms = new HashMap<>();
+
+	static final class Term {
+		final String text;
+		final int id;
+		final PostingList[] fields = new PostingList[SearchField.ALL.length];
+		int docFreq;
+		int lastOrdinal = -1;
+
+		Term(String text, int id) {
+			this.text = text;
+			this.id = id;
+		}
+	}
+
+	// A product not yet stamped with created_at sorts as created now. That
+	// time is kept here only: the Product belongs to the caller.
+	void add(Product p) {
+		add(p, SearchCursor.toEpoch(p.getCreatedAt() == null ? LocalDateTime.now() : p.getCreatedAt()));
+	}
+
+	// created in epoch seconds, as held by created[]
+	void add(Product p, long createdAt) {
+		if (size == docs.length)
+			grow(size * 2);
+
+		int ord = size++;
+		docs[ord] = p;
+		created[ord] = createdAt;
+		ids[ord] = p.getId();
+		categories[ord] = p.getCategoryId() == null ? NONE : p.getCategoryId();
+		shops[ord] = p.getShopId() == null ? NONE : p.getShopId();
+		prices[ord] = p.getSellingPrice() == null ? 0d : p.getSellingPrice();
+		ordinals.put(p.getId(), ord);
+		priceIndex.add(ord, prices[ord]);
+		live++;
+
+		for (SearchField field : SearchField.ALL) {
+			List<String> tokens = SearchTokenizer.tokenizeForIndex(field.text(p));
+			fieldLengths[field.ordinal()][ord] = tokens.size();
+			totalFieldLength[field.ordinal()] += tokens.size();
+			for (String token : tokens)
+				post(token, field, ord);
+		}
+	}
+
+	void delete(Long id) {
+		Integer ord = ordinals.remove(id);
+		if (ord == null || docs[ord] == null)
+			return;
+
+		docs[ord] = null;
+		live--;
+		for (SearchField field : SearchField.ALL)
+			totalFieldLength[field.ordinal()] -= fieldLengths[field.ordinal()][ord];
+	}
+
+	boolean accepts(int ord, ProductQuery query) {
+		if (docs[ord] == null)
+			return false;
+		if (!query.inCategory(categories[ord]))
+			return false;
+		return prices[ord] >= query.min() && prices[ord] <= query.max();
+	}
+
+	// primary ranking key of a hit; higher ranks first
+	double key(int ord, ProductSort sort, float score) {
+		return switch (sort) {
+		case RELEVANCE -> score;
+		case NEWEST -> 0d;
+		case PRICE_ASC -> -prices[ord];
+		case PRICE_DESC -> prices[ord];
+		};
+	}
+
+	// Listing when there is no text query. Facets, when asked for, count the
+	// whole result set, not just the page after the cursor.
+	void collectAll(ProductQuery query, ProductSort sort, SearchCursor after, TopK top, FacetCounts facets) {
+		boolean byPrice = sort == ProductSort.PRICE_ASC || sort == ProductSort.PRICE_DESC;
+		if (!priceIndex.isSealed() || (!byPrice && !query.hasPriceRange())) {
+			for (int ord = 0; ord < size; ord++)
+				collect(ord, query, sort, after, top, facets);
+			return;
+		}
+
+		// only the slice of the price index inside the range is visited
+		int from = priceIndex.lowerBound(query.min());
+		int to = priceIndex.upperBound(query.max());
+		boolean descending = sort == ProductSort.PRICE_DESC;
+		boolean earlyStop = byPrice && facets == null;
+
+		// and nothing ranked before the cursor's price
+		if (earlyStop && after != null && after.sort() == sort) {
+			if (descending)
+				to = Math.min(to, priceIndex.upperBound(after.key()));
+			else
+				from = Math.max(from, priceIndex.lowerBound(-after.key()));
+		}
+
+		for (int i = 0; i < to - from; i++) {
+			int ord = priceIndex.ordinal(descending ? to - 1 - i : from + i);
+			// walking in key order: once the heap is full nothing later can enter
+			if (earlyStop && top.ranksBelow(key(ord, sort, 0f)))
+				break;
+			collect(ord, query, sort, after, top, facets);
+		}
+	}
+
+	private void collect(int ord, ProductQuery query, ProductSort sort, SearchCursor after, TopK top,
+			FacetCounts facets) {
+		if (!accepts(ord, query))
+			return;
+		if (facets != null)
+			facets.add(categories[ord], shops[ord], prices[ord]);
+		double key = key(ord, sort, 0f);
+		if (TopK.after(after, key, created[ord], ids[ord]))
+			top.offer(ord, key, created[ord], ids[ord]);
+	}
+
+	// BM25 over the four fields. Every token has to match (exactly, as a prefix,
+	// or within the edit budget); if nothing satisfies all tokens the best
+	// partial matches are returned instead. Unless sorted by relevance, the
+	// matches are ranked by the requested key. Only hits ranked after the
+	// cursor are offered.
+	void score(List<String> queryTokens, ProductQuery query, ProductSort sort, SearchCursor after, TopK top,
+			FacetCounts facets, Scratch scratch) {
+		List<String> tokens = queryTokens.size() > MAX_QUERY_TOKENS ? queryTokens.subList(0, MAX_QUERY_TOKENS)
+				: queryTokens;
+		scratch.ensureCapacity(size);
+
+		float[] scores = scratch.scores;
+		int[] masks = scratch.masks;
+		int touchedCount = 0;
+
+		float[] avgLength = new float[SearchField.ALL.length];
+		for (int f = 0; f < avgLength.length; f++)
+			avgLength[f] = live == 0 ? 1f : Math.max(1f, (float) totalFieldLength[f] / live);
+
+		for (int t = 0; t < tokens.size(); t++) {
+			int bit = 1 << t;
+			for (Expansion e : expand(tokens.get(t))) {
+				float idf = idf(e.term.docFreq);
+				for (SearchField field : SearchField.ALL) {
+					PostingList list = e.term.fields[field.ordinal()];
+					if (list == null)
+						continue;
+
+					int f = field.ordinal();
+					float weight = e.weight * idf * field.boost;
+					int[] lengths = fieldLengths[f];
+					float norm = K1 * (1 - B);
+					float lengthFactor = K1 * B / avgLength[f];
+
+					for (int i = 0; i < list.size; i++) {
+						int ord = list.ordinals[i];
+						if (!accepts(ord, query))
+							continue;
+
+						int tf = list.freqs[i];
+						float s = weight * tf * (K1 + 1) / (tf + norm + lengthFactor * lengths[ord]);
+						if (masks[ord] == 0)
+							scratch.touched[touchedCount++] = ord;
+						masks[ord] |= bit;
+						scores[ord] += s;
+					}
+				}
+			}
+		}
+
+		int all = (1 << tokens.size()) - 1;
+		int[] touched = scratch.touched;
+		boolean anyFull = false;
+		for (int i = 0; i < touchedCount && !anyFull; i++)
+			anyFull = masks[touched[i]] == all;
+
+		for (int i = 0; i < touchedCount; i++) {
+			int ord = touched[i];
+			if (anyFull && masks[ord] != all)
+				continue;
+			if (facets != null)
+				facets.add(categories[ord], shops[ord], prices[ord]);
+			double key = key(ord, sort, scores[ord]);
+			if (TopK.after(after, key, created[ord], ids[ord]))
+				top.offer(ord, key, created[ord], ids[ord]);
+		}
+
+		for (int i = 0; i < touchedCount; i++) {
+			scores[touched[i]] = 0f;
+			masks[touched[i]] = 0;
+		}
+	}
+
+	private float idf(int docFreq) {
+		int n = Math.max(live, 1);
+		int df = Math.min(docFreq, n);
+		return (float) Math.log(1 + (n - df + 0.5) / (df + 0.5));
+	}
+
+	private record Expansion(Term term, float weight) {
+	}
+
+	private List<Expansion> expand(String token) {
+		List<Expansion> out = new ArrayList<>();
+
+		Term exact = terms.get(token);
+		if (exact != null)
+			out.add(new Expansion(exact, 1f));
+
+		SortedMap<String, Term> prefixed = terms.subMap(token, false, token + Character.MAX_VALUE, false);
+		int n = 0;
+		for (Term term : prefixed.values()) {
+			if (n++ == MAX_PREFIX_TERMS)
+				break;
+			out.add(new Expansion(term, PREFIX_WEIGHT));
+		}
+
+		// only go fuzzy for words we have never seen
+		int maxEdits = Trigrams.maxEdits(token.length());
+		if (exact == null && maxEdits > 0) {
+			for (Term term : fuzzyTerms(token, maxEdits)) {
+				if (!term.text.startsWith(token))
+					out.add(new Expansion(term, FUZZY_WEIGHT));
+			}
+		}
+		return out;
+	}
+
+	private List<Term> fuzzyTerms(String token, int maxEdits) {
+		List<String> grams = Trigrams.of(token);
+		// one edit disturbs at most three trigrams, a transposition four
+		int required = Math.max(1, grams.size() - 4 * maxEdits);
+
+		Map<Integer, Integer> shared = new HashMap<>();
+		for (String gram : grams) {
+			int[] ids = trigramTerms.get(gram);
+			if (ids == null)
+				continue;
+			for (int i = 1; i <= ids[0]; i++)
+				shared.merge(ids[i], 1, Integer::sum);
+		}
+
+		List<Term> out = new ArrayList<>();
+		for (Map.Entry<Integer, Integer> e : shared.entrySet()) {
+			if (e.getValue() < required)
+				continue;
+			Term term = termsById.get(e.getKey());
+			if (Trigrams.distance(token, term.text, maxEdits) <= maxEdits)
+				out.add(term);
+		}
+		return out;
+	}
+
+	private void post(String token, SearchField field, int ord) {
+		Term term = terms.get(token);
+		if (term == null) {
+			term = new Term(token, termsById.size());
+			terms.put(token, term);
+			termsById.add(term);
+			for (String gram : Trigrams.of(token))
+				addTrigram(gram, term.id);
+		}
+
+		if (term.lastOrdinal != ord) {
+			term.lastOrdinal = ord;
+			term.docFreq++;
+		}
+
+		PostingList list = term.fields[field.ordinal()];
+		if (list == null) {
+			list = new PostingList();
+			term.fields[field.ordinal()] = list;
+		}
+		list.add(ord);
+	}
+
+	// trigram -> term ids, stored as [count, id, id, ...]
+	private void addTrigram(String gram, int termId) {
+		int[] ids = trigramTerms.get(gram);
+		if (ids == null) {
+			ids = new int[4];
+		} else if (ids[ids[0]] == termId) {
+			return;
+		} else if (ids[0] + 1 == ids.length) {
+			ids = Arrays.copyOf(ids, ids.length * 2);
+		}
+		ids[++ids[0]] = termId;
+		trigramTerms.put(gram, ids);
+	}
+
+	private void grow(int capacity) {
+		docs = Arrays.copyOf(docs, capacity);
+		created = Arrays.copyOf(created, capacity);
+		ids = Arrays.copyOf(ids, capacity);
+		categories = Arrays.copyOf(categories, capacity);
+		shops = Arrays.copyOf(shops, capacity);
+		prices = Arrays.copyOf(prices, capacity);
+		for (int f = 0; f < fieldLengths.length; f++)
+			fieldLengths[f] = Arrays.copyOf(fieldLengths[f], capacity);
+	}
+
+	// Per-thread score accumulators, reused across queries so ranking a large
+	// candidate set does not allocate per hit.
+	static final class Scratch {
+		float[] scores = new float[0];
+		int[] masks = new int[0];
+		int[] touched = new int[0];
+
+		void ensureCapacity(int n) {
+			if (scores.length >= n)
+				return;
+			int capacity = Math.max(n, scores.length * 2);
+			scores = new float[capacity];
+			masks = new int[capacity];
+			touched = new int[capacity];
+		}
+	}
+}
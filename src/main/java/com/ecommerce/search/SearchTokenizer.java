@@ -0,0 +1,60 @@
+package com.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+final class SearchTokenizer {
+
+	private SearchTokenizer() {
+	}
+
+	// Splits on anything that is not a letter or digit and lower-cases each run,
+	// so "Women Yellow T-Shirt" -> [women, yellow, t, shirt]
+	static List<String> tokenize(String text) {
+		return tokenize(text, false);
+	}
+
+	// Index-time variant that also emits the joined form of words broken up by
+	// punctuation, so "T-Shirt" -> [t, shirt, tshirt] and a search for "tshirt"
+	// (or a typo of it) can still find the product.
+	static List<String> tokenizeForIndex(String text) {
+		return tokenize(text, true);
+	}
+
+	private static List<String> tokenize(String text, boolean compounds) {
+		if (text == null || text.isEmpty())
+			return List.of();
+
+		List<String> tokens = new ArrayList<>();
+		int start = -1;
+		int parts = 0;
+		int len = text.length();
+
+		for (int i = 0; i <= len; i++) {
+			char c = i < len ? text.charAt(i) : ' ';
+			boolean alnum = Character.isLetterOrDigit(c);
+			if (alnum && start < 0) {
+				start = i;
+			} else if (!alnum && start >= 0) {
+				tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				start = -1;
+				parts++;
+			}
+
+			if (Character.isWhitespace(c)) {
+				if (compounds && parts > 1)
+					tokens.add(join(tokens, parts));
+				parts = 0;
+			}
+		}
+		return tokens;
+	}
+
+	private static String join(List<String> tokens, int parts) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = tokens.size() - parts; i < tokens.size(); i++)
+			sb.append(tokens.get(i));
+		return sb.toString();
+	}
+}
@@ -0,0 +1,238 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.SearchSuggestionResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Immutable prefix trie over lower-cased product names. Keys are stored in
+// sorted order so every node covers a contiguous key range; nodes whose range
+// is larger than TOP_K carry a precomputed list of their best keys, so a
+// lookup is a walk down the prefix plus a copy of at most TOP_K entries.
+// A key only gets nodes until it stops sharing a prefix with its neighbours,
+// the unique tail is checked against the key itself, which keeps the node
+// count close to the number of names rather than the number of characters.
+final class SuggestionTrie {
+
+	static final int TOP_K = 10;
+	private static final int MAX_IDS_PER_KEY = 5;
+
+	// per key, in sorted key order
+	private final String[] keys;
+	private final String[] texts;
+	private final long[][] productIds;
+	private final float[] weights;
+
+	// per node; node 0 is the root
+	private final char[] labels;
+	private final int[] firstChild;
+	private final int[] nextSibling;
+	private final int[] rangeStart;
+	private final int[] rangeEnd;
+	private final int[] topOffset;
+	private final int[] top;
+
+	record Entry(long productId, String name, float weight) {
+	}
+
+	private SuggestionTrie(String[] keys, String[] texts, long[][] productIds, float[] weights, Builder b) {
+		this.keys = keys;
+		this.texts = texts;
+		this.productIds = productIds;
+		this.weights = weights;
+		this.labels = Arrays.copyOf(b.labels, b.count);
+		this.firstChild = Arrays.copyOf(b.firstChild, b.count);
+		this.nextSibling = Arrays.copyOf(b.nextSibling, b.count);
+		this.rangeStart = Arrays.copyOf(b.rangeStart, b.count);
+		this.rangeEnd = Arrays.copyOf(b.rangeEnd, b.count);
+
+		int[] offsets = new int[b.count];
+		int big = 0;
+		for (int node = 0; node < b.count; node++) {
+			if (rangeEnd[node] - rangeStart[node] > TOP_K)
+				offsets[node] = big++ * TOP_K;
+			else
+				offsets[node] = -1;
+		}
+		this.topOffset = offsets;
+		this.top = new int[big * TOP_K];
+		for (int node = 0; node < b.count; node++) {
+			if (offsets[node] >= 0)
+				selectTop(rangeStart[node], rangeEnd[node], top, offsets[node], TOP_K);
+		}
+	}
+
+	static SuggestionTrie build(List<Entry> entries) {
+		// several products can share a name; they collapse into one suggestion
+		Map<String, List<Entry>> byKey = new HashMap<>();
+		for (Entry e : entries) {
+			String key = normalize(e.name());
+			if (!key.isEmpty())
+				byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(e);
+		}
+
+		String[] keys = byKey.keySet().toArray(new String[0]);
+		Arrays.sort(keys);
+
+		String[] texts = new String[keys.length];
+		long[][] ids = new long[keys.length][];
+		float[] weights = new float[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			List<Entry> group = byKey.get(keys[i]);
+			group.sort((a, b) -> Float.compare(b.weight(), a.weight()));
+			texts[i] = group.get(0).name().trim();
+			ids[i] = new long[Math.min(group.size(), MAX_IDS_PER_KEY)];
+			for (int j = 0; j < ids[i].length; j++)
+				ids[i][j] = group.get(j).productId();
+			for (Entry e : group)
+				weights[i] += e.weight();
+		}
+
+		Builder b = new Builder();
+		b.newNode('\0', 0);
+		for (int i = 0; i < keys.length; i++) {
+			int shared = 0;
+			if (i > 0)
+				shared = commonPrefix(keys[i - 1], keys[i]);
+			if (i + 1 < keys.length)
+				shared = Math.max(shared, commonPrefix(keys[i], keys[i + 1]));
+			int depth = Math.min(keys[i].length(), shared + 1);
+
+			int node = 0;
+			b.rangeEnd[0] = i + 1;
+			for (int c = 0; c < depth; c++) {
+				node = b.child(node, keys[i].charAt(c), i);
+				b.rangeEnd[node] = i + 1;
+			}
+		}
+		return new SuggestionTrie(keys, texts, ids, weights, b);
+	}
+
+	int size() {
+		return texts.length;
+	}
+
+	List<SearchSuggestionResponse> lookup(String prefix, int limit) {
+		String key = normalize(prefix);
+		if (limit <= 0 || keys.length == 0)
+			return List.of();
+
+		int node = 0;
+		for (int i = 0; i < key.length(); i++) {
+			int child = find(node, key.charAt(i));
+			if (child < 0) {
+				// ran past the shared part: only a single-key node can still match
+				int start = rangeStart[node];
+				if (rangeEnd[node] - start == 1 && keys[start].startsWith(key))
+					return toResponses(new int[] { start }, 0, 1);
+				return List.of();
+			}
+			node = child;
+		}
+
+		if (topOffset[node] >= 0)
+			return toResponses(top, topOffset[node], Math.min(limit, TOP_K));
+
+		int[] best = new int[TOP_K];
+		int count = selectTop(rangeStart[node], rangeEnd[node], best, 0, Math.min(limit, TOP_K));
+		return toResponses(best, 0, count);
+	}
+
+	private List<SearchSuggestionResponse> toResponses(int[] keys, int offset, int count) {
+		List<SearchSuggestionResponse> out = new ArrayList<>(count);
+		for (int i = offset; i < offset + count; i++) {
+			int k = keys[i];
+			List<Long> ids = new ArrayList<>(productIds[k].length);
+			for (long id : productIds[k])
+				ids.add(id);
+			out.add(new SearchSuggestionResponse(texts[k], ids));
+		}
+		return out;
+	}
+
+	private int find(int node, char c) {
+		for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+			if (labels[child] == c)
+				return child;
+		}
+		return -1;
+	}
+
+	// writes the k heaviest keys of [from, to) into out[offset..], best first;
+	// ties keep alphabetical order
+	private int selectTop(int from, int to, int[] out, int offset, int k) {
+		int n = 0;
+		for (int key = from; key < to; key++) {
+			if (n == k && weights[key] <= weights[out[offset + n - 1]])
+				continue;
+			int pos = n < k ? n++ : n - 1;
+			while (pos > 0 && weights[out[offset + pos - 1]] < weights[key]) {
+				out[offset + pos] = out[offset + pos - 1];
+				pos--;
+			}
+			out[offset + pos] = key;
+		}
+		return n;
+	}
+
+	private static int commonPrefix(String a, String b) {
+		int n = Math.min(a.length(), b.length());
+		int i = 0;
+		while (i < n && a.charAt(i) == b.charAt(i))
+			i++;
+		return i;
+	}
+
+	private static String normalize(String s) {
+		return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static final class Builder {
+		char[] labels = new char[256];
+		int[] firstChild = new int[256];
+		int[] lastChild = new int[256];
+		int[] nextSibling = new int[256];
+		int[] rangeStart = new int[256];
+		int[] rangeEnd = new int[256];
+		int count;
+
+		int newNode(char label, int start) {
+			if (count == labels.length) {
+				int cap = count * 2;
+				labels = Arrays.copyOf(labels, cap);
+				firstChild = Arrays.copyOf(firstChild, cap);
+				lastChild = Arrays.copyOf(lastChild, cap);
+				nextSibling = Arrays.copyOf(nextSibling, cap);
+				rangeStart = Arrays.copyOf(rangeStart, cap);
+				rangeEnd = Arrays.copyOf(rangeEnd, cap);
+			}
+			int node = count++;
+			labels[node] = label;
+			firstChild[node] = -1;
+			lastChild[node] = -1;
+			nextSibling[node] = -1;
+			rangeStart[node] = start;
+			rangeEnd[node] = start;
+			return node;
+		}
+
+		// keys arrive sorted, so an existing child for c can only be the last one
+		int child(int parent, char c, int key) {
+			int last = lastChild[parent];
+			if (last >= 0 && labels[last] == c)
+				return last;
+
+			int node = newNode(c, key);
+			if (last < 0)
+				firstChild[parent] = node;
+			else
+				nextSibling[last] = node;
+			lastChild[parent] = node;
+			return node;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.ecommerce.search;
+
+// Fixed-capacity min-heap of (key, recency, product id, ordinal) that keeps
+// the k best hits without boxing. Higher key wins (a relevance score, or a
+// signed price for price ordering), ties go to the newer product, then to the
+// higher id - the same order as created_at DESC, id DESC.
+final class TopK {
+
+	private final double[] scores;
+	private final long[] recency;
+	private final long[] ids;
+	private final int[] ordinals;
+	private int size;
+	private int heapSize;
+
+	TopK(int k) {
+		scores = new double[k];
+		recency = new long[k];
+		ids = new long[k];
+		ordinals = new int[k];
+	}
+
+	void offer(int ordinal, double score, long created, long id) {
+		int k = ordinals.length;
+		if (k == 0)
+			return;
+		if (size < k) {
+			set(size, ordinal, score, created, id);
+			siftUp(size++);
+		} else if (worse(0, score, created, id)) {
+			set(0, ordinal, score, created, id);
+			siftDown(0, size);
+		}
+		heapSize = size;
+	}
+
+	int size() {
+		return size;
+	}
+
+	// Heap-sorts in place; afterwards index 0 is the best hit. No more offers.
+	void finish() {
+		for (int end = heapSize - 1; end > 0; end--) {
+			swap(0, end);
+			siftDown(0, end);
+		}
+		heapSize = 0;
+	}
+
+	int ordinal(int i) {
+		return ordinals[i];
+	}
+
+	double score(int i) {
+		return scores[i];
+	}
+
+	boolean isFull() {
+		return size == ordinals.length;
+	}
+
+	// would a hit with this key lose against everything kept so far, whatever
+	// its recency? Lets a walk in key order stop early.
+	boolean ranksBelow(double score) {
+		return isFull() && (size == 0 || score < scores[0]);
+	}
+
+	long created(int i) {
+		return recency[i];
+	}
+
+	long id(int i) {
+		return ids[i];
+	}
+
+	// is (score, created, id) strictly behind the cursor position?
+	static boolean after(SearchCursor cursor, double score, long created, long id) {
+		if (cursor == null)
+			return true;
+		if (score != cursor.key())
+			return score < cursor.key();
+		if (created != cursor.created())
+			return created < cursor.created();
+		return id < cursor.id();
+	}
+
+	private void set(int i, int ordinal, double score, long created, long id) {
+		scores[i] = score;
+		recency[i] = created;
+		ids[i] = id;
+		ordinals[i] = ordinal;
+	}
+
+	// is the entry at i ranked below (score, created, id)?
+	private boolean worse(int i, double score, long created, long id) {
+		if (scores[i] != score)
+			return scores[i] < score;
+		if (recency[i] != created)
+			return recency[i] < created;
+		return ids[i] < id;
+	}
+
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!worse(i, scores[parent], recency[parent], ids[parent]))
+				break;
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int i, int n) {
+		while (true) {
+			int l = 2 * i + 1;
+			int r = l + 1;
+			int min = i;
+			if (l < n && worse(l, scores[min], recency[min], ids[min]))
+				min = l;
+			if (r < n && worse(r, scores[min], recency[min], ids[min]))
+				min = r;
+			if (min == i)
+				return;
+			swap(i, min);
+			i = min;
+		}
+	}
+
+	private void swap(int a, int b) {
+		double s = scores[a];
+		scores[a] = scores[b];
+		scores[b] = s;
+		long c = recency[a];
+		recency[a] = recency[b];
+		recency[b] = c;
+		long d = ids[a];
+		ids[a] = ids[b];
+		ids[b] = d;
+		int o = ordinals[a];
+		ordinals[a] = ordinals[b];
+		ordinals[b] = o;
+	}
+}
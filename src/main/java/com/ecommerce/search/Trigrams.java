@@ -0,0 +1,64 @@
+package com.ecommerce.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Helpers for typo-tolerant term matching: padded character trigrams to find
+// candidate terms, then a bounded edit distance to confirm them.
+final class Trigrams {
+
+	private Trigrams() {
+	}
+
+	// "shirt" -> [$sh, shi, hir, irt, rt$]
+	static List<String> of(String term) {
+		String padded = "$" + term + "$";
+		List<String> grams = new ArrayList<>(Math.max(1, padded.length() - 2));
+		for (int i = 0; i + 3 <= padded.length(); i++)
+			grams.add(padded.substring(i, i + 3));
+		return grams;
+	}
+
+	// edits allowed for a query token of the given length
+	static int maxEdits(int length) {
+		if (length < 4)
+			return 0;
+		return length < 8 ? 1 : 2;
+	}
+
+	// Optimal string alignment distance (Levenshtein plus adjacent transposition),
+	// giving up as soon as it is certain to exceed max. Returns max + 1 in that case.
+	static int distance(String a, String b, int max) {
+		int la = a.length();
+		int lb = b.length();
+		if (Math.abs(la - lb) > max)
+			return max + 1;
+
+		int[] prev2 = new int[lb + 1];
+		int[] prev = new int[lb + 1];
+		int[] cur = new int[lb + 1];
+		for (int j = 0; j <= lb; j++)
+			prev[j] = j;
+
+		for (int i = 1; i <= la; i++) {
+			cur[0] = i;
+			int rowMin = cur[0];
+			for (int j = 1; j <= lb; j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				int d = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+				if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1))
+					d = Math.min(d, prev2[j - 2] + 1);
+				cur[j] = d;
+				rowMin = Math.min(rowMin, d);
+			}
+			if (rowMin > max)
+				return max + 1;
+
+			int[] tmp = prev2;
+			prev2 = prev;
+			prev = cur;
+			cur = tmp;
+		}
+		return Math.min(prev[lb], max + 1);
+	}
+}
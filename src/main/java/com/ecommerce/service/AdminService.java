@@ -7,11 +7,14 @@ import com.ecommerce.dto.ShopResponse;
 import com.ecommerce.dto.UserResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AdminService {
 
 	List<UserResponse> getAllUsers(Long adminUserId);
 
+	void exportUsers(Long adminUserId, Consumer<UserResponse> sink);
+
 	UserResponse getUserById(Long adminUserId, Long userId);
 
 	boolean updateUserStatus(Long adminUserId, Long userId, String status);
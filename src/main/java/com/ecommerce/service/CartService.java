@@ -1,9 +1,12 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CartRequest;
 import com.ecommerce.dto.CartResponse;
 import com.ecommerce.model.Cart;
 import com.ecommerce.model.CartItem;
 
+import java.util.List;
+
 public interface CartService {
 
 	Cart getOrCreateCart(Long userId);
@@ -12,6 +15,9 @@ public interface CartService {
 
 	CartItem addToCart(Long userId, Long productId, Integer quantity);
 
+	// adds every item or, if any of them cannot be added, none
+	CartResponse addToCart(Long userId, List<CartRequest> items);
+
 	CartItem updateCartItemQuantity(Long userId, Long cartItemId, Integer quantity);
 
 	void removeFromCart(Long userId, Long cartItemId);
@@ -9,6 +9,8 @@ public interface CategoryService {
 
 	List<Category> listActive();
 
+	List<Category> listChildren(Long parentId);
+
 	void deleteSoft(Long id);
 
 	void activate(Long id);
@@ -9,6 +9,10 @@ public interface EmailNotificationService {
 
 	EmailNotificationResponse sendEmail(Long userId, EmailSendRequest request);
 
+	// Stores the same email for each user as PENDING, in one statement, for
+	// delivery later; returns how many were queued.
+	int queueEmails(List<Long> userIds, EmailSendRequest request);
+
 	boolean updateStatus(Long notificationId, String status);
 
 	EmailNotificationResponse getNotificationById(Long id);
@@ -4,6 +4,7 @@ import com.ecommerce.dto.OrderRequest;
 import com.ecommerce.dto.OrderResponse; // Import this!
 import com.ecommerce.model.Order;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
@@ -17,5 +18,7 @@ public interface OrderService {
 
 	List<OrderResponse> getAllOrders();
 
+	void exportOrders(Consumer<OrderResponse> sink);
+
 	OrderResponse updateOrderStatus(Long orderId, String newStatus);
 }
\ No newline at end of file
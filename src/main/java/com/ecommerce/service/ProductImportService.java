@@ -0,0 +1,14 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductImportResponse;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+	enum Format {
+		CSV, NDJSON
+	}
+
+	ProductImportResponse importProducts(Long shopId, InputStream in, Format format);
+}
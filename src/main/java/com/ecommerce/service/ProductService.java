@@ -1,10 +1,16 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.ProductPageResponse;
 import com.ecommerce.dto.ProductRequest;
 import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.dto.SearchSuggestionResponse;
+import com.ecommerce.search.ProductQuery;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductService {
 
@@ -14,20 +20,29 @@ public interface ProductService {
 
 	Optional<ProductResponse> getProductById(Long id);
 
+	// by id, from the detail cache; missing products are left out
+	Map<Long, ProductResponse> getProductsByIds(Collection<Long> ids);
+
 	List<ProductResponse> getAllActiveProducts();
 
 	List<ProductResponse> getProductsByShop(Long shopId);
 
 	List<ProductResponse> getAllProducts();
 
+	void exportProducts(Consumer<ProductResponse> sink);
+
 	boolean softDeleteProduct(Long id);
 
-	List<ProductResponse> searchProducts(String q, Long categoryId, int page, int size);
+	List<ProductResponse> searchProducts(ProductQuery query, int page, int size);
+
+	ProductPageResponse searchProductsWithFacets(ProductQuery query, int page, int size);
+
+	ProductPageResponse searchProductsAfter(ProductQuery query, String cursor, int size, boolean withFacets);
 
 	boolean shopBelongsToUser(Long shopId, Long userId);
 
 	boolean productBelongsToUser(Long productId, Long userId);
 
-	List<String> searchSuggestions(String query);
+	List<SearchSuggestionResponse> searchSuggestions(String query);
 
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.RecommendationResponse;
+
+import java.util.List;
+
+public interface RecommendationService {
+
+	// products viewed by the same users, best first
+	List<RecommendationResponse> alsoViewed(Long productId, int limit);
+
+	// products bought in the same checkouts, best first
+	List<RecommendationResponse> boughtTogether(Long productId, int limit);
+
+	void rebuild();
+}
@@ -1,9 +1,14 @@
 package com.ecommerce.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import com.ecommerce.dto.RatingSummaryResponse;
+import com.ecommerce.dto.ReviewPageResponse;
 import com.ecommerce.dto.ReviewRequest;
 import com.ecommerce.dto.ReviewResponse;
+import com.ecommerce.enums.ReviewSort;
 
 public interface ReviewService {
 
@@ -17,7 +22,16 @@ public interface ReviewService {
 
 	List<ReviewResponse> getLowestRatedReviews(Long productId);
 
+	ReviewPageResponse getReviewPage(Long productId, ReviewSort sort, String cursor, int size);
+
 	void deleteReview(Long reviewId, Long userId);
 
 	Double getAverageRating(Long productId);
+
+	RatingSummaryResponse getRatingSummary(Long productId);
+
+	// every requested id is present, with zero counts for unreviewed products
+	Map<Long, RatingSummaryResponse> getRatingSummaries(Collection<Long> productIds);
+
+	int rebuildRatingSummaries();
 }
\ No newline at end of file
@@ -1,12 +1,13 @@
 package com.ecommerce.service;
 
 import com.ecommerce.dto.WishlistResponse;
+import com.ecommerce.model.User;
 
 import java.util.List;
 
 public interface WishlistService {
 
-	WishlistResponse addToWishlist(Long userId, Long productId);
+	WishlistResponse addToWishlist(User user, Long productId);
 
 	boolean removeFromWishlist(Long userId, Long productId);
 
@@ -3,6 +3,7 @@ package com.ecommerce.service.impl;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,6 +62,12 @@ public class AdminServiceImpl implements AdminService {
 		return userRepository.findAll().stream().map(AdminMapper::userToResponse).collect(Collectors.toList());
 	}
 
+	// streamed row by row, for exports that must not hold the table in memory
+	@Override
+	public void exportUsers(Long adminUserId, Consumer<UserResponse> sink) {
+		userRepository.streamAll(user -> sink.accept(AdminMapper.userToResponse(user)));
+	}
+
 	@Override
 	public UserResponse getUserById(Long adminUserId, Long userId) {
 		User user = userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -1,39 +1,86 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.cache.CartCache;
+import com.ecommerce.cache.CartState;
+import com.ecommerce.dto.CartItemIssue;
+import com.ecommerce.dto.CartRequest;
 import com.ecommerce.dto.CartResponse;
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.enums.CartIssueType;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.exception.UnauthorizedException;
 import com.ecommerce.model.Cart;
 import com.ecommerce.model.CartItem;
+import com.ecommerce.model.ProductAvailability;
+import com.ecommerce.model.Shop;
 import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.ShopRepository;
 import com.ecommerce.service.CartService;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.trending.TrendingProducts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
 
 import java.math.BigDecimal;
-import java.util.Collections;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+// Carts live in CartCache while their user is active and every mutation is
+// applied there; products come from the product detail cache. So adding,
+// changing or removing a line and reading the cart cost no database round
+// trip once the cart is loaded. Changed carts are written behind in batches
+// on a schedule and at shutdown: each flush is a handful of statements per
+// batch of carts, however many times the carts changed in between. A crash
+// loses at most the changes since the last flush.
 @Service
 public class CartServiceImpl implements CartService {
 
 	private static final Logger log = LoggerFactory.getLogger(CartServiceImpl.class);
 
+	private static final int FLUSH_BATCH = 500;
+	private static final int ID_BLOCK = 100;
+
 	private final CartRepository cartRepository;
-	private final JdbcTemplate jdbc;
+	private final ShopRepository shopRepository;
+	private final ProductService productService;
+	private final CartCache cache;
+	private final TrendingProducts trending;
 
 	private static final int MAX_QUANTITY_PER_ITEM = 10;
+	private static final int MAX_ITEMS_PER_REQUEST = 50;
+
+	// current block of reserved cart_items ids, [nextItemId, endItemId),
+	// guarded by idLock alone: it is taken without any cart's monitor held
+	private final Object idLock = new Object();
+	private long nextItemId;
+	private long endItemId;
+
+	// flushLock is taken before cart monitors (takeChanges), never after
+	private final Object flushLock = new Object();
 
-	public CartServiceImpl(CartRepository cartRepository, JdbcTemplate jdbc) {
+	public CartServiceImpl(CartRepository cartRepository, ShopRepository shopRepository,
+			ProductService productService, CartCache cache, TrendingProducts trending) {
 		this.cartRepository = cartRepository;
-		this.jdbc = jdbc;
+		this.shopRepository = shopRepository;
+		this.productService = productService;
+		this.cache = cache;
+		this.trending = trending;
 		log.info("CartService initialized");
 	}
 
@@ -51,10 +98,10 @@ public class CartServiceImpl implements CartService {
 			throw new BadRequestException("Invalid user ID");
 		}
 
-		return cartRepository.findByUserId(userId).orElseGet(() -> {
-			log.info("Creating new cart for user: {}", userId);
-			return cartRepository.create(userId);
-		});
+		CartState state = cart(userId);
+		Cart cart = new Cart(state.getCartId(), userId, null);
+		cart.setItems(state.items());
+		return cart;
 	}
 
 	@Override
@@ -63,19 +110,27 @@ public class CartServiceImpl implements CartService {
 
 		validateUserId(userId);
 
-		Cart cart = getOrCreateCart(userId);
-		List<CartItem> items = cartRepository.findItemsByCartId(cart.getId());
-
-		if (items == null) {
-			items = Collections.emptyList();
+		CartState cart = cart(userId);
+
+		// names, prices and images as the product is now; lines of products
+		// taken off sale stay stored but are not shown
+		List<CartItem> items = new ArrayList<>();
+		for (CartItem item : cart.items()) {
+			Optional<ProductResponse> product = productService.getProductById(item.getProductId());
+			if (product.isEmpty() || !Boolean.TRUE.equals(product.get().getIsActive()))
+				continue;
+			ProductResponse p = product.get();
+			item.setProductName(p.getName());
+			item.setCurrentPrice(price(p));
+			item.setImagePath(p.getImage());
+			items.add(item);
 		}
 
 		log.info("Found {} items in cart for user: {}", items.size(), userId);
-		return buildCartResponse(cart, items);
+		return buildCartResponse(new Cart(cart.getCartId(), userId, null), items);
 	}
 
 	@Override
-	@Transactional
 	public CartItem addToCart(Long userId, Long productId, Integer quantity) {
 		log.info("Adding to cart - User: {}, Product: {}, Quantity: {}", userId, productId, quantity);
 
@@ -113,43 +168,143 @@ public class CartServiceImpl implements CartService {
 		}
 
 		// Edge Case 7: Product doesn't exist or is inactive
-		BigDecimal productPrice = getProductPrice(productId);
+		ProductResponse product = availableProduct(productId);
+
+		CartState cart = cart(userId);
+		CartItem saved = null;
+		Map<Long, CartItem> fresh = Map.of();
+		while (saved == null) {
+			fresh = newLines(cart, Map.of(productId, product), fresh);
+			saved = addLine(cart, productId, quantity, fresh);
+		}
 
-		Cart cart = getOrCreateCart(userId);
-		Optional<CartItem> existingItemOpt = cartRepository.findCartItem(cart.getId(), productId);
+		cache.markDirty(cart);
+		trending.recordAddToCart(productId);
+		return saved;
+	}
 
-		if (existingItemOpt.isPresent()) {
-			CartItem existingItem = existingItemOpt.get();
-			int newQuantity = existingItem.getQuantity() + quantity;
+	// null if the line was removed after newLines saw it, so the caller has
+	// to prepare one and try again
+	private CartItem addLine(CartState cart, Long productId, int quantity, Map<Long, CartItem> fresh) {
+		synchronized (cart) {
+			Optional<CartItem> existingItemOpt = cart.findByProduct(productId);
 
-			// Edge Case 8: Combined quantity exceeds maximum
-			if (newQuantity > MAX_QUANTITY_PER_ITEM) {
-				log.warn("Combined quantity {} exceeds maximum {}", newQuantity, MAX_QUANTITY_PER_ITEM);
-				throw new BadRequestException("Cannot add more. Maximum " + MAX_QUANTITY_PER_ITEM
-						+ " items allowed. You already have " + existingItem.getQuantity() + " in cart.");
-			}
+			if (existingItemOpt.isPresent()) {
+				CartItem existingItem = existingItemOpt.get();
+				int newQuantity = existingItem.getQuantity() + quantity;
 
-			cartRepository.updateItemQuantity(existingItem.getId(), newQuantity);
-			existingItem.setQuantity(newQuantity);
+				// Edge Case 8: Combined quantity exceeds maximum
+				if (newQuantity > MAX_QUANTITY_PER_ITEM) {
+					log.warn("Combined quantity {} exceeds maximum {}", newQuantity, MAX_QUANTITY_PER_ITEM);
+					throw new BadRequestException("Cannot add more. Maximum " + MAX_QUANTITY_PER_ITEM
+							+ " items allowed. You already have " + existingItem.getQuantity() + " in cart.");
+				}
 
-			log.info("Updated existing cart item. New quantity: {}", newQuantity);
-			return existingItem;
+				existingItem.setQuantity(newQuantity);
+				cart.put(existingItem, System.currentTimeMillis());
 
-		} else {
-			CartItem newItem = new CartItem();
-			newItem.setCartId(cart.getId());
-			newItem.setProductId(productId);
+				log.info("Updated existing cart item. New quantity: {}", newQuantity);
+				return existingItem;
+			}
+
+			CartItem newItem = fresh.get(productId);
+			if (newItem == null)
+				return null;
 			newItem.setQuantity(quantity);
-			newItem.setPriceAtAdd(productPrice);
+			cart.put(newItem, System.currentTimeMillis());
+
+			log.info("Added new item to cart. Item ID: {}", newItem.getId());
+			return newItem;
+		}
+	}
+
+	// For "move wishlist to cart" and "order again": one price lookup for all
+	// products (cache hits plus one IN query for the rest), every rule checked
+	// before any line changes, and the lines written with the next flush.
+	@Override
+	public CartResponse addToCart(Long userId, List<CartRequest> items) {
+		log.info("Adding {} items to cart - User: {}", items == null ? 0 : items.size(), userId);
+
+		validateUserId(userId);
+
+		if (items == null || items.isEmpty()) {
+			log.error("No items to add");
+			throw new BadRequestException("At least one item is required");
+		}
+
+		if (items.size() > MAX_ITEMS_PER_REQUEST) {
+			log.error("{} items exceed the maximum of {} per request", items.size(), MAX_ITEMS_PER_REQUEST);
+			throw new BadRequestException("Maximum " + MAX_ITEMS_PER_REQUEST + " items can be added at once");
+		}
+
+		// a product listed twice is added once with both quantities
+		Map<Long, Integer> wanted = new LinkedHashMap<>();
+		for (CartRequest item : items) {
+			if (item == null || item.getProductId() == null || item.getProductId() <= 0) {
+				log.error("Invalid product ID in batch: {}", item);
+				throw new BadRequestException("Invalid product ID");
+			}
+			if (item.getQuantity() == null || item.getQuantity() <= 0) {
+				log.error("Invalid quantity in batch: {}", item);
+				throw new BadRequestException("Quantity must be greater than zero");
+			}
+			wanted.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+		}
+
+		Map<Long, ProductResponse> products = productService.getProductsByIds(wanted.keySet());
+		for (Long productId : wanted.keySet()) {
+			if (!isAvailable(products.get(productId))) {
+				log.error("Product not found with ID: {}", productId);
+				throw new ResourceNotFoundException("Product not found with ID: " + productId);
+			}
+		}
+
+		CartState cart = cart(userId);
+		Map<Long, CartItem> fresh = Map.of();
+		do {
+			fresh = newLines(cart, products, fresh);
+		} while (!addLines(cart, wanted, fresh));
+
+		cache.markDirty(cart);
+		for (Long productId : wanted.keySet())
+			trending.recordAddToCart(productId);
+
+		log.info("Added {} products to cart for user: {}", wanted.size(), userId);
+		return getUserCart(userId);
+	}
+
+	// all or nothing; false if a line was removed after newLines saw it, so
+	// the caller has to prepare one and try again
+	private boolean addLines(CartState cart, Map<Long, Integer> wanted, Map<Long, CartItem> fresh) {
+		synchronized (cart) {
+			List<CartItem> lines = new ArrayList<>(wanted.size());
+			for (Map.Entry<Long, Integer> e : wanted.entrySet()) {
+				Optional<CartItem> existing = cart.findByProduct(e.getKey());
+				int have = existing.map(CartItem::getQuantity).orElse(0);
+				int newQuantity = have + e.getValue();
+
+				if (newQuantity > MAX_QUANTITY_PER_ITEM) {
+					log.warn("Combined quantity {} of product {} exceeds maximum {}", newQuantity, e.getKey(),
+							MAX_QUANTITY_PER_ITEM);
+					throw new BadRequestException("Cannot add more of product " + e.getKey() + ". Maximum "
+							+ MAX_QUANTITY_PER_ITEM + " items allowed. You already have " + have + " in cart.");
+				}
+
+				CartItem line = existing.isPresent() ? existing.get() : fresh.get(e.getKey());
+				if (line == null)
+					return false;
+				line.setQuantity(newQuantity);
+				lines.add(line);
+			}
 
-			CartItem savedItem = cartRepository.addItem(newItem);
-			log.info("Added new item to cart. Item ID: {}", savedItem.getId());
-			return savedItem;
+			long now = System.currentTimeMillis();
+			for (CartItem line : lines)
+				cart.put(line, now);
+			return true;
 		}
 	}
 
 	@Override
-	@Transactional
 	public CartItem updateCartItemQuantity(Long userId, Long cartItemId, Integer quantity) {
 		log.info("Updating cart item - User: {}, ItemId: {}, NewQuantity: {}", userId, cartItemId, quantity);
 
@@ -185,33 +340,23 @@ public class CartServiceImpl implements CartService {
 			throw new BadRequestException("Maximum " + MAX_QUANTITY_PER_ITEM + " items allowed per product");
 		}
 
-		// Edge Case 6: Cart item not found
-		CartItem item = cartRepository.findItemById(cartItemId).orElseThrow(() -> {
-			log.error("Cart item not found: {}", cartItemId);
-			return new ResourceNotFoundException("Cart item not found with ID: " + cartItemId);
-		});
+		CartState cart = cart(userId);
+		CartItem item;
+		synchronized (cart) {
+			// Edge Cases 6-8: item not found or in someone else's cart
+			item = cart.findById(cartItemId).orElseThrow(
+					() -> missingItem(cart, userId, cartItemId, "You are not authorized to modify this cart item"));
 
-		// Edge Case 7: Cart not found
-		Cart cart = cartRepository.findById(item.getCartId()).orElseThrow(() -> {
-			log.error("Cart not found for item: {}", cartItemId);
-			return new ResourceNotFoundException("Cart not found");
-		});
-
-		// Edge Case 8: Unauthorized access
-		if (!cart.getUserId().equals(userId)) {
-			log.error("Unauthorized access. User {} trying to modify cart of user {}", userId, cart.getUserId());
-			throw new UnauthorizedException("You are not authorized to modify this cart item");
+			item.setQuantity(quantity);
+			cart.put(item, System.currentTimeMillis());
 		}
-
-		cartRepository.updateItemQuantity(cartItemId, quantity);
-		item.setQuantity(quantity);
+		cache.markDirty(cart);
 
 		log.info("Cart item {} updated to quantity {}", cartItemId, quantity);
 		return item;
 	}
 
 	@Override
-	@Transactional
 	public void removeFromCart(Long userId, Long cartItemId) {
 		log.info("Removing from cart - User: {}, ItemId: {}", userId, cartItemId);
 
@@ -229,74 +374,203 @@ public class CartServiceImpl implements CartService {
 			throw new BadRequestException("Invalid cart item ID");
 		}
 
-		// Edge Case 3: Cart item not found
-		CartItem item = cartRepository.findItemById(cartItemId).orElseThrow(() -> {
-			log.error("Cart item not found: {}", cartItemId);
-			return new ResourceNotFoundException("Cart item not found with ID: " + cartItemId);
-		});
-
-		// Edge Case 4: Cart not found
-		Cart cart = cartRepository.findById(item.getCartId()).orElseThrow(() -> {
-			log.error("Cart not found for item: {}", cartItemId);
-			return new ResourceNotFoundException("Cart not found");
-		});
+		CartState cart = cart(userId);
 
-		// Edge Case 5: Unauthorized access
-		if (!cart.getUserId().equals(userId)) {
-			log.error("Unauthorized access. User {} trying to remove from cart of user {}", userId, cart.getUserId());
-			throw new UnauthorizedException("You are not authorized to remove this cart item");
-		}
+		// Edge Cases 3-5: item not found or in someone else's cart
+		if (!cart.remove(cartItemId, System.currentTimeMillis()))
+			throw missingItem(cart, userId, cartItemId, "You are not authorized to remove this cart item");
+		cache.markDirty(cart);
 
-		cartRepository.removeItem(cartItemId);
 		log.info("Cart item {} removed successfully", cartItemId);
 	}
 
+	// Inside a transaction (placing an order) the cart is emptied once it
+	// commits, so a failed order leaves the cart as it was.
 	@Override
-	@Transactional
 	public void clearCart(Long userId) {
 		log.info("Clearing cart for user: {}", userId);
 
 		validateUserId(userId);
 
-		Cart cart = getOrCreateCart(userId);
-
-		// Get item count before clearing (for logging)
-		int itemCount = cartRepository.getItemsCount(cart.getId());
-
-		cartRepository.clearCart(cart.getId());
-
-		log.info("Cleared {} items from cart for user: {}", itemCount, userId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					clear(userId);
+				}
+			});
+		} else {
+			clear(userId);
+		}
 	}
 
+	// Checks every line against the database as it is now, in one query for
+	// all products, and reports each drift instead of failing on the first:
+	// lines of products taken off sale, lines with more than the available
+	// stock, and prices that changed since the line was added. Off-sale lines
+	// are left out of the items and totals, as in getUserCart.
 	@Override
 	public CartResponse validateCart(Long userId) {
 		log.info("Validating cart for user: {}", userId);
 
 		validateUserId(userId);
 
-		CartResponse response = getUserCart(userId);
+		CartState cart = cart(userId);
+		List<CartItem> lines = cart.items();
 
 		// Edge Case: Empty cart
-		if (response.getItems() == null || response.getItems().isEmpty()) {
+		if (lines.isEmpty()) {
 			log.warn("Cart is empty for user: {}", userId);
 			throw new BadRequestException("Your cart is empty. Add items before checkout.");
 		}
 
-		// Additional validation: Check if all products are still available
-		for (CartItem item : response.getItems()) {
-			try {
-				getProductPrice(item.getProductId());
-			} catch (ResourceNotFoundException e) {
-				log.error("Product {} no longer available", item.getProductId());
-				throw new BadRequestException("Product with ID '" + item.getProductId()
-						+ "' is no longer available. Please remove it from your cart.");
+		Map<Long, ProductAvailability> availability = cartRepository
+				.findAvailability(lines.stream().map(CartItem::getProductId).distinct().toList());
+
+		List<CartItem> items = new ArrayList<>(lines.size());
+		List<CartItemIssue> issues = new ArrayList<>();
+		for (CartItem item : lines) {
+			ProductAvailability a = availability.get(item.getProductId());
+			if (a == null || !a.isActive()) {
+				issues.add(issue(item, CartIssueType.INACTIVE, a,
+						name(item) + " is no longer available. Please remove it from your cart."));
+				continue;
+			}
+
+			item.setCurrentPrice(a.getSellingPrice());
+			items.add(item);
+
+			if (a.getAvailable() < item.getQuantity()) {
+				issues.add(issue(item, CartIssueType.OUT_OF_STOCK, a,
+						a.getAvailable() == 0 ? name(item) + " is out of stock."
+								: "Only " + a.getAvailable() + " of " + name(item) + " left in stock."));
+			}
+			if (item.getPriceAtAdd() != null && a.getSellingPrice() != null
+					&& a.getSellingPrice().compareTo(item.getPriceAtAdd()) != 0) {
+				issues.add(issue(item, CartIssueType.PRICE_CHANGED, a, "The price of " + name(item) + " changed from "
+						+ item.getPriceAtAdd() + " to " + a.getSellingPrice() + "."));
 			}
 		}
 
-		log.info("Cart validation passed for user: {}", userId);
+		CartResponse response = buildCartResponse(new Cart(cart.getCartId(), userId, null), items);
+		response.setIssues(issues);
+		response.setHasInvalidItems(issues.stream().anyMatch(i -> i.getType() != CartIssueType.PRICE_CHANGED));
+		response.setHasPriceChanges(issues.stream().anyMatch(i -> i.getType() == CartIssueType.PRICE_CHANGED));
+		response.setWarnings(issues.stream().map(CartItemIssue::getMessage).toList());
+
+		log.info("Cart validation for user {}: {} items, {} issues", userId, items.size(), issues.size());
 		return response;
 	}
 
+	// flushLock keeps the scheduled flush and the shutdown flush from writing
+	// two change sets of a cart out of order
+	@Scheduled(fixedDelayString = "${cart.flush-ms:2000}")
+	public int flush() {
+		synchronized (flushLock) {
+			return flushPending();
+		}
+	}
+
+	private int flushPending() {
+		int written = 0;
+		// bounded by what was pending at the start, so steady traffic cannot
+		// keep one flush running
+		int rounds = cache.dirtyCount() / FLUSH_BATCH + 1;
+		List<CartState> batch;
+		while (rounds-- > 0 && !(batch = cache.drainDirty(FLUSH_BATCH)).isEmpty()) {
+			List<CartState.Changes> changes = new ArrayList<>(batch.size());
+			for (CartState cart : batch)
+				changes.add(cart.takeChanges());
+			try {
+				writeBack(changes);
+				cache.written(batch);
+				written += batch.size();
+			} catch (Exception e) {
+				for (int i = 0; i < batch.size(); i++)
+					batch.get(i).restore(changes.get(i));
+				cache.restoreDirty(batch);
+				log.error("Cart flush failed, {} carts kept for the next attempt", cache.dirtyCount(), e);
+				break;
+			}
+		}
+		return written;
+	}
+
+	@PreDestroy
+	public void flushOnShutdown() {
+		int written = flush();
+		if (written > 0)
+			log.info("Carts flushed for {} users at shutdown", written);
+	}
+
+	private void clear(Long userId) {
+		CartState cart = cart(userId);
+		int itemCount = cart.clear(System.currentTimeMillis());
+		cache.markDirty(cart);
+
+		log.info("Cleared {} items from cart for user: {}", itemCount, userId);
+	}
+
+	private void writeBack(List<CartState.Changes> changes) {
+		List<Long> cleared = new ArrayList<>();
+		List<Long> removed = new ArrayList<>();
+		List<CartItem> upserts = new ArrayList<>();
+		Map<Long, LocalDateTime> touched = new LinkedHashMap<>();
+		for (CartState.Changes c : changes) {
+			if (c == null)
+				continue;
+			if (c.cleared())
+				cleared.add(c.cartId());
+			removed.addAll(c.removed());
+			upserts.addAll(c.upserts());
+			touched.put(c.cartId(),
+					LocalDateTime.ofInstant(Instant.ofEpochMilli(c.touchedAt()), ZoneId.systemDefault()));
+		}
+		if (!touched.isEmpty())
+			cartRepository.writeBack(cleared, removed, upserts, touched);
+	}
+
+	private CartState cart(Long userId) {
+		return cache.get(userId, this::load);
+	}
+
+	private CartState load(Long userId) {
+		Cart cart = cartRepository.findByUserId(userId).orElseGet(() -> {
+			log.info("Creating new cart for user: {}", userId);
+			return cartRepository.create(userId);
+		});
+		return new CartState(cart.getId(), userId, cartRepository.findItemsByCartId(cart.getId()));
+	}
+
+	// Lines are created in memory, so their ids come from blocks reserved
+	// in advance: one reservation per ID_BLOCK new lines.
+	private long[] nextItemIds(int count) {
+		long[] ids = new long[count];
+		synchronized (idLock) {
+			for (int i = 0; i < count; i++) {
+				if (nextItemId == endItemId) {
+					nextItemId = cartRepository.reserveItemIds(ID_BLOCK);
+					endItemId = nextItemId + ID_BLOCK;
+				}
+				ids[i] = nextItemId++;
+			}
+		}
+		return ids;
+	}
+
+	// A line the user does not have: someone else's is refused, anything
+	// else is not found. Only this error path reads the database.
+	private RuntimeException missingItem(CartState cart, Long userId, Long cartItemId, String unauthorized) {
+		Optional<CartItem> stored = cartRepository.findItemById(cartItemId);
+		if (stored.isPresent() && !stored.get().getCartId().equals(cart.getCartId())) {
+			log.error("Unauthorized access. User {} trying to change cart item {} of another cart", userId,
+					cartItemId);
+			return new UnauthorizedException(unauthorized);
+		}
+		log.error("Cart item not found: {}", cartItemId);
+		return new ResourceNotFoundException("Cart item not found with ID: " + cartItemId);
+	}
+
 	private void validateUserId(Long userId) {
 		if (userId == null) {
 			log.error("User ID is null");
@@ -308,18 +582,100 @@ public class CartServiceImpl implements CartService {
 		}
 	}
 
-	private BigDecimal getProductPrice(Long productId) {
-		String sql = "SELECT selling_price FROM products WHERE id = ?";
-		try {
-			BigDecimal price = jdbc.queryForObject(sql, BigDecimal.class, productId);
-			if (price == null) {
-				throw new ResourceNotFoundException("Product price not available for ID: " + productId);
-			}
-			return price;
-		} catch (org.springframework.dao.EmptyResultDataAccessException e) {
+	private ProductResponse availableProduct(Long productId) {
+		ProductResponse product = productService.getProductById(productId).orElse(null);
+		if (!isAvailable(product)) {
 			log.error("Product not found with ID: {}", productId);
 			throw new ResourceNotFoundException("Product not found with ID: " + productId);
 		}
+		return product;
+	}
+
+	private static boolean isAvailable(ProductResponse product) {
+		return product != null && Boolean.TRUE.equals(product.getIsActive()) && product.getSellingPrice() != null;
+	}
+
+	// Lines for the products the cart does not have yet, with their ids and
+	// shop names, built before the cart is locked: id reservation and shop
+	// lookups are round trips, and the flush waits for the cart's monitor.
+	// Lines already prepared are kept; one left over because the product
+	// was added meanwhile only costs its id.
+	private Map<Long, CartItem> newLines(CartState cart, Map<Long, ProductResponse> products,
+			Map<Long, CartItem> prepared) {
+		List<ProductResponse> missing = new ArrayList<>();
+		for (ProductResponse product : products.values()) {
+			if (!prepared.containsKey(product.getId()) && cart.findByProduct(product.getId()).isEmpty())
+				missing.add(product);
+		}
+		if (missing.isEmpty())
+			return prepared;
+
+		Map<Long, CartItem> lines = new HashMap<>(prepared);
+		Map<Long, String> shopNames = shopNames(cart);
+		long[] ids = nextItemIds(missing.size());
+		for (int i = 0; i < ids.length; i++)
+			lines.put(missing.get(i).getId(), newLine(cart, missing.get(i), ids[i], shopNames));
+		return lines;
+	}
+
+	private CartItem newLine(CartState cart, ProductResponse product, long id, Map<Long, String> shopNames) {
+		CartItem item = new CartItem();
+		item.setId(id);
+		item.setCartId(cart.getCartId());
+		item.setProductId(product.getId());
+		item.setQuantity(0);
+		item.setPriceAtAdd(price(product));
+		item.setProductName(product.getName());
+		item.setCurrentPrice(price(product));
+		item.setShopId(product.getShopId());
+		item.setShopName(shopName(product, shopNames));
+		item.setImagePath(product.getImage());
+		return item;
+	}
+
+	private static CartItemIssue issue(CartItem item, CartIssueType type, ProductAvailability a, String message) {
+		CartItemIssue issue = new CartItemIssue();
+		issue.setCartItemId(item.getId());
+		issue.setProductId(item.getProductId());
+		issue.setProductName(item.getProductName());
+		issue.setType(type);
+		issue.setQuantity(item.getQuantity());
+		issue.setAvailable(a == null ? 0 : a.getAvailable());
+		issue.setPriceAtAdd(item.getPriceAtAdd());
+		issue.setCurrentPrice(a == null ? null : a.getSellingPrice());
+		issue.setMessage(message);
+		return issue;
+	}
+
+	private static String name(CartItem item) {
+		return item.getProductName() != null ? item.getProductName() : "Product " + item.getProductId();
+	}
+
+	private static BigDecimal price(ProductResponse product) {
+		return product.getSellingPrice() == null ? null
+				: BigDecimal.valueOf(product.getSellingPrice()).setScale(2, RoundingMode.HALF_UP);
+	}
+
+	// names of the shops already in the cart, so only a new shop is looked up
+	private static Map<Long, String> shopNames(CartState cart) {
+		Map<Long, String> names = new HashMap<>();
+		for (CartItem item : cart.items()) {
+			if (item.getShopId() != null && item.getShopName() != null)
+				names.put(item.getShopId(), item.getShopName());
+		}
+		return names;
+	}
+
+	private String shopName(ProductResponse product, Map<Long, String> shopNames) {
+		String known = shopNames.get(product.getShopId());
+		if (known != null)
+			return known;
+		String name = shopRepository.getShopById(product.getShopId()).map(Shop::getName).orElseThrow(() -> {
+			log.error("Shop {} of product {} is not active", product.getShopId(), product.getId());
+			return new ResourceNotFoundException("Product not found with ID: " + product.getId());
+		});
+		shopNames.put(product.getShopId(), name);
+		return name;
 	}
 
 	private CartResponse buildCartResponse(Cart cart, List<CartItem> items) {
@@ -349,4 +705,4 @@ public class CartServiceImpl implements CartService {
 
 		return response;
 	}
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.cache.CategoryTreeCache;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.Category;
@@ -14,19 +15,28 @@ import java.util.List;
 public class CategoryServiceImpl implements CategoryService {
 
 	private final CategoryRepository repo;
+	private final CategoryTreeCache categoryTree;
 
-	public CategoryServiceImpl(CategoryRepository repo) {
+	public CategoryServiceImpl(CategoryRepository repo, CategoryTreeCache categoryTree) {
 		this.repo = repo;
+		this.categoryTree = categoryTree;
 	}
 
 	@Override
 	public Category create(Category c) {
-		return repo.save(c);
+		Category saved = repo.save(c);
+		categoryTree.refreshAfterCommit();
+		return saved;
 	}
 
 	@Override
 	public List<Category> listActive() {
-		return repo.findAllActive();
+		return categoryTree.current().all();
+	}
+
+	@Override
+	public List<Category> listChildren(Long parentId) {
+		return categoryTree.current().children(parentId);
 	}
 
 	@Override
@@ -45,6 +55,7 @@ public class CategoryServiceImpl implements CategoryService {
 			throw new BadRequestException("Cannot deactivate category: it has subcategories.");
 
 		repo.updateActiveFlag(id, false);
+		categoryTree.refreshAfterCommit();
 	}
 
 	@Override
@@ -54,6 +65,7 @@ public class CategoryServiceImpl implements CategoryService {
 			throw new ResourceNotFoundException("Category not found");
 
 		repo.updateActiveFlag(id, true);
+		categoryTree.refreshAfterCommit();
 	}
 
 	@Override
@@ -62,5 +74,6 @@ public class CategoryServiceImpl implements CategoryService {
 			throw new ResourceNotFoundException("Category not found");
 
 		repo.update(c);
+		categoryTree.refreshAfterCommit();
 	}
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,12 +30,7 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
 	@Override
 	public EmailNotificationResponse sendEmail(Long userId, EmailSendRequest request) {
 
-		if (request.getSubject() == null || request.getSubject().isBlank()) {
-			throw new BadRequestException("Subject cannot be empty");
-		}
-		if (request.getMessage() == null || request.getMessage().isBlank()) {
-			throw new BadRequestException("Message cannot be empty");
-		}
+		validate(request);
 
 		EmailNotification n = new EmailNotification();
 		n.setUserId(userId);
@@ -60,6 +56,29 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
 		return map(n);
 	}
 
+	@Override
+	public int queueEmails(List<Long> userIds, EmailSendRequest request) {
+
+		validate(request);
+		if (userIds.isEmpty()) {
+			return 0;
+		}
+
+		List<EmailNotification> batch = new ArrayList<>(userIds.size());
+		for (Long userId : userIds) {
+			EmailNotification n = new EmailNotification();
+			n.setUserId(userId);
+			n.setSubject(request.getSubject());
+			n.setMessage(request.getMessage());
+			n.setStatus("PENDING");
+			batch.add(n);
+		}
+		emailRepo.saveAll(batch);
+
+		log.info("Queued email '{}' for {} users", request.getSubject(), batch.size());
+		return batch.size();
+	}
+
 	@Override
 	public boolean updateStatus(Long id, String status) {
 		return emailRepo.updateStatus(id, status);
@@ -82,6 +101,15 @@ public class EmailNotificationServiceImpl implements EmailNotificationService {
 		return emailRepo.findAll().stream().map(this::map).collect(Collectors.toList());
 	}
 
+	private void validate(EmailSendRequest request) {
+		if (request.getSubject() == null || request.getSubject().isBlank()) {
+			throw new BadRequestException("Subject cannot be empty");
+		}
+		if (request.getMessage() == null || request.getMessage().isBlank()) {
+			throw new BadRequestException("Message cannot be empty");
+		}
+	}
+
 	private EmailNotificationResponse map(EmailNotification n) {
 		EmailNotificationResponse r = new EmailNotificationResponse();
 		r.setId(n.getId());
@@ -18,6 +18,7 @@ import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.service.CartService;
 import com.ecommerce.service.InventoryService;
 import com.ecommerce.service.OrderService;
+import com.ecommerce.trending.TrendingProducts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -29,6 +30,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -36,6 +38,7 @@ public class OrderServiceImpl implements OrderService {
 	private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
 
 	private static final int MIN_ADDRESS_LENGTH = 10;
+	private static final int EXPORT_CHUNK = 500;
 	private static final int MAX_ADDRESS_LENGTH = 500;
 	private static final List<String> VALID_ORDER_STATUSES = List.of("PLACED", "CONFIRMED", "SHIPPED", "DELIVERED",
 			"CANCELLED", "RETURNED");
@@ -44,13 +47,15 @@ public class OrderServiceImpl implements OrderService {
 	private final OrderRepository orderRepository;
 	private final CouponRepository couponRepository;
 	private final InventoryService inventoryService;
+	private final TrendingProducts trending;
 
 	public OrderServiceImpl(CartService cartService, OrderRepository orderRepository, CouponRepository couponRepository,
-			InventoryService inventoryService) {
+			InventoryService inventoryService, TrendingProducts trending) {
 		this.cartService = cartService;
 		this.orderRepository = orderRepository;
 		this.couponRepository = couponRepository;
 		this.inventoryService = inventoryService;
+		this.trending = trending;
 
 		log.info("----------------------------------------------------------");
 		log.info("OrderService Initialized - FINAL PRODUCTION VERSION");
@@ -197,6 +202,9 @@ public class OrderServiceImpl implements OrderService {
 
 		cartService.clearCart(userId);
 
+		for (CartItem item : allItems)
+			trending.recordOrder(item.getProductId(), item.getQuantity());
+
 		log.info("--------------------------------------------------------------");
 		log.info("ORDER PLACED SUCCESSFULLY - {} order(s) created", createdOrders.size());
 		log.info("---------------------------------------------------------------");
@@ -262,6 +270,29 @@ public class OrderServiceImpl implements OrderService {
 		}).toList();
 	}
 
+	// Streams every order; items are loaded per chunk of orders with one query
+	// instead of one per order, and only the current chunk is held in memory.
+	@Override
+	public void exportOrders(Consumer<OrderResponse> sink) {
+		List<Order> chunk = new ArrayList<>(EXPORT_CHUNK);
+		orderRepository.streamAll(o -> {
+			chunk.add(o);
+			if (chunk.size() == EXPORT_CHUNK)
+				flushExportChunk(chunk, sink);
+		});
+		flushExportChunk(chunk, sink);
+	}
+
+	private void flushExportChunk(List<Order> chunk, Consumer<OrderResponse> sink) {
+		if (chunk.isEmpty())
+			return;
+		Map<Long, List<OrderItemResponse>> items = orderRepository
+				.findItemsByOrderIds(chunk.stream().map(Order::getId).toList());
+		for (Order o : chunk)
+			sink.accept(mapToResponse(o, items.getOrDefault(o.getId(), List.of())));
+		chunk.clear();
+	}
+
 	@Override
 	@Transactional
 	public OrderResponse updateOrderStatus(Long orderId, String newStatus) {
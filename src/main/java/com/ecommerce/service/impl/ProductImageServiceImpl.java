@@ -1,8 +1,12 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.cache.ProductDetailCache;
 import com.ecommerce.dto.ProductImageRequest;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.image.ImageDerivatives;
+import com.ecommerce.image.ImageStore;
+import com.ecommerce.image.ImageStore.StoredImage;
 import com.ecommerce.model.ProductImage;
 import com.ecommerce.repository.ProductImageRepository;
 import com.ecommerce.service.ProductImageService;
@@ -10,19 +14,25 @@ import com.ecommerce.service.ProductImageService;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProductImageServiceImpl implements ProductImageService {
 
 	private final ProductImageRepository repo;
+	private final ProductDetailCache detailCache;
+	private final ImageDerivatives derivatives;
+	private final ImageStore store;
 
-	public ProductImageServiceImpl(ProductImageRepository repo) {
+	public ProductImageServiceImpl(ProductImageRepository repo, ProductDetailCache detailCache,
+			ImageDerivatives derivatives, ImageStore store) {
 		this.repo = repo;
+		this.detailCache = detailCache;
+		this.derivatives = derivatives;
+		this.store = store;
 	}
 
 	@Override
@@ -41,8 +51,18 @@ public class ProductImageServiceImpl implements ProductImageService {
 		img.setSortImageOrder(nextOrder);
 		img.setDeleted(false);
 
-		Long id = repo.save(img);
+		// pointing at an uploaded object shares it, so it needs a reference too
+		store.retain(img.getImagePath());
+		Long id;
+		try {
+			id = repo.save(img);
+		} catch (RuntimeException e) {
+			store.release(img.getImagePath());
+			throw e;
+		}
 		img.setId(id);
+		detailCache.invalidate(productId);
+		derivatives.submit(img);
 
 		return img;
 	}
@@ -54,20 +74,16 @@ public class ProductImageServiceImpl implements ProductImageService {
 			throw new BadRequestException("File is empty");
 		}
 
-		try {
-			String root = System.getProperty("user.dir");
-			String folderPath = root + "/product-images/" + productId;
-
-			File folder = new File(folderPath);
-			if (!folder.exists())
-				folder.mkdirs();
-
-			String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-			Path path = Paths.get(folderPath + "/" + fileName);
-			Files.copy(file.getInputStream(), path);
-
-			String dbPath = "/product-images/" + productId + "/" + fileName;
+		// streamed to disk while hashed; identical bytes already uploaded for
+		// any product are reused instead of stored again
+		StoredImage stored;
+		try (InputStream in = file.getInputStream()) {
+			stored = store.store(in);
+		} catch (IOException e) {
+			throw new BadRequestException("Image upload failed: " + e.getMessage());
+		}
 
+		try {
 			// AUTO PRIMARY FOR FIRST IMAGE
 			List<ProductImage> existingImages = repo.findByProductId(productId);
 			boolean firstImage = existingImages.isEmpty();
@@ -79,24 +95,31 @@ public class ProductImageServiceImpl implements ProductImageService {
 
 			ProductImage img = new ProductImage();
 			img.setProductId(productId);
-			img.setImagePath(dbPath);
+			img.setImagePath(stored.imagePath());
 			img.setPrimary(isPrimary);
 			img.setSortImageOrder(nextOrder);
 			img.setDeleted(false);
 
 			Long id = repo.save(img);
 			img.setId(id);
+			detailCache.invalidate(productId);
+			derivatives.submit(img);
 
 			return img;
 
-		} catch (Exception e) {
-			throw new BadRequestException("Image upload failed: " + e.getMessage());
+		} catch (RuntimeException e) {
+			store.release(stored.imagePath());
+			throw e;
 		}
 	}
 
 	@Override
 	public List<ProductImage> getImagesByProduct(Long productId) {
-		return repo.findByProductId(productId);
+		List<ProductImage> images = repo.findByProductId(productId);
+		Map<Long, Map<Integer, String>> sizes = repo.findDerivativePaths(productId);
+		for (ProductImage img : images)
+			img.setSizes(sizes.getOrDefault(img.getId(), Map.of()));
+		return images;
 	}
 
 	@Override
@@ -105,7 +128,13 @@ public class ProductImageServiceImpl implements ProductImageService {
 		ProductImage existing = repo.findById(imageId)
 				.orElseThrow(() -> new ResourceNotFoundException("Image not found"));
 
-		if (req.getImagePath() != null)
+		String previousPath = existing.getImagePath();
+		boolean newPath = req.getImagePath() != null && !req.getImagePath().equals(previousPath);
+		// a deleted image no longer holds a reference on its file
+		boolean counted = newPath && !existing.isDeleted();
+		if (counted)
+			store.retain(req.getImagePath());
+		if (newPath)
 			existing.setImagePath(req.getImagePath());
 
 		if (req.getPrimary() != null)
@@ -114,7 +143,16 @@ public class ProductImageServiceImpl implements ProductImageService {
 		if (req.getSortImageOrder() != null)
 			existing.setSortImageOrder(req.getSortImageOrder());
 
-		repo.update(existing);
+		try {
+			repo.update(existing);
+		} catch (RuntimeException e) {
+			if (counted)
+				store.release(req.getImagePath());
+			throw e;
+		}
+		if (counted)
+			store.release(previousPath);
+		detailCache.invalidate(existing.getProductId());
 		return existing;
 	}
 
@@ -123,7 +161,9 @@ public class ProductImageServiceImpl implements ProductImageService {
 		ProductImage existing = repo.findById(imageId)
 				.orElseThrow(() -> new ResourceNotFoundException("Image not found"));
 
-		repo.softDelete(existing.getId());
+		if (repo.softDelete(existing.getId()))
+			store.release(existing.getImagePath());
+		detailCache.invalidate(existing.getProductId());
 	}
 
 	@Override
@@ -136,6 +176,7 @@ public class ProductImageServiceImpl implements ProductImageService {
 			throw new ResourceNotFoundException("Image does not belong to product");
 
 		repo.setPrimaryImage(productId, imageId);
+		detailCache.invalidate(productId);
 	}
 
 	@Override
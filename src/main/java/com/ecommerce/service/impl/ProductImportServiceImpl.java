@@ -0,0 +1,340 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.ImportRowError;
+import com.ecommerce.dto.ProductImportResponse;
+import com.ecommerce.dto.ProductImportRow;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.Category;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.InventoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.service.ProductImportService;
+import com.ecommerce.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Bulk catalog onboarding for a shop. The file is parsed as it is read and
+// handled in chunks: each chunk costs one SKU lookup, one multi-row product
+// INSERT and one multi-row inventory INSERT (in a single transaction),
+// instead of three round trips per product as with POST /manage. Bad rows
+// are reported by row number and skipped; the rest of the file still loads.
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+	private static final Logger log = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+	static final int CHUNK_SIZE = 500;
+	private static final int MAX_REPORTED_ERRORS = 1000;
+
+	private final ProductRepository productRepository;
+	private final InventoryRepository inventoryRepository;
+	private final CategoryRepository categoryRepository;
+	private final ProductSearchIndex searchIndex;
+	private final TransactionTemplate transactionTemplate;
+	// quantity and categoryId must be whole numbers in NDJSON too, instead of
+	// Jackson truncating 2.9 to 2
+	private final ObjectReader rowReader;
+
+	public ProductImportServiceImpl(ProductRepository productRepository, InventoryRepository inventoryRepository,
+			CategoryRepository categoryRepository, ProductSearchIndex searchIndex, ObjectMapper objectMapper,
+			TransactionTemplate transactionTemplate) {
+		this.productRepository = productRepository;
+		this.inventoryRepository = inventoryRepository;
+		this.categoryRepository = categoryRepository;
+		this.searchIndex = searchIndex;
+		this.transactionTemplate = transactionTemplate;
+		this.rowReader = objectMapper.readerFor(ProductImportRow.class)
+				.without(DeserializationFeature.ACCEPT_FLOAT_AS_INT);
+	}
+
+	@Override
+	public ProductImportResponse importProducts(Long shopId, InputStream in, Format format) {
+		if (shopId == null) {
+			throw new BadRequestException("shopId is required");
+		}
+
+		Set<Long> categoryIds = new HashSet<>();
+		for (Category c : categoryRepository.findAllActive())
+			categoryIds.add(c.getId());
+
+		ImportRun run = new ImportRun(shopId, categoryIds);
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			if (format == Format.CSV)
+				readCsv(reader, run);
+			else
+				readNdjson(reader, run);
+		} catch (IOException e) {
+			// earlier chunks are already committed, so the rows read so far are
+			// still saved and reported, with the read failure as the last entry
+			log.warn("Product import for shop {} stopped reading after row {}", shopId, run.lastRow, e);
+			run.flush();
+			run.response.getErrors()
+					.add(new ImportRowError(run.lastRow + 1, null, "Could not read import file: " + e.getMessage()));
+			return run.response;
+		}
+		run.flush();
+
+		log.info("Product import for shop {}: {} rows, {} imported, {} failed", shopId, run.response.getReceived(),
+				run.response.getImported(), run.response.getFailed());
+		return run.response;
+	}
+
+	private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+		CsvReader csv = new CsvReader(reader);
+		List<String> header = csv.next();
+		if (header == null) {
+			throw new BadRequestException("Import file is empty");
+		}
+
+		// header names are matched loosely: "selling_price", "sellingPrice", "Selling Price"
+		Map<String, Integer> columns = new LinkedHashMap<>();
+		for (int i = 0; i < header.size(); i++)
+			columns.put(normalize(header.get(i)), i);
+		if (!columns.containsKey("sku") || !columns.containsKey("name") || !columns.containsKey("sellingprice")) {
+			throw new BadRequestException("CSV header must contain sku, name and selling_price");
+		}
+
+		int rowNumber = 0;
+		List<String> record;
+		while ((record = csv.next()) != null) {
+			rowNumber++;
+			ProductImportRow row = new ProductImportRow();
+			try {
+				row.setSku(text(record, columns.get("sku")));
+				row.setName(text(record, columns.get("name")));
+				row.setShortDescription(text(record, columns.get("shortdescription")));
+				row.setDescription(text(record, columns.get("description")));
+				row.setSellingPrice(number(record, columns.get("sellingprice")));
+				row.setMrp(number(record, columns.get("mrp")));
+				row.setCategoryId(longValue(record, columns.get("categoryid"), "category_id"));
+				row.setQuantity(intValue(record, columns.get("quantity"), "quantity"));
+				String active = text(record, columns.get("isactive"));
+				row.setIsActive(active == null ? null : Boolean.parseBoolean(active));
+			} catch (NumberFormatException e) {
+				run.reject(rowNumber, row.getSku(), "Invalid number: " + e.getMessage());
+				continue;
+			}
+			run.accept(rowNumber, row);
+		}
+	}
+
+	private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+		int rowNumber = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			rowNumber++;
+			if (line.isBlank())
+				continue;
+			try {
+				run.accept(rowNumber, rowReader.readValue(line));
+			} catch (JsonProcessingException e) {
+				run.reject(rowNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+			}
+		}
+	}
+
+	private static String normalize(String column) {
+		return column.trim().replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+	}
+
+	private static String text(List<String> record, Integer column) {
+		if (column == null || column >= record.size())
+			return null;
+		String value = record.get(column).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	private static Double number(List<String> record, Integer column) {
+		String value = text(record, column);
+		return value == null ? null : Double.valueOf(value);
+	}
+
+	// whole-number columns: "2.9" or "1e3" is an error, not 2 or 1000
+	private static Integer intValue(List<String> record, Integer column, String name) {
+		String value = text(record, column);
+		try {
+			return value == null ? null : Integer.valueOf(value);
+		} catch (NumberFormatException e) {
+			throw new NumberFormatException(name + " must be a whole number, got \"" + value + "\"");
+		}
+	}
+
+	private static Long longValue(List<String> record, Integer column, String name) {
+		String value = text(record, column);
+		try {
+			return value == null ? null : Long.valueOf(value);
+		} catch (NumberFormatException e) {
+			throw new NumberFormatException(name + " must be a whole number, got \"" + value + "\"");
+		}
+	}
+
+	// products.sku is unique under a case-insensitive collation, so "abc" and
+	// "ABC" are the same SKU
+	private static String skuKey(String sku) {
+		return sku.toLowerCase(Locale.ROOT);
+	}
+
+	// State of one import: the pending chunk, SKUs seen so far and the report.
+	private final class ImportRun {
+
+		final Long shopId;
+		final Set<Long> categoryIds;
+		final Set<String> seenSkus = new HashSet<>();
+		final List<Product> chunk = new ArrayList<>(CHUNK_SIZE);
+		final List<Integer> chunkRows = new ArrayList<>(CHUNK_SIZE);
+		final List<Integer> chunkQuantities = new ArrayList<>(CHUNK_SIZE);
+		final ProductImportResponse response = new ProductImportResponse();
+		// the last row handed over, whether accepted or rejected
+		int lastRow;
+
+		ImportRun(Long shopId, Set<Long> categoryIds) {
+			this.shopId = shopId;
+			this.categoryIds = categoryIds;
+		}
+
+		void accept(int rowNumber, ProductImportRow row) {
+			response.setReceived(response.getReceived() + 1);
+			lastRow = rowNumber;
+
+			String error = validate(row);
+			if (error == null && !seenSkus.add(skuKey(row.getSku())))
+				error = "Duplicate SKU in file";
+			if (error != null) {
+				fail(rowNumber, row.getSku(), error);
+				return;
+			}
+
+			Product p = new Product();
+			p.setShopId(shopId);
+			p.setCategoryId(row.getCategoryId());
+			p.setSku(row.getSku());
+			p.setName(row.getName());
+			p.setShortDescription(row.getShortDescription());
+			p.setDescription(row.getDescription());
+			p.setSellingPrice(row.getSellingPrice());
+			p.setMrp(row.getMrp());
+			p.setIsActive(row.getIsActive() == null ? true : row.getIsActive());
+
+			chunk.add(p);
+			chunkRows.add(rowNumber);
+			chunkQuantities.add(row.getQuantity() == null ? 0 : row.getQuantity());
+			if (chunk.size() == CHUNK_SIZE)
+				flush();
+		}
+
+		// a row that could not even be parsed
+		void reject(int rowNumber, String sku, String message) {
+			response.setReceived(response.getReceived() + 1);
+			lastRow = rowNumber;
+			fail(rowNumber, sku, message);
+		}
+
+		String validate(ProductImportRow row) {
+			if (row.getSku() == null || row.getSku().isBlank())
+				return "SKU is required";
+			if (row.getName() == null || row.getName().isBlank())
+				return "Name is required";
+			if (row.getSellingPrice() == null)
+				return "Selling price required";
+			if (row.getSellingPrice() < 0)
+				return "Selling price cannot be negative";
+			if (row.getQuantity() != null && row.getQuantity() < 0)
+				return "Initial quantity cannot be negative";
+			if (row.getCategoryId() != null && !categoryIds.contains(row.getCategoryId()))
+				return "Unknown category " + row.getCategoryId();
+			return null;
+		}
+
+		void flush() {
+			if (chunk.isEmpty())
+				return;
+
+			Set<String> existing = new HashSet<>();
+			for (String sku : productRepository.findExistingSkus(chunk.stream().map(Product::getSku).toList()))
+				existing.add(skuKey(sku));
+
+			List<Product> fresh = new ArrayList<>(chunk.size());
+			List<Integer> quantities = new ArrayList<>(chunk.size());
+			List<Integer> rows = new ArrayList<>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++) {
+				Product p = chunk.get(i);
+				if (existing.contains(skuKey(p.getSku()))) {
+					fail(chunkRows.get(i), p.getSku(), "SKU already exists");
+				} else {
+					fresh.add(p);
+					quantities.add(chunkQuantities.get(i));
+					rows.add(chunkRows.get(i));
+				}
+			}
+
+			try {
+				save(fresh, quantities);
+			} catch (DataAccessException e) {
+				// e.g. a SKU inserted concurrently; the whole chunk was rolled back,
+				// so its rows are saved one by one and only the offending ones fail
+				log.warn("Product import chunk failed for shop {}, retrying row by row", shopId, e);
+				for (int i = 0; i < fresh.size(); i++) {
+					try {
+						save(List.of(fresh.get(i)), List.of(quantities.get(i)));
+					} catch (DataAccessException rowError) {
+						fail(rows.get(i), fresh.get(i).getSku(),
+								"Not saved: " + rowError.getMostSpecificCause().getMessage());
+					}
+				}
+			}
+
+			chunk.clear();
+			chunkRows.clear();
+			chunkQuantities.clear();
+		}
+
+		// products and their inventory rows in one transaction
+		void save(List<Product> products, List<Integer> quantities) {
+			if (products.isEmpty())
+				return;
+			transactionTemplate.executeWithoutResult(status -> {
+				List<Long> ids = productRepository.saveAll(products);
+				Map<Long, Integer> stock = new LinkedHashMap<>();
+				for (int i = 0; i < products.size(); i++) {
+					products.get(i).setId(ids.get(i));
+					stock.put(ids.get(i), quantities.get(i));
+				}
+				inventoryRepository.createInventories(stock);
+			});
+			for (Product p : products)
+				searchIndex.upsert(p);
+			response.setImported(response.getImported() + products.size());
+		}
+
+		void fail(int rowNumber, String sku, String message) {
+			response.setFailed(response.getFailed() + 1);
+			if (response.getErrors().size() < MAX_REPORTED_ERRORS)
+				response.getErrors().add(new ImportRowError(rowNumber, sku, message));
+			else
+				response.setErrorsTruncated(true);
+		}
+	}
+}
@@ -1,29 +1,59 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.cache.CategoryTreeCache;
+import com.ecommerce.cache.ProductDetailCache;
+import com.ecommerce.dto.ProductPageResponse;
 import com.ecommerce.dto.ProductRequest;
 import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.dto.SearchSuggestionResponse;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.Product;
-import com.ecommerce.model.ProductImage;
 import com.ecommerce.repository.ProductImageRepository; // ✅ Import
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.FacetCounts;
+import com.ecommerce.search.ProductFacets;
+import com.ecommerce.search.ProductQuery;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.search.ProductSuggester;
+import com.ecommerce.search.SearchCursor;
+import com.ecommerce.search.SearchPage;
 import com.ecommerce.service.ProductService;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+	private static final int EXPORT_CHUNK = 500;
+
 	private final ProductRepository productRepository;
 	private final ProductImageRepository productImageRepository;
+	private final ProductSearchIndex searchIndex;
+	private final ProductSuggester suggester;
+	private final ProductDetailCache detailCache;
+	private final ProductFacets facets;
+	private final CategoryTreeCache categoryTree;
 
-	public ProductServiceImpl(ProductRepository productRepository, ProductImageRepository productImageRepository) {
+	public ProductServiceImpl(ProductRepository productRepository, ProductImageRepository productImageRepository,
+			ProductSearchIndex searchIndex, ProductSuggester suggester, ProductDetailCache detailCache,
+			ProductFacets facets, CategoryTreeCache categoryTree) {
 		this.productRepository = productRepository;
 		this.productImageRepository = productImageRepository;
+		this.searchIndex = searchIndex;
+		this.suggester = suggester;
+		this.detailCache = detailCache;
+		this.facets = facets;
+		this.categoryTree = categoryTree;
 	}
 
 	@Override
@@ -51,6 +81,7 @@ public class ProductServiceImpl implements ProductService {
 
 		Long id = productRepository.save(p);
 		p.setId(id);
+		searchIndex.upsert(p);
 		return mapToResponse(p);
 	}
 
@@ -84,27 +115,57 @@ public class ProductServiceImpl implements ProductService {
 			existing.setIsActive(request.getIsActive());
 
 		productRepository.update(existing);
+		detailCache.invalidate(id);
+		searchIndex.upsert(existing);
 		return mapToResponse(existing);
 	}
 
 	@Override
 	public Optional<ProductResponse> getProductById(Long id) {
-		return productRepository.findById(id).map(this::mapToResponse);
+		return detailCache.get(id, key -> productRepository.findById(key).map(this::mapToResponse));
+	}
+
+	// the misses are read with one IN query and one image query
+	@Override
+	public Map<Long, ProductResponse> getProductsByIds(Collection<Long> ids) {
+		if (ids.isEmpty())
+			return Map.of();
+		return detailCache.getAll(ids, missing -> {
+			Map<Long, ProductResponse> loaded = new HashMap<>();
+			for (ProductResponse r : mapToResponses(productRepository.findByIds(List.copyOf(missing))))
+				loaded.put(r.getId(), r);
+			return loaded;
+		});
 	}
 
 	@Override
 	public List<ProductResponse> getAllActiveProducts() {
-		return productRepository.findAllActive().stream().map(this::mapToResponse).collect(Collectors.toList());
+		return mapToResponses(productRepository.findAllActive());
 	}
 
 	@Override
 	public List<ProductResponse> getProductsByShop(Long shopId) {
-		return productRepository.findByShopId(shopId).stream().map(this::mapToResponse).collect(Collectors.toList());
+		return mapToResponses(productRepository.findByShopId(shopId));
 	}
 
 	@Override
 	public List<ProductResponse> getAllProducts() {
-		return productRepository.findAll().stream().map(this::mapToResponse).collect(Collectors.toList());
+		return mapToResponses(productRepository.findAll());
+	}
+
+	// Streams the whole table, resolving images per chunk so the export costs
+	// one image query per EXPORT_CHUNK products and holds no more than that.
+	@Override
+	public void exportProducts(Consumer<ProductResponse> sink) {
+		List<Product> chunk = new ArrayList<>(EXPORT_CHUNK);
+		productRepository.streamAll(p -> {
+			chunk.add(p);
+			if (chunk.size() == EXPORT_CHUNK) {
+				mapToResponses(chunk).forEach(sink);
+				chunk.clear();
+			}
+		});
+		mapToResponses(chunk).forEach(sink);
 	}
 
 	@Override
@@ -112,15 +173,72 @@ public class ProductServiceImpl implements ProductService {
 		if (productRepository.findById(id).isEmpty()) {
 			throw new ResourceNotFoundException("Product not found");
 		}
-		return productRepository.softDelete(id);
+		boolean deleted = productRepository.softDelete(id);
+		if (deleted) {
+			detailCache.invalidate(id);
+			searchIndex.remove(id);
+		}
+		return deleted;
 	}
 
 	@Override
-	public List<ProductResponse> searchProducts(String q, Long categoryId, int page, int size) {
+	public List<ProductResponse> searchProducts(ProductQuery query, int page, int size) {
+		query = resolveScope(query);
 		int limit = size <= 0 ? 20 : size;
 		int offset = Math.max(0, page) * limit;
-		return productRepository.search(q, categoryId, limit, offset).stream().map(this::mapToResponse)
-				.collect(Collectors.toList());
+
+		// SQL path only while the in-memory index is still loading (or failed to)
+		if (searchIndex.isReady()) {
+			return mapToResponses(searchIndex.search(query, limit, offset, null));
+		}
+		return mapToResponses(productRepository.search(query, limit, offset));
+	}
+
+	// Facets are only available from the in-memory index; the SQL fallback
+	// returns the page without them.
+	@Override
+	public ProductPageResponse searchProductsWithFacets(ProductQuery query, int page, int size) {
+		query = resolveScope(query);
+		int limit = size <= 0 ? 20 : size;
+		int offset = Math.max(0, page) * limit;
+
+		if (searchIndex.isReady()) {
+			FacetCounts counts = new FacetCounts();
+			ProductPageResponse response = new ProductPageResponse(
+					mapToResponses(searchIndex.search(query, limit, offset, counts)), null);
+			response.setFacets(facets.toResponse(counts));
+			return response;
+		}
+		return new ProductPageResponse(mapToResponses(productRepository.search(query, limit, offset)), null);
+	}
+
+	@Override
+	public ProductPageResponse searchProductsAfter(ProductQuery query, String cursor, int size, boolean withFacets) {
+		query = resolveScope(query);
+		int limit = size <= 0 ? 20 : size;
+		SearchCursor after = SearchCursor.decode(cursor);
+
+		if (searchIndex.isReady()) {
+			FacetCounts counts = withFacets ? new FacetCounts() : null;
+			SearchPage page = searchIndex.searchAfter(query, after, limit, counts);
+			ProductPageResponse response = new ProductPageResponse(mapToResponses(page.products()),
+					page.next() == null ? null : page.next().encode());
+			if (counts != null)
+				response.setFacets(facets.toResponse(counts));
+			return response;
+		}
+
+		// SQL keyset path orders by (created_at, id) only
+		List<Product> rows = productRepository.searchAfter(query, after == null ? null : after.createdAt(),
+				after == null ? null : after.id(), limit + 1);
+
+		String next = null;
+		if (rows.size() > limit) {
+			rows = rows.subList(0, limit);
+			Product last = rows.get(limit - 1);
+			next = SearchCursor.newest(last.getCreatedAt(), last.getId()).encode();
+		}
+		return new ProductPageResponse(mapToResponses(rows), next);
 	}
 
 	@Override
@@ -143,13 +261,59 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
-	public List<String> searchSuggestions(String query) {
+	public List<SearchSuggestionResponse> searchSuggestions(String query) {
 		if (query == null || query.trim().isEmpty())
 			return List.of();
-		return productRepository.searchSuggestions(query.trim());
+
+		if (suggester.isReady())
+			return suggester.suggest(query, 10);
+
+		// trie not built yet, group the SQL rows by name instead
+		Map<String, List<Long>> byName = new LinkedHashMap<>();
+		for (Product p : productRepository.searchSuggestions(query.trim()))
+			byName.computeIfAbsent(p.getName(), n -> new ArrayList<>()).add(p.getId());
+
+		List<SearchSuggestionResponse> out = new ArrayList<>();
+		byName.forEach((name, ids) -> out.add(new SearchSuggestionResponse(name, ids)));
+		return out;
+	}
+
+	// Subtree search takes the descendant set straight from the cached category
+	// tree instead of walking parent_category_id in SQL. A category that is not
+	// in the tree (inactive or unknown) still matches its own products.
+	private ProductQuery resolveScope(ProductQuery query) {
+		if (!query.includeSubcategories() || query.categoryId() == null)
+			return query;
+		long[] scope = categoryTree.current().descendants(query.categoryId());
+		return query.withCategoryScope(scope.length == 0 ? new long[] { query.categoryId() } : scope);
 	}
 
 	private ProductResponse mapToResponse(Product p) {
+		return mapToResponses(List.of(p)).get(0);
+	}
+
+	// Resolves the listing image of every product on the page with one query
+	// instead of one image lookup per product.
+	private List<ProductResponse> mapToResponses(List<Product> products) {
+		if (products.isEmpty())
+			return new ArrayList<>();
+
+		Map<Long, String> images;
+		try {
+			images = productImageRepository
+					.findPrimaryImagePaths(products.stream().map(Product::getId).collect(Collectors.toList()));
+		} catch (Exception e) {
+			// Ignore image fetch errors to prevent crashing the list
+			images = Map.of();
+		}
+
+		List<ProductResponse> out = new ArrayList<>(products.size());
+		for (Product p : products)
+			out.add(toResponse(p, images.get(p.getId())));
+		return out;
+	}
+
+	private ProductResponse toResponse(Product p, String image) {
 		ProductResponse r = new ProductResponse();
 		r.setId(p.getId());
 		r.setShopId(p.getShopId());
@@ -163,17 +327,7 @@ public class ProductServiceImpl implements ProductService {
 		r.setIsActive(p.getIsActive());
 		r.setCreatedAt(p.getCreatedAt());
 		r.setUpdatedAt(p.getUpdatedAt());
-
-		try {
-			List<ProductImage> images = productImageRepository.findByProductId(p.getId());
-			if (!images.isEmpty()) {
-				ProductImage img = images.stream().filter(ProductImage::isPrimary).findFirst().orElse(images.get(0));
-				r.setImage(img.getImagePath());
-			}
-		} catch (Exception e) {
-			// Ignore image fetch errors to prevent crashing the list
-		}
-
+		r.setImage(image);
 		return r;
 	}
-}
\ No newline at end of file
+}
@@ -1,32 +1,44 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.cache.VariantMatrix;
+import com.ecommerce.cache.VariantMatrixCache;
 import com.ecommerce.dto.*;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.*;
 import com.ecommerce.repository.*;
+import com.ecommerce.service.ProductService;
 import com.ecommerce.service.ProductVariantService;
 
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductVariantServiceImpl implements ProductVariantService {
 
+	// a product page cannot usefully show more than this
+	private static final int MAX_COMBINATIONS = 5000;
+
 	private final ProductRepository productRepository;
 	private final ProductVariantGroupRepository groupRepository;
 	private final ProductVariantValueRepository valueRepository;
 	private final ProductVariantStockRepository stockRepository;
+	private final ProductService productService;
+	private final VariantMatrixCache matrixCache;
 
 	public ProductVariantServiceImpl(ProductRepository productRepository, ProductVariantGroupRepository groupRepository,
-			ProductVariantValueRepository valueRepository, ProductVariantStockRepository stockRepository) {
+			ProductVariantValueRepository valueRepository, ProductVariantStockRepository stockRepository,
+			ProductService productService, VariantMatrixCache matrixCache) {
 		this.productRepository = productRepository;
 		this.groupRepository = groupRepository;
 		this.valueRepository = valueRepository;
 		this.stockRepository = stockRepository;
+		this.productService = productService;
+		this.matrixCache = matrixCache;
 	}
 
 	private Product assertProductActive(Long productId) {
@@ -64,6 +76,7 @@ public class ProductVariantServiceImpl implements ProductVariantService {
 
 		Long id = groupRepository.save(g);
 		g.setId(id);
+		matrixCache.invalidate(productId);
 
 		return mapGroup(g);
 	}
@@ -83,13 +96,16 @@ public class ProductVariantServiceImpl implements ProductVariantService {
 		}
 
 		groupRepository.update(g);
+		matrixCache.invalidate(g.getProductId());
 		return mapGroup(g);
 	}
 
 	@Override
 	public boolean deleteGroup(Long groupId) {
-		assertGroupExists(groupId);
-		return groupRepository.delete(groupId);
+		ProductVariantGroup g = assertGroupExists(groupId);
+		boolean deleted = groupRepository.delete(groupId);
+		matrixCache.invalidate(g.getProductId());
+		return deleted;
 	}
 
 // ================= VALUES =================
@@ -108,6 +124,7 @@ public class ProductVariantServiceImpl implements ProductVariantService {
 
 		Long id = valueRepository.save(v);
 		v.setId(id);
+		matrixCache.invalidate(g.getProductId());
 
 		return mapValue(v);
 	}
@@ -127,13 +144,16 @@ public class ProductVariantServiceImpl implements ProductVariantService {
 		}
 
 		valueRepository.update(v);
+		matrixCache.invalidate(assertGroupExists(v.getGroupId()).getProductId());
 		return mapValue(v);
 	}
 
 	@Override
 	public boolean deleteValue(Long valueId) {
-		assertValueExists(valueId);
-		return valueRepository.delete(valueId);
+		ProductVariantValue v = assertValueExists(valueId);
+		boolean deleted = valueRepository.delete(valueId);
+		matrixCache.invalidate(assertGroupExists(v.getGroupId()).getProductId());
+		return deleted;
 	}
 
 // ================= STOCK =================
@@ -166,6 +186,7 @@ public class ProductVariantServiceImpl implements ProductVariantService {
 		} else {
 			stockRepository.update(existing);
 		}
+		matrixCache.invalidate(productId);
 
 		return mapStock(existing);
 	}
@@ -176,6 +197,50 @@ public class ProductVariantServiceImpl implements ProductVariantService {
 		return stockRepository.findByProductId(productId).stream().map(this::mapStock).collect(Collectors.toList());
 	}
 
+// ================= MATRIX =================
+
+	// Everything a product page needs in one call. The product comes from the
+	// product detail cache and the variants from the matrix cache, so a warm
+	// call does not touch the database.
+	@Override
+	public VariantMatrixResponse getVariantMatrix(Long productId) {
+		ProductResponse product = productService.getProductById(productId)
+				.orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+		if (Boolean.FALSE.equals(product.getIsActive())) {
+			throw new BadRequestException("Product is inactive");
+		}
+
+		VariantMatrix m = matrixCache.get(productId, this::loadMatrix);
+		if (m.combinationCount() > MAX_COMBINATIONS) {
+			throw new BadRequestException("Product has too many variant combinations to list");
+		}
+
+		BigDecimal base = product.getSellingPrice() == null ? BigDecimal.ZERO
+				: BigDecimal.valueOf(product.getSellingPrice());
+
+		List<String> groups = new ArrayList<>(m.groupCount());
+		for (int g = 0; g < m.groupCount(); g++)
+			groups.add(m.groupName(g));
+
+		List<VariantCombinationResponse> combinations = new ArrayList<>((int) m.combinationCount());
+		m.forEachCombination((ordinals, available, offset) -> {
+			List<Long> ids = new ArrayList<>(ordinals.length);
+			List<String> names = new ArrayList<>(ordinals.length);
+			for (int ord : ordinals) {
+				ids.add(m.valueId(ord));
+				names.add(m.valueName(ord));
+			}
+			combinations.add(new VariantCombinationResponse(ids, names, available, base.add(offset)));
+		});
+
+		return new VariantMatrixResponse(productId, base, groups, combinations);
+	}
+
+	private VariantMatrix loadMatrix(Long productId) {
+		return VariantMatrix.build(groupRepository.findByProductId(productId),
+				valueRepository.findByProductId(productId), stockRepository.findByProductId(productId));
+	}
+
 	private ProductVariantGroupResponse mapGroup(ProductVariantGroup g) {
 		ProductVariantGroupResponse r = new ProductVariantGroupResponse();
 		r.setId(g.getId());
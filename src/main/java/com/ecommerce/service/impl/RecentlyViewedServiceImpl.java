@@ -1,51 +1,218 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.cache.RecentViews;
+import com.ecommerce.cache.RecentlyViewedCache;
 import com.ecommerce.dto.RecentlyViewedResponse;
+import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.RecentlyViewed;
 import com.ecommerce.repository.RecentlyViewedRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.service.ProductService;
 import com.ecommerce.service.RecentlyViewedService;
+import com.ecommerce.trending.TrendingProducts;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
+// Views are recorded in the in-memory rings of RecentlyViewedCache and read
+// back from them; recently_viewed is only the durable copy. Changed rings are
+// written behind in batches on a schedule and at shutdown, so however often a
+// user views products, each flush costs one DELETE and one INSERT per batch
+// of users. A crash loses at most the views since the last flush.
+//
+// Nothing checks the ids again once a view is in a ring, so they are checked
+// on the way in: the product against the search index (the detail cache
+// while the index is loading or for a product it does not hold), the user
+// when their ring is first loaded.
 @Service
 public class RecentlyViewedServiceImpl implements RecentlyViewedService {
 
+	private static final Logger log = LoggerFactory.getLogger(RecentlyViewedServiceImpl.class);
+
+	private static final int FLUSH_BATCH = 500;
+
 	private final RecentlyViewedRepository recentlyViewedRepo;
+	private final RecentlyViewedCache cache;
+	private final TrendingProducts trending;
+	private final UserRepository userRepository;
+	private final ProductSearchIndex searchIndex;
+	private final ProductService productService;
 
-	public RecentlyViewedServiceImpl(RecentlyViewedRepository recentlyViewedRepo) {
+	public RecentlyViewedServiceImpl(RecentlyViewedRepository recentlyViewedRepo, RecentlyViewedCache cache,
+			TrendingProducts trending, UserRepository userRepository, ProductSearchIndex searchIndex,
+			ProductService productService) {
 		this.recentlyViewedRepo = recentlyViewedRepo;
+		this.cache = cache;
+		this.trending = trending;
+		this.userRepository = userRepository;
+		this.searchIndex = searchIndex;
+		this.productService = productService;
 	}
 
 	@Override
 	public void addViewedProduct(Long userId, Long productId) {
-		recentlyViewedRepo.saveOrUpdate(userId, productId);
+		if (searchIndex.categoryOf(productId) == ProductSearchIndex.NOT_INDEXED
+				&& productService.getProductById(productId).isEmpty())
+			throw new ResourceNotFoundException("Product not found with ID " + productId);
+		RecentViews views = views(userId);
+		views.view(productId, System.currentTimeMillis());
+		cache.markDirty(userId, views);
+		trending.recordView(productId);
 	}
 
 	@Override
 	public List<RecentlyViewedResponse> getRecentlyViewed(Long userId, int limit) {
 
-		List<RecentlyViewed> list = recentlyViewedRepo.findLastNByUser(userId, limit);
+		int n = Math.max(0, Math.min(limit, RecentViews.CAPACITY));
+		long[] ids = new long[n];
+		long[] times = new long[n];
+		n = views(userId).copyNewestFirst(ids, times, n);
 
-		return list.stream().map(this::mapToResponse).collect(Collectors.toList());
+		List<RecentlyViewedResponse> out = new ArrayList<>(n);
+		for (int i = 0; i < n; i++)
+			out.add(mapToResponse(userId, ids[i], times[i]));
+		return out;
 	}
 
+	// The stored rows go with the next flush, which keeps the delete ordered
+	// after any earlier write of the same ring.
 	@Override
 	public boolean clearRecentlyViewed(Long userId) {
-		return recentlyViewedRepo.deleteAllByUser(userId);
+		RecentViews views = views(userId);
+		boolean cleared = views.clear();
+		if (cleared)
+			cache.markDirty(userId, views);
+		return cleared;
 	}
 
-	private RecentlyViewedResponse mapToResponse(RecentlyViewed rv) {
+	// synchronized so the scheduled flush and the shutdown flush cannot write
+	// two snapshots of a ring out of order
+	@Scheduled(fixedDelayString = "${recently-viewed.flush-ms:5000}")
+	public synchronized int flush() {
+		int written = 0;
+		// bounded by what was pending at the start, so a steady stream of new
+		// views cannot keep one flush running
+		int rounds = cache.dirtyCount() / FLUSH_BATCH + 1;
+		Map<Long, RecentViews> batch;
+		while (rounds-- > 0 && !(batch = cache.drainDirty(FLUSH_BATCH)).isEmpty()) {
+			try {
+				recentlyViewedRepo.replaceForUsers(snapshot(batch));
+				cache.written(batch);
+				written += batch.size();
+			} catch (Exception e) {
+				log.warn("Recently viewed batch of {} users failed, writing them one at a time", batch.size(), e);
+				int single = flushEach(batch);
+				if (single < 0)
+					break;
+				written += single;
+			}
+		}
+		return written;
+	}
+
+	// After a failed batch. A ring that still fails while others are written
+	// is dropped rather than failing every flush from now on; its views stay
+	// in memory until it is evicted. If none can be written the database is
+	// the problem, so all are kept for the next flush and -1 is returned.
+	private int flushEach(Map<Long, RecentViews> batch) {
+		Map<Long, RecentViews> failed = new LinkedHashMap<>();
+		Exception cause = null;
+		int written = 0;
+		for (Map.Entry<Long, RecentViews> e : batch.entrySet()) {
+			Map<Long, RecentViews> one = Map.of(e.getKey(), e.getValue());
+			try {
+				recentlyViewedRepo.replaceForUsers(snapshot(one));
+				cache.written(one);
+				written++;
+			} catch (Exception ex) {
+				failed.put(e.getKey(), e.getValue());
+				cause = ex;
+			}
+		}
+		if (written == 0) {
+			cache.restoreDirty(failed);
+			log.error("Recently viewed flush failed, {} users kept for the next attempt", cache.dirtyCount(), cause);
+			return -1;
+		}
+		if (!failed.isEmpty()) {
+			cache.written(failed);
+			log.error("Recently viewed history of users {} could not be written and was dropped", failed.keySet(),
+					cause);
+		}
+		return written;
+	}
+
+	@PreDestroy
+	public void flushOnShutdown() {
+		int written = flush();
+		if (written > 0)
+			log.info("Recently viewed flushed for {} users at shutdown", written);
+	}
+
+	private RecentViews views(Long userId) {
+		return cache.get(userId, this::load);
+	}
+
+	// stored rows come newest first, the ring is replayed oldest first; a user
+	// with none is looked up so no ring is kept for one that does not exist
+	private RecentViews load(Long userId) {
+		List<RecentlyViewed> rows = recentlyViewedRepo.findLastNByUser(userId, RecentViews.CAPACITY);
+		if (rows.isEmpty() && userRepository.findById(userId).isEmpty())
+			throw new ResourceNotFoundException("User not found with ID " + userId);
+		RecentViews views = new RecentViews();
+		for (int i = rows.size() - 1; i >= 0; i--) {
+			RecentlyViewed rv = rows.get(i);
+			LocalDateTime at = rv.getViewedAt() == null ? LocalDateTime.now() : rv.getViewedAt();
+			views.view(rv.getProductId(), at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+		}
+		return views;
+	}
+
+	private static Map<Long, List<RecentlyViewed>> snapshot(Map<Long, RecentViews> batch) {
+		long[] ids = new long[RecentViews.CAPACITY];
+		long[] times = new long[RecentViews.CAPACITY];
+		Map<Long, List<RecentlyViewed>> out = new LinkedHashMap<>();
+		batch.forEach((userId, views) -> {
+			int n = views.copyNewestFirst(ids, times, RecentViews.CAPACITY);
+			List<RecentlyViewed> rows = new ArrayList<>(n);
+			for (int i = n - 1; i >= 0; i--) {
+				RecentlyViewed rv = new RecentlyViewed();
+				rv.setUserId(userId);
+				rv.setProductId(ids[i]);
+				rv.setViewedAt(toLocal(times[i]));
+				rows.add(rv);
+			}
+			out.put(userId, rows);
+		});
+		return out;
+	}
+
+	// entries held in memory have no row id yet
+	private static RecentlyViewedResponse mapToResponse(Long userId, long productId, long viewedAt) {
 
 		RecentlyViewedResponse dto = new RecentlyViewedResponse();
 
-		dto.setId(rv.getId());
-		dto.setUserId(rv.getUserId());
-		dto.setProductId(rv.getProductId());
-		dto.setViewedAt(rv.getViewedAt());
+		dto.setUserId(userId);
+		dto.setProductId(productId);
+		dto.setViewedAt(toLocal(viewedAt));
 
 		return dto;
 	}
-}
\ No newline at end of file
+
+	private static LocalDateTime toLocal(long epochMillis) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+	}
+}
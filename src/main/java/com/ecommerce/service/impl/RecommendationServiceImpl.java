@@ -0,0 +1,95 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.RecommendationResponse;
+import com.ecommerce.recommend.Baskets;
+import com.ecommerce.recommend.CoOccurrence;
+import com.ecommerce.repository.RecommendationRepository;
+import com.ecommerce.service.RecommendationService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// "Also viewed" and "frequently bought together" from the co-occurrence of
+// products in recently_viewed (per user) and order_items (per checkout). Both
+// matrices are rebuilt off the request path and swapped in whole; requests
+// only read the current snapshot, so a lookup is a binary search and a copy
+// of at most topK entries. Until the first build finishes the lists are empty.
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+	private static final Logger log = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+
+	private static final int MAX_LIMIT = 50;
+
+	private final RecommendationRepository repo;
+	private final int topK;
+	private final int minCount;
+	private final int threads;
+
+	private volatile CoOccurrence alsoViewed = CoOccurrence.EMPTY;
+	private volatile CoOccurrence boughtTogether = CoOccurrence.EMPTY;
+
+	public RecommendationServiceImpl(RecommendationRepository repo,
+			@Value("${recommendations.top-k:20}") int topK,
+			@Value("${recommendations.min-count:1}") int minCount,
+			@Value("${recommendations.threads:0}") int threads) {
+		this.repo = repo;
+		this.topK = Math.min(topK, MAX_LIMIT);
+		this.minCount = minCount;
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	@Override
+	public List<RecommendationResponse> alsoViewed(Long productId, int limit) {
+		return top(alsoViewed, productId, limit);
+	}
+
+	@Override
+	public List<RecommendationResponse> boughtTogether(Long productId, int limit) {
+		return top(boughtTogether, productId, limit);
+	}
+
+	@Override
+	@Scheduled(initialDelayString = "${recommendations.initial-delay-ms:60000}",
+			fixedDelayString = "${recommendations.rebuild-ms:21600000}")
+	public synchronized void rebuild() {
+		try {
+			alsoViewed = build("also-viewed", repo::streamViewBaskets);
+			boughtTogether = build("bought-together", repo::streamOrderBaskets);
+		} catch (Exception e) {
+			log.error("Recommendation rebuild failed, keeping the previous matrices", e);
+		}
+	}
+
+	private CoOccurrence build(String name, Consumer<RecommendationRepository.BasketRowSink> source) {
+		long start = System.currentTimeMillis();
+		Baskets.Builder builder = new Baskets.Builder();
+		source.accept(builder::add);
+		Baskets baskets = builder.build();
+		long loaded = System.currentTimeMillis();
+
+		CoOccurrence matrix = CoOccurrence.build(baskets, topK, minCount, threads);
+		log.info("Recommendations {} built: {} baskets, {} products, {} pairs kept; load {} ms, count {} ms on {} threads",
+				name, baskets.basketCount(), matrix.productCount(), matrix.pairCount(), loaded - start,
+				System.currentTimeMillis() - loaded, threads);
+		return matrix;
+	}
+
+	private static List<RecommendationResponse> top(CoOccurrence matrix, Long productId, int limit) {
+		if (productId == null || limit <= 0)
+			return List.of();
+		int from = matrix.from(productId);
+		int to = Math.min(matrix.to(productId), from + Math.min(limit, MAX_LIMIT));
+		List<RecommendationResponse> out = new ArrayList<>(Math.max(0, to - from));
+		for (int i = from; i < to; i++)
+			out.add(new RecommendationResponse(matrix.neighbour(i), matrix.score(i)));
+		return out;
+	}
+}
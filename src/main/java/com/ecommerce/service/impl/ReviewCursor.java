@@ -0,0 +1,41 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.enums.ReviewSort;
+import com.ecommerce.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+// Opaque keyset position for review pages: the order being walked plus the
+// rating, created_at (epoch millis) and id of the last review on a page.
+record ReviewCursor(ReviewSort sort, int rating, long created, long id) {
+
+	private static final String CODES = "nhl"; // in ReviewSort order
+
+	Timestamp createdAt() {
+		return new Timestamp(created);
+	}
+
+	String encode() {
+		String raw = CODES.charAt(sort.ordinal()) + ":" + rating + ":" + created + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// null or blank means "first page"
+	static ReviewCursor decode(String token) {
+		if (token == null || token.isBlank())
+			return null;
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split(":");
+			int mode = parts.length == 4 && parts[0].length() == 1 ? CODES.indexOf(parts[0].charAt(0)) : -1;
+			if (mode < 0)
+				throw new BadRequestException("Invalid cursor");
+			return new ReviewCursor(ReviewSort.values()[mode], Integer.parseInt(parts[1]), Long.parseLong(parts[2]),
+					Long.parseLong(parts[3]));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
+	}
+}
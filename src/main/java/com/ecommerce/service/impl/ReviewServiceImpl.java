@@ -1,30 +1,56 @@
 package com.ecommerce.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ecommerce.dto.RatingSummaryResponse;
+import com.ecommerce.dto.ReviewPageResponse;
 import com.ecommerce.dto.ReviewRequest;
 import com.ecommerce.dto.ReviewResponse;
+import com.ecommerce.enums.ReviewSort;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.RatingSummary;
 import com.ecommerce.model.Review;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.RatingSummaryRepository;
 import com.ecommerce.repository.ReviewRepository;
 import com.ecommerce.service.ReviewService;
 
 @Service
 public class ReviewServiceImpl implements ReviewService{
 
+	private static final Logger log = LoggerFactory.getLogger(ReviewServiceImpl.class);
+
+	private static final int REBUILD_BATCH = 500;
+	private static final int MAX_PAGE_SIZE = 100;
+	private static final int LIST_BODY_CHARS = 300;
+
 	@Autowired
 	private ReviewRepository reviewRepository;
 	
 	@Autowired
 	private ProductRepository productRepository;
+
+	@Autowired
+	private RatingSummaryRepository ratingSummaryRepository;
 	
+	// the review and its summary delta commit together
 	@Override
+	@Transactional
 	public ReviewResponse addReview(Long userId, ReviewRequest request) {
 		 
 		if(request.getRating()<1 || request.getRating()>5) {
@@ -42,6 +68,7 @@ public class ReviewServiceImpl implements ReviewService{
 	        review.setBody(request.getBody());
 
 	        reviewRepository.save(review);
+	        ratingSummaryRepository.applyDelta(review.getProductId(), review.getRating(), 1);
 
 	        ReviewResponse resp = new ReviewResponse();
 	        resp.setRating(review.getRating());
@@ -120,15 +147,139 @@ public class ReviewServiceImpl implements ReviewService{
 				.toList();
 	}
 
+	// Keyset paging for the review lists. Bodies are cut to LIST_BODY_CHARS;
+	// one extra character is fetched so a body of exactly that length is not
+	// flagged as truncated.
 	@Override
+	public ReviewPageResponse getReviewPage(Long productId, ReviewSort sort, String cursor, int size) {
+		int limit = size <= 0 ? 20 : Math.min(size, MAX_PAGE_SIZE);
+		ReviewCursor after = ReviewCursor.decode(cursor);
+		if (after != null && after.sort() != sort)
+			throw new BadRequestException("Cursor belongs to a different review order");
+
+		List<Review> rows = reviewRepository.findPage(productId, sort, after == null ? null : after.rating(),
+				after == null ? null : after.createdAt(), after == null ? null : after.id(), LIST_BODY_CHARS + 1,
+				limit + 1);
+
+		String next = null;
+		if (rows.size() > limit) {
+			rows = rows.subList(0, limit);
+			Review last = rows.get(limit - 1);
+			next = new ReviewCursor(sort, last.getRating(), last.getCreatedAt().getTime(), last.getId()).encode();
+		}
+
+		List<ReviewResponse> items = new ArrayList<>(rows.size());
+		for (Review review : rows) {
+			ReviewResponse r = new ReviewResponse(review.getId(), review.getProductId(), review.getUserId(),
+					review.getRating(), review.getTitle(), review.getBody(), review.getCreatedAt().toString());
+			String body = review.getBody();
+			if (body != null && body.codePointCount(0, body.length()) > LIST_BODY_CHARS) {
+				r.setBody(body.substring(0, body.offsetByCodePoints(0, LIST_BODY_CHARS)));
+				r.setBodyTruncated(true);
+			}
+			items.add(r);
+		}
+		return new ReviewPageResponse(items, next);
+	}
+
+	// Only the call that actually flips is_deleted takes the review out of the
+	// summary, so a repeated or concurrent delete cannot count it twice.
+	@Override
+	@Transactional
 	public void deleteReview(Long reviewId, Long userId) {
-		reviewRepository.delete(reviewId, userId);
-		
+		Optional<Review> review = reviewRepository.findById(reviewId);
+		if (review.isEmpty())
+			return;
+
+		if (reviewRepository.delete(reviewId, userId))
+			ratingSummaryRepository.applyDelta(review.get().getProductId(), review.get().getRating(), -1);
 	}
 
 	@Override
 	public Double getAverageRating(Long productId) {
-		return reviewRepository.avgRating(productId);
+		return getRatingSummary(productId).getAverageRating();
+	}
+
+	@Override
+	public RatingSummaryResponse getRatingSummary(Long productId) {
+		return getRatingSummaries(List.of(productId)).get(productId);
+	}
+
+	@Override
+	public Map<Long, RatingSummaryResponse> getRatingSummaries(Collection<Long> productIds) {
+		Map<Long, RatingSummary> found = ratingSummaryRepository.findByProductIds(productIds);
+
+		Map<Long, RatingSummaryResponse> out = new LinkedHashMap<>();
+		for (Long id : productIds) {
+			RatingSummary s = found.getOrDefault(id, new RatingSummary(id));
+			out.put(id, new RatingSummaryResponse(id, s.getReviewCount(), Math.round(s.getAverage() * 100) / 100.0,
+					s.getStars()));
+		}
+		return out;
+	}
+
+	// A deployment that predates the summary table starts with it empty; fill
+	// it now instead of showing no ratings until the nightly repair.
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfillRatingSummaries() {
+		try {
+			if (ratingSummaryRepository.isEmpty())
+				rebuildRatingSummaries();
+		} catch (Exception e) {
+			log.error("Rating summary backfill failed; the nightly repair will fill the table", e);
+		}
+	}
+
+	// Repair job: recomputes every summary from the reviews table in one
+	// streamed pass (rows arrive grouped by product, so only the current
+	// product is held in memory) and drops rows of products that no longer
+	// have live reviews. A review written while the job runs can be overwritten
+	// by the older count; the next run corrects it, so run it off-peak. The
+	// delete checks the reviews again itself, so a product first reviewed
+	// after the pass read its rows keeps the summary that review created.
+	// synchronized so the startup backfill and the scheduled run never overlap.
+	@Override
+	@Scheduled(cron = "${reviews.summary.repair-cron:0 30 3 * * *}")
+	public synchronized int rebuildRatingSummaries() {
+		long start = System.currentTimeMillis();
+		List<RatingSummary> batch = new ArrayList<>(REBUILD_BATCH);
+		List<Long> seen = new ArrayList<>();
+		RatingSummary[] current = new RatingSummary[1];
+
+		reviewRepository.streamActiveRatings((productId, rating) -> {
+			if (rating < 1 || rating > 5)
+				return;
+			if (current[0] == null || !current[0].getProductId().equals(productId)) {
+				current[0] = new RatingSummary(productId);
+				batch.add(current[0]);
+				seen.add(productId);
+			}
+			current[0].add(rating);
+			// keep the current product, it may have more rows coming
+			if (batch.size() > REBUILD_BATCH) {
+				ratingSummaryRepository.saveAll(batch.subList(0, REBUILD_BATCH));
+				batch.subList(0, REBUILD_BATCH).clear();
+			}
+		});
+		ratingSummaryRepository.saveAll(batch);
+
+		// both lists are in product_id order
+		List<Long> stale = new ArrayList<>();
+		int i = 0;
+		for (Long id : ratingSummaryRepository.findAllProductIds()) {
+			while (i < seen.size() && seen.get(i) < id)
+				i++;
+			if (i == seen.size() || !seen.get(i).equals(id))
+				stale.add(id);
+		}
+		for (int from = 0; from < stale.size(); from += REBUILD_BATCH) {
+			int to = Math.min(stale.size(), from + REBUILD_BATCH);
+			ratingSummaryRepository.deleteWithoutReviews(stale.subList(from, to));
+		}
+
+		log.info("Rating summaries rebuilt: {} products, {} stale rows removed in {} ms", seen.size(), stale.size(),
+				System.currentTimeMillis() - start);
+		return seen.size();
 	}
 
 
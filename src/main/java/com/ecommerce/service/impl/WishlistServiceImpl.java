@@ -1,25 +1,24 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.dto.ProductResponse;
 import com.ecommerce.dto.WishlistResponse;
 import com.ecommerce.enums.UserRole;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
-import com.ecommerce.model.Product;
-import com.ecommerce.model.ProductImage;
 import com.ecommerce.model.User;
 import com.ecommerce.model.WishlistItem;
-import com.ecommerce.repository.ProductImageRepository;
-import com.ecommerce.repository.ProductRepository;
-import com.ecommerce.repository.UserRepository;
 import com.ecommerce.repository.WishlistRepository;
+import com.ecommerce.service.ProductService;
 import com.ecommerce.service.WishlistService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
+// The caller is the authenticated user the interceptor already loaded, and
+// products are checked through the product detail cache, so adding or
+// removing an item costs only the wishlist write itself.
 @Service
 public class WishlistServiceImpl implements WishlistService {
 
@@ -27,83 +26,49 @@ public class WishlistServiceImpl implements WishlistService {
 	private WishlistRepository wishlistRepository;
 
 	@Autowired
-	private UserRepository userRepository;
-
-	@Autowired
-	private ProductRepository productRepository;
-
-	@Autowired
-	private ProductImageRepository productImageRepository;
+	private ProductService productService;
 
 	@Override
-	public WishlistResponse addToWishlist(Long userId, Long productId) {
-
-		User user = userRepository.findById(userId)
-				.orElseThrow(() -> new ResourceNotFoundException("User not found with ID= " + userId));
+	public WishlistResponse addToWishlist(User user, Long productId) {
 
-		if (!user.getRole().equals(UserRole.CUSTOMER)) {
+		if (!UserRole.CUSTOMER.equals(user.getRole())) {
 			throw new BadRequestException("Only Customers can add products to wishlist!");
 		}
 
-		productRepository.findById(productId)
-				.orElseThrow(() -> new ResourceNotFoundException("Product not found with ID " + productId));
-
-		WishlistItem item = wishlistRepository.findItem(userId, productId).orElse(null);
-
-		if (item != null)
-			return toResponse(item);
+		ProductResponse product = findProduct(productId);
+		WishlistItem item = wishlistRepository.add(user.getId(), productId);
 
-		WishlistItem saved = wishlistRepository.add(userId, productId);
-
-		return toResponse(saved);
+		return toResponse(item, product);
 	}
 
 	@Override
 	public boolean removeFromWishlist(Long userId, Long productId) {
 
-		userRepository.findById(userId)
-				.orElseThrow(() -> new ResourceNotFoundException("User not found with ID= " + userId));
-
-		productRepository.findById(productId)
-				.orElseThrow(() -> new ResourceNotFoundException("Product not found with ID " + productId));
+		findProduct(productId);
 
 		return wishlistRepository.remove(userId, productId);
 	}
 
 	@Override
 	public List<WishlistResponse> getUserWishlist(Long userId) {
+		return wishlistRepository.findResponsesByUserId(userId);
+	}
 
-		List<WishlistItem> items = wishlistRepository.findByUserId(userId);
-		return items.stream().map(this::toResponse).collect(Collectors.toList());
+	private ProductResponse findProduct(Long productId) {
+		return productService.getProductById(productId)
+				.orElseThrow(() -> new ResourceNotFoundException("Product not found with ID " + productId));
 	}
 
-	private WishlistResponse toResponse(WishlistItem w) {
+	private WishlistResponse toResponse(WishlistItem w, ProductResponse product) {
 		WishlistResponse r = new WishlistResponse();
 		r.setId(w.getId());
 		r.setUserId(w.getUserId());
 		r.setProductId(w.getProductId());
 		r.setAddedAt(w.getAddedAt());
-
-		Product product = productRepository.findById(w.getProductId()).orElse(null);
-		if (product != null) {
-			r.setProductName(product.getName());
-			r.setPrice(product.getSellingPrice());
-		}
-		List<ProductImage> images = productImageRepository.findByProductId(w.getProductId());
-
-		String finalImage = null;
-		if (images != null && !images.isEmpty()) {
-			ProductImage primary = images.stream().filter(ProductImage::isPrimary).findFirst().orElse(null);
-
-			if (primary != null) {
-				finalImage = primary.getImagePath();
-			} else {
-				finalImage = images.get(0).getImagePath();
-			}
-		}
-
-		r.setImage(finalImage);
+		r.setProductName(product.getName());
+		r.setPrice(product.getSellingPrice() == null ? 0 : product.getSellingPrice());
+		r.setImage(product.getImage());
 		return r;
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.trending;
+
+import java.util.Arrays;
+
+// Count-min sketch over long keys: DEPTH rows of width counters, each row
+// with its own hash. A count is over-estimated by at most about
+// e / width * (total added) with high probability, and never under-estimated.
+// Sketches of the same width share hashes, so they can be added and
+// subtracted counter by counter - which is how SlidingWindow keeps a running
+// total of its buckets.
+final class CountMinSketch {
+
+	static final int DEPTH = 4;
+
+	private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+			0xD6E8FEB86659FD93L };
+
+	private final int[] counts;
+	private final int mask;
+
+	CountMinSketch(int width) {
+		if (Integer.bitCount(width) != 1)
+			throw new IllegalArgumentException("width must be a power of two");
+		this.counts = new int[DEPTH * width];
+		this.mask = width - 1;
+	}
+
+	void add(long key, int by) {
+		for (int row = 0; row < DEPTH; row++)
+			counts[index(row, key)] += by;
+	}
+
+	int estimate(long key) {
+		int min = Integer.MAX_VALUE;
+		for (int row = 0; row < DEPTH; row++)
+			min = Math.min(min, counts[index(row, key)]);
+		return min;
+	}
+
+	void subtract(CountMinSketch other) {
+		for (int i = 0; i < counts.length; i++)
+			counts[i] -= other.counts[i];
+	}
+
+	void clear() {
+		Arrays.fill(counts, 0);
+	}
+
+	private int index(int row, long key) {
+		long h = (key ^ SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+		h ^= h >>> 31;
+		return row * (mask + 1) + ((int) h & mask);
+	}
+}
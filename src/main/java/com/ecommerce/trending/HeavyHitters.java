@@ -0,0 +1,64 @@
+package com.ecommerce.trending;
+
+import java.util.function.LongToIntFunction;
+
+// The capacity products with the highest counts seen so far for one shelf
+// (a category or the whole catalogue). Scores are the window estimate at the
+// product's last event and are re-read from the window when the shelf is
+// served or the window moves. Shelves are small, so plain arrays with a
+// linear scan beat a heap plus an index map.
+final class HeavyHitters {
+
+	private final long[] ids;
+	private final int[] scores;
+	private int size;
+
+	HeavyHitters(int capacity) {
+		ids = new long[capacity];
+		scores = new int[capacity];
+	}
+
+	void offer(long id, int score) {
+		int min = -1;
+		for (int i = 0; i < size; i++) {
+			if (ids[i] == id) {
+				scores[i] = score;
+				return;
+			}
+			if (min < 0 || scores[i] < scores[min])
+				min = i;
+		}
+		if (size < ids.length) {
+			ids[size] = id;
+			scores[size++] = score;
+		} else if (score > scores[min]) {
+			ids[min] = id;
+			scores[min] = score;
+		}
+	}
+
+	// re-reads every score and drops products whose window count is gone
+	void refresh(LongToIntFunction estimate) {
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			int score = estimate.applyAsInt(ids[i]);
+			if (score > 0) {
+				ids[kept] = ids[i];
+				scores[kept++] = score;
+			}
+		}
+		size = kept;
+	}
+
+	int size() {
+		return size;
+	}
+
+	long id(int i) {
+		return ids[i];
+	}
+
+	int score(int i) {
+		return scores[i];
+	}
+}
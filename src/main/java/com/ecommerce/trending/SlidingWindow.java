@@ -0,0 +1,47 @@
+package com.ecommerce.trending;
+
+// Counts over the last buckets * bucketMillis, in buckets of bucketMillis
+// (e.g. twelve 5-minute buckets for an hour). Each bucket has its own
+// sketch and `total` holds their sum, so an estimate reads one sketch; when
+// time moves on, expiring buckets are subtracted from the total and reused.
+// Not thread-safe; TrendingProducts locks around it.
+final class SlidingWindow {
+
+	private final long bucketMillis;
+	private final CountMinSketch[] buckets;
+	private final CountMinSketch total;
+	private long current;
+
+	SlidingWindow(int bucketCount, long bucketMillis, int width, long now) {
+		this.bucketMillis = bucketMillis;
+		this.buckets = new CountMinSketch[bucketCount];
+		for (int i = 0; i < bucketCount; i++)
+			buckets[i] = new CountMinSketch(width);
+		this.total = new CountMinSketch(width);
+		this.current = now / bucketMillis;
+	}
+
+	// drops the buckets that fell out of the window; true if any did
+	boolean advance(long now) {
+		long bucket = now / bucketMillis;
+		if (bucket <= current)
+			return false;
+		long expired = Math.min(bucket - current, buckets.length);
+		for (long b = current + 1; b <= current + expired; b++) {
+			CountMinSketch reused = buckets[(int) (b % buckets.length)];
+			total.subtract(reused);
+			reused.clear();
+		}
+		current = bucket;
+		return true;
+	}
+
+	void add(long key, int by) {
+		buckets[(int) (current % buckets.length)].add(key, by);
+		total.add(key, by);
+	}
+
+	int estimate(long key) {
+		return total.estimate(key);
+	}
+}
@@ -0,0 +1,177 @@
+package com.ecommerce.trending;
+
+import com.ecommerce.cache.CategoryTreeCache;
+import com.ecommerce.dto.TrendingProductResponse;
+import com.ecommerce.enums.TrendingWindow;
+import com.ecommerce.search.ProductSearchIndex;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// "Trending now" from product views, add-to-carts and orders over the last
+// hour and the last day, counted in process instead of grouping the activity
+// tables on every request. Each window is a SlidingWindow of count-min
+// sketches; next to it every shelf (the whole catalogue, and each category
+// with its ancestors, so "Clothing" includes its subcategories) keeps its
+// heavy hitters. Memory is fixed by the sketch width and the shelf
+// capacities - it does not grow with the catalogue or the traffic.
+//
+// Counts are per instance and start empty after a restart.
+@Component
+public class TrendingProducts {
+
+	// how much one event moves a product
+	static final int VIEW_WEIGHT = 1;
+	static final int CART_WEIGHT = 3;
+	static final int ORDER_WEIGHT = 5;
+
+	// shelf key for the whole catalogue; category ids start at 1
+	private static final long ALL = 0;
+
+	static final int MAX_LIMIT = 50;
+
+	private final ProductSearchIndex index;
+	private final CategoryTreeCache categoryTree;
+	private final LongSupplier clock;
+	private final int shelfCapacity;
+	private final Window hour;
+	private final Window day;
+
+	@Autowired
+	public TrendingProducts(ProductSearchIndex index, CategoryTreeCache categoryTree,
+			@Value("${trending.sketch-width:4096}") int width, @Value("${trending.shelf-capacity:64}") int shelf) {
+		this(index, categoryTree, width, shelf, System::currentTimeMillis);
+	}
+
+	TrendingProducts(ProductSearchIndex index, CategoryTreeCache categoryTree, int width, int shelf,
+			LongSupplier clock) {
+		this.index = index;
+		this.categoryTree = categoryTree;
+		this.clock = clock;
+		this.shelfCapacity = Math.max(shelf, MAX_LIMIT);
+		long now = clock.getAsLong();
+		this.hour = new Window(new SlidingWindow(12, 5 * 60_000L, width, now));
+		this.day = new Window(new SlidingWindow(24, 3_600_000L, width, now));
+	}
+
+	public void recordView(Long productId) {
+		record(productId, VIEW_WEIGHT);
+	}
+
+	public void recordAddToCart(Long productId) {
+		record(productId, CART_WEIGHT);
+	}
+
+	public void recordOrder(Long productId, int quantity) {
+		record(productId, ORDER_WEIGHT * Math.max(1, quantity));
+	}
+
+	// best first; categoryId null for the whole catalogue
+	public List<TrendingProductResponse> top(TrendingWindow window, Long categoryId, int limit) {
+		Window w = window == TrendingWindow.DAY ? day : hour;
+		int n = Math.max(0, Math.min(limit, MAX_LIMIT));
+		long[] ids;
+		int[] scores;
+		int size;
+		synchronized (w) {
+			w.advance(clock.getAsLong());
+			HeavyHitters shelf = w.shelves.get(categoryId == null ? ALL : categoryId);
+			if (shelf == null || n == 0)
+				return List.of();
+			shelf.refresh(w.counts::estimate);
+			size = shelf.size();
+			ids = new long[size];
+			scores = new int[size];
+			for (int i = 0; i < size; i++) {
+				ids[i] = shelf.id(i);
+				scores[i] = shelf.score(i);
+			}
+		}
+
+		// a product deactivated since its last event leaves the shelf here
+		boolean ready = index.isReady();
+		List<TrendingProductResponse> out = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			if (!ready || index.categoryOf(ids[i]) != ProductSearchIndex.NOT_INDEXED)
+				out.add(new TrendingProductResponse(ids[i], scores[i]));
+		}
+		out.sort((a, b) -> a.getScore() != b.getScore() ? Integer.compare(b.getScore(), a.getScore())
+				: Long.compare(a.getProductId(), b.getProductId()));
+		return out.size() > n ? new ArrayList<>(out.subList(0, n)) : out;
+	}
+
+	// Counted once the surrounding transaction commits, so a cart add or an
+	// order that rolls back never trends; outside a transaction, right away.
+	private void record(Long productId, int weight) {
+		if (productId == null)
+			return;
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					count(productId, weight);
+				}
+			});
+		} else {
+			count(productId, weight);
+		}
+	}
+
+	private void count(long productId, int weight) {
+
+		// until the index has loaded every product only counts catalogue-wide
+		long category = index.isReady() ? index.categoryOf(productId) : ProductSearchIndex.NO_CATEGORY;
+		if (category == ProductSearchIndex.NOT_INDEXED)
+			return;
+		long[] ancestors = category == ProductSearchIndex.NO_CATEGORY ? new long[0]
+				: categoryTree.current().ancestors(category);
+
+		long now = clock.getAsLong();
+		hour.record(productId, weight, category, ancestors, now);
+		day.record(productId, weight, category, ancestors, now);
+	}
+
+	private final class Window {
+		final SlidingWindow counts;
+		final Map<Long, HeavyHitters> shelves = new HashMap<>();
+
+		Window(SlidingWindow counts) {
+			this.counts = counts;
+		}
+
+		synchronized void record(long productId, int weight, long category, long[] ancestors, long now) {
+			advance(now);
+			counts.add(productId, weight);
+			int score = counts.estimate(productId);
+			shelf(ALL).offer(productId, score);
+			if (category != ProductSearchIndex.NO_CATEGORY) {
+				shelf(category).offer(productId, score);
+				for (long a : ancestors)
+					shelf(a).offer(productId, score);
+			}
+		}
+
+		// when buckets expire every shelf re-reads its scores, so products
+		// that stopped selling make room for new ones
+		void advance(long now) {
+			if (counts.advance(now)) {
+				for (HeavyHitters shelf : shelves.values())
+					shelf.refresh(counts::estimate);
+				shelves.values().removeIf(shelf -> shelf.size() == 0);
+			}
+		}
+
+		private HeavyHitters shelf(long key) {
+			return shelves.computeIfAbsent(key, k -> new HeavyHitters(k == ALL ? shelfCapacity * 4 : shelfCapacity));
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal streaming RFC 4180 reader: comma separated, fields optionally in
+// double quotes ("" is a literal quote, quoted fields may span lines), CRLF or
+// LF line endings. Reads one record at a time, so files of any size can be
+// processed without loading them. A byte order mark at the start, as saved
+// by spreadsheet tools, is skipped so it does not end up in the first field.
+public class CsvReader implements Closeable {
+
+	private final Reader in;
+	private int pushback = -2;
+	private boolean started;
+
+	public CsvReader(Reader in) {
+		this.in = in instanceof BufferedReader ? in : new BufferedReader(in, 64 * 1024);
+	}
+
+	// next record, or null at end of input; blank lines are skipped
+	public List<String> next() throws IOException {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		boolean any = false;
+
+		int c;
+		while ((c = read()) != -1) {
+			any = true;
+			if (quoted) {
+				if (c == '"') {
+					int n = read();
+					if (n == '"') {
+						field.append('"');
+					} else {
+						quoted = false;
+						unread(n);
+					}
+				} else {
+					field.append((char) c);
+				}
+			} else if (c == '"' && field.isEmpty()) {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\n' || c == '\r') {
+				if (c == '\r') {
+					int n = read();
+					if (n != '\n')
+						unread(n);
+				}
+				if (fields.isEmpty() && field.isEmpty()) {
+					any = false;
+					continue;
+				}
+				break;
+			} else {
+				field.append((char) c);
+			}
+		}
+
+		if (!any && fields.isEmpty() && field.isEmpty())
+			return null;
+		fields.add(field.toString());
+		return fields;
+	}
+
+	private int read() throws IOException {
+		if (pushback != -2) {
+			int c = pushback;
+			pushback = -2;
+			return c;
+		}
+		int c = in.read();
+		if (!started) {
+			started = true;
+			if (c == '\uFEFF')
+				c = in.read();
+		}
+		return c;
+	}
+
+	private void unread(int c) {
+		pushback = c;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
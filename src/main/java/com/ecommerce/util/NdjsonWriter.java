@@ -0,0 +1,53 @@
+package com.ecommerce.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+// Writes one JSON document per line (application/x-ndjson) straight to an
+// output stream. Nothing is buffered beyond the generator's own buffer, so an
+// export of any size runs in constant memory. write() can be used as a
+// Consumer; I/O failures (e.g. the client went away) surface unchecked so
+// they abort the database stream feeding it.
+public class NdjsonWriter implements Closeable {
+
+	public static final String CONTENT_TYPE = "application/x-ndjson";
+
+	private final ObjectWriter writer;
+	private final JsonGenerator generator;
+	private long count;
+
+	public NdjsonWriter(ObjectMapper mapper, OutputStream out) throws IOException {
+		this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+				.without(SerializationFeature.INDENT_OUTPUT);
+		this.generator = mapper.getFactory().createGenerator(out);
+		this.generator.setRootValueSeparator(null);
+		// the caller owns the stream (e.g. the servlet response)
+		this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	public void write(Object value) {
+		try {
+			writer.writeValue(generator, value);
+			generator.writeRaw('\n');
+			count++;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public void close() throws IOException {
+		generator.close();
+	}
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Category;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTreeTest {
+
+	// 1 Clothing > 2 Women > 4 Kurtas, 1 Clothing > 3 Men, 5 Electronics
+	private final CategoryTree tree = CategoryTree.build(List.of(category(1L, null, "Clothing"),
+			category(2L, 1L, "Women"), category(3L, 1L, "Men"), category(4L, 2L, "Kurtas"),
+			category(5L, null, "Electronics")));
+
+	@Test
+	void ancestors_areParentFirst() {
+
+		assertArrayEquals(new long[] { 2L, 1L }, tree.ancestors(4L));
+		assertArrayEquals(new long[0], tree.ancestors(1L));
+		assertArrayEquals(new long[0], tree.ancestors(99L));
+	}
+
+	@Test
+	void descendants_includeSelfAndWholeSubtree() {
+
+		assertArrayEquals(new long[] { 1L, 2L, 3L, 4L }, tree.descendants(1L));
+		assertArrayEquals(new long[] { 2L, 4L }, tree.descendants(2L));
+		assertArrayEquals(new long[] { 5L }, tree.descendants(5L));
+		assertArrayEquals(new long[0], tree.descendants(99L));
+	}
+
+	@Test
+	void children_listRootsUnderNull() {
+
+		assertEquals(List.of(1L, 5L), tree.children(null).stream().map(Category::getId).toList());
+		assertEquals(List.of(2L, 3L), tree.children(1L).stream().map(Category::getId).toList());
+		assertTrue(tree.children(4L).isEmpty());
+	}
+
+	@Test
+	void build_treatsMissingParentAsRootAndSurvivesCycles() {
+
+		CategoryTree odd = CategoryTree.build(List.of(category(1L, 42L, "Orphan"), category(2L, 3L, "A"),
+				category(3L, 2L, "B")));
+
+		assertEquals(List.of(1L), odd.children(null).stream().map(Category::getId).toList());
+		assertArrayEquals(new long[] { 3L }, odd.ancestors(2L));
+		assertArrayEquals(new long[] { 2L, 3L }, odd.descendants(2L));
+	}
+
+	private static Category category(Long id, Long parentId, String name) {
+		Category c = new Category();
+		c.setId(id);
+		c.setParentCategoryId(parentId);
+		c.setName(name);
+		return c;
+	}
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.image.ImageDerivatives;
+import com.ecommerce.image.ImageFileServer;
+import com.ecommerce.repository.ProductImageRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductImageFileControllerTest {
+
+	private static final String HASH = "ab".repeat(32);
+	private static final String IMAGE = "/product-images/7/" + HASH + ".jpg";
+
+	@TempDir
+	Path root;
+
+	private ProductImageFileController controller;
+
+	@BeforeEach
+	void setup() throws Exception {
+		controller = new ProductImageFileController(
+				new ImageDerivatives(mock(ProductImageRepository.class), root.toString(), 1, 10),
+				new ImageFileServer());
+		Files.createDirectories(root.resolve("product-images/7"));
+		Files.write(root.resolve("product-images/7/" + HASH + ".jpg"), "original".getBytes());
+	}
+
+	@Test
+	void serve_widthWhoseCopyIsMissing_sendsTheOriginalAsARevalidatedStandIn() throws Exception {
+
+		MockHttpServletResponse original = get(null, null);
+		assertEquals("public, max-age=31536000, immutable", original.getHeader("Cache-Control"));
+		assertEquals("\"" + HASH + "\"", original.getHeader("ETag"));
+
+		MockHttpServletResponse standIn = get(160, null);
+		assertEquals("original", standIn.getContentAsString());
+		assertEquals("no-cache", standIn.getHeader("Cache-Control"));
+		assertTrue(standIn.getHeader("ETag").startsWith("W/"));
+		assertNotEquals(original.getHeader("ETag"), standIn.getHeader("ETag"));
+		// revalidating the stand-in is cheap while the copy is still missing
+		assertEquals(304, get(160, standIn.getHeader("ETag")).getStatus());
+
+		// once the copy is written, the same URL gets it, cacheable for good
+		Files.write(root.resolve("product-images/7/" + HASH + "_w160.jpg"), "thumb".getBytes());
+		MockHttpServletResponse copy = get(160, standIn.getHeader("ETag"));
+		assertEquals(200, copy.getStatus());
+		assertEquals("thumb", copy.getContentAsString());
+		assertEquals("public, max-age=31536000, immutable", copy.getHeader("Cache-Control"));
+	}
+
+	private MockHttpServletResponse get(Integer w, String ifNoneMatch) throws Exception {
+		MockHttpServletRequest req = new MockHttpServletRequest("GET", IMAGE);
+		if (ifNoneMatch != null)
+			req.addHeader("If-None-Match", ifNoneMatch);
+		MockHttpServletResponse resp = new MockHttpServletResponse();
+		controller.serve(w, req, resp);
+		return resp;
+	}
+}
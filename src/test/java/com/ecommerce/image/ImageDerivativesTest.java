@@ -0,0 +1,133 @@
+package com.ecommerce.image;
+
+import com.ecommerce.model.ImageDerivative;
+import com.ecommerce.model.ProductImage;
+import com.ecommerce.repository.ProductImageRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageDerivativesTest {
+
+	@Mock
+	private ProductImageRepository repo;
+
+	@TempDir
+	Path root;
+
+	private ImageDerivatives derivatives;
+
+	@BeforeEach
+	void setup() throws Exception {
+		derivatives = new ImageDerivatives(repo, root.toString(), 1, 10);
+		Files.createDirectories(root.resolve("product-images/7"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void generate_writesEachNarrowerWidthAndRecordsIt() throws Exception {
+
+		ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "jpg",
+				root.resolve("product-images/7/shoe.jpg").toFile());
+
+		derivatives.generate(image(1L, "/product-images/7/shoe.jpg"));
+
+		ArgumentCaptor<List<ImageDerivative>> made = ArgumentCaptor.forClass(List.class);
+		verify(repo).saveDerivatives(eq(1L), made.capture());
+		assertEquals(List.of(1024, 480, 160), made.getValue().stream().map(ImageDerivative::getWidth).toList());
+		assertEquals(80, made.getValue().get(2).getHeight());
+
+		BufferedImage thumb = ImageIO.read(root.resolve("product-images/7/shoe_w160.jpg").toFile());
+		assertEquals(160, thumb.getWidth());
+		assertEquals(80, thumb.getHeight());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void generate_skipsWidthsWiderThanTheOriginal() throws Exception {
+
+		ImageIO.write(new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB), "png",
+				root.resolve("product-images/7/logo.png").toFile());
+
+		derivatives.generate(image(2L, "/product-images/7/logo.png"));
+
+		ArgumentCaptor<List<ImageDerivative>> made = ArgumentCaptor.forClass(List.class);
+		verify(repo).saveDerivatives(eq(2L), made.capture());
+		assertEquals(1, made.getValue().size());
+		assertEquals("/product-images/7/logo_w160.png", made.getValue().get(0).getImagePath());
+	}
+
+	@Test
+	void generate_marksMissingOriginalAsDone() {
+
+		derivatives.generate(image(3L, "https://cdn.example.com/a.jpg"));
+
+		verify(repo).saveDerivatives(3L, List.of());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void generate_reusesCopiesOfASharedUpload() throws Exception {
+
+		String hash = "ab".repeat(32);
+		String path = "/product-images/objects/ab/ab/" + hash + ".jpg";
+		Path dir = Files.createDirectories(root.resolve("product-images/objects/ab/ab"));
+		ImageIO.write(new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB), "jpg", dir.resolve(hash + ".jpg").toFile());
+		// written while another product's image was processed
+		ImageIO.write(new BufferedImage(480, 241, BufferedImage.TYPE_INT_RGB), "jpg", dir.resolve(hash + "_w480.jpg").toFile());
+		ImageIO.write(new BufferedImage(160, 81, BufferedImage.TYPE_INT_RGB), "jpg", dir.resolve(hash + "_w160.jpg").toFile());
+
+		derivatives.generate(image(5L, path));
+
+		ArgumentCaptor<List<ImageDerivative>> made = ArgumentCaptor.forClass(List.class);
+		verify(repo).saveDerivatives(eq(5L), made.capture());
+		// heights come from the existing files, not a fresh resize
+		assertEquals(List.of(241, 81), made.getValue().stream().map(ImageDerivative::getHeight).toList());
+	}
+
+	@Test
+	void locate_fallsBackToOriginalUntilTheCopyExists() throws Exception {
+
+		Path original = root.resolve("product-images/7/bag.jpg");
+		ImageIO.write(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB), "jpg", original.toFile());
+
+		assertEquals(original.toAbsolutePath(), derivatives.locate("/product-images/7/bag.jpg", 150));
+
+		derivatives.generate(image(4L, "/product-images/7/bag.jpg"));
+
+		assertEquals(root.resolve("product-images/7/bag_w160.jpg"), derivatives.locate("/product-images/7/bag.jpg", 150));
+		assertEquals(root.resolve("product-images/7/bag_w480.jpg"), derivatives.locate("/product-images/7/bag.jpg", 161));
+		// no 1024 copy of an 800px original, and nothing wider than that
+		assertEquals(original, derivatives.locate("/product-images/7/bag.jpg", 900));
+		assertEquals(original, derivatives.locate("/product-images/7/bag.jpg", null));
+
+		Files.writeString(root.resolve("application.properties"), "secret");
+		assertNull(derivatives.locate("/product-images/../application.properties", null));
+		assertNull(derivatives.locate("/product-images/7/../../../etc/passwd", null));
+	}
+
+	private static ProductImage image(Long id, String path) {
+		ProductImage img = new ProductImage();
+		img.setId(id);
+		img.setProductId(7L);
+		img.setImagePath(path);
+		return img;
+	}
+}
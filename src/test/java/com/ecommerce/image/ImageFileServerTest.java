@@ -0,0 +1,119 @@
+package com.ecommerce.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageFileServerTest {
+
+	@TempDir
+	Path dir;
+
+	private final ImageFileServer server = new ImageFileServer();
+	private Path file;
+
+	@BeforeEach
+	void setup() throws Exception {
+		file = Files.write(dir.resolve("1700_shoe.jpg"), "0123456789".getBytes());
+	}
+
+	@Test
+	void serve_sendsBodyWithStrongContentHashEtag() throws Exception {
+
+		MockHttpServletResponse resp = get(new MockHttpServletRequest("GET", "/x"));
+
+		assertEquals(200, resp.getStatus());
+		assertEquals("0123456789", resp.getContentAsString());
+		assertEquals("\"" + ImageFileServer.sha256(file) + "\"", resp.getHeader("ETag"));
+		assertEquals(ImageFileServer.REVALIDATE, resp.getHeader("Cache-Control"));
+		assertEquals("image/jpeg", resp.getContentType());
+	}
+
+	@Test
+	void serve_answersMatchingIfNoneMatchWith304() throws Exception {
+
+		String etag = get(new MockHttpServletRequest("GET", "/x")).getHeader("ETag");
+
+		MockHttpServletRequest req = new MockHttpServletRequest("GET", "/x");
+		req.addHeader("If-None-Match", "\"other\", W/" + etag);
+		MockHttpServletResponse resp = get(req);
+
+		assertEquals(304, resp.getStatus());
+		assertEquals(0, resp.getContentAsByteArray().length);
+	}
+
+	@Test
+	void serve_honoursSingleByteRanges() throws Exception {
+
+		MockHttpServletRequest req = new MockHttpServletRequest("GET", "/x");
+		req.addHeader("Range", "bytes=2-5");
+		MockHttpServletResponse resp = get(req);
+		assertEquals(206, resp.getStatus());
+		assertEquals("2345", resp.getContentAsString());
+		assertEquals("bytes 2-5/10", resp.getHeader("Content-Range"));
+
+		req = new MockHttpServletRequest("GET", "/x");
+		req.addHeader("Range", "bytes=-3");
+		assertEquals("789", get(req).getContentAsString());
+
+		req = new MockHttpServletRequest("GET", "/x");
+		req.addHeader("Range", "bytes=10-");
+		resp = get(req);
+		assertEquals(416, resp.getStatus());
+		assertEquals("bytes */10", resp.getHeader("Content-Range"));
+
+		// stale If-Range gets the whole (changed) file instead of a slice
+		req = new MockHttpServletRequest("GET", "/x");
+		req.addHeader("Range", "bytes=2-5");
+		req.addHeader("If-Range", "\"stale\"");
+		resp = get(req);
+		assertEquals(200, resp.getStatus());
+		assertEquals("0123456789", resp.getContentAsString());
+	}
+
+	@Test
+	void serve_marksContentAddressedNamesImmutable() throws Exception {
+
+		String hash = "ab".repeat(32);
+		file = Files.write(dir.resolve(hash + ".png"), new byte[] { 1, 2, 3 });
+		MockHttpServletResponse resp = get(new MockHttpServletRequest("GET", "/x"));
+
+		assertEquals(ImageFileServer.IMMUTABLE, resp.getHeader("Cache-Control"));
+		assertEquals("\"" + hash + "\"", resp.getHeader("ETag"));
+
+		file = Files.write(dir.resolve(hash + "_w160.png"), new byte[] { 4 });
+		resp = get(new MockHttpServletRequest("GET", "/x"));
+		assertEquals(ImageFileServer.IMMUTABLE, resp.getHeader("Cache-Control"));
+		assertEquals("\"" + ImageFileServer.sha256(file) + "\"", resp.getHeader("ETag"));
+	}
+
+	@Test
+	void serve_handsFileToSendfileWhenTheConnectorSupportsIt() throws Exception {
+
+		MockHttpServletRequest req = new MockHttpServletRequest("GET", "/x");
+		req.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		req.addHeader("Range", "bytes=4-");
+		MockHttpServletResponse resp = get(req);
+
+		assertEquals(206, resp.getStatus());
+		assertEquals(6, resp.getContentLengthLong());
+		assertEquals(0, resp.getContentAsByteArray().length);
+		assertEquals(file.toAbsolutePath().toString(), req.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(4L, req.getAttribute("org.apache.tomcat.sendfile.start"));
+		assertEquals(10L, req.getAttribute("org.apache.tomcat.sendfile.end"));
+	}
+
+	private MockHttpServletResponse get(MockHttpServletRequest req) throws Exception {
+		MockHttpServletResponse resp = new MockHttpServletResponse();
+		server.serve(file, "/product-images/" + file.getFileName(), null, req, resp);
+		return resp;
+	}
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.image;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Not a unit test (surefire skips it). Run with:
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ecommerce.image.ImageServingBenchmark
+// Starts an embedded Tomcat (NIO connector, sendfile on as in Spring Boot)
+// serving the same directory two ways: the Spring ResourceHttpRequestHandler
+// the app used to register for /product-images/**, and ImageFileServer.
+// Concurrent clients fetch a thumbnail-sized and a photo-sized file over
+// real sockets for -Dbench.seconds (default 5) each, with
+// -Dbench.clients (default 16) threads.
+public class ImageServingBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int seconds = Integer.getInteger("bench.seconds", 5);
+		int clients = Integer.getInteger("bench.clients", 16);
+
+		Path dir = Files.createTempDirectory("image-bench");
+		Random random = new Random(42);
+		byte[] thumb = new byte[24 * 1024];
+		byte[] photo = new byte[2 * 1024 * 1024];
+		random.nextBytes(thumb);
+		random.nextBytes(photo);
+		Files.write(dir.resolve("thumb.jpg"), thumb);
+		Files.write(dir.resolve("photo.jpg"), photo);
+
+		Tomcat tomcat = start(dir);
+		int port = tomcat.getConnector().getLocalPort();
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+
+		try {
+			for (String file : List.of("thumb.jpg", "photo.jpg")) {
+				for (String handler : List.of("legacy", "zero-copy")) {
+					URI uri = URI.create("http://localhost:" + port + "/" + handler + "/" + file);
+					run(client, pool, clients, uri, 1); // warm-up
+					long[] r = run(client, pool, clients, uri, seconds);
+					System.out.printf("%-10s %-10s %,10.0f req/s %,10.1f MB/s%n", file, handler,
+							r[0] / (double) seconds, r[1] / (double) seconds / (1024 * 1024));
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+			tomcat.stop();
+			tomcat.destroy();
+		}
+	}
+
+	private static long[] run(HttpClient client, ExecutorService pool, int clients, URI uri, int seconds)
+			throws Exception {
+		long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+		AtomicLong requests = new AtomicLong();
+		AtomicLong bytes = new AtomicLong();
+		HttpRequest req = HttpRequest.newBuilder(uri).GET().build();
+
+		List<Future<?>> running = new ArrayList<>();
+		for (int i = 0; i < clients; i++) {
+			running.add(pool.submit(() -> {
+				while (System.nanoTime() < deadline) {
+					HttpResponse<byte[]> resp = client.send(req, HttpResponse.BodyHandlers.ofByteArray());
+					if (resp.statusCode() != 200)
+						throw new IllegalStateException("HTTP " + resp.statusCode() + " for " + uri);
+					requests.incrementAndGet();
+					bytes.addAndGet(resp.body().length);
+				}
+				return null;
+			}));
+		}
+		for (Future<?> f : running)
+			f.get();
+		return new long[] { requests.get(), bytes.get() };
+	}
+
+	private static Tomcat start(Path dir) throws Exception {
+		Tomcat tomcat = new Tomcat();
+		tomcat.setBaseDir(Files.createTempDirectory("image-bench-tomcat").toString());
+		tomcat.setPort(0);
+		tomcat.getConnector().setProperty("useSendfile", "true");
+		Context ctx = tomcat.addContext("", null);
+
+		ResourceHttpRequestHandler legacy = new ResourceHttpRequestHandler();
+		legacy.setLocations(List.of(new FileSystemResource(dir.toString() + "/")));
+		legacy.setServletContext(new MockServletContext());
+		legacy.afterPropertiesSet();
+
+		Tomcat.addServlet(ctx, "legacy", new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+				req.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, req.getPathInfo().substring(1));
+				try {
+					legacy.handleRequest(req, resp);
+				} catch (jakarta.servlet.ServletException e) {
+					throw new IOException(e);
+				}
+			}
+		});
+		ctx.addServletMappingDecoded("/legacy/*", "legacy");
+
+		ImageFileServer server = new ImageFileServer();
+		Tomcat.addServlet(ctx, "zero-copy", new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+				server.serve(dir.resolve(req.getPathInfo().substring(1)), req.getPathInfo(), null, req, resp);
+			}
+		});
+		ctx.addServletMappingDecoded("/zero-copy/*", "zero-copy");
+
+		try {
+			tomcat.start();
+		} catch (LifecycleException e) {
+			throw new IllegalStateException(e);
+		}
+		return tomcat;
+	}
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.image;
+
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.image.ImageStore.StoredImage;
+import com.ecommerce.repository.ImageObjectRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageStoreTest {
+
+	private static final byte[] PNG_HEAD = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13 };
+
+	@Mock
+	private ImageObjectRepository repo;
+
+	@TempDir
+	Path root;
+
+	private ImageStore store;
+
+	@BeforeEach
+	void setup() {
+		store = new ImageStore(repo, root.toString(), 4096, 60);
+	}
+
+	@Test
+	void store_sameBytesAreKeptOnceUnderTheirHash() throws Exception {
+
+		byte[] png = png(1000);
+
+		StoredImage first = store.store(new ByteArrayInputStream(png));
+		StoredImage second = store.store(new ByteArrayInputStream(png));
+
+		assertEquals(first.imagePath(), second.imagePath());
+		assertTrue(ImageStore.isStored(first.imagePath()));
+		assertTrue(first.imagePath().endsWith("/" + first.sha256() + ".png"));
+		assertArrayEquals(png, Files.readAllBytes(store.resolve(first.imagePath())));
+		verify(repo, times(2)).acquire(first.sha256(), first.imagePath(), 1000);
+		assertEquals(0, incomingFiles());
+	}
+
+	@Test
+	void store_stopsReadingOnceOverTheCap() throws Exception {
+
+		long[] served = new long[1];
+		// endless stream: only the cap can end the upload
+		InputStream endless = new InputStream() {
+			@Override
+			public int read() {
+				return -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				System.arraycopy(PNG_HEAD, 0, b, off, Math.min(len, PNG_HEAD.length));
+				served[0] += len;
+				return len;
+			}
+		};
+
+		assertThrows(BadRequestException.class, () -> store.store(endless));
+
+		assertTrue(served[0] < 4096 + 64 * 1024 + 1);
+		verifyNoInteractions(repo);
+		assertEquals(0, incomingFiles());
+	}
+
+	@Test
+	void store_rejectsContentThatIsNotAnImage() {
+
+		byte[] html = "<html><script>alert(1)</script></html>".getBytes();
+
+		assertThrows(BadRequestException.class, () -> store.store(new ByteArrayInputStream(html)));
+		verifyNoInteractions(repo);
+	}
+
+	@Test
+	void remove_keepsTheFileWhenTheObjectWasReferencedAgain() throws Exception {
+
+		StoredImage img = store.store(new ByteArrayInputStream(png(100)));
+		Path file = store.resolve(img.imagePath());
+		Path thumb = store.resolve(ImageDerivatives.derivativePath(img.imagePath(), 160));
+		Files.write(thumb, new byte[] { 1 });
+
+		when(repo.deleteIfUnreferenced(img.imagePath())).thenReturn(false, true);
+
+		assertFalse(store.remove(img.imagePath()));
+		assertTrue(Files.isRegularFile(file));
+
+		assertTrue(store.remove(img.imagePath()));
+		assertFalse(Files.exists(file));
+		assertFalse(Files.exists(thumb));
+		assertEquals(0, incomingFiles());
+	}
+
+	private long incomingFiles() throws Exception {
+		Path incoming = root.resolve(".image-uploads");
+		if (!Files.isDirectory(incoming))
+			return 0;
+		try (Stream<Path> files = Files.list(incoming)) {
+			return files.count();
+		}
+	}
+
+	private static byte[] png(int size) {
+		byte[] b = new byte[size];
+		System.arraycopy(PNG_HEAD, 0, b, 0, PNG_HEAD.length);
+		for (int i = PNG_HEAD.length; i < size; i++)
+			b[i] = (byte) i;
+		return b;
+	}
+}
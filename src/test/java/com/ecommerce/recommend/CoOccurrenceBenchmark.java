@@ -0,0 +1,55 @@
+package com.ecommerce.recommend;
+
+import java.util.SplittableRandom;
+
+// Not a unit test (surefire skips it). Run with:
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ecommerce.recommend.CoOccurrenceBenchmark
+// Builds the co-occurrence matrix from synthetic baskets (-Dbench.baskets,
+// default 1M, 2-10 products each from a 50k catalogue with a skewed
+// popularity) on one thread and on every core, and times single lookups.
+public class CoOccurrenceBenchmark {
+
+	public static void main(String[] args) {
+		int basketCount = Integer.getInteger("bench.baskets", 1_000_000);
+		int catalogue = Integer.getInteger("bench.products", 50_000);
+		int cores = Runtime.getRuntime().availableProcessors();
+
+		SplittableRandom rnd = new SplittableRandom(42);
+		Baskets.Builder builder = new Baskets.Builder();
+		long rows = 0;
+		long start = System.nanoTime();
+		for (long basket = 0; basket < basketCount; basket++) {
+			int size = 2 + rnd.nextInt(9);
+			for (int i = 0; i < size; i++) {
+				// squared uniform: low ids are far more popular
+				double u = rnd.nextDouble();
+				builder.add(basket, 1 + (long) (u * u * catalogue));
+				rows++;
+			}
+		}
+		Baskets baskets = builder.build();
+		System.out.printf("load      %,d rows into %,d baskets, %,d products in %,d ms%n", rows,
+				baskets.basketCount(), baskets.productCount(), (System.nanoTime() - start) / 1_000_000);
+
+		CoOccurrence matrix = null;
+		for (int threads : cores == 1 ? new int[] { 1 } : new int[] { 1, cores }) {
+			// one warm-up build, one timed
+			CoOccurrence.build(baskets, 20, 1, threads);
+			start = System.nanoTime();
+			matrix = CoOccurrence.build(baskets, 20, 1, threads);
+			System.out.printf("build     %d thread(s): %,d ms, %,d products, %,d pairs kept%n", threads,
+					(System.nanoTime() - start) / 1_000_000, matrix.productCount(), matrix.pairCount());
+		}
+
+		int lookups = 1_000_000;
+		long sink = 0;
+		start = System.nanoTime();
+		for (int i = 0; i < lookups; i++) {
+			long p = 1 + rnd.nextInt(catalogue);
+			for (int j = matrix.from(p); j < matrix.to(p); j++)
+				sink += matrix.neighbour(j);
+		}
+		long nanos = System.nanoTime() - start;
+		System.out.printf("lookup    %,.0f ns per top-20 read (%d)%n", (double) nanos / lookups, sink & 1);
+	}
+}
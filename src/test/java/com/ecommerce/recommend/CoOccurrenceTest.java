@@ -0,0 +1,80 @@
+package com.ecommerce.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoOccurrenceTest {
+
+	@Test
+	void build_ranksByCosineAndKeepsTopK() {
+
+		Baskets.Builder b = new Baskets.Builder();
+		// 100 is in every basket; 10 and 20 go together twice
+		basket(b, 1, 10, 20, 100);
+		basket(b, 2, 10, 20, 100);
+		basket(b, 3, 10, 30, 100, 10);
+		basket(b, 4, 100, 40);
+		basket(b, 5, 100, 50);
+		basket(b, 6, 60);
+
+		CoOccurrence m = CoOccurrence.build(b.build(), 2, 1, 2);
+
+		// 20: 2 / sqrt(3 * 2) = 0.816; 100: 3 / sqrt(3 * 5) = 0.775; 30: 1 / sqrt(3) = 0.577
+		assertEquals(List.of(20L, 100L), neighbours(m, 10));
+		assertEquals(0.816f, m.score(m.from(10)), 0.001f);
+		// a basket of one pairs with nothing
+		assertEquals(List.of(), neighbours(m, 60));
+		assertEquals(List.of(), neighbours(m, 999));
+	}
+
+	@Test
+	void build_dropsPairsBelowMinCount() {
+
+		Baskets.Builder b = new Baskets.Builder();
+		basket(b, 1, 1, 2);
+		basket(b, 2, 1, 2);
+		basket(b, 3, 1, 3);
+
+		CoOccurrence m = CoOccurrence.build(b.build(), 10, 2, 1);
+
+		assertEquals(List.of(2L), neighbours(m, 1));
+		assertEquals(List.of(), neighbours(m, 3));
+	}
+
+	@Test
+	void build_givesTheSameMatrixOnAnyNumberOfThreads() {
+
+		Random rnd = new Random(7);
+		Baskets.Builder b = new Baskets.Builder();
+		for (long basket = 0; basket < 5000; basket++) {
+			int size = 1 + rnd.nextInt(8);
+			for (int i = 0; i < size; i++)
+				b.add(basket, 1 + rnd.nextInt(300));
+		}
+		Baskets baskets = b.build();
+
+		CoOccurrence one = CoOccurrence.build(baskets, 10, 1, 1);
+		CoOccurrence many = CoOccurrence.build(baskets, 10, 1, 4);
+
+		assertEquals(one.pairCount(), many.pairCount());
+		for (long p = 1; p <= 300; p++)
+			assertEquals(neighbours(one, p), neighbours(many, p));
+	}
+
+	private static void basket(Baskets.Builder b, long basket, long... products) {
+		for (long p : products)
+			b.add(basket, p);
+	}
+
+	private static List<Long> neighbours(CoOccurrence m, long productId) {
+		List<Long> out = new ArrayList<>();
+		for (int i = m.from(productId); i < m.to(productId); i++)
+			out.add(m.neighbour(i));
+		return out;
+	}
+}
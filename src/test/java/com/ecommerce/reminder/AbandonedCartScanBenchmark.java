@@ -0,0 +1,188 @@
+package com.ecommerce.reminder;
+
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.ProductAvailability;
+import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.ScanCheckpointRepository;
+import com.ecommerce.service.EmailNotificationService;
+
+import ch.qos.logback.classic.Level;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Not a unit test (surefire skips it). Run with:
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ecommerce.reminder.AbandonedCartScanBenchmark
+// Runs full scanner passes over -Dbench.carts synthetic carts (default one
+// million; 40% with lines, 30% idle) held in memory behind CartRepository,
+// for a few chunk sizes. Every statement costs one round trip
+// (-Dbench.rttMicros, default 300) and every cart row streamed
+// -Dbench.rowNanos (default 200), both spent spinning. "longest statement"
+// is what one chunk keeps the carts table busy for; a single query over all
+// carts would hold it for the whole scan.
+public class AbandonedCartScanBenchmark {
+
+	private static long rttNanos;
+	private static long rowNanos;
+	private static final AtomicLong statements = new AtomicLong();
+	private static long longestStatement;
+
+	public static void main(String[] args) {
+		rttNanos = Long.getLong("bench.rttMicros", 300) * 1000;
+		rowNanos = Long.getLong("bench.rowNanos", 200);
+		((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.ERROR);
+		int carts = Integer.getInteger("bench.carts", 1_000_000);
+
+		SplittableRandom rnd = new SplittableRandom(7);
+		boolean[] hasItems = new boolean[carts + 1];
+		boolean[] idle = new boolean[carts + 1];
+		for (int i = 1; i <= carts; i++) {
+			hasItems[i] = rnd.nextInt(10) < 4;
+			idle[i] = rnd.nextInt(10) < 3;
+		}
+
+		// the first pass warms up
+		int[] chunks = { 1000, 100, 1000, 5000 };
+		for (int run = 0; run < chunks.length; run++) {
+			int chunk = chunks[run];
+			SyntheticCarts repo = new SyntheticCarts(hasItems, idle);
+			AbandonedCartScanner scanner = new AbandonedCartScanner(repo, checkpoints(), emails(),
+					new TransactionTemplate(mock(PlatformTransactionManager.class, withSettings().stubOnly())), chunk,
+					24);
+			statements.set(0);
+			longestStatement = 0;
+			long start = System.nanoTime();
+			int reminded = scanner.scan();
+			double seconds = (System.nanoTime() - start) / 1e9;
+			if (run == 0)
+				continue;
+			System.out.printf(
+					"chunk %,5d  %,d carts in %,.2f s  %,9.0f carts/s  %,d reminders  %,d statements  longest statement %,.2f ms%n",
+					chunk, carts, seconds, carts / seconds, reminded, statements.get(), longestStatement / 1e6);
+		}
+	}
+
+	private static ScanCheckpointRepository checkpoints() {
+		long[] saved = { 0 };
+		return new ScanCheckpointRepository() {
+			@Override
+			public long find(String name) {
+				roundTrip(0);
+				return saved[0];
+			}
+
+			@Override
+			public void save(String name, long lastId) {
+				roundTrip(0);
+				saved[0] = lastId;
+			}
+		};
+	}
+
+	private static EmailNotificationService emails() {
+		EmailNotificationService emails = mock(EmailNotificationService.class, withSettings().stubOnly());
+		when(emails.queueEmails(anyList(), any())).thenAnswer(inv -> {
+			roundTrip(0);
+			return inv.<List<Long>>getArgument(0).size();
+		});
+		return emails;
+	}
+
+	// one statement of a round trip plus rows streamed back
+	private static void roundTrip(int rows) {
+		statements.incrementAndGet();
+		long took = rttNanos + rows * rowNanos;
+		longestStatement = Math.max(longestStatement, took);
+		long end = System.nanoTime() + took;
+		while (System.nanoTime() < end)
+			Thread.onSpinWait();
+	}
+
+	// carts 1..n with dense ids; only the scanner's methods are implemented
+	private static final class SyntheticCarts implements CartRepository {
+
+		private final boolean[] hasItems;
+		private final boolean[] idle;
+		private final boolean[] reminded;
+
+		SyntheticCarts(boolean[] hasItems, boolean[] idle) {
+			this.hasItems = hasItems;
+			this.idle = idle;
+			this.reminded = new boolean[hasItems.length];
+		}
+
+		@Override
+		public long scanIdleCarts(long afterId, int limit, LocalDateTime idleBefore, IdleCartSink sink) {
+			int from = (int) afterId + 1;
+			int to = Math.min(hasItems.length - 1, (int) afterId + limit);
+			roundTrip(Math.max(0, to - from + 1));
+			for (int id = from; id <= to; id++) {
+				if (idle[id] && !reminded[id] && hasItems[id])
+					sink.accept(id, id);
+			}
+			return Math.max(afterId, to);
+		}
+
+		@Override
+		public void markReminded(Collection<Long> cartIds, LocalDateTime at) {
+			roundTrip(0);
+			for (Long id : cartIds)
+				reminded[id.intValue()] = true;
+		}
+
+		@Override
+		public Optional<Cart> findByUserId(Long userId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<Cart> findById(Long cartId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Cart create(Long userId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<CartItem> findItemsByCartId(Long cartId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<CartItem> findItemById(Long cartItemId) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Map<Long, ProductAvailability> findAvailability(Collection<Long> productIds) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long reserveItemIds(int count) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void writeBack(Collection<Long> clearedCartIds, Collection<Long> removedItemIds,
+				List<CartItem> upserts, Map<Long, LocalDateTime> touchedCarts) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.reminder;
+
+import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.CartRepository.IdleCartSink;
+import com.ecommerce.repository.ScanCheckpointRepository;
+import com.ecommerce.service.EmailNotificationService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AbandonedCartScannerTest {
+
+	@Mock
+	private CartRepository cartRepository;
+
+	@Mock
+	private ScanCheckpointRepository checkpoints;
+
+	@Mock
+	private EmailNotificationService emailService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private AbandonedCartScanner scanner;
+
+	@BeforeEach
+	void setup() {
+		scanner = new AbandonedCartScanner(cartRepository, checkpoints, emailService,
+				new TransactionTemplate(transactionManager), 3, 24);
+	}
+
+	@Test
+	void scan_resumesFromTheCheckpointAndQueuesEachChunkInOneBatch() {
+
+		when(checkpoints.find(AbandonedCartScanner.CHECKPOINT)).thenReturn(10L);
+		// carts 11..13 with 11 and 13 due, then 14..15 with 15 due, then the end
+		chunk(10L, 13L, 11L, 13L);
+		chunk(13L, 15L, 15L);
+		chunk(15L, 15L);
+
+		assertEquals(3, scanner.scan());
+
+		verify(emailService).queueEmails(eq(List.of(111L, 113L)), any());
+		verify(emailService).queueEmails(eq(List.of(115L)), any());
+		verify(cartRepository).markReminded(eq(List.of(11L, 13L)), any());
+		verify(cartRepository).markReminded(eq(List.of(15L)), any());
+		InOrder order = inOrder(checkpoints);
+		order.verify(checkpoints).save(AbandonedCartScanner.CHECKPOINT, 13L);
+		order.verify(checkpoints).save(AbandonedCartScanner.CHECKPOINT, 15L);
+		// a finished pass starts over next time
+		order.verify(checkpoints).save(AbandonedCartScanner.CHECKPOINT, 0L);
+		verify(transactionManager, times(3)).commit(any());
+	}
+
+	@Test
+	void scan_keepsTheLastFinishedChunkWhenAChunkFails() {
+
+		when(checkpoints.find(AbandonedCartScanner.CHECKPOINT)).thenReturn(0L);
+		chunk(0L, 3L, 2L);
+		when(cartRepository.scanIdleCarts(eq(3L), eq(3), any(LocalDateTime.class), any()))
+				.thenThrow(new QueryTimeoutException("lock wait timeout"));
+
+		assertEquals(1, scanner.scan());
+
+		verify(checkpoints).save(AbandonedCartScanner.CHECKPOINT, 3L);
+		verify(checkpoints, never()).save(AbandonedCartScanner.CHECKPOINT, 0L);
+	}
+
+	// the chunk after afterId ends at last and has the given carts due; cart
+	// n belongs to user 100 + n
+	private void chunk(long afterId, long last, long... due) {
+		when(cartRepository.scanIdleCarts(eq(afterId), eq(3), any(LocalDateTime.class), any())).thenAnswer(inv -> {
+			IdleCartSink sink = inv.getArgument(3);
+			for (long cartId : due)
+				sink.accept(cartId, 100 + cartId);
+			return last;
+		});
+	}
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.search;
+
+import com.ecommerce.cache.CategoryTreeCache;
+import com.ecommerce.dto.FacetCountResponse;
+import com.ecommerce.dto.SearchFacetsResponse;
+import com.ecommerce.model.Category;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.ShopRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetsTest {
+
+	@Mock
+	private CategoryRepository categoryRepository;
+
+	@Mock
+	private ShopRepository shopRepository;
+
+	@Test
+	void toResponse_rollsCategoryCountsUpToParents() {
+
+		ProductFacets productFacets = new ProductFacets(new CategoryTreeCache(categoryRepository), shopRepository);
+
+		// Clothing(1) -> Women Clothing(2), Men Clothing(3)
+		when(categoryRepository.findAllActive()).thenReturn(List.of(category(1L, null, "Clothing"),
+				category(2L, 1L, "Women Clothing"), category(3L, 1L, "Men Clothing")));
+		when(shopRepository.getAllShops()).thenReturn(List.of());
+		productFacets.refresh();
+
+		FacetCounts counts = new FacetCounts();
+		counts.add(2L, 10L, 450);
+		counts.add(2L, 10L, 1200);
+		counts.add(3L, 11L, 7000);
+
+		SearchFacetsResponse response = productFacets.toResponse(counts);
+
+		List<FacetCountResponse> categories = response.getCategories();
+		assertEquals(List.of(1L, 2L, 3L), categories.stream().map(FacetCountResponse::getId).toList());
+		assertEquals(List.of(3, 2, 1), categories.stream().map(FacetCountResponse::getCount).toList());
+		assertEquals("Women Clothing", categories.get(1).getLabel());
+
+		assertEquals(1, response.getPriceBands().get(0).getCount());
+		assertEquals(1, response.getPriceBands().get(2).getCount());
+		assertEquals(1, response.getPriceBands().get(4).getCount());
+		assertNull(response.getPriceBands().get(4).getMax());
+	}
+
+	private static Category category(Long id, Long parentId, String name) {
+		Category c = new Category();
+		c.setId(id);
+		c.setParentCategoryId(parentId);
+		c.setName(name);
+		return c;
+	}
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.impl.ProductRepositoryImpl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.*;
+
+// Not a unit test (surefire skips it). Run with:
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ecommerce.search.ProductSearchBenchmark
+// Add -Dbench.jdbcUrl=jdbc:mysql://... -Dbench.user=... -Dbench.password=... to time the SQL path
+// against a populated products table as well.
+public class ProductSearchBenchmark {
+
+	private static final String[] WORDS = { "women", "men", "kids", "yellow", "red", "blue", "green", "black",
+			"cotton", "denim", "silk", "tshirt", "shirt", "jeans", "kurta", "saree", "jacket", "hoodie", "slim",
+			"regular", "comfort", "fit", "printed", "solid", "striped", "casual", "formal", "party", "summer" };
+
+	private static final String[] QUERIES = { "yellow", "women cotton", "tshirt", "slim fit jeans", "red kurta",
+			"printed", "blue denim jacket", "sku00012" };
+
+	public static void main(String[] args) {
+		int products = Integer.getInteger("bench.products", 300_000);
+		int iterations = Integer.getInteger("bench.iterations", 200);
+
+		List<Product> catalog = syntheticCatalog(products);
+		ProductRepository repo = mock(ProductRepository.class);
+		when(repo.findAllActive()).thenReturn(catalog);
+
+		ProductSearchIndex index = new ProductSearchIndex(repo);
+		long buildStart = System.nanoTime();
+		index.rebuild();
+		System.out.printf("index build: %d products in %d ms%n", products, (System.nanoTime() - buildStart) / 1_000_000);
+
+		report("in-memory", iterations, q -> index.search(q, null, 20, 0).size());
+
+		String url = System.getProperty("bench.jdbcUrl");
+		if (url != null) {
+			DriverManagerDataSource ds = new DriverManagerDataSource(url, System.getProperty("bench.user"),
+					System.getProperty("bench.password"));
+			ProductRepositoryImpl sql = new ProductRepositoryImpl(new JdbcTemplate(ds));
+			report("sql LIKE", Math.max(1, iterations / 10), q -> sql.search(ProductQuery.of(q, null), 20, 0).size());
+		}
+	}
+
+	private static void report(String label, int iterations, java.util.function.ToIntFunction<String> search) {
+		// warm-up
+		for (int i = 0; i < Math.min(iterations, 20); i++)
+			search.applyAsInt(QUERIES[i % QUERIES.length]);
+
+		long[] nanos = new long[iterations];
+		for (int i = 0; i < iterations; i++) {
+			long t = System.nanoTime();
+			search.applyAsInt(QUERIES[i % QUERIES.length]);
+			nanos[i] = System.nanoTime() - t;
+		}
+		Arrays.sort(nanos);
+		System.out.printf("%-10s p50=%.2f ms  p99=%.2f ms  (%d queries)%n", label, nanos[iterations / 2] / 1e6,
+				nanos[(int) (iterations * 0.99)] / 1e6, iterations);
+	}
+
+	private static List<Product> syntheticCatalog(int n) {
+		Random rnd = new Random(42);
+		List<Product> list = new ArrayList<>(n);
+		LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+		for (int i = n; i >= 1; i--) {
+			Product p = new Product();
+			p.setId((long) i);
+			p.setShopId(1L + rnd.nextInt(500));
+			p.setCategoryId(1L + rnd.nextInt(40));
+			p.setSku(String.format("SKU%08d", i));
+			p.setName(words(rnd, 4));
+			p.setShortDescription(words(rnd, 8));
+			p.setDescription(words(rnd, 40));
+			p.setSellingPrice(99.0 + rnd.nextInt(5000));
+			p.setIsActive(true);
+			p.setCreatedAt(base.plusMinutes(i));
+			list.add(p);
+		}
+		return list;
+	}
+
+	private static String words(Random rnd, int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++)
+			sb.append(WORDS[rnd.nextInt(WORDS.length)]).append(' ');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,197 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+	@Mock
+	private ProductRepository productRepository;
+
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setup() {
+		// findAllActive returns newest first
+		when(productRepository.findAllActive()).thenReturn(List.of(
+				product(3L, 3L, "Men Blue Jeans", "JEANS001", 3),
+				product(2L, 2L, "Women Red T-Shirt", "TSHIRT002", 2),
+				product(1L, 2L, "Women Yellow T-Shirt", "TSHIRT001", 1)));
+
+		index = new ProductSearchIndex(productRepository);
+		index.rebuild();
+	}
+
+	@Test
+	void search_matchesAllTokensByPrefix_newestFirst() {
+
+		List<Product> hits = index.search("women shi", null, 20, 0);
+
+		assertEquals(List.of(2L, 1L), hits.stream().map(Product::getId).toList());
+	}
+
+	@Test
+	void search_ranksByRelevanceBeforeRecency() {
+
+		// product 1 is the oldest but the only yellow one
+		assertEquals(1L, index.search("yellow tshirt", null, 20, 0).get(0).getId());
+	}
+
+	@Test
+	void search_toleratesTypos() {
+
+		assertEquals(List.of(2L, 1L), ids(index.search("tshrit", null, 20, 0)));
+		assertEquals(List.of(3L), ids(index.search("jaens", null, 20, 0)));
+	}
+
+	@Test
+	void search_filtersByCategoryAndPages() {
+
+		assertEquals(List.of(1L), ids(index.search(null, 2L, 1, 1)));
+		assertEquals(List.of(3L), ids(index.search("jeans", 3L, 20, 0)));
+		assertTrue(index.search("jeans", 2L, 20, 0).isEmpty());
+	}
+
+	@Test
+	void search_withCategoryScopeMatchesWholeSubtree() {
+
+		ProductQuery subtree = new ProductQuery(null, 1L, true, null, null, null)
+				.withCategoryScope(new long[] { 1L, 2L, 3L });
+		assertEquals(List.of(3L, 2L, 1L), ids(index.search(subtree, 20, 0, null)));
+
+		ProductQuery women = new ProductQuery("shirt", 1L, true, null, null, null)
+				.withCategoryScope(new long[] { 2L });
+		assertEquals(List.of(2L, 1L), ids(index.search(women, 20, 0, null)));
+
+		// without a scope the category is matched exactly
+		assertTrue(index.search(ProductQuery.of(null, 1L), 20, 0, null).isEmpty());
+	}
+
+	@Test
+	void searchAfter_walksAllPagesWithoutRepeats() {
+
+		SearchPage first = index.searchAfter(null, null, null, 2);
+		assertEquals(List.of(3L, 2L), ids(first.products()));
+		assertNotNull(first.next());
+
+		SearchCursor cursor = SearchCursor.decode(first.next().encode());
+		SearchPage second = index.searchAfter(null, null, cursor, 2);
+		assertEquals(List.of(1L), ids(second.products()));
+		assertNull(second.next());
+
+		SearchPage ranked = index.searchAfter("yellow shirt", null, null, 1);
+		assertEquals(List.of(1L), ids(ranked.products()));
+		assertNull(ranked.next());
+	}
+
+	@Test
+	void search_countsFacetsOverAllMatchesNotJustThePage() {
+
+		FacetCounts facets = new FacetCounts();
+		assertEquals(1, index.search(ProductQuery.of("shirt", null), 1, 0, facets).size());
+
+		assertEquals(2, facets.getTotal());
+		assertEquals(Map.of(2L, 2), facets.categoryCounts());
+		assertEquals(Map.of(1L, 2), facets.shopCounts());
+		assertArrayEquals(new int[] { 2, 0, 0, 0, 0 }, facets.priceBandCounts());
+	}
+
+	@Test
+	void search_filtersAndSortsByPrice() {
+
+		index.upsert(priced(product(1L, 2L, "Women Yellow T-Shirt", "TSHIRT001", 1), 299.0));
+		index.upsert(priced(product(3L, 3L, "Men Blue Jeans", "JEANS001", 3), 1499.0));
+
+		ProductQuery cheapFirst = new ProductQuery(null, null, false, null, null, ProductSort.PRICE_ASC);
+		assertEquals(List.of(1L, 2L, 3L), ids(index.search(cheapFirst, 20, 0, null)));
+
+		ProductQuery range = new ProductQuery("shirt", null, false, 300.0, 2000.0, ProductSort.PRICE_DESC);
+		assertEquals(List.of(2L), ids(index.search(range, 20, 0, null)));
+
+		// a price change moves the product
+		index.upsert(priced(product(1L, 2L, "Women Yellow T-Shirt", "TSHIRT001", 1), 1999.0));
+		ProductQuery dearFirst = new ProductQuery(null, null, false, null, null, ProductSort.PRICE_DESC);
+		assertEquals(List.of(1L, 3L, 2L), ids(index.search(dearFirst, 20, 0, null)));
+	}
+
+	@Test
+	void searchAfter_keepsPriceOrderAcrossPages() {
+
+		index.upsert(priced(product(1L, 2L, "Women Yellow T-Shirt", "TSHIRT001", 1), 299.0));
+		ProductQuery query = new ProductQuery(null, null, false, null, null, ProductSort.PRICE_ASC);
+
+		SearchPage first = index.searchAfter(query, null, 2, null);
+		assertEquals(List.of(1L, 3L), ids(first.products()));
+
+		// 2 and 3 share a price, the newer one came first
+		SearchCursor cursor = SearchCursor.decode(first.next().encode());
+		SearchPage second = index.searchAfter(ProductQuery.of(null, null), cursor, 2, null);
+		assertEquals(List.of(2L), ids(second.products()));
+		assertNull(second.next());
+	}
+
+	@Test
+	void upsertAndRemove_keepIndexCurrent() {
+
+		Product renamed = product(1L, 2L, "Women Green Kurta", "KURTA001", 1);
+		index.upsert(renamed);
+
+		assertTrue(index.search("yellow", null, 20, 0).isEmpty());
+		assertEquals(List.of(1L), ids(index.search("kurta", null, 20, 0)));
+
+		index.remove(1L);
+
+		assertTrue(index.search("kurta", null, 20, 0).isEmpty());
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void upsert_withoutCreatedAt_sortsAsNewAndLeavesTheProductAlone() {
+
+		Product fresh = product(4L, 2L, "Women Pink T-Shirt", "TSHIRT004", 1);
+		fresh.setCreatedAt(null);
+		index.upsert(fresh);
+
+		assertNull(fresh.getCreatedAt());
+		assertEquals(List.of(4L, 2L, 1L), ids(index.search("women shi", null, 20, 0)));
+	}
+
+	private static List<Long> ids(List<Product> products) {
+		return products.stream().map(Product::getId).toList();
+	}
+
+	private static Product priced(Product p, double price) {
+		p.setSellingPrice(price);
+		return p;
+	}
+
+	private static Product product(Long id, Long categoryId, String name, String sku, int day) {
+		Product p = new Product();
+		p.setId(id);
+		p.setShopId(1L);
+		p.setCategoryId(categoryId);
+		p.setName(name);
+		p.setSku(sku);
+		p.setShortDescription("Comfort fit");
+		p.setDescription("High-quality cotton");
+		p.setSellingPrice(499.0);
+		p.setIsActive(true);
+		p.setCreatedAt(LocalDateTime.of(2025, 1, day, 10, 0));
+		return p;
+	}
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.SearchSuggestionResponse;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest {
+
+	private final SuggestionTrie trie = SuggestionTrie.build(List.of(
+			new SuggestionTrie.Entry(1L, "Women Yellow T-Shirt", 1f),
+			new SuggestionTrie.Entry(2L, "Women Red T-Shirt", 5f),
+			new SuggestionTrie.Entry(3L, "women red t-shirt", 2f),
+			new SuggestionTrie.Entry(4L, "Men Blue Jeans", 1f)));
+
+	@Test
+	void lookup_ordersByPopularityAndGroupsProductIds() {
+
+		List<SearchSuggestionResponse> result = trie.lookup("wo", 10);
+
+		assertEquals(2, result.size());
+		assertEquals("Women Red T-Shirt", result.get(0).getText());
+		assertEquals(List.of(2L, 3L), result.get(0).getProductIds());
+		assertEquals(List.of(1L), result.get(1).getProductIds());
+	}
+
+	@Test
+	void lookup_matchesPastTheSharedPrefix() {
+
+		assertEquals(List.of(1L), trie.lookup("WOMEN YELLOW T-", 10).get(0).getProductIds());
+		assertEquals(List.of(4L), trie.lookup("men blue jeans", 10).get(0).getProductIds());
+		assertTrue(trie.lookup("women yellow x", 10).isEmpty());
+		assertTrue(trie.lookup("kids", 10).isEmpty());
+	}
+
+	@Test
+	void lookup_usesPrecomputedTopListOnLargeNodes() {
+
+		List<SuggestionTrie.Entry> entries = new ArrayList<>();
+		for (int i = 0; i < 50; i++)
+			entries.add(new SuggestionTrie.Entry(i, "shirt " + i, i));
+		SuggestionTrie big = SuggestionTrie.build(entries);
+
+		List<SearchSuggestionResponse> result = big.lookup("shirt", 3);
+
+		assertEquals(List.of("shirt 49", "shirt 48", "shirt 47"),
+				result.stream().map(SearchSuggestionResponse::getText).toList());
+	}
+}
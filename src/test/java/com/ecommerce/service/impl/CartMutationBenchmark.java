@@ -0,0 +1,188 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.cache.CartCache;
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.Shop;
+import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.ShopRepository;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.trending.TrendingProducts;
+
+import ch.qos.logback.classic.Level;
+
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Not a unit test (surefire skips it). Run with:
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ecommerce.service.impl.CartMutationBenchmark
+// Times cart mutations when every database statement costs one round trip
+// (-Dbench.rttMicros, default 300, spent spinning so the figure is exact).
+// "write-through" replays the statements the service used to run per call:
+// add = price lookup, cart lookup, line lookup, insert or update, line
+// re-read, cart timestamp; update and remove = line lookup, cart lookup,
+// write, line re-read, cart timestamp; read = cart lookup and the joined
+// item query. "in-memory" runs CartServiceImpl against a repository with the
+// same cost per call and products served from the detail cache; its
+// flushes are timed separately because no request waits for them.
+public class CartMutationBenchmark {
+
+	private static long rttNanos;
+	private static final AtomicLong roundTrips = new AtomicLong();
+
+	public static void main(String[] args) {
+		rttNanos = Long.getLong("bench.rttMicros", 300) * 1000;
+		// the service logs every call at INFO; writing that to the console
+		// would be most of what is measured
+		((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.ERROR);
+		int users = Integer.getInteger("bench.users", 1_000);
+		int ops = Integer.getInteger("bench.ops", 10_000);
+
+		CartServiceImpl service = service();
+		int runs = Integer.getInteger("bench.runs", 6);
+		for (int run = 0; run < runs; run++) {
+			// the first runs warm up and load every cart
+			long[][] writeThrough = run(new SplittableRandom(7), users, ops, null);
+			long[][] inMemory = run(new SplittableRandom(7), users, ops, service);
+			if (run == runs - 1) {
+				report("write-through", writeThrough);
+				report("in-memory", inMemory);
+			}
+			roundTrips.set(0);
+			long start = System.nanoTime();
+			int carts = service.flush();
+			if (run == runs - 1)
+				System.out.printf("flush          %,d carts in %,d ms, %,d round trips%n", carts,
+						(System.nanoTime() - start) / 1_000_000, roundTrips.get());
+		}
+	}
+
+	// latencies in nanos per kind: add, update, remove, read
+	private static long[][] run(SplittableRandom rnd, int users, int ops, CartServiceImpl service) {
+		long[][] nanos = new long[4][ops];
+		int[] counts = new int[4];
+		for (int i = 0; i < ops; i++) {
+			long userId = 1 + rnd.nextInt(users);
+			int kind = pick(rnd.nextInt(10));
+			long start = System.nanoTime();
+			if (service == null) {
+				roundTrip(kind == 3 ? 2 : kind == 0 ? 6 : 5);
+			} else {
+				try {
+					mutate(service, rnd, userId, kind);
+				} catch (RuntimeException e) {
+					// a full line or nothing to change: still a request
+				}
+			}
+			nanos[kind][counts[kind]++] = System.nanoTime() - start;
+		}
+		for (int k = 0; k < 4; k++)
+			nanos[k] = Arrays.copyOf(nanos[k], counts[k]);
+		return nanos;
+	}
+
+	// half adds, then updates, removes and reads
+	private static int pick(int r) {
+		return r < 5 ? 0 : r < 7 ? 1 : r < 8 ? 2 : 3;
+	}
+
+	private static void mutate(CartServiceImpl service, SplittableRandom rnd, long userId, int kind) {
+		if (kind == 0) {
+			service.addToCart(userId, 1 + (long) rnd.nextInt(200), 1);
+			return;
+		}
+		if (kind == 3) {
+			service.getUserCart(userId);
+			return;
+		}
+		List<CartItem> items = service.getOrCreateCart(userId).getItems();
+		if (items.isEmpty())
+			return;
+		CartItem item = items.get(rnd.nextInt(items.size()));
+		if (kind == 1)
+			service.updateCartItemQuantity(userId, item.getId(), 1 + rnd.nextInt(10));
+		else
+			service.removeFromCart(userId, item.getId());
+	}
+
+	private static void report(String label, long[][] nanos) {
+		String[] kinds = { "add", "update", "remove", "read" };
+		for (int k = 0; k < 4; k++) {
+			long[] n = nanos[k];
+			Arrays.sort(n);
+			System.out.printf("%-14s %-6s %,6d ops  p50 %,8.1f us  p99 %,8.1f us%n", label, kinds[k], n.length,
+					n[n.length / 2] / 1e3, n[(int) (n.length * 0.99)] / 1e3);
+		}
+	}
+
+	private static CartServiceImpl service() {
+		// stub-only mocks: recording millions of invocations would time the GC
+		Answer<Object> slow = inv -> {
+			roundTrip(1);
+			return RETURNS_DEFAULTS.answer(inv);
+		};
+		CartRepository repo = mock(CartRepository.class, withSettings().stubOnly().defaultAnswer(slow));
+		doAnswer(inv -> {
+			roundTrip(1);
+			long userId = inv.getArgument(0);
+			return Optional.of(new Cart(userId, userId, LocalDateTime.now()));
+		}).when(repo).findByUserId(anyLong());
+		doAnswer(inv -> {
+			roundTrip(1);
+			return new ArrayList<CartItem>();
+		}).when(repo).findItemsByCartId(anyLong());
+		AtomicLong ids = new AtomicLong(1);
+		doAnswer(inv -> {
+			roundTrip(3);
+			return ids.getAndAdd(inv.<Integer>getArgument(0));
+		}).when(repo).reserveItemIds(anyInt());
+		// deletes, upsert and the timestamp batch
+		doAnswer(inv -> {
+			roundTrip(4);
+			return null;
+		}).when(repo).writeBack(any(), any(), any(), any());
+
+		ShopRepository shops = mock(ShopRepository.class, withSettings().stubOnly());
+		doAnswer(inv -> {
+			roundTrip(1);
+			Shop s = new Shop();
+			s.setId(inv.getArgument(0));
+			s.setName("Shop " + s.getId());
+			return Optional.of(s);
+		}).when(shops).getShopById(anyLong());
+
+		ProductService products = mock(ProductService.class, withSettings().stubOnly());
+		when(products.getProductById(anyLong())).thenAnswer(inv -> {
+			long id = inv.getArgument(0);
+			ProductResponse p = new ProductResponse();
+			p.setId(id);
+			p.setShopId(1 + id % 20);
+			p.setName("Product " + id);
+			p.setSellingPrice(99.0 + id);
+			p.setIsActive(true);
+			return Optional.of(p);
+		});
+
+		return new CartServiceImpl(repo, shops, products, new CartCache(100_000, 30), mock(TrendingProducts.class, withSettings().stubOnly()));
+	}
+
+	private static void roundTrip(int statements) {
+		roundTrips.addAndGet(statements);
+		long end = System.nanoTime() + statements * rttNanos;
+		while (System.nanoTime() < end)
+			Thread.onSpinWait();
+	}
+}
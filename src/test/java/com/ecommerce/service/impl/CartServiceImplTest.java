@@ -0,0 +1,254 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.cache.CartCache;
+import com.ecommerce.dto.CartItemIssue;
+import com.ecommerce.dto.CartRequest;
+import com.ecommerce.dto.CartResponse;
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.enums.CartIssueType;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.exception.UnauthorizedException;
+import com.ecommerce.model.Cart;
+import com.ecommerce.model.CartItem;
+import com.ecommerce.model.ProductAvailability;
+import com.ecommerce.model.Shop;
+import com.ecommerce.repository.CartRepository;
+import com.ecommerce.repository.ShopRepository;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.trending.TrendingProducts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceImplTest {
+
+	@Mock
+	private CartRepository cartRepository;
+
+	@Mock
+	private ShopRepository shopRepository;
+
+	@Mock
+	private ProductService productService;
+
+	@Mock
+	private TrendingProducts trending;
+
+	private CartServiceImpl cartService;
+
+	@BeforeEach
+	void setup() {
+		cartService = new CartServiceImpl(cartRepository, shopRepository, productService, new CartCache(1000, 30),
+				trending);
+		when(cartRepository.findByUserId(5L)).thenReturn(Optional.of(new Cart(50L, 5L, LocalDateTime.now())));
+	}
+
+	@Test
+	void mutations_runInMemoryAndAreWrittenAsOneChangeSet() {
+
+		when(cartRepository.findItemsByCartId(50L)).thenReturn(List.of(line(7L, 1L, 2)));
+		when(cartRepository.reserveItemIds(anyInt())).thenReturn(1000L);
+		when(productService.getProductById(anyLong())).thenAnswer(inv -> Optional.of(product(inv.getArgument(0))));
+		when(shopRepository.getShopById(4L)).thenReturn(Optional.of(shop(4L, "Lamp Store")));
+
+		cartService.addToCart(5L, 1L, 1);
+		CartItem added = cartService.addToCart(5L, 2L, 1);
+		cartService.updateCartItemQuantity(5L, added.getId(), 4);
+		cartService.addToCart(5L, 4L, 1);
+		cartService.removeFromCart(5L, 1001L);
+
+		CartResponse cart = cartService.getUserCart(5L);
+		assertEquals(List.of(1L, 2L), cart.getItems().stream().map(CartItem::getProductId).toList());
+		assertEquals(7, cart.getTotalItems());
+		assertEquals(new BigDecimal("70.00"), cart.getSubtotal());
+		// the shop name comes from another line of the shop when there is one
+		assertEquals("Corner Shop", cart.getItems().get(1).getShopName());
+		verify(shopRepository, times(1)).getShopById(4L);
+		verify(cartRepository, never()).writeBack(any(), any(), any(), any());
+
+		assertEquals(1, cartService.flush());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<CartItem>> upserts = ArgumentCaptor.forClass(List.class);
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Collection<Long>> removed = ArgumentCaptor.forClass(Collection.class);
+		verify(cartRepository).writeBack(eq(List.of()), removed.capture(), upserts.capture(), anyMap());
+		// the line added and removed again is only deleted
+		assertEquals(List.of(1001L), List.copyOf(removed.getValue()));
+		assertEquals(List.of(3, 4), upserts.getValue().stream().map(CartItem::getQuantity).toList());
+		assertEquals(List.of(7L, 1000L), upserts.getValue().stream().map(CartItem::getId).toList());
+
+		assertEquals(0, cartService.flush());
+		verify(cartRepository, times(1)).reserveItemIds(anyInt());
+		verify(cartRepository, times(1)).findItemsByCartId(50L);
+	}
+
+	@Test
+	void flush_keepsChangesWhenTheWriteFails() {
+
+		when(cartRepository.findItemsByCartId(50L)).thenReturn(List.of(line(7L, 1L, 2)));
+		when(productService.getProductById(1L)).thenReturn(Optional.of(product(1L)));
+		doThrow(new IllegalStateException("db down")).doNothing().when(cartRepository).writeBack(any(), any(),
+				any(), any());
+
+		cartService.addToCart(5L, 1L, 1);
+		assertEquals(0, cartService.flush());
+		cartService.clearCart(5L);
+		assertEquals(1, cartService.flush());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<CartItem>> upserts = ArgumentCaptor.forClass(List.class);
+		verify(cartRepository, times(2)).writeBack(any(), any(), upserts.capture(), anyMap());
+		assertEquals(1, upserts.getAllValues().get(0).size());
+		// the retry clears the cart; the failed quantity change is gone with it
+		verify(cartRepository).writeBack(eq(List.of(50L)), eq(List.of()), eq(List.of()), anyMap());
+	}
+
+	@Test
+	void addToCart_batchLooksUpAllPricesAtOnceAndAddsAllOrNothing() {
+
+		when(cartRepository.findItemsByCartId(50L)).thenReturn(List.of(line(7L, 1L, 8)));
+		when(cartRepository.reserveItemIds(anyInt())).thenReturn(1000L);
+		when(productService.getProductsByIds(any())).thenAnswer(inv -> {
+			Map<Long, ProductResponse> found = new HashMap<>();
+			for (Long id : inv.<Collection<Long>>getArgument(0))
+				found.put(id, product(id));
+			return found;
+		});
+		when(productService.getProductById(anyLong())).thenAnswer(inv -> Optional.of(product(inv.getArgument(0))));
+
+		// 8 + 3 of product 1 is over the limit: nothing is added
+		assertThrows(BadRequestException.class, () -> cartService.addToCart(5L,
+				List.of(new CartRequest(2L, 1), new CartRequest(1L, 2), new CartRequest(1L, 1))));
+		assertEquals(1, cartService.getUserCart(5L).getItems().size());
+
+		CartResponse cart = cartService.addToCart(5L,
+				List.of(new CartRequest(2L, 1), new CartRequest(1L, 2), new CartRequest(2L, 2)));
+
+		assertEquals(List.of(10, 3), cart.getItems().stream().map(CartItem::getQuantity).toList());
+		verify(productService, times(2)).getProductsByIds(any());
+		verifyNoInteractions(shopRepository);
+	}
+
+	@Test
+	void flush_runsWhileAnAddIsReservingItemIds() throws Exception {
+
+		when(cartRepository.findItemsByCartId(50L)).thenReturn(List.of(line(7L, 1L, 2)));
+		when(productService.getProductById(anyLong())).thenAnswer(inv -> Optional.of(product(inv.getArgument(0))));
+		when(productService.getProductsByIds(any())).thenAnswer(inv -> {
+			Map<Long, ProductResponse> found = new HashMap<>();
+			for (Long id : inv.<Collection<Long>>getArgument(0))
+				found.put(id, product(id));
+			return found;
+		});
+		cartService.addToCart(5L, 1L, 1);
+
+		// the flush of the cart runs on another thread while the add is in the
+		// middle of its id reservation; it must not wait for the add
+		ExecutorService flusher = Executors.newSingleThreadExecutor();
+		try {
+			when(cartRepository.reserveItemIds(anyInt())).thenAnswer(inv -> {
+				assertEquals(1, flusher.submit(cartService::flush).get(5, TimeUnit.SECONDS));
+				return 1000L;
+			});
+
+			CartResponse cart = cartService.addToCart(5L, List.of(new CartRequest(2L, 1)));
+
+			assertEquals(List.of(1L, 2L), cart.getItems().stream().map(CartItem::getProductId).toList());
+			verify(cartRepository).writeBack(any(), any(), any(), anyMap());
+			assertEquals(1, flusher.submit(cartService::flush).get(5, TimeUnit.SECONDS));
+		} finally {
+			flusher.shutdownNow();
+		}
+	}
+
+	@Test
+	void validateCart_checksAllLinesInOneQueryAndReportsEveryIssue() {
+
+		when(cartRepository.findItemsByCartId(50L))
+				.thenReturn(List.of(line(7L, 1L, 2), line(8L, 2L, 5), line(9L, 3L, 1), line(10L, 4L, 1)));
+		when(cartRepository.findAvailability(any())).thenReturn(Map.of(
+				1L, new ProductAvailability(1L, new BigDecimal("10.00"), true, 9),
+				2L, new ProductAvailability(2L, new BigDecimal("10.00"), true, 3),
+				3L, new ProductAvailability(3L, new BigDecimal("12.50"), true, 9),
+				4L, new ProductAvailability(4L, new BigDecimal("10.00"), false, 9)));
+
+		CartResponse cart = cartService.validateCart(5L);
+
+		verify(cartRepository, times(1)).findAvailability(any());
+		verifyNoInteractions(productService);
+		assertEquals(List.of(CartIssueType.OUT_OF_STOCK, CartIssueType.PRICE_CHANGED, CartIssueType.INACTIVE),
+				cart.getIssues().stream().map(CartItemIssue::getType).toList());
+		assertEquals(3, cart.getIssues().get(0).getAvailable());
+		// the inactive line is left out, the others keep the price they were added at
+		assertEquals(List.of(1L, 2L, 3L), cart.getItems().stream().map(CartItem::getProductId).toList());
+		assertEquals(new BigDecimal("12.50"), cart.getItems().get(2).getCurrentPrice());
+		assertEquals(new BigDecimal("80.00"), cart.getSubtotal());
+		assertTrue(cart.isHasInvalidItems());
+		assertTrue(cart.isHasPriceChanges());
+		assertEquals(3, cart.getWarnings().size());
+	}
+
+	@Test
+	void updateCartItemQuantity_refusesLinesOfAnotherCart() {
+
+		when(cartRepository.findItemsByCartId(50L)).thenReturn(List.of());
+		CartItem foreign = line(8L, 1L, 1);
+		foreign.setCartId(60L);
+		when(cartRepository.findItemById(8L)).thenReturn(Optional.of(foreign));
+
+		assertThrows(UnauthorizedException.class, () -> cartService.updateCartItemQuantity(5L, 8L, 2));
+		assertThrows(ResourceNotFoundException.class, () -> cartService.removeFromCart(5L, 9L));
+	}
+
+	private static CartItem line(Long id, Long productId, int quantity) {
+		CartItem item = new CartItem();
+		item.setId(id);
+		item.setCartId(50L);
+		item.setProductId(productId);
+		item.setQuantity(quantity);
+		item.setPriceAtAdd(new BigDecimal("10.00"));
+		item.setShopId(3L);
+		item.setShopName("Corner Shop");
+		return item;
+	}
+
+	private static ProductResponse product(Long id) {
+		ProductResponse p = new ProductResponse();
+		p.setId(id);
+		p.setShopId(id == 4L ? 4L : 3L);
+		p.setName("Product " + id);
+		p.setSellingPrice(10.0);
+		p.setIsActive(true);
+		return p;
+	}
+
+	private static Shop shop(Long id, String name) {
+		Shop s = new Shop();
+		s.setId(id);
+		s.setName(name);
+		return s;
+	}
+}
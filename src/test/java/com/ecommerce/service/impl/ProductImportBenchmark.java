@@ -0,0 +1,86 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.ProductImportResponse;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.impl.CategoryRepositoryImpl;
+import com.ecommerce.repository.impl.InventoryRepositoryImpl;
+import com.ecommerce.repository.impl.ProductRepositoryImpl;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.service.ProductImportService.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+// Not a unit test (surefire skips it), and it writes to the database it is
+// pointed at, so use a scratch schema. Run with:
+//   mvn test-compile exec:java -Dexec.classpathScope=test \
+//     -Dexec.mainClass=com.ecommerce.service.impl.ProductImportBenchmark \
+//     -Dbench.jdbcUrl=jdbc:mysql://.../scratch -Dbench.user=... -Dbench.password=... -Dbench.shopId=1
+// Times the per-product path (existsBySku + insert + inventory row, as POST
+// /manage does) against the bulk import for -Dbench.rows products each.
+public class ProductImportBenchmark {
+
+	public static void main(String[] args) {
+		String url = System.getProperty("bench.jdbcUrl");
+		if (url == null) {
+			System.out.println("Set -Dbench.jdbcUrl, -Dbench.user and -Dbench.password to a scratch MySQL schema");
+			return;
+		}
+		int rows = Integer.getInteger("bench.rows", 10_000);
+		long shopId = Long.getLong("bench.shopId", 1L);
+		String run = Long.toString(System.currentTimeMillis(), 36);
+
+		DriverManagerDataSource ds = new DriverManagerDataSource(url, System.getProperty("bench.user"),
+				System.getProperty("bench.password"));
+		JdbcTemplate jdbc = new JdbcTemplate(ds);
+		ProductRepositoryImpl products = new ProductRepositoryImpl(jdbc);
+		InventoryRepositoryImpl inventory = new InventoryRepositoryImpl(jdbc);
+
+		// the per-request path is slow, a tenth of the rows is enough to get its rate
+		int singleRows = Math.max(1, rows / 10);
+		long start = System.nanoTime();
+		for (int i = 0; i < singleRows; i++) {
+			String sku = "BENCH-" + run + "-S" + i;
+			if (products.existsBySku(sku))
+				continue;
+			Long id = products.save(product(shopId, sku, i));
+			inventory.createInventory(id, 5);
+		}
+		double singleRate = singleRows / ((System.nanoTime() - start) / 1e9);
+
+		StringBuilder csv = new StringBuilder("sku,name,selling_price,quantity\n");
+		for (int i = 0; i < rows; i++)
+			csv.append("BENCH-").append(run).append("-B").append(i).append(",Bench product ").append(i).append(',')
+					.append(100 + i % 900).append(",5\n");
+
+		ProductImportServiceImpl importer = new ProductImportServiceImpl(products, inventory,
+				new CategoryRepositoryImpl(new NamedParameterJdbcTemplate(jdbc)), new ProductSearchIndex(products),
+				new ObjectMapper(), new TransactionTemplate(new DataSourceTransactionManager(ds)));
+		start = System.nanoTime();
+		ProductImportResponse resp = importer.importProducts(shopId,
+				new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), Format.CSV);
+		double bulkRate = resp.getImported() / ((System.nanoTime() - start) / 1e9);
+
+		System.out.printf("per product: %,.0f products/s (%d rows)%n", singleRate, singleRows);
+		System.out.printf("bulk import: %,.0f products/s (%d imported, %d failed)%n", bulkRate, resp.getImported(),
+				resp.getFailed());
+		System.out.printf("speed-up:    %.1fx%n", bulkRate / singleRate);
+	}
+
+	private static Product product(long shopId, String sku, int i) {
+		Product p = new Product();
+		p.setShopId(shopId);
+		p.setSku(sku);
+		p.setName("Bench product " + i);
+		p.setSellingPrice(100.0 + i % 900);
+		p.setIsActive(true);
+		return p;
+	}
+}
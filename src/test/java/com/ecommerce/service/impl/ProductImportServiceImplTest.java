@@ -0,0 +1,230 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.ImportRowError;
+import com.ecommerce.dto.ProductImportResponse;
+import com.ecommerce.model.Category;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.InventoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.service.ProductImportService.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceImplTest {
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private InventoryRepository inventoryRepository;
+
+	@Mock
+	private CategoryRepository categoryRepository;
+
+	@Mock
+	private ProductSearchIndex searchIndex;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private ProductImportServiceImpl importService;
+
+	@BeforeEach
+	void setup() {
+		importService = new ProductImportServiceImpl(productRepository, inventoryRepository, categoryRepository,
+				searchIndex, new ObjectMapper(), new TransactionTemplate(transactionManager));
+
+		Category clothing = new Category();
+		clothing.setId(2L);
+		when(categoryRepository.findAllActive()).thenReturn(List.of(clothing));
+	}
+
+	@Test
+	void importCsv_insertsValidRowsInOneBatchAndReportsTheRest() {
+
+		String csv = """
+				sku,name,selling_price,category_id,quantity,description
+				TS-1,"Red T-Shirt, slim",499,2,10,"Soft ""combed"" cotton"
+				TS-2,Blue T-Shirt,abc,2,5,
+				TS-1,Duplicate,299,2,1,
+				TS-3,Old SKU,399,2,1,
+				TS-4,Green T-Shirt,599,,,
+				TS-5,Lost Category,599,99,1,
+				""";
+		when(productRepository.findExistingSkus(anyCollection())).thenReturn(Set.of("TS-3"));
+		when(productRepository.saveAll(anyList())).thenAnswer(inv -> ids(inv.<List<?>>getArgument(0).size()));
+
+		ProductImportResponse resp = importService.importProducts(7L, stream(csv), Format.CSV);
+
+		assertEquals(6, resp.getReceived());
+		assertEquals(2, resp.getImported());
+		assertEquals(4, resp.getFailed());
+		assertEquals(List.of(2, 3, 4, 6), resp.getErrors().stream().map(ImportRowError::getRow).sorted().toList());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Product>> saved = ArgumentCaptor.forClass(List.class);
+		verify(productRepository, times(1)).saveAll(saved.capture());
+		Product first = saved.getValue().get(0);
+		assertEquals("Red T-Shirt, slim", first.getName());
+		assertEquals("Soft \"combed\" cotton", first.getDescription());
+		assertEquals(7L, first.getShopId());
+
+		verify(inventoryRepository, times(1)).createInventories(Map.of(1L, 10, 2L, 0));
+		verify(productRepository, never()).save(any());
+		verify(searchIndex, times(2)).upsert(any());
+	}
+
+	@Test
+	void importNdjson_splitsLargeFilesIntoChunks() {
+
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 1; i <= 1200; i++)
+			ndjson.append("{\"sku\":\"SKU-").append(i).append("\",\"name\":\"Product ").append(i)
+					.append("\",\"sellingPrice\":").append(100 + i).append(",\"quantity\":3}\n");
+		ndjson.append("{not json}\n");
+		when(productRepository.findExistingSkus(anyCollection())).thenReturn(Set.of());
+		when(productRepository.saveAll(anyList())).thenAnswer(inv -> ids(inv.<List<?>>getArgument(0).size()));
+
+		ProductImportResponse resp = importService.importProducts(7L, stream(ndjson.toString()), Format.NDJSON);
+
+		assertEquals(1200, resp.getImported());
+		assertEquals(1, resp.getFailed());
+		assertEquals(1201, resp.getErrors().get(0).getRow());
+		// 500 + 500 + 200
+		verify(productRepository, times(3)).findExistingSkus(anyCollection());
+		verify(productRepository, times(3)).saveAll(anyList());
+		verify(inventoryRepository, times(3)).createInventories(anyMap());
+	}
+
+	@Test
+	void importCsv_comparesSkusIgnoringCaseAndRetriesAFailedChunkRowByRow() {
+
+		String csv = """
+				sku,name,selling_price
+				ts-1,Red T-Shirt,499
+				TS-1,Same SKU,499
+				ts-3,Stored as TS-3,399
+				TS-4,Green T-Shirt,599
+				TS-5,Taken meanwhile,599
+				""";
+		when(productRepository.findExistingSkus(anyCollection())).thenReturn(Set.of("TS-3"));
+		when(productRepository.saveAll(anyList())).thenAnswer(inv -> {
+			List<Product> products = inv.getArgument(0);
+			if (products.stream().anyMatch(p -> p.getSku().equals("TS-5")))
+				throw new DuplicateKeyException("Duplicate entry 'TS-5' for key 'sku'");
+			return ids(products.size());
+		});
+
+		ProductImportResponse resp = importService.importProducts(7L, stream(csv), Format.CSV);
+
+		assertEquals(2, resp.getImported());
+		assertEquals(List.of(2, 3, 5), resp.getErrors().stream().map(ImportRowError::getRow).sorted().toList());
+		// the chunk, then ts-1, TS-4 and TS-5 on their own
+		verify(productRepository, times(4)).saveAll(anyList());
+		verify(searchIndex, times(2)).upsert(any());
+	}
+
+	@Test
+	void import_rejectsFractionalQuantitiesAndCategories() {
+
+		String csv = """
+				sku,name,selling_price,category_id,quantity
+				TS-1,Red T-Shirt,499,2,2.9
+				TS-2,Blue T-Shirt,499,2,1e3
+				TS-3,Green T-Shirt,499,2.0,1
+				TS-4,Black T-Shirt,499,2,3
+				""";
+		when(productRepository.findExistingSkus(anyCollection())).thenReturn(Set.of());
+		when(productRepository.saveAll(anyList())).thenAnswer(inv -> ids(inv.<List<?>>getArgument(0).size()));
+
+		ProductImportResponse resp = importService.importProducts(7L, stream(csv), Format.CSV);
+
+		assertEquals(1, resp.getImported());
+		assertEquals(List.of(1, 2, 3), resp.getErrors().stream().map(ImportRowError::getRow).toList());
+		assertTrue(resp.getErrors().get(0).getMessage().contains("quantity must be a whole number"));
+		verify(inventoryRepository).createInventories(Map.of(1L, 3));
+
+		String ndjson = """
+				{"sku":"NJ-1","name":"Mug","sellingPrice":199,"quantity":2.9}
+				""";
+		resp = importService.importProducts(7L, stream(ndjson), Format.NDJSON);
+
+		assertEquals(0, resp.getImported());
+		assertEquals(1, resp.getFailed());
+	}
+
+	@Test
+	void import_reportsAReadFailureAfterSavingTheRowsReadSoFar() {
+
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 1; i <= 600; i++)
+			ndjson.append("{\"sku\":\"SKU-").append(i).append("\",\"name\":\"Product ").append(i)
+					.append("\",\"sellingPrice\":100}\n");
+		byte[] bytes = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+		// the connection drops after the 600 rows
+		InputStream broken = new SequenceInputStream(new ByteArrayInputStream(bytes), new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("Connection reset");
+			}
+		});
+		when(productRepository.findExistingSkus(anyCollection())).thenReturn(Set.of());
+		when(productRepository.saveAll(anyList())).thenAnswer(inv -> ids(inv.<List<?>>getArgument(0).size()));
+
+		ProductImportResponse resp = importService.importProducts(7L, broken, Format.NDJSON);
+
+		assertEquals(600, resp.getImported());
+		assertEquals(1, resp.getErrors().size());
+		assertEquals(601, resp.getErrors().get(0).getRow());
+		assertTrue(resp.getErrors().get(0).getMessage().contains("Connection reset"));
+		verify(productRepository, times(2)).saveAll(anyList());
+	}
+
+	@Test
+	void importCsv_matchesTheHeaderOfAFileSavedWithAByteOrderMark() {
+
+		String csv = "\uFEFFsku,name,selling_price\nTS-1,Red T-Shirt,499\n";
+		when(productRepository.findExistingSkus(anyCollection())).thenReturn(Set.of());
+		when(productRepository.saveAll(anyList())).thenAnswer(inv -> ids(inv.<List<?>>getArgument(0).size()));
+
+		ProductImportResponse resp = importService.importProducts(7L, stream(csv), Format.CSV);
+
+		assertEquals(1, resp.getImported());
+		assertTrue(resp.getErrors().isEmpty());
+	}
+
+	private static List<Long> ids(int n) {
+		return LongStream.rangeClosed(1, n).boxed().toList();
+	}
+
+	private static ByteArrayInputStream stream(String s) {
+		return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,242 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.cache.CategoryTree;
+import com.ecommerce.cache.CategoryTreeCache;
+import com.ecommerce.cache.ProductDetailCache;
+import com.ecommerce.dto.ProductImageRequest;
+import com.ecommerce.dto.ProductRequest;
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.image.ImageDerivatives;
+import com.ecommerce.image.ImageStore;
+import com.ecommerce.model.Category;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductImage;
+import com.ecommerce.repository.ProductImageRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductFacets;
+import com.ecommerce.search.ProductQuery;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.search.ProductSuggester;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceImplTest {
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private ProductImageRepository productImageRepository;
+
+	@Mock
+	private ProductSearchIndex searchIndex;
+
+	@Mock
+	private ProductSuggester suggester;
+
+	@Mock
+	private ProductDetailCache detailCache;
+
+	@Mock
+	private ProductFacets facets;
+
+	@Mock
+	private CategoryTreeCache categoryTree;
+
+	@Mock
+	private ImageDerivatives derivatives;
+
+	@Mock
+	private ImageStore imageStore;
+
+	@InjectMocks
+	private ProductServiceImpl productService;
+
+	@Test
+	void searchProducts_loadsImagesForWholePageInOneQuery() {
+
+		List<Product> page = products(20);
+		when(searchIndex.isReady()).thenReturn(true);
+		ProductQuery query = ProductQuery.of(null, null);
+		when(searchIndex.search(query, 20, 0, null)).thenReturn(page);
+		when(productImageRepository.findPrimaryImagePaths(anyCollection()))
+				.thenReturn(Map.of(1L, "/product-images/1/a.png", 7L, "/product-images/7/b.png"));
+
+		List<ProductResponse> result = productService.searchProducts(query, 0, 20);
+
+		assertEquals(20, result.size());
+		assertEquals("/product-images/1/a.png", result.get(0).getImage());
+		assertEquals("/product-images/7/b.png", result.get(6).getImage());
+		assertNull(result.get(1).getImage());
+
+		// one image query for the page, never one per product
+		verify(productImageRepository, times(1)).findPrimaryImagePaths(anyCollection());
+		verify(productImageRepository, never()).findByProductId(any());
+	}
+
+	@Test
+	void searchProducts_includeSubcategoriesResolvesScopeFromTree() {
+
+		when(categoryTree.current()).thenReturn(CategoryTree.build(List.of(category(1L, null), category(2L, 1L))));
+		when(searchIndex.isReady()).thenReturn(true);
+		when(searchIndex.search(any(ProductQuery.class), eq(20), eq(0), isNull())).thenReturn(List.of());
+
+		productService.searchProducts(new ProductQuery(null, 1L, true, null, null, null), 0, 20);
+
+		ArgumentCaptor<ProductQuery> captor = ArgumentCaptor.forClass(ProductQuery.class);
+		verify(searchIndex).search(captor.capture(), eq(20), eq(0), isNull());
+		assertArrayEquals(new long[] { 1L, 2L }, captor.getValue().categoryScope());
+		verify(productRepository, never()).search(any(), anyInt(), anyInt());
+	}
+
+	@Test
+	void getAllProducts_loadsImagesInOneQuery() {
+
+		when(productRepository.findAll()).thenReturn(products(500));
+		when(productImageRepository.findPrimaryImagePaths(anyCollection())).thenReturn(Map.of());
+
+		assertEquals(500, productService.getAllProducts().size());
+
+		verify(productRepository, times(1)).findAll();
+		verify(productImageRepository, times(1)).findPrimaryImagePaths(anyCollection());
+		verifyNoMoreInteractions(productRepository, productImageRepository);
+	}
+
+	@Test
+	void exportProducts_streamsRowsAndLoadsImagesPerChunk() {
+
+		doAnswer(inv -> {
+			Consumer<Product> sink = inv.getArgument(0);
+			products(1200).forEach(sink);
+			return null;
+		}).when(productRepository).streamAll(any());
+		when(productImageRepository.findPrimaryImagePaths(anyCollection())).thenReturn(Map.of());
+
+		List<Long> exported = new ArrayList<>();
+		productService.exportProducts(r -> exported.add(r.getId()));
+
+		assertEquals(1200, exported.size());
+		assertEquals(1L, exported.get(0));
+		assertEquals(1200L, exported.get(1199));
+		// 500 + 500 + 200
+		verify(productImageRepository, times(3)).findPrimaryImagePaths(anyCollection());
+		verify(productRepository, never()).findAll();
+	}
+
+	@Test
+	void updateProduct_evictsTheCachedResponse() {
+
+		ProductDetailCache cache = new ProductDetailCache(1 << 20);
+		ProductServiceImpl service = withCache(cache);
+		Product stored = products(1).get(0);
+		when(productRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+		assertEquals(100.0, service.getProductById(1L).orElseThrow().getSellingPrice());
+
+		ProductRequest request = new ProductRequest();
+		request.setSellingPrice(80.0);
+		service.updateProduct(1L, request);
+
+		assertEquals(80.0, service.getProductById(1L).orElseThrow().getSellingPrice());
+		// the first read, the update and the read after it
+		verify(productRepository, times(3)).findById(1L);
+	}
+
+	@Test
+	void softDeleteProduct_evictsTheCachedResponse() {
+
+		ProductDetailCache cache = new ProductDetailCache(1 << 20);
+		ProductServiceImpl service = withCache(cache);
+		Product stored = products(1).get(0);
+		when(productRepository.findById(1L)).thenReturn(Optional.of(stored), Optional.of(stored), Optional.empty());
+		when(productRepository.softDelete(1L)).thenReturn(true);
+
+		assertTrue(service.getProductById(1L).isPresent());
+		assertTrue(service.softDeleteProduct(1L));
+
+		assertTrue(service.getProductById(1L).isEmpty());
+	}
+
+	@Test
+	void imageWrites_evictTheCachedResponse() {
+
+		ProductDetailCache cache = new ProductDetailCache(1 << 20);
+		ProductServiceImpl service = withCache(cache);
+		ProductImageServiceImpl images = new ProductImageServiceImpl(productImageRepository, cache, derivatives,
+				imageStore);
+		when(productRepository.findById(1L)).thenReturn(Optional.of(products(1).get(0)));
+		// the listing image as it is after each write
+		when(productImageRepository.findPrimaryImagePaths(anyCollection())).thenReturn(Map.of(),
+				Map.of(1L, "/product-images/1/a.png"), Map.of(1L, "/product-images/1/b.png"), Map.of());
+		when(productImageRepository.findMaxSortOrder(1L)).thenReturn(0);
+		when(productImageRepository.save(any())).thenReturn(11L);
+		when(productImageRepository.findById(12L)).thenReturn(Optional.of(image(12L, 1L)));
+
+		assertNull(service.getProductById(1L).orElseThrow().getImage());
+
+		ProductImageRequest add = new ProductImageRequest();
+		add.setImagePath("/product-images/1/a.png");
+		add.setPrimary(true);
+		images.addImageToProduct(1L, add);
+		assertEquals("/product-images/1/a.png", service.getProductById(1L).orElseThrow().getImage());
+
+		images.setPrimaryImage(1L, 12L);
+		assertEquals("/product-images/1/b.png", service.getProductById(1L).orElseThrow().getImage());
+
+		images.softDeleteImage(12L);
+		assertNull(service.getProductById(1L).orElseThrow().getImage());
+
+		verify(productRepository, times(4)).findById(1L);
+	}
+
+	private ProductServiceImpl withCache(ProductDetailCache cache) {
+		return new ProductServiceImpl(productRepository, productImageRepository, searchIndex, suggester, cache, facets,
+				categoryTree);
+	}
+
+	private static ProductImage image(Long id, Long productId) {
+		ProductImage img = new ProductImage();
+		img.setId(id);
+		img.setProductId(productId);
+		img.setImagePath("/product-images/" + productId + "/b.png");
+		return img;
+	}
+
+	private static Category category(Long id, Long parentId) {
+		Category c = new Category();
+		c.setId(id);
+		c.setParentCategoryId(parentId);
+		return c;
+	}
+
+	private static List<Product> products(int n) {
+		List<Product> list = new ArrayList<>();
+		for (long id = 1; id <= n; id++) {
+			Product p = new Product();
+			p.setId(id);
+			p.setShopId(1L);
+			p.setName("Product " + id);
+			p.setSellingPrice(100.0);
+			p.setIsActive(true);
+			list.add(p);
+		}
+		return list;
+	}
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.cache.VariantMatrixCache;
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.dto.ProductVariantStockRequest;
+import com.ecommerce.dto.VariantCombinationResponse;
+import com.ecommerce.dto.VariantMatrixResponse;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductVariantGroup;
+import com.ecommerce.model.ProductVariantStock;
+import com.ecommerce.model.ProductVariantValue;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductVariantGroupRepository;
+import com.ecommerce.repository.ProductVariantStockRepository;
+import com.ecommerce.repository.ProductVariantValueRepository;
+import com.ecommerce.service.ProductService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductVariantServiceImplTest {
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private ProductVariantGroupRepository groupRepository;
+
+	@Mock
+	private ProductVariantValueRepository valueRepository;
+
+	@Mock
+	private ProductVariantStockRepository stockRepository;
+
+	@Mock
+	private ProductService productService;
+
+	private ProductVariantServiceImpl variantService;
+
+	@BeforeEach
+	void setup() {
+		variantService = new ProductVariantServiceImpl(productRepository, groupRepository, valueRepository,
+				stockRepository, productService, new VariantMatrixCache(1 << 20));
+
+		ProductResponse product = new ProductResponse();
+		product.setId(1L);
+		product.setSellingPrice(499.0);
+		product.setIsActive(true);
+		when(productService.getProductById(1L)).thenReturn(Optional.of(product));
+
+		// Size: S, M (+50) x Colour: Red, Blue; Blue is sold out, S has no stock row
+		when(groupRepository.findByProductId(1L)).thenReturn(List.of(group(10L, "Size"), group(20L, "Colour")));
+		when(valueRepository.findByProductId(1L)).thenReturn(List.of(value(11L, 10L, "S"), value(12L, 10L, "M"),
+				value(21L, 20L, "Red"), value(22L, 20L, "Blue")));
+		when(stockRepository.findByProductId(1L)).thenReturn(List.of(stock(12L, 5, "50.00"), stock(21L, 3, "0"),
+				stock(22L, 0, "10.00")));
+	}
+
+	@Test
+	void getVariantMatrix_listsEveryCombinationWithStockAndPrice() {
+
+		VariantMatrixResponse m = variantService.getVariantMatrix(1L);
+
+		assertEquals(List.of("Size", "Colour"), m.getGroups());
+		List<VariantCombinationResponse> c = m.getCombinations();
+		assertEquals(4, c.size());
+
+		assertEquals(List.of("S", "Red"), c.get(0).getValues());
+		assertFalse(c.get(0).isInStock());
+
+		assertEquals(List.of(12L, 21L), c.get(2).getValueIds());
+		assertEquals(3, c.get(2).getAvailable());
+		assertEquals(0, new BigDecimal("549.00").compareTo(c.get(2).getPrice()));
+
+		assertEquals(List.of("M", "Blue"), c.get(3).getValues());
+		assertFalse(c.get(3).isInStock());
+		assertEquals(0, new BigDecimal("559.00").compareTo(c.get(3).getPrice()));
+	}
+
+	@Test
+	void getVariantMatrix_isCachedUntilAVariantWrite() {
+
+		variantService.getVariantMatrix(1L);
+		variantService.getVariantMatrix(1L);
+		verify(stockRepository, times(1)).findByProductId(1L);
+		verify(productRepository, never()).findById(any());
+
+		when(productRepository.findById(1L)).thenReturn(Optional.of(new Product()));
+		when(valueRepository.findById(22L)).thenReturn(Optional.of(value(22L, 20L, "Blue")));
+		ProductVariantStockRequest restock = new ProductVariantStockRequest();
+		restock.setQuantity(7);
+		variantService.upsertStock(1L, 22L, restock);
+
+		variantService.getVariantMatrix(1L);
+		verify(stockRepository, times(2)).findByProductId(1L);
+	}
+
+	private static ProductVariantGroup group(Long id, String name) {
+		ProductVariantGroup g = new ProductVariantGroup();
+		g.setId(id);
+		g.setProductId(1L);
+		g.setGroupName(name);
+		return g;
+	}
+
+	private static ProductVariantValue value(Long id, Long groupId, String name) {
+		ProductVariantValue v = new ProductVariantValue();
+		v.setId(id);
+		v.setGroupId(groupId);
+		v.setValueName(name);
+		return v;
+	}
+
+	private static ProductVariantStock stock(Long valueId, int quantity, String offset) {
+		ProductVariantStock s = new ProductVariantStock();
+		s.setProductId(1L);
+		s.setVariantValueId(valueId);
+		s.setQuantity(quantity);
+		s.setPriceOffset(new BigDecimal(offset));
+		return s;
+	}
+}
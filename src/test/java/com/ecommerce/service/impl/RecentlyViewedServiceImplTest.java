@@ -0,0 +1,202 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.cache.RecentlyViewedCache;
+import com.ecommerce.dto.RecentlyViewedResponse;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.RecentlyViewed;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.RecentlyViewedRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.trending.TrendingProducts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecentlyViewedServiceImplTest {
+
+	@Mock
+	private RecentlyViewedRepository repo;
+
+	@Mock
+	private TrendingProducts trending;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private ProductSearchIndex searchIndex;
+
+	@Mock
+	private ProductService productService;
+
+	private RecentlyViewedServiceImpl service;
+
+	@BeforeEach
+	void setup() {
+		service = service(new RecentlyViewedCache(1000, 60));
+		// every product is indexed and every user exists unless a test says otherwise
+		lenient().when(searchIndex.categoryOf(anyLong())).thenReturn(ProductSearchIndex.NO_CATEGORY);
+		lenient().when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+	}
+
+	@Test
+	void views_areServedFromMemoryAndWrittenInOneBatch() {
+
+		when(repo.findLastNByUser(anyLong(), eq(10))).thenReturn(List.of());
+
+		for (long p = 1; p <= 15; p++)
+			service.addViewedProduct(1L, p);
+		service.addViewedProduct(1L, 9L);
+		service.addViewedProduct(2L, 3L);
+
+		List<Long> recent = service.getRecentlyViewed(1L, 10).stream().map(RecentlyViewedResponse::getProductId)
+				.toList();
+		// newest first, capped at ten, a repeat moves to the front
+		assertEquals(List.of(9L, 15L, 14L, 13L, 12L, 11L, 10L, 8L, 7L, 6L), recent);
+		verify(repo, never()).replaceForUsers(any());
+
+		assertEquals(2, service.flush());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Map<Long, List<RecentlyViewed>>> written = ArgumentCaptor.forClass(Map.class);
+		verify(repo, times(1)).replaceForUsers(written.capture());
+		List<RecentlyViewed> rows = written.getValue().get(1L);
+		// stored oldest first
+		assertEquals(6L, rows.get(0).getProductId());
+		assertEquals(9L, rows.get(9).getProductId());
+		assertEquals(1, written.getValue().get(2L).size());
+
+		// nothing changed since, nothing to write
+		assertEquals(0, service.flush());
+		verify(repo, times(2)).findLastNByUser(anyLong(), eq(10));
+	}
+
+	@Test
+	void ring_evictedWhileItIsWritten_isNotReloadedFromOlderRows() {
+
+		// nothing stays cached: every read after the first misses
+		service = service(new RecentlyViewedCache(0, 60));
+		when(repo.findLastNByUser(1L, 10)).thenReturn(List.of());
+		doAnswer(inv -> {
+			// a read during the write gets the ring being written
+			assertEquals(List.of(5L), service.getRecentlyViewed(1L, 10).stream()
+					.map(RecentlyViewedResponse::getProductId).toList());
+			throw new IllegalStateException("db down");
+		}).doAnswer(inv -> {
+			// and so does one while it is retried on its own
+			assertEquals(List.of(5L), service.getRecentlyViewed(1L, 10).stream()
+					.map(RecentlyViewedResponse::getProductId).toList());
+			throw new IllegalStateException("db down");
+		}).doNothing().when(repo).replaceForUsers(any());
+
+		service.addViewedProduct(1L, 5L);
+		assertEquals(0, service.flush());
+		// the failed ring is written by the next flush
+		assertEquals(1, service.flush());
+
+		verify(repo, times(1)).findLastNByUser(1L, 10);
+		verify(repo, times(3)).replaceForUsers(any());
+	}
+
+	@Test
+	void ring_isLoadedFromStoredRowsOnAMiss() {
+
+		when(repo.findLastNByUser(5L, 10)).thenReturn(List.of(row(21L, 2), row(20L, 1)));
+
+		service.addViewedProduct(5L, 22L);
+
+		List<Long> recent = service.getRecentlyViewed(5L, 10).stream().map(RecentlyViewedResponse::getProductId)
+				.toList();
+		assertEquals(List.of(22L, 21L, 20L), recent);
+		verify(repo, times(1)).findLastNByUser(5L, 10);
+	}
+
+	@Test
+	void failedFlush_keepsTheChangesForTheNextOne() {
+
+		when(repo.findLastNByUser(anyLong(), eq(10))).thenReturn(List.of());
+		// the batch and the retry on its own both fail
+		doThrow(new RuntimeException("db down")).doThrow(new RuntimeException("db down")).doNothing().when(repo)
+				.replaceForUsers(any());
+
+		service.addViewedProduct(1L, 4L);
+		assertTrue(service.clearRecentlyViewed(1L));
+
+		assertEquals(0, service.flush());
+		assertEquals(1, service.flush());
+		// the same snapshot (cleared, so no rows) is written again
+		verify(repo, times(3)).replaceForUsers(Map.of(1L, List.of()));
+	}
+
+	@Test
+	void failedBatch_writesEachUserAndDropsTheRingThatStillFails() {
+
+		when(repo.findLastNByUser(anyLong(), eq(10))).thenReturn(List.of());
+		doAnswer(inv -> {
+			Map<Long, List<RecentlyViewed>> rings = inv.getArgument(0);
+			if (rings.containsKey(2L))
+				throw new IllegalStateException("row rejected");
+			return null;
+		}).when(repo).replaceForUsers(any());
+
+		service.addViewedProduct(1L, 10L);
+		service.addViewedProduct(2L, 20L);
+		service.addViewedProduct(3L, 30L);
+
+		assertEquals(2, service.flush());
+
+		verify(repo).replaceForUsers(argThat(rings -> rings.size() == 3));
+		verify(repo).replaceForUsers(argThat(rings -> rings.keySet().equals(Set.of(1L))));
+		verify(repo).replaceForUsers(argThat(rings -> rings.keySet().equals(Set.of(3L))));
+		verify(repo).replaceForUsers(argThat(rings -> rings.keySet().equals(Set.of(2L))));
+		// the dropped ring is not tried again, but still served from memory
+		assertEquals(0, service.flush());
+		verify(repo, times(4)).replaceForUsers(any());
+		assertEquals(List.of(20L), service.getRecentlyViewed(2L, 10).stream()
+				.map(RecentlyViewedResponse::getProductId).toList());
+	}
+
+	@Test
+	void view_ofAnUnknownProductOrUser_isRejected() {
+
+		when(searchIndex.categoryOf(99L)).thenReturn(ProductSearchIndex.NOT_INDEXED);
+		when(productService.getProductById(99L)).thenReturn(Optional.empty());
+		when(repo.findLastNByUser(7L, 10)).thenReturn(List.of());
+		when(userRepository.findById(7L)).thenReturn(Optional.empty());
+
+		assertThrows(ResourceNotFoundException.class, () -> service.addViewedProduct(1L, 99L));
+		assertThrows(ResourceNotFoundException.class, () -> service.addViewedProduct(7L, 5L));
+
+		assertEquals(0, service.flush());
+		verifyNoInteractions(trending);
+	}
+
+	private RecentlyViewedServiceImpl service(RecentlyViewedCache cache) {
+		return new RecentlyViewedServiceImpl(repo, cache, trending, userRepository, searchIndex, productService);
+	}
+
+	private static RecentlyViewed row(Long productId, int minutesAgo) {
+		RecentlyViewed rv = new RecentlyViewed();
+		rv.setProductId(productId);
+		rv.setViewedAt(LocalDateTime.now().minusMinutes(minutesAgo));
+		return rv;
+	}
+}
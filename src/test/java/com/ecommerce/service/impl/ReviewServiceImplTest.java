@@ -0,0 +1,174 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.RatingSummaryResponse;
+import com.ecommerce.dto.ReviewPageResponse;
+import com.ecommerce.dto.ReviewRequest;
+import com.ecommerce.enums.ReviewSort;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.RatingSummary;
+import com.ecommerce.model.Review;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.RatingSummaryRepository;
+import com.ecommerce.repository.ReviewRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ObjIntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewServiceImplTest {
+
+	@Mock
+	private ReviewRepository reviewRepository;
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private RatingSummaryRepository ratingSummaryRepository;
+
+	@InjectMocks
+	private ReviewServiceImpl reviewService;
+
+	@Test
+	void addReview_addsToSummary() {
+
+		when(productRepository.findById(7L)).thenReturn(Optional.of(new Product()));
+		ReviewRequest req = new ReviewRequest();
+		req.setProductId(7L);
+		req.setRating(4);
+
+		reviewService.addReview(1L, req);
+
+		verify(ratingSummaryRepository).applyDelta(7L, 4, 1);
+	}
+
+	@Test
+	void deleteReview_removesFromSummaryOnlyOnce() {
+
+		Review review = new Review();
+		review.setId(3L);
+		review.setProductId(7L);
+		review.setRating(2);
+		when(reviewRepository.findById(3L)).thenReturn(Optional.of(review));
+		when(reviewRepository.delete(3L, 1L)).thenReturn(true, false);
+
+		reviewService.deleteReview(3L, 1L);
+		reviewService.deleteReview(3L, 1L);
+
+		verify(ratingSummaryRepository, times(1)).applyDelta(7L, 2, -1);
+	}
+
+	@Test
+	void getReviewPage_pagesByKeysetAndTruncatesBodies() {
+
+		List<Review> rows = new ArrayList<>();
+		for (long id = 10; id > 7; id--)
+			rows.add(review(id, 5, "x".repeat(id == 10 ? 301 : 300)));
+		when(reviewRepository.findPage(7L, ReviewSort.HIGHEST, null, null, null, 301, 3)).thenReturn(rows);
+
+		ReviewPageResponse first = reviewService.getReviewPage(7L, ReviewSort.HIGHEST, "", 2);
+
+		assertEquals(List.of(10L, 9L), first.getItems().stream().map(r -> r.getId()).toList());
+		assertEquals(300, first.getItems().get(0).getBody().length());
+		assertTrue(first.getItems().get(0).isBodyTruncated());
+		assertFalse(first.getItems().get(1).isBodyTruncated());
+		assertNotNull(first.getNextCursor());
+
+		when(reviewRepository.findPage(eq(7L), eq(ReviewSort.HIGHEST), eq(5), any(), eq(9L), eq(301), eq(3)))
+				.thenReturn(List.of(rows.get(2)));
+		ReviewPageResponse second = reviewService.getReviewPage(7L, ReviewSort.HIGHEST, first.getNextCursor(), 2);
+
+		assertEquals(List.of(8L), second.getItems().stream().map(r -> r.getId()).toList());
+		assertNull(second.getNextCursor());
+
+		// a cursor only continues the order it came from
+		assertThrows(BadRequestException.class,
+				() -> reviewService.getReviewPage(7L, ReviewSort.NEWEST, first.getNextCursor(), 2));
+	}
+
+	@Test
+	void getRatingSummaries_fillsUnreviewedProductsWithZeros() {
+
+		RatingSummary s = new RatingSummary(1L);
+		s.add(5);
+		s.add(4);
+		s.add(4);
+		when(ratingSummaryRepository.findByProductIds(List.of(1L, 2L))).thenReturn(Map.of(1L, s));
+
+		Map<Long, RatingSummaryResponse> out = reviewService.getRatingSummaries(List.of(1L, 2L));
+
+		assertEquals(4.33, out.get(1L).getAverageRating());
+		assertArrayEquals(new int[] { 0, 0, 0, 2, 1 }, out.get(1L).getStars());
+		assertEquals(0, out.get(2L).getReviewCount());
+		assertEquals(0.0, out.get(2L).getAverageRating());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void rebuildRatingSummaries_aggregatesStreamAndDropsStaleRows() {
+
+		doAnswer(inv -> {
+			ObjIntConsumer<Long> sink = inv.getArgument(0);
+			// 1200 products with two reviews each, in product order
+			for (long id = 1; id <= 1200; id++) {
+				sink.accept(id, 5);
+				sink.accept(id, 3);
+			}
+			return null;
+		}).when(reviewRepository).streamActiveRatings(any());
+		when(ratingSummaryRepository.findAllProductIds()).thenReturn(List.of(5L, 1500L, 1600L));
+
+		List<RatingSummary> saved = new ArrayList<>();
+		doAnswer(inv -> saved.addAll(inv.getArgument(0))).when(ratingSummaryRepository).saveAll(anyList());
+
+		assertEquals(1200, reviewService.rebuildRatingSummaries());
+
+		assertEquals(1200, saved.size());
+		assertEquals(1L, saved.get(0).getProductId());
+		assertEquals(8L, saved.get(0).getRatingSum());
+		assertArrayEquals(new int[] { 0, 0, 1, 0, 1 }, saved.get(1199).getStars());
+
+		ArgumentCaptor<List<Long>> deleted = ArgumentCaptor.forClass(List.class);
+		verify(ratingSummaryRepository).deleteWithoutReviews(deleted.capture());
+		assertEquals(List.of(1500L, 1600L), deleted.getValue());
+	}
+
+	@Test
+	void backfillRatingSummaries_rebuildsOnlyAnEmptyTable() {
+
+		when(ratingSummaryRepository.isEmpty()).thenReturn(false, true);
+
+		reviewService.backfillRatingSummaries();
+		verify(reviewRepository, never()).streamActiveRatings(any());
+
+		reviewService.backfillRatingSummaries();
+		verify(reviewRepository).streamActiveRatings(any());
+	}
+
+	private static Review review(long id, int rating, String body) {
+		Review r = new Review();
+		r.setId(id);
+		r.setProductId(7L);
+		r.setRating(rating);
+		r.setBody(body);
+		r.setCreatedAt(Timestamp.valueOf("2025-01-01 10:00:00"));
+		return r;
+	}
+}
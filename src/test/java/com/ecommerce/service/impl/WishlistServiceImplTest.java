@@ -0,0 +1,95 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.dto.ProductResponse;
+import com.ecommerce.dto.WishlistResponse;
+import com.ecommerce.enums.UserRole;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.model.User;
+import com.ecommerce.model.WishlistItem;
+import com.ecommerce.repository.WishlistRepository;
+import com.ecommerce.service.ProductService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WishlistServiceImplTest {
+
+	@Mock
+	private WishlistRepository wishlistRepository;
+
+	@Mock
+	private ProductService productService;
+
+	@InjectMocks
+	private WishlistServiceImpl wishlistService;
+
+	@Test
+	void getUserWishlist_isOneQueryWhateverTheSize() {
+
+		List<WishlistResponse> rows = new ArrayList<>();
+		for (long id = 1; id <= 100; id++)
+			rows.add(new WishlistResponse(id, 5L, id, "Product " + id, 10.0, null, LocalDateTime.now()));
+		when(wishlistRepository.findResponsesByUserId(5L)).thenReturn(rows);
+
+		assertEquals(100, wishlistService.getUserWishlist(5L).size());
+
+		verify(wishlistRepository, times(1)).findResponsesByUserId(5L);
+		verifyNoMoreInteractions(wishlistRepository);
+		verifyNoInteractions(productService);
+	}
+
+	@Test
+	void addToWishlist_takesRoleFromPrincipalAndProductFromCache() {
+
+		ProductResponse product = new ProductResponse();
+		product.setId(9L);
+		product.setName("Lamp");
+		product.setSellingPrice(49.0);
+		product.setImage("/product-images/objects/lamp.jpg");
+		when(productService.getProductById(9L)).thenReturn(Optional.of(product));
+		WishlistItem item = new WishlistItem();
+		item.setId(3L);
+		item.setUserId(5L);
+		item.setProductId(9L);
+		when(wishlistRepository.add(5L, 9L)).thenReturn(item);
+
+		WishlistResponse r = wishlistService.addToWishlist(user(5L, UserRole.CUSTOMER), 9L);
+
+		assertEquals("Lamp", r.getProductName());
+		assertEquals(49.0, r.getPrice());
+		assertEquals("/product-images/objects/lamp.jpg", r.getImage());
+		// the write is the only repository call
+		verify(wishlistRepository, times(1)).add(5L, 9L);
+		verifyNoMoreInteractions(wishlistRepository);
+	}
+
+	@Test
+	void addToWishlist_rejectsNonCustomersWithoutAnyQuery() {
+
+		assertThrows(BadRequestException.class,
+				() -> wishlistService.addToWishlist(user(6L, UserRole.SHOPKEEPER), 9L));
+
+		verifyNoInteractions(wishlistRepository, productService);
+	}
+
+	private static User user(Long id, UserRole role) {
+		User u = new User();
+		u.setId(id);
+		u.setRole(role);
+		return u;
+	}
+}
@@ -0,0 +1,128 @@
+package com.ecommerce.trending;
+
+import com.ecommerce.cache.CategoryTree;
+import com.ecommerce.cache.CategoryTreeCache;
+import com.ecommerce.dto.TrendingProductResponse;
+import com.ecommerce.enums.TrendingWindow;
+import com.ecommerce.model.Category;
+import com.ecommerce.search.ProductSearchIndex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingProductsTest {
+
+	private static final long MINUTE = 60_000L;
+
+	@Mock
+	private ProductSearchIndex index;
+
+	@Mock
+	private CategoryTreeCache categoryTree;
+
+	private long now = 1_000 * 3_600_000L;
+
+	private TrendingProducts trending;
+
+	@BeforeEach
+	void setup() {
+		// Clothing(1) > Shirts(2); Electronics(3)
+		lenient().when(categoryTree.current()).thenReturn(CategoryTree.build(
+				List.of(category(1L, null, "Clothing"), category(2L, 1L, "Shirts"), category(3L, null, "Electronics"))));
+		when(index.isReady()).thenReturn(true);
+		// products 1xx are shirts, 3xx electronics
+		lenient().when(index.categoryOf(anyLong())).thenAnswer(inv -> {
+			long id = inv.getArgument(0);
+			return id >= 300 ? 3L : 2L;
+		});
+
+		trending = new TrendingProducts(index, categoryTree, 1024, 8, () -> now);
+	}
+
+	@Test
+	void top_weighsEventsAndRollsUpToParentCategories() {
+
+		trending.recordView(101L);
+		trending.recordView(101L);
+		trending.recordAddToCart(102L);
+		trending.recordOrder(301L, 2);
+
+		assertEquals(List.of(301L, 102L, 101L), ids(trending.top(TrendingWindow.HOUR, null, 10)));
+		assertEquals(10, trending.top(TrendingWindow.HOUR, null, 1).get(0).getScore());
+		// shirts are also clothing, electronics are neither
+		assertEquals(List.of(102L, 101L), ids(trending.top(TrendingWindow.HOUR, 1L, 10)));
+		assertEquals(List.of(102L, 101L), ids(trending.top(TrendingWindow.HOUR, 2L, 10)));
+		assertEquals(List.of(301L), ids(trending.top(TrendingWindow.HOUR, 3L, 10)));
+		assertEquals(List.of(), trending.top(TrendingWindow.HOUR, 99L, 10));
+	}
+
+	@Test
+	void top_forgetsEventsOnceTheyLeaveTheWindow() {
+
+		trending.recordOrder(301L, 1);
+		now += 30 * MINUTE;
+		trending.recordView(101L);
+
+		assertEquals(List.of(301L, 101L), ids(trending.top(TrendingWindow.HOUR, null, 10)));
+
+		// the order is now over an hour old, the view is not
+		now += 35 * MINUTE;
+		assertEquals(List.of(101L), ids(trending.top(TrendingWindow.HOUR, null, 10)));
+		assertEquals(List.of(301L, 101L), ids(trending.top(TrendingWindow.DAY, null, 10)));
+
+		now += 25 * 60 * MINUTE;
+		assertEquals(List.of(), trending.top(TrendingWindow.DAY, null, 10));
+	}
+
+	@Test
+	void shelf_keepsOnlyTheBusiestProducts() {
+
+		// a long tail of single views, then a few popular products; the
+		// category shelf holds 50 (the largest limit) whatever was configured
+		for (long p = 300; p < 800; p++)
+			trending.recordView(p);
+		for (int i = 0; i < 3; i++) {
+			trending.recordView(900L);
+			trending.recordView(901L);
+		}
+		trending.recordView(900L);
+
+		List<TrendingProductResponse> top = trending.top(TrendingWindow.HOUR, 3L, 100);
+		assertEquals(TrendingProducts.MAX_LIMIT, top.size());
+		assertEquals(List.of(900L, 901L), ids(top.subList(0, 2)));
+		assertEquals(4, top.get(0).getScore());
+	}
+
+	@Test
+	void top_skipsProductsNoLongerInTheIndex() {
+
+		trending.recordView(101L);
+		trending.recordView(102L);
+		when(index.categoryOf(102L)).thenReturn(ProductSearchIndex.NOT_INDEXED);
+
+		assertEquals(List.of(101L), ids(trending.top(TrendingWindow.HOUR, null, 10)));
+	}
+
+	private static List<Long> ids(List<TrendingProductResponse> list) {
+		return list.stream().map(TrendingProductResponse::getProductId).toList();
+	}
+
+	private static Category category(Long id, Long parentId, String name) {
+		Category c = new Category();
+		c.setId(id);
+		c.setParentCategoryId(parentId);
+		c.setName(name);
+		return c;
+	}
+}
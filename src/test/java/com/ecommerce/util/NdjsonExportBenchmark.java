@@ -0,0 +1,131 @@
+package com.ecommerce.util;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductImageRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.impl.ProductRepositoryImpl;
+import com.ecommerce.service.impl.ProductServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Not a unit test (surefire skips it). Run with:
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ecommerce.util.NdjsonExportBenchmark
+// Compares the streamed NDJSON product export with the old load-everything
+// list on a synthetic table (-Dbench.rows, default 500k). Run it with a small
+// heap (e.g. -Xmx128m) to see the difference in memory: the streamed export
+// completes, the list variant runs out of memory. Add
+// -Dbench.jdbcUrl=jdbc:mysql://... -Dbench.user=... -Dbench.password=... to
+// also stream the real products table.
+public class NdjsonExportBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int rows = Integer.getInteger("bench.rows", 500_000);
+		ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+		ProductRepository repo = mock(ProductRepository.class);
+		doAnswer(inv -> {
+			Consumer<Product> sink = inv.getArgument(0);
+			for (int i = 1; i <= rows; i++)
+				sink.accept(product(i));
+			return null;
+		}).when(repo).streamAll(any());
+		when(repo.findAll()).thenAnswer(inv -> {
+			List<Product> all = new ArrayList<>(rows);
+			for (int i = 1; i <= rows; i++)
+				all.add(product(i));
+			return all;
+		});
+		ProductImageRepository images = mock(ProductImageRepository.class);
+		when(images.findPrimaryImagePaths(anyCollection())).thenReturn(Map.of());
+
+		ProductServiceImpl service = new ProductServiceImpl(repo, images, null, null, null, null, null);
+
+		// each variant runs once to warm up, then once timed
+		long nanos = 0;
+		CountingStream streamed = null;
+		for (int run = 0; run < 2; run++) {
+			streamed = new CountingStream();
+			long start = System.nanoTime();
+			try (NdjsonWriter writer = new NdjsonWriter(mapper, streamed)) {
+				service.exportProducts(writer::write);
+			}
+			nanos = System.nanoTime() - start;
+		}
+		report("streamed", rows, streamed.bytes, nanos);
+
+		CountingStream list = null;
+		for (int run = 0; run < 2; run++) {
+			list = new CountingStream();
+			long start = System.nanoTime();
+			mapper.writeValue(list, service.getAllProducts());
+			nanos = System.nanoTime() - start;
+		}
+		report("list", rows, list.bytes, nanos);
+
+		String url = System.getProperty("bench.jdbcUrl");
+		if (url != null) {
+			DriverManagerDataSource ds = new DriverManagerDataSource(url, System.getProperty("bench.user"),
+					System.getProperty("bench.password"));
+			ProductRepositoryImpl sql = new ProductRepositoryImpl(new JdbcTemplate(ds));
+			CountingStream dbOut = new CountingStream();
+			long[] count = new long[1];
+			long start = System.nanoTime();
+			try (NdjsonWriter writer = new NdjsonWriter(mapper, dbOut)) {
+				sql.streamAll(p -> {
+					writer.write(p);
+					count[0]++;
+				});
+			}
+			report("mysql", count[0], dbOut.bytes, System.nanoTime() - start);
+		}
+	}
+
+	private static void report(String label, long rows, long bytes, long nanos) {
+		System.out.printf("%-9s %,d rows  %,.0f rows/s  %,d MB written%n", label, rows, rows / (nanos / 1e9),
+				bytes >> 20);
+	}
+
+	private static Product product(int i) {
+		Product p = new Product();
+		p.setId((long) i);
+		p.setShopId(1L + i % 500);
+		p.setCategoryId(1L + i % 40);
+		p.setSku(String.format("SKU%08d", i));
+		p.setName("Product " + i);
+		p.setShortDescription("Short description of product " + i);
+		p.setDescription("A longer description of product " + i + " with enough text to look like a real listing.");
+		p.setSellingPrice(99.0 + i % 5000);
+		p.setMrp(199.0 + i % 5000);
+		p.setIsActive(true);
+		p.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i));
+		return p;
+	}
+
+	private static final class CountingStream extends OutputStream {
+		long bytes;
+
+		@Override
+		public void write(int b) {
+			bytes++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			bytes += len;
+		}
+	}
+}